@@ -0,0 +1,81 @@
+package com.fpt.evcare.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fpt.evcare.constants.CacheConstants;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.BatchStrategies;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Configuration
+public class CacheConfig {
+
+    private static final String KEY_PREFIX = "cache:";
+    // Near-cache tối đa 1 phút để giới hạn dữ liệu cũ nếu mất thông báo pub/sub
+    private static final Duration LOCAL_MAX_TTL = Duration.ofMinutes(1);
+    private static final long LOCAL_MAXIMUM_SIZE = 1_000;
+
+    // TTL ở Redis cho từng cache
+    private static final Map<String, Duration> CACHE_TTLS = new LinkedHashMap<>();
+
+    static {
+        CACHE_TTLS.put(CacheConstants.VEHICLE_TYPES, Duration.ofMinutes(30));
+        CACHE_TTLS.put(CacheConstants.VEHICLE_TYPE_LISTS, Duration.ofMinutes(30));
+        CACHE_TTLS.put(CacheConstants.SERVICE_TYPE_PARENTS, Duration.ofMinutes(30));
+        CACHE_TTLS.put(CacheConstants.SERVICE_TYPE_CHILDREN, Duration.ofMinutes(30));
+        CACHE_TTLS.put(CacheConstants.VEHICLE_PART_CATEGORIES, Duration.ofMinutes(10));
+        CACHE_TTLS.put(CacheConstants.VEHICLE_PART_CATEGORY_LISTS, Duration.ofMinutes(10));
+        CACHE_TTLS.put(CacheConstants.ROLES, Duration.ofHours(6));
+        CACHE_TTLS.put(CacheConstants.ROLE_LISTS, Duration.ofHours(6));
+    }
+
+    @Bean
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory, ObjectMapper objectMapper,
+                                     StringRedisTemplate stringRedisTemplate,
+                                     RedisMessageListenerContainer redisMessageListenerContainer) {
+        // Bản sao ObjectMapper có type info để đọc lại đúng kiểu DTO từ Redis
+        GenericJackson2JsonRedisSerializer serializer = GenericJackson2JsonRedisSerializer.builder()
+                .objectMapper(objectMapper.copy())
+                .defaultTyping(true)
+                .build();
+
+        RedisCacheConfiguration defaults = RedisCacheConfiguration.defaultCacheConfig()
+                .prefixCacheNameWith(KEY_PREFIX)
+                .disableCachingNullValues()
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(serializer));
+
+        Map<String, RedisCacheConfiguration> redisConfigurations = new LinkedHashMap<>();
+        CACHE_TTLS.forEach((name, ttl) -> redisConfigurations.put(name, defaults.entryTtl(ttl)));
+
+        RedisCacheManager redisCacheManager = RedisCacheManager
+                .builder(RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory, BatchStrategies.scan(100)))
+                .cacheDefaults(defaults)
+                .withInitialCacheConfigurations(redisConfigurations)
+                .disableCreateOnMissingCache()
+                .build();
+
+        TieredCacheManager cacheManager = new TieredCacheManager(CACHE_TTLS, LOCAL_MAX_TTL, LOCAL_MAXIMUM_SIZE,
+                redisCacheManager, stringRedisTemplate, redisMessageListenerContainer);
+        // Xóa cache sau khi transaction commit để request khác không nạp lại dữ liệu cũ
+        cacheManager.setTransactionAware(true);
+        return cacheManager;
+    }
+
+    @Bean
+    public CacheMeterBinderProvider<TieredCache> tieredCacheMeterBinderProvider() {
+        return TieredCacheMeterBinder::new;
+    }
+}
@@ -0,0 +1,134 @@
+package com.fpt.evcare.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.AbstractSubscribableChannel;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Nối simple broker của các instance qua Redis pub/sub để chạy nhiều backend sau load balancer
+ * - Tin nhắn server gửi tới /user/** hoặc /topic/** được publish lên Redis trước khi giao cho session ở instance này
+ * - Instance khác nhận lại và đưa vào brokerChannel của mình: UserDestinationMessageHandler / simple broker
+ *   giao cho các session đang kết nối ở instance đó (không có session nào thì bỏ qua)
+ * - Destination đã resolve theo session (/queue/...-user{sessionId}) chỉ có nghĩa ở instance hiện tại nên không relay
+ */
+@Slf4j
+@Component
+public class RedisStompBrokerBridge implements ChannelInterceptor, MessageListener {
+
+    private static final String CHANNEL = "websocket:broker:relay";
+    // Đánh dấu tin nhắn nhận từ instance khác để không publish lại
+    private static final String RELAYED_HEADER = "evcareRelayed";
+    private static final String USER_DESTINATION_PREFIX = "/user/";
+    private static final String TOPIC_DESTINATION_PREFIX = "/topic/";
+
+    private final AbstractSubscribableChannel brokerChannel;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+
+    // Bỏ qua thông báo do chính instance này gửi
+    private final String instanceId = UUID.randomUUID().toString();
+
+    public RedisStompBrokerBridge(@Qualifier("brokerChannel") AbstractSubscribableChannel brokerChannel,
+                                  StringRedisTemplate stringRedisTemplate,
+                                  RedisMessageListenerContainer redisMessageListenerContainer,
+                                  ObjectMapper objectMapper,
+                                  @Value("${websocket.cluster.enabled:true}") boolean enabled) {
+        this.brokerChannel = brokerChannel;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.redisMessageListenerContainer = redisMessageListenerContainer;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        if (!enabled) {
+            log.info("WebSocket cluster relay disabled, messages only reach sessions on this instance");
+            return;
+        }
+        brokerChannel.addInterceptor(this);
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        if (accessor.getMessageType() != SimpMessageType.MESSAGE || accessor.getHeader(RELAYED_HEADER) != null) {
+            return message;
+        }
+        String destination = accessor.getDestination();
+        if (destination == null
+                || !(destination.startsWith(USER_DESTINATION_PREFIX) || destination.startsWith(TOPIC_DESTINATION_PREFIX))) {
+            return message;
+        }
+        byte[] payload = payloadBytes(message.getPayload());
+        if (payload == null) {
+            log.debug("Skip relaying {}: unsupported payload type {}", destination, message.getPayload().getClass());
+            return message;
+        }
+        MimeType contentType = accessor.getContentType();
+        publish(new RelayedMessage(instanceId, destination, contentType != null ? contentType.toString() : null, payload));
+        return message;
+    }
+
+    private void publish(RelayedMessage relayedMessage) {
+        try {
+            stringRedisTemplate.convertAndSend(CHANNEL, objectMapper.writeValueAsString(relayedMessage));
+        } catch (Exception e) {
+            log.warn("Cannot relay WebSocket message to {} to other instances: {}", relayedMessage.destination(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(org.springframework.data.redis.connection.Message message, byte[] pattern) {
+        try {
+            RelayedMessage relayedMessage = objectMapper.readValue(message.getBody(), RelayedMessage.class);
+            if (instanceId.equals(relayedMessage.origin())) {
+                return;
+            }
+            SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            accessor.setDestination(relayedMessage.destination());
+            if (relayedMessage.contentType() != null) {
+                accessor.setContentType(MimeType.valueOf(relayedMessage.contentType()));
+            }
+            accessor.setHeader(RELAYED_HEADER, relayedMessage.origin());
+            accessor.setLeaveMutable(true);
+            brokerChannel.send(MessageBuilder.createMessage(relayedMessage.payload(), accessor.getMessageHeaders()));
+        } catch (Exception e) {
+            log.warn("Invalid relayed WebSocket message: {}", e.getMessage());
+        }
+    }
+
+    private static byte[] payloadBytes(Object payload) {
+        if (payload instanceof byte[] bytes) {
+            return bytes;
+        }
+        if (payload instanceof String text) {
+            return text.getBytes(StandardCharsets.UTF_8);
+        }
+        return null;
+    }
+
+    record RelayedMessage(String origin, String destination, String contentType, byte[] payload) {
+    }
+}
@@ -88,6 +88,9 @@ public class SecurityConfig {
                         .requestMatchers("/api/v1/messages/**").authenticated()
                         // OAuth2 user info endpoint (cần OAuth2 authentication)
                         .requestMatchers(AuthConstants.GET_USER_INFO).authenticated()
+                        // Actuator: health chỉ cần đăng nhập, metrics/caches (xem, xóa cache) chỉ ADMIN
+                        .requestMatchers("/actuator/health", "/actuator/health/**").authenticated()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         // All other requests need authentication
                         .anyRequest().authenticated()
                 )
@@ -0,0 +1,172 @@
+package com.fpt.evcare.config;
+
+import com.fpt.evcare.constants.CacheConstants;
+import com.github.benmanes.caffeine.cache.Cache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * Cache 2 tầng: Caffeine trong bộ nhớ (near-cache) phía trước Redis
+ * - Đọc: Caffeine -> Redis -> gọi method gốc; giá trị lấy từ Redis được nạp lại vào Caffeine
+ * - Ghi/xóa: cập nhật cả 2 tầng, xóa thì báo cho các instance khác bỏ bản Caffeine của họ
+ * - Redis lỗi thì coi như miss, request vẫn chạy bằng database
+ */
+@Slf4j
+public class TieredCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+    private final Cache<Object, Object> localCache;
+    private final org.springframework.cache.Cache remoteCache;
+    // (cacheName, key) - key null nghĩa là xóa toàn bộ cache
+    private final BiConsumer<String, Object> invalidationPublisher;
+
+    private final LongAdder localHits = new LongAdder();
+    private final LongAdder remoteHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public TieredCache(String name, Cache<Object, Object> localCache, org.springframework.cache.Cache remoteCache,
+                       BiConsumer<String, Object> invalidationPublisher) {
+        super(false);
+        this.name = name;
+        this.localCache = localCache;
+        this.remoteCache = remoteCache;
+        this.invalidationPublisher = invalidationPublisher;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return localCache;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        Object value = localCache.getIfPresent(key);
+        if (value != null) {
+            localHits.increment();
+            return value;
+        }
+
+        value = remoteGet(key);
+        if (value != null) {
+            remoteHits.increment();
+            localCache.put(key, value);
+            return value;
+        }
+
+        misses.increment();
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        try {
+            T value = valueLoader.call();
+            put(key, value);
+            return value;
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        // Không cache null: các service ném ResourceNotFoundException thay vì trả null
+        if (value == null) {
+            return;
+        }
+        puts.increment();
+        localCache.put(key, value);
+        try {
+            remoteCache.put(key, value);
+        } catch (Exception e) {
+            log.warn(CacheConstants.LOG_WARN_REDIS_CACHE_UNAVAILABLE, name, e.getMessage());
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        evictions.increment();
+        try {
+            remoteCache.evict(key);
+        } catch (Exception e) {
+            log.warn(CacheConstants.LOG_WARN_REDIS_CACHE_UNAVAILABLE, name, e.getMessage());
+        }
+        localCache.invalidate(key);
+        invalidationPublisher.accept(name, key);
+    }
+
+    @Override
+    public void clear() {
+        evictions.increment();
+        try {
+            remoteCache.clear();
+        } catch (Exception e) {
+            log.warn(CacheConstants.LOG_WARN_REDIS_CACHE_UNAVAILABLE, name, e.getMessage());
+        }
+        localCache.invalidateAll();
+        invalidationPublisher.accept(name, null);
+    }
+
+    /**
+     * Chỉ xóa bản Caffeine - dùng khi instance khác báo dữ liệu đã thay đổi (Redis đã được instance đó xóa)
+     * Key nhận qua pub/sub ở dạng chuỗi nên so khớp theo String.valueOf của key
+     */
+    public void evictLocal(String key) {
+        if (key == null) {
+            localCache.invalidateAll();
+            return;
+        }
+        localCache.asMap().keySet().removeIf(localKey -> Objects.equals(String.valueOf(localKey), key));
+    }
+
+    private Object remoteGet(Object key) {
+        try {
+            ValueWrapper wrapper = remoteCache.get(key);
+            return wrapper != null ? wrapper.get() : null;
+        } catch (Exception e) {
+            log.warn(CacheConstants.LOG_WARN_REDIS_CACHE_UNAVAILABLE, name, e.getMessage());
+            return null;
+        }
+    }
+
+    public long getLocalHitCount() {
+        return localHits.sum();
+    }
+
+    public long getRemoteHitCount() {
+        return remoteHits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getPutCount() {
+        return puts.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public long getLocalSize() {
+        return localCache.estimatedSize();
+    }
+}
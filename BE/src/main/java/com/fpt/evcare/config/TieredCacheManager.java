@@ -0,0 +1,110 @@
+package com.fpt.evcare.config;
+
+import com.fpt.evcare.constants.CacheConstants;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.transaction.AbstractTransactionSupportingCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Tạo TieredCache cho từng cache đã khai báo (TTL riêng cho mỗi cache)
+ * và đồng bộ near-cache giữa các instance qua Redis pub/sub
+ */
+@Slf4j
+public class TieredCacheManager extends AbstractTransactionSupportingCacheManager implements MessageListener {
+
+    private static final String SEPARATOR = "|";
+    private static final String ALL_KEYS = "*";
+
+    private final Map<String, Duration> cacheTtls;
+    private final Duration localMaxTtl;
+    private final long localMaximumSize;
+    private final RedisCacheManager redisCacheManager;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+
+    // Bỏ qua thông báo do chính instance này gửi
+    private final String instanceId = UUID.randomUUID().toString();
+
+    public TieredCacheManager(Map<String, Duration> cacheTtls, Duration localMaxTtl, long localMaximumSize,
+                              RedisCacheManager redisCacheManager, StringRedisTemplate stringRedisTemplate,
+                              RedisMessageListenerContainer redisMessageListenerContainer) {
+        this.cacheTtls = cacheTtls;
+        this.localMaxTtl = localMaxTtl;
+        this.localMaximumSize = localMaximumSize;
+        this.redisCacheManager = redisCacheManager;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.redisMessageListenerContainer = redisMessageListenerContainer;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        redisCacheManager.afterPropertiesSet();
+        super.afterPropertiesSet();
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(CacheConstants.INVALIDATION_CHANNEL));
+    }
+
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        List<Cache> caches = new ArrayList<>();
+        cacheTtls.forEach((name, ttl) -> caches.add(createCache(name, ttl)));
+        return caches;
+    }
+
+    private TieredCache createCache(String name, Duration ttl) {
+        // Near-cache sống ngắn hơn Redis để giới hạn thời gian dữ liệu cũ nếu mất thông báo pub/sub
+        Duration localTtl = ttl.compareTo(localMaxTtl) < 0 ? ttl : localMaxTtl;
+        return new TieredCache(
+                name,
+                Caffeine.newBuilder()
+                        .expireAfterWrite(localTtl)
+                        .maximumSize(localMaximumSize)
+                        .build(),
+                redisCacheManager.getCache(name),
+                this::publishInvalidation);
+    }
+
+    private void publishInvalidation(String cacheName, Object key) {
+        String payload = instanceId + SEPARATOR + cacheName + SEPARATOR + (key != null ? String.valueOf(key) : ALL_KEYS);
+        try {
+            stringRedisTemplate.convertAndSend(CacheConstants.INVALIDATION_CHANNEL, payload);
+        } catch (Exception e) {
+            log.warn(CacheConstants.LOG_WARN_CANNOT_PUBLISH_INVALIDATION, cacheName, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            String payload = new String(message.getBody(), StandardCharsets.UTF_8);
+            String[] parts = payload.split("\\" + SEPARATOR, 3);
+            if (parts.length < 3 || parts[0].equals(instanceId)) {
+                return;
+            }
+            Cache cache = lookupCache(parts[1]);
+            if (cache instanceof TransactionAwareCacheDecorator decorator) {
+                cache = decorator.getTargetCache();
+            }
+            if (cache instanceof TieredCache tieredCache) {
+                tieredCache.evictLocal(ALL_KEYS.equals(parts[2]) ? null : parts[2]);
+            }
+        } catch (Exception e) {
+            log.warn(CacheConstants.LOG_WARN_INVALID_INVALIDATION_MESSAGE, e.getMessage());
+        }
+    }
+}
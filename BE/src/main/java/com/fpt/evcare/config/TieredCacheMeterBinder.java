@@ -0,0 +1,62 @@
+package com.fpt.evcare.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+/**
+ * Metric chuẩn cache.gets/cache.puts/cache.evictions cho TieredCache
+ * cộng thêm cache.tier.hits tách riêng số hit ở Caffeine và ở Redis
+ */
+public class TieredCacheMeterBinder extends CacheMeterBinder<TieredCache> {
+
+    public TieredCacheMeterBinder(TieredCache cache, Iterable<Tag> tags) {
+        super(cache, cache.getName(), tags);
+    }
+
+    @Override
+    protected Long size() {
+        TieredCache cache = getCache();
+        return cache != null ? cache.getLocalSize() : null;
+    }
+
+    @Override
+    protected long hitCount() {
+        TieredCache cache = getCache();
+        return cache != null ? cache.getLocalHitCount() + cache.getRemoteHitCount() : 0L;
+    }
+
+    @Override
+    protected Long missCount() {
+        TieredCache cache = getCache();
+        return cache != null ? cache.getMissCount() : null;
+    }
+
+    @Override
+    protected Long evictionCount() {
+        TieredCache cache = getCache();
+        return cache != null ? cache.getEvictionCount() : null;
+    }
+
+    @Override
+    protected long putCount() {
+        TieredCache cache = getCache();
+        return cache != null ? cache.getPutCount() : 0L;
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        TieredCache cache = getCache();
+        FunctionCounter.builder("cache.tier.hits", cache, TieredCache::getLocalHitCount)
+                .tags(getTagsWithCacheName())
+                .tag("tier", "local")
+                .description("The number of times cache lookup was served from the in-memory near-cache")
+                .register(registry);
+        FunctionCounter.builder("cache.tier.hits", cache, TieredCache::getRemoteHitCount)
+                .tags(getTagsWithCacheName())
+                .tag("tier", "redis")
+                .description("The number of times cache lookup was served from Redis")
+                .register(registry);
+    }
+}
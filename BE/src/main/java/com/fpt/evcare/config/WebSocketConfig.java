@@ -1,7 +1,9 @@
 package com.fpt.evcare.config;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.*;
 
@@ -10,8 +12,36 @@ import org.springframework.web.socket.config.annotation.*;
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    // Inbound: xử lý @MessageMapping (ghi database) nên cần nhiều thread hơn số CPU
+    @Value("${websocket.channels.inbound-pool-size:16}")
+    private int inboundPoolSize;
+
+    // Outbound: chỉ ghi frame ra socket, tin nhắn đã được serialize sẵn ở WebSocketDeliveryService
+    @Value("${websocket.channels.outbound-pool-size:8}")
+    private int outboundPoolSize;
+
+    @Value("${websocket.channels.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(inboundPoolSize)
+                .maxPoolSize(inboundPoolSize)
+                .queueCapacity(queueCapacity);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(outboundPoolSize)
+                .maxPoolSize(outboundPoolSize)
+                .queueCapacity(queueCapacity);
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
+        // Simple broker ở mỗi instance, nối với nhau qua Redis (xem RedisStompBrokerBridge, websocket.cluster.enabled)
         config.enableSimpleBroker("/topic", "/queue"); 
         config.setApplicationDestinationPrefixes("/app");
         config.setUserDestinationPrefix("/user");
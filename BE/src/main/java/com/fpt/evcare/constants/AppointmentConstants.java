@@ -153,6 +153,20 @@ public class AppointmentConstants {
     public static final String EMAIL_BODY_PENDING_PAYMENT_TOTAL_AMOUNT = "- Tổng tiền: %s VNĐ\n\n";
     public static final String EMAIL_BODY_PENDING_PAYMENT_FOOTER = "Vui lòng thanh toán theo hóa đơn đính kèm để hoàn tất dịch vụ.\n\nTrân trọng,\nEV Care Team";
 
+    // Email Content - REMINDER (nhắc lịch trước giờ hẹn)
+    public static final String EMAIL_SUBJECT_REMINDER = "Nhắc lịch hẹn bảo dưỡng xe điện";
+    public static final String EMAIL_BODY_REMINDER_GREETING = "Xin chào %s,\n\n";
+    public static final String EMAIL_BODY_REMINDER_CONTENT = "Chúng tôi xin nhắc bạn về lịch hẹn bảo dưỡng xe điện sắp tới.\n\n";
+    public static final String EMAIL_BODY_REMINDER_APPOINTMENT_INFO = "Thông tin cuộc hẹn:\n";
+    public static final String EMAIL_BODY_REMINDER_APPOINTMENT_ID = "- Mã cuộc hẹn: %s\n";
+    public static final String EMAIL_BODY_REMINDER_VEHICLE = "- Biển số xe: %s\n";
+    public static final String EMAIL_BODY_REMINDER_TIME = "- Thời gian hẹn: %s\n\n";
+    public static final String EMAIL_BODY_REMINDER_FOOTER = "Vui lòng đến đúng giờ hẹn. Nếu cần đổi lịch, hãy liên hệ với chúng tôi.\n\nTrân trọng,\nEV Care Team";
+    public static final String NOTIFICATION_TITLE_REMINDER = "Nhắc lịch hẹn";
+    public static final String NOTIFICATION_CONTENT_REMINDER = "Xe %s có lịch hẹn bảo dưỡng lúc %s";
+    public static final String LOG_INFO_SENT_APPOINTMENT_REMINDERS = "Đã gửi nhắc lịch cho {} cuộc hẹn";
+    public static final String LOG_ERR_FAILED_SEND_APPOINTMENT_REMINDER = "Failed to send reminder for appointment {}: {}";
+
 
     // Success Logs
     public static final String LOG_SUCCESS_SHOWING_APPOINTMENT = "Lấy lịch hẹn thành công: {}";
@@ -252,4 +266,15 @@ public class AppointmentConstants {
     public static final String MESSAGE_SUCCESS_CHECKING_WARRANTY_ELIGIBILITY = "Kiểm tra bảo hành thành công";
     public static final String LOG_INFO_CHECKING_WARRANTY_ELIGIBILITY = "Đang kiểm tra bảo hành cho customer";
     public static final String LOG_SUCCESS_CHECKED_WARRANTY_ELIGIBILITY = "Kiểm tra bảo hành thành công";
+
+    // Appointment list view (read-side projection)
+    public static final String APPOINTMENT_LIST_VIEW = "/list-view/";
+    public static final String APPOINTMENT_LIST_VIEW_BY_USER_ID = "/list-view/user/{user-id}";
+    public static final String APPOINTMENT_LIST_CURSOR = "/cursor";
+    public static final String MESSAGE_ERR_INVALID_DATE_FILTER = "Ngày lọc không hợp lệ (định dạng yyyy-MM-dd)";
+    public static final String LOG_ERR_INVALID_DATE_FILTER = "Ngày lọc không hợp lệ: {}";
+    public static final String LOG_INFO_SHOWING_APPOINTMENT_LIST_VIEW = "Đang lấy danh sách lịch hẹn từ appointment_list_view";
+    public static final String LOG_INFO_SHOWING_USER_APPOINTMENT_LIST_VIEW = "Đang lấy danh sách lịch hẹn từ appointment_list_view của người dùng: {}";
+    public static final String LOG_INFO_REFRESHED_APPOINTMENT_LIST_VIEW = "Đã cập nhật {} dòng trong appointment_list_view";
+    public static final String LOG_INFO_REBUILT_APPOINTMENT_LIST_VIEW = "Đã dựng lại appointment_list_view cho {} cuộc hẹn, xóa {} dòng không còn cuộc hẹn gốc";
 }
@@ -0,0 +1,30 @@
+package com.fpt.evcare.constants;
+
+public class CacheConstants {
+
+    private CacheConstants() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    // Tên cache (dữ liệu danh mục dùng cho trang đặt lịch công khai)
+    public static final String VEHICLE_TYPES = "vehicleTypes";
+    public static final String VEHICLE_TYPE_LISTS = "vehicleTypeLists";
+    public static final String SERVICE_TYPE_PARENTS = "serviceTypeParents";
+    public static final String SERVICE_TYPE_CHILDREN = "serviceTypeChildren";
+    public static final String VEHICLE_PART_CATEGORIES = "vehiclePartCategories";
+    public static final String VEHICLE_PART_CATEGORY_LISTS = "vehiclePartCategoryLists";
+    public static final String ROLES = "roles";
+    public static final String ROLE_LISTS = "roleLists";
+
+    // Key cố định cho các danh sách không có tham số
+    public static final String KEY_ALL = "'all'";
+    public static final String KEY_FOR_SERVICE_TYPE = "'forServiceType'";
+
+    // Kênh Redis pub/sub để xóa near-cache trên các instance khác
+    public static final String INVALIDATION_CHANNEL = "cache:invalidate";
+
+    // Log
+    public static final String LOG_WARN_REDIS_CACHE_UNAVAILABLE = "Redis cache {} unavailable, falling back to local/database: {}";
+    public static final String LOG_WARN_CANNOT_PUBLISH_INVALIDATION = "Cannot publish cache invalidation for {}: {}";
+    public static final String LOG_WARN_INVALID_INVALIDATION_MESSAGE = "Invalid cache invalidation message: {}";
+}
@@ -7,6 +7,7 @@ public class MessageConstants {
     public static final String MESSAGE_SUCCESS_MARK_READ = "Đánh dấu đã đọc thành công";
     public static final String MESSAGE_SUCCESS_MARK_DELIVERED = "Đánh dấu đã nhận thành công";
     public static final String MESSAGE_SUCCESS_DELETE = "Xóa tin nhắn thành công";
+    public static final String MESSAGE_SUCCESS_ACK = "Xác nhận tin nhắn thành công";
     public static final String MESSAGE_SUCCESS_ASSIGN = "Phân công chat thành công";
     public static final String MESSAGE_SUCCESS_REASSIGN = "Chuyển phân công chat thành công";
     
@@ -17,6 +18,7 @@ public class MessageConstants {
     public static final String MESSAGE_ERR_SENDER_NOT_FOUND = "Không tìm thấy người gửi";
     public static final String MESSAGE_ERR_RECEIVER_NOT_FOUND = "Không tìm thấy người nhận";
     public static final String MESSAGE_ERR_SEND_TO_SELF = "Không thể gửi tin nhắn cho chính mình";
+    public static final String MESSAGE_ERR_INVALID_ACK_STATUS = "Chỉ xác nhận được trạng thái DELIVERED hoặc READ";
     public static final String MESSAGE_ERR_NO_ASSIGNMENT = "Customer chưa được phân công chat với staff nào";
     public static final String MESSAGE_ERR_ASSIGNMENT_NOT_FOUND = "Không tìm thấy phân công chat";
     public static final String MESSAGE_ERR_CUSTOMER_NOT_ASSIGNED = "Customer này chưa được phân công";
@@ -27,6 +29,7 @@ public class MessageConstants {
     public static final String LOG_SUCCESS_SEND_MESSAGE = "✅ Gửi tin nhắn thành công từ {} đến {}";
     public static final String LOG_SUCCESS_MARK_READ = "✅ Đánh dấu tin nhắn {} đã đọc bởi {}";
     public static final String LOG_SUCCESS_MARK_DELIVERED = "✅ Đánh dấu tin nhắn {} đã nhận bởi {}";
+    public static final String LOG_SUCCESS_ACK = "✅ User {} xác nhận {} {} tin nhắn từ {} tới mốc {}";
     public static final String LOG_SUCCESS_ASSIGN = "✅ Phân công customer {} cho staff {}";
     public static final String LOG_SUCCESS_REASSIGN = "✅ Chuyển customer {} từ staff {} sang {}";
     public static final String LOG_ERR_MESSAGE_NOT_FOUND = "❌ Không tìm thấy tin nhắn với id: {}";
@@ -35,6 +38,7 @@ public class MessageConstants {
     public static final String LOG_WARN_USER_SEND_MESSAGE_TO_SELF = "User {} tried to send message to themselves";
     public static final String LOG_WARN_CUSTOMER_CHAT_UNASSIGNED_STAFF = "Customer {} tried to chat with unassigned staff {}";
     public static final String LOG_INFO_DELETED_MESSAGE = "Deleted message: {}";
+    public static final String LOG_INFO_REBUILT_CONVERSATIONS = "Rebuilt conversations summary: {} rows";
     
     // MessageAssignment constants
     public static final String MESSAGE_ERR_USER_NOT_CUSTOMER = "User không phải là customer";
@@ -59,6 +63,14 @@ public class MessageConstants {
     public static final String LOG_INFO_STAFF_WITH_ACTIVE_CUSTOMERS = "   Staff {} ({} {}) (WebSocket ACTIVE) has {} active customers";
     public static final String LOG_INFO_SELECTED_STAFF_LEAST_LOADED = "✅ Selected STAFF {} ({} {}) with active WebSocket session and {} customers (least loaded)";
     public static final String LOG_ERR_NO_STAFF_SELECTED = "❌ No STAFF selected (should not happen)";
+    public static final String LOG_WARN_CANNOT_UPDATE_PRESENCE = "Cannot update WebSocket presence in Redis for {}: {}";
+    public static final String LOG_WARN_CANNOT_READ_PRESENCE = "Cannot read WebSocket presence from Redis, using local sessions only: {}";
+    public static final String LOG_WARN_WS_DELIVERY_QUEUE_FULL = "WebSocket delivery queue of user {} is full ({}), dropped oldest pending message";
+    public static final String LOG_WARN_WS_DELIVERY_REJECTED = "WebSocket delivery to user {} rejected: {}";
+    public static final String LOG_ERR_WS_DELIVERY_FAILED = "Failed to deliver WebSocket message to {}: {}";
+    public static final String LOG_WARN_CANNOT_UPDATE_UNREAD_COUNT = "Cannot update unread counter of user {} in Redis: {}";
+    public static final String LOG_WARN_CANNOT_READ_UNREAD_COUNT = "Cannot read unread counter of user {} from Redis, counting in database: {}";
+    public static final String LOG_INFO_RECONCILED_UNREAD_COUNTS = "Reconciled unread counters: {} of {} connected users corrected";
     
     // WebSocket Topics
     public static final String WS_TOPIC_USER_MESSAGES = "/queue/messages";
@@ -67,6 +79,9 @@ public class MessageConstants {
     public static final String WS_DESTINATION_SEND_MESSAGE = "/app/message/send";
     public static final String WS_DESTINATION_MARK_READ = "/app/message/mark-read";
     public static final String WS_DESTINATION_MARK_DELIVERED = "/app/message/mark-delivered";
+    public static final String WS_DESTINATION_ACK = "/app/message/ack";
+    public static final String WS_TOPIC_USER_MESSAGE_ACKS = "/queue/message-acks";
+    public static final String WS_TOPIC_USER_UNREAD_COUNT = "/queue/unread-count";
     public static final String WS_DESTINATION_TYPING = "/app/message/typing";
 }
 
@@ -5,6 +5,12 @@ public class PaginationConstants {
     public static final String PAGE_SIZE_KEY = "pageSize";
     public static final String KEYWORD_KEY = "keyword";
 
+    // For cursor (keyset) pagination
+    public static final String CURSOR_KEY = "cursor";
+    public static final String INCLUDE_TOTAL_KEY = "includeTotal";
+    public static final int MAX_CURSOR_PAGE_SIZE = 100;
+    public static final String MESSAGE_ERR_INVALID_CURSOR = "Cursor phân trang không hợp lệ";
+
     // For User's appointment
     public static final String USER_ID = "user-id";
 }
@@ -15,6 +15,7 @@ public class ServiceTypeConstants {
     public static final String MESSAGE_SUCCESS_UPDATING_SERVICE_TYPE = "Cập nhật dịch vụ thành công";
     public static final String MESSAGE_SUCCESS_DELETING_SERVICE_TYPE = "Xóa dịch vụ thành công";
     public static final String MESSAGE_SUCCESS_RESTORING_SERVICE_TYPE = "Khôi phục dịch vụ thành công";
+    public static final String MESSAGE_SUCCESS_PREVIEWING_QUOTE = "Tính giá tạm tính thành công";
 
     //Failed message
     public static final String MESSAGE_ERR_PARENT_SERVICE_TYPE_NOT_FOUND = "Không tìm thấy dịch vụ cha";
@@ -58,6 +59,7 @@ public class ServiceTypeConstants {
     public static final String LOG_INFO_RESTORING_SERVICE_TYPE = "Đang khôi phục loại dịch vụ với từ khóa: {}";
     public static final String LOG_INFO_RESTORING_CHILD_SERVICE_TYPE = "Đang khôi phục dịch vụ con: {}";
     public static final String LOG_INFO_RESTORING_PARENT_SERVICE_TYPE = "Đang khôi phục dịch vụ cha: {}";
+    public static final String LOG_INFO_CALCULATING_QUOTE_BY_VEHICLE_TYPE = "Đang tính giá tạm tính theo id loại xe: {}";
     
     // Additional log messages
     public static final String LOG_INFO_FILTERING_SERVICES = "Filtering services - vehicleTypeId: {}, isActive: {}";
@@ -70,6 +72,7 @@ public class ServiceTypeConstants {
     public static final String SERVICE_TYPE_LIST_BY_PARENT_ID_AND_VEHICLE_TYPE_ID= "/parent-services/{serviceTypeId}/vehicle-types/{vehicleTypeId}/service-types/";
 
     public static final String SERVICE_TYPE_LIST_FOR_APPOINTMENT= "/appointment/service-type/{serviceTypeId}";
+    public static final String QUOTE_PREVIEW_FOR_APPOINTMENT = "/appointment/vehicle-type/{vehicleTypeId}/quote";
     public static final String SERVICE_TYPE = "/{id}";
     public static final String SERVICE_TYPE_UPDATE = "/{id}";
 
@@ -33,6 +33,10 @@ public class ShiftConstants {
     public static final String LOG_INFO_UPDATED_SHIFT_TO_LATE_ASSIGNMENT = "Updated shift {} to LATE_ASSIGNMENT";
     public static final String LOG_INFO_SCHEDULER_RUNNING = "Running scheduled shift status update";
     public static final String LOG_INFO_SCHEDULER_COMPLETED = "Shift status update completed successfully";
+    public static final String LOG_INFO_FINDING_NEXT_AVAILABLE_SLOT = "Finding next available slot for technician {} after {} ({} minutes)";
+    public static final String LOG_WARN_INVALID_SLOT_DURATION = "Invalid slot duration: {} minutes";
+    public static final String LOG_WARN_INVALID_SLOT_AFTER = "Invalid 'after' datetime for next available slot: {}";
+    public static final String LOG_ERR_TECHNICIAN_NOT_FOUND = "Technician not found: {}";
     public static final String LOG_INFO_GETTING_AVAILABLE_TECHNICIANS = "Getting available technicians for time range: {} to {}";
     
     // Log Info - Shift Creation & Assignment
@@ -75,10 +79,13 @@ public class ShiftConstants {
     // Message Success - Availability
     public static final String MESSAGE_SUCCESS_CHECKING_AVAILABILITY = "Kiểm tra khả dụng kỹ thuật viên thành công";
     public static final String MESSAGE_SUCCESS_GET_AVAILABLE_TECHNICIANS = "Lấy danh sách kỹ thuật viên available thành công";
+    public static final String MESSAGE_SUCCESS_FINDING_NEXT_AVAILABLE_SLOT = "Tìm khung giờ rảnh tiếp theo của kỹ thuật viên thành công";
     
     // Messages - Technician availability reasons
     public static final String MESSAGE_TECHNICIAN_NOT_FOUND = "Kỹ thuật viên không tồn tại";
     public static final String MESSAGE_TECHNICIAN_NOT_AVAILABLE = "Đang có ca làm việc khác";
+    public static final String MESSAGE_ERR_INVALID_SLOT_DURATION = "Thời lượng khung giờ phải lớn hơn 0 phút";
+    public static final String MESSAGE_ERR_INVALID_SLOT_AFTER = "Thời điểm bắt đầu tìm không hợp lệ, định dạng yyyy-MM-ddTHH:mm:ss";
     
     // API Endpoints
     public static final String SHIFT_BASE_URL = "/shift";
@@ -86,6 +93,7 @@ public class ShiftConstants {
     public static final String SHIFT_GET_TYPES = "/types";
     public static final String SHIFT_GET_STATUSES = "/statuses";
     public static final String SHIFT_SEARCH = "/search";
+    public static final String SHIFT_SEARCH_CURSOR = "/search/cursor";
     public static final String SHIFT_GET_BY_APPOINTMENT = "/appointment/{appointmentId}";
     public static final String SHIFT_SEARCH_FOR_TECHNICIAN = "/technician/search/{technician_id}";
     public static final String SHIFT_CREATE = "";
@@ -96,6 +104,7 @@ public class ShiftConstants {
     public static final String SHIFT_ASSIGN = "/{id}/assign";
     public static final String SHIFT_CHECK_AVAILABILITY = "/check-availability";
     public static final String SHIFT_GET_AVAILABLE_TECHNICIANS = "/available-technicians";
+    public static final String SHIFT_GET_NEXT_AVAILABLE_SLOT = "/technician/{technician_id}/next-available-slot";
     
     // Additional log and exception messages
     public static final String LOG_INFO_SHOWING_SHIFT_LIST_FOR_TECHNICIAN = "Showing shift list for technician: {}";
@@ -4,9 +4,16 @@ public class TokenConstants {
     public static final String ACCESS_PREFIX = "ACCESS_TOKEN:";
     public static final String REFRESH_PREFIX = "REFRESH_TOKEN:";
 
+    // Kênh Redis pub/sub báo access token của user đã đổi (login, refresh, logout)
+    public static final String ACCESS_TOKEN_CHANGED_CHANNEL = "token:access:changed";
+
     //Error Messages
     public static final String MESSAGE_ERR_TOKEN_DISABLED = "Token không tồn tại.";
     public static final String MESSAGE_ERR_TOKEN_INVALID =  "Refresh token không hợp lệ hoặc đã hết hạn";
 
     public static final String MESSAGE_ERR_REFRESH_TOKEN_EXPIRED = "Refresh token đã hết hạn";
+
+    //Log
+    public static final String LOG_WARN_CANNOT_PUBLISH_TOKEN_CHANGE = "Cannot publish access token change for user {}: {}";
+    public static final String LOG_WARN_INVALID_TOKEN_CHANGE_MESSAGE = "Invalid access token change message: {}";
 }
@@ -6,8 +6,11 @@ import com.fpt.evcare.constants.PaginationConstants;
 import com.fpt.evcare.dto.request.appointment.CreationAppointmentRequest;
 import com.fpt.evcare.dto.request.appointment.UpdationAppointmentRequest;
 import com.fpt.evcare.dto.request.appointment.UpdationCustomerAppointmentRequest;
+import com.fpt.evcare.dto.response.AppointmentListItemResponse;
 import com.fpt.evcare.dto.response.AppointmentResponse;
+import com.fpt.evcare.dto.response.CursorPageResponse;
 import com.fpt.evcare.dto.response.PageResponse;
+import com.fpt.evcare.service.AppointmentListViewService;
 import com.fpt.evcare.service.AppointmentService;
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.annotation.Nullable;
@@ -35,6 +38,7 @@ import java.util.UUID;
 public class AppointmentController {
 
     AppointmentService appointmentService;
+    AppointmentListViewService appointmentListViewService;
     com.fpt.evcare.service.RedisService<String> redisService;
     com.fasterxml.jackson.databind.ObjectMapper objectMapper;
 
@@ -242,6 +246,93 @@ public class AppointmentController {
                 );
     }
 
+    @GetMapping(AppointmentConstants.APPOINTMENT_LIST_CURSOR)
+    @Operation(
+        summary = "Lấy danh sách cuộc hẹn theo cursor (keyset pagination)",
+        description = """
+            👨‍💼 **Roles:** ADMIN, STAFF - Cùng bộ lọc và thứ tự với GET /api/v1/appointment/ nhưng phân trang theo cursor:
+            trang đầu không truyền cursor, trang sau truyền nextCursor của response trước. Tốc độ trang sâu như trang đầu.
+            - includeTotal: true nếu cần tổng số bản ghi (tốn thêm 1 query COUNT, mặc định false)
+            """
+    )
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public ResponseEntity<ApiResponse<CursorPageResponse<AppointmentResponse>>> searchAppointmentWithCursor(
+            @Nullable @RequestParam(name = PaginationConstants.CURSOR_KEY) String cursor,
+            @RequestParam(name = PaginationConstants.PAGE_SIZE_KEY, defaultValue = "10") int pageSize,
+            @RequestParam(name = PaginationConstants.INCLUDE_TOTAL_KEY, defaultValue = "false") boolean includeTotal,
+            @Nullable @RequestParam(name = "keyword") String keyword,
+            @Nullable @RequestParam(name = "status") String status,
+            @Nullable @RequestParam(name = "serviceMode") String serviceMode,
+            @Nullable @RequestParam(name = "fromDate") String fromDate,
+            @Nullable @RequestParam(name = "toDate") String toDate) {
+
+        CursorPageResponse<AppointmentResponse> response = appointmentService.searchAppointmentWithCursor(
+                keyword, status, serviceMode, fromDate, toDate, cursor, pageSize, includeTotal);
+
+        log.info(AppointmentConstants.LOG_SUCCESS_SHOWING_APPOINTMENT_LIST);
+        return ResponseEntity
+                .ok(ApiResponse.<CursorPageResponse<AppointmentResponse>>builder()
+                        .success(true)
+                        .message(AppointmentConstants.MESSAGE_SUCCESS_SHOWING_APPOINTMENT_LIST)
+                        .data(response)
+                        .build()
+                );
+    }
+
+    @GetMapping(AppointmentConstants.APPOINTMENT_LIST_VIEW)
+    @Operation(
+        summary = "Lấy danh sách cuộc hẹn dạng rút gọn (đọc từ bảng appointment_list_view)",
+        description = """
+            👨‍💼 **Roles:** ADMIN, STAFF - Cùng bộ lọc với GET /api/v1/appointment/ nhưng đọc trực tiếp từ bảng
+            projection đã denormalize, không load entity. Dùng cho màn hình danh sách; xem chi tiết bằng GET /{id}.
+            """
+    )
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public ResponseEntity<ApiResponse<PageResponse<AppointmentListItemResponse>>> searchAppointmentListView(
+            @RequestParam(name = PaginationConstants.PAGE_KEY, defaultValue = "0") int page,
+            @RequestParam(name = PaginationConstants.PAGE_SIZE_KEY, defaultValue = "10") int pageSize,
+            @Nullable @RequestParam(name = PaginationConstants.KEYWORD_KEY) String keyword,
+            @Nullable @RequestParam(name = "status") String status,
+            @Nullable @RequestParam(name = "serviceMode") String serviceMode,
+            @Nullable @RequestParam(name = "fromDate") String fromDate,
+            @Nullable @RequestParam(name = "toDate") String toDate) {
+
+        Pageable pageable = PageRequest.of(page, pageSize);
+        PageResponse<AppointmentListItemResponse> response = appointmentListViewService.searchAppointments(
+                keyword, status, serviceMode, fromDate, toDate, pageable);
+
+        log.info(AppointmentConstants.LOG_SUCCESS_SHOWING_APPOINTMENT_LIST);
+        return ResponseEntity
+                .ok(ApiResponse.<PageResponse<AppointmentListItemResponse>>builder()
+                        .success(true)
+                        .message(AppointmentConstants.MESSAGE_SUCCESS_SHOWING_APPOINTMENT_LIST)
+                        .data(response)
+                        .build()
+                );
+    }
+
+    @GetMapping(AppointmentConstants.APPOINTMENT_LIST_VIEW_BY_USER_ID)
+    @Operation(summary = "Lấy danh sách cuộc hẹn rút gọn của người dùng (đọc từ bảng appointment_list_view)", description = "👨‍💼 **Roles:** ADMIN, STAFF - Danh sách cuộc hẹn của 1 khách hàng, không load entity")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public ResponseEntity<ApiResponse<PageResponse<AppointmentListItemResponse>>> getAppointmentListViewByUserId(
+            @RequestParam(name = PaginationConstants.PAGE_KEY, defaultValue = "0") int page,
+            @RequestParam(name = PaginationConstants.PAGE_SIZE_KEY, defaultValue = "10") int pageSize,
+            @Nullable @RequestParam(name = PaginationConstants.KEYWORD_KEY) String keyword,
+            @PathVariable(name = PaginationConstants.USER_ID) UUID userId) {
+
+        Pageable pageable = PageRequest.of(page, pageSize);
+        PageResponse<AppointmentListItemResponse> response = appointmentListViewService.getAppointmentsByCustomerId(userId, keyword, pageable);
+
+        log.info(AppointmentConstants.LOG_SUCCESS_SHOWING_USER_APPOINTMENT);
+        return ResponseEntity
+                .ok(ApiResponse.<PageResponse<AppointmentListItemResponse>>builder()
+                        .success(true)
+                        .message(AppointmentConstants.MESSAGE_SUCCESS_SHOWING_USER_APPOINTMENT)
+                        .data(response)
+                        .build()
+                );
+    }
+
     @GetMapping(AppointmentConstants.WARRANTY_APPOINTMENTS)
     @Operation(summary = "Lấy danh sách warranty appointments (COMPLETED và isWarrantyAppointment = true)", 
             description = "👨‍💼 **Roles:** ADMIN, STAFF - Lấy danh sách các cuộc hẹn bảo hành đã hoàn thành")
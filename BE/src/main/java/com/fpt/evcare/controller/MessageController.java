@@ -2,8 +2,13 @@ package com.fpt.evcare.controller;
 
 import com.fpt.evcare.base.ApiResponse;
 import com.fpt.evcare.constants.MessageConstants;
+import com.fpt.evcare.constants.PaginationConstants;
 import com.fpt.evcare.dto.request.message.CreationMessageRequest;
+import com.fpt.evcare.dto.request.message.MessageAckRequest;
 
+import com.fpt.evcare.dto.response.ConversationResponse;
+import com.fpt.evcare.dto.response.CursorPageResponse;
+import com.fpt.evcare.dto.response.MessageAckResponse;
 import com.fpt.evcare.dto.response.MessageResponse;
 import com.fpt.evcare.dto.response.PageResponse;
 import com.fpt.evcare.service.MessageService;
@@ -95,6 +100,30 @@ public class MessageController {
                 .build());
     }
 
+    /**
+     * Lấy cuộc trò chuyện với user khác theo cursor (cuộn lên xem tin cũ)
+     */
+    @GetMapping("/conversation/{otherUserId}/cursor")
+    @Operation(summary = "Lấy cuộc trò chuyện theo cursor", description = "🔐 Authenticated - Lịch sử chat mới nhất trước; truyền nextCursor để lấy tin cũ hơn, includeTotal=true nếu cần tổng số")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ApiResponse<CursorPageResponse<MessageResponse>>> getConversationWithCursor(
+            @PathVariable UUID otherUserId,
+            java.security.Principal principal,
+            @RequestParam(name = PaginationConstants.CURSOR_KEY, required = false) String cursor,
+            @RequestParam(defaultValue = "50") int pageSize,
+            @RequestParam(name = PaginationConstants.INCLUDE_TOTAL_KEY, defaultValue = "false") boolean includeTotal
+    ) {
+        UUID currentUserId = UUID.fromString(principal.getName());
+        CursorPageResponse<MessageResponse> response = messageService.getConversationWithCursor(
+                currentUserId, otherUserId, cursor, pageSize, includeTotal);
+
+        return ResponseEntity.ok(ApiResponse.<CursorPageResponse<MessageResponse>>builder()
+                .success(true)
+                .message("Lấy cuộc trò chuyện thành công")
+                .data(response)
+                .build());
+    }
+
     /**
      * Đánh dấu 1 tin nhắn đã nhận (DELIVERED)
      */
@@ -155,11 +184,31 @@ public class MessageController {
                 .build());
     }
 
+    /**
+     * Xác nhận đã nhận/đã đọc tất cả tin nhắn từ otherUserId tới mốc sentAt (upTo)
+     */
+    @PutMapping("/ack")
+    @Operation(summary = "Xác nhận tin nhắn theo mốc", description = "🔐 Authenticated - Đánh dấu DELIVERED/READ mọi tin nhắn từ user khác có sentAt <= upTo")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ApiResponse<MessageAckResponse>> acknowledgeMessages(
+            Principal principal,
+            @Valid @RequestBody MessageAckRequest request
+    ) {
+        UUID currentUserId = UUID.fromString(principal.getName());
+        MessageAckResponse response = messageService.acknowledgeMessages(currentUserId, request);
+
+        return ResponseEntity.ok(ApiResponse.<MessageAckResponse>builder()
+                .success(true)
+                .message(MessageConstants.MESSAGE_SUCCESS_ACK)
+                .data(response)
+                .build());
+    }
+
     /**
      * Đếm số tin nhắn chưa đọc
      */
     @GetMapping("/unread-count")
-    @Operation(summary = "Đếm tin nhắn chưa đọc", description = "🔐 Authenticated - Đếm tổng số tin nhắn chưa đọc của user")
+    @Operation(summary = "Đếm tin nhắn chưa đọc", description = "🔐 Authenticated - Đếm tổng số tin nhắn chưa đọc của user. Số mới được đẩy qua /user/queue/unread-count, không cần gọi định kỳ")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<ApiResponse<Long>> getUnreadCount(
             java.security.Principal principal
@@ -178,18 +227,18 @@ public class MessageController {
      * Lấy danh sách recent conversations
      */
     @GetMapping("/conversations")
-    @Operation(summary = "Lấy danh sách cuộc trò chuyện", description = "🔐 Authenticated - Lấy danh sách users đã chat với")
+    @Operation(summary = "Lấy danh sách cuộc trò chuyện", description = "🔐 Authenticated - Lấy danh sách cuộc trò chuyện kèm tin nhắn cuối và số tin chưa đọc, mới nhất trước")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<ApiResponse<PageResponse<MessageResponse>>> getRecentConversations(
+    public ResponseEntity<ApiResponse<PageResponse<ConversationResponse>>> getRecentConversations(
             java.security.Principal principal,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int pageSize
     ) {
         UUID userId = UUID.fromString(principal.getName());
         Pageable pageable = PageRequest.of(page, pageSize);
-        PageResponse<MessageResponse> response = messageService.getRecentConversations(userId, pageable);
+        PageResponse<ConversationResponse> response = messageService.getRecentConversations(userId, pageable);
 
-        return ResponseEntity.ok(ApiResponse.<PageResponse<MessageResponse>>builder()
+        return ResponseEntity.ok(ApiResponse.<PageResponse<ConversationResponse>>builder()
                 .success(true)
                 .message("Lấy danh sách cuộc trò chuyện thành công")
                 .data(response)
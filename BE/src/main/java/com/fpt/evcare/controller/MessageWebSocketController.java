@@ -2,6 +2,7 @@ package com.fpt.evcare.controller;
 
 import com.fpt.evcare.constants.MessageConstants;
 import com.fpt.evcare.dto.request.message.CreationMessageRequest;
+import com.fpt.evcare.dto.request.message.MessageAckRequest;
 import com.fpt.evcare.dto.response.MessageResponse;
 import com.fpt.evcare.service.MessageService;
 import lombok.AccessLevel;
@@ -13,6 +14,7 @@ import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
 
+import java.security.Principal;
 import java.util.UUID;
 
 /**
@@ -22,10 +24,12 @@ import java.util.UUID;
  * - /app/message/send -> Gửi tin nhắn real-time
  * - /app/message/mark-delivered -> Đánh dấu đã nhận
  * - /app/message/mark-read -> Đánh dấu đã đọc
+ * - /app/message/ack -> Xác nhận đã nhận/đã đọc theo mốc sentAt (nhiều tin nhắn một lần)
  * - /app/message/typing -> Thông báo đang typing (future)
  * 
  * Subscriptions:
  * - /user/{userId}/queue/messages -> Nhận tin nhắn mới
+ * - /user/{userId}/queue/message-acks -> Nhận xác nhận đã nhận/đã đọc từ người nhận
  * - /user/{userId}/queue/typing -> Nhận typing status (future)
  */
 @Slf4j
@@ -49,6 +53,23 @@ public class MessageWebSocketController {
         log.info("💬 WS message: sender={} → receiver={}", senderId, request.getReceiverId());
         messageService.sendMessage(senderId, request);
     }
+
+    /**
+     * Xác nhận đã nhận/đã đọc tới mốc sentAt - thay cho mark-delivered/mark-read từng tin nhắn
+     * Client gửi đến: /app/message/ack
+     */
+    @MessageMapping("/message/ack")
+    public void acknowledgeMessages(@Payload MessageAckRequest request, Principal principal) {
+        if (principal == null || request.getOtherUserId() == null || request.getStatus() == null) {
+            log.error("❌ WS ack: missing principal, otherUserId or status");
+            return;
+        }
+        try {
+            messageService.acknowledgeMessages(UUID.fromString(principal.getName()), request);
+        } catch (Exception e) {
+            log.error("❌ WS ack failed: {}", e.getMessage());
+        }
+    }
     
     /**
      * Đánh dấu tin nhắn đã nhận (DELIVERED)
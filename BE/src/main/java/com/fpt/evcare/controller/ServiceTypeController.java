@@ -6,7 +6,9 @@ import com.fpt.evcare.constants.ServiceTypeConstants;
 import com.fpt.evcare.dto.request.service_type.CreationServiceTypeRequest;
 import com.fpt.evcare.dto.request.service_type.UpdationServiceTypeRequest;
 import com.fpt.evcare.dto.response.PageResponse;
+import com.fpt.evcare.dto.response.QuoteResponse;
 import com.fpt.evcare.dto.response.ServiceTypeResponse;
+import com.fpt.evcare.service.QuoteService;
 import com.fpt.evcare.service.ServiceTypeService;
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.validation.Valid;
@@ -30,6 +32,7 @@ import java.util.UUID;
 public class ServiceTypeController {
 
     ServiceTypeService serviceTypeService;
+    QuoteService quoteService;
 
     @GetMapping(ServiceTypeConstants.SERVICE_TYPE)
     @Operation(summary = "Lấy 1 dịch vụ", description = "🔓 **Public** - Lấy ra thông tin cụ thể cho 1 dịch vụ theo id")
@@ -55,6 +58,19 @@ public class ServiceTypeController {
         );
     }
 
+    @GetMapping(ServiceTypeConstants.QUOTE_PREVIEW_FOR_APPOINTMENT)
+    @Operation(summary = "Xem trước giá tạm tính cho cuộc hẹn", description = "🔓 **Public** - Tính giá tạm tính và chi tiết phụ tùng theo các dịch vụ con đang chọn (đọc từ bảng giá trong bộ nhớ)")
+    public ResponseEntity<ApiResponse<QuoteResponse>> previewQuote(@PathVariable(name = "vehicleTypeId") UUID vehicleTypeId,
+                                                                   @RequestParam(name = "serviceTypeIds", required = false) List<UUID> serviceTypeIds) {
+        QuoteResponse response = quoteService.getQuote(vehicleTypeId, serviceTypeIds);
+        return ResponseEntity.ok(ApiResponse.<QuoteResponse>builder()
+                .success(true)
+                .message(ServiceTypeConstants.MESSAGE_SUCCESS_PREVIEWING_QUOTE)
+                .data(response)
+                .build()
+        );
+    }
+
     @GetMapping(ServiceTypeConstants.PARENT_SERVICE_TYPE_LIST_BY_VEHICLE_TYPE_ID)
     @Operation(summary = "Lấy ra danh sách dịch vụ cha theo loại xe", description = "🔓 **Public** - Lấy ra danh sách dịch vụ cha theo loại xe")
     public ResponseEntity<ApiResponse<List<ServiceTypeResponse>>> getParentServiceListByVehicleTypeId(@PathVariable(name = "vehicleTypeId") UUID vehicleTypeId) {
@@ -2,15 +2,18 @@ package com.fpt.evcare.controller;
 
 import com.fpt.evcare.base.ApiResponse;
 import com.fpt.evcare.constants.EndpointConstants;
+import com.fpt.evcare.constants.PaginationConstants;
 import com.fpt.evcare.constants.ShiftConstants;
 import com.fpt.evcare.dto.request.shift.AssignShiftRequest;
 import com.fpt.evcare.dto.request.shift.CheckTechnicianAvailabilityRequest;
 import com.fpt.evcare.dto.request.shift.CreationShiftRequest;
 import com.fpt.evcare.dto.request.shift.UpdationShiftRequest;
+import com.fpt.evcare.dto.response.CursorPageResponse;
 import com.fpt.evcare.dto.response.PageResponse;
 import com.fpt.evcare.dto.response.ShiftResponse;
 import com.fpt.evcare.dto.response.TechnicianAvailabilityResponse;
 import com.fpt.evcare.dto.response.UserResponse;
+import com.fpt.evcare.exception.EntityValidationException;
 import com.fpt.evcare.service.ShiftService;
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.validation.Valid;
@@ -25,6 +28,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.UUID;
 
@@ -115,6 +119,31 @@ public class ShiftController {
         );
     }
 
+    @GetMapping(ShiftConstants.SHIFT_SEARCH_CURSOR)
+    @Operation(summary = "Tìm kiếm ca làm việc theo cursor", description = "👨‍💼 **Roles:** ADMIN, STAFF - Như /search nhưng phân trang theo cursor (start_time, shift_id); truyền nextCursor để lấy trang sau, includeTotal=true nếu cần tổng số")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public ResponseEntity<ApiResponse<CursorPageResponse<ShiftResponse>>> searchShiftWithCursor(
+            @RequestParam(name = PaginationConstants.CURSOR_KEY, required = false) String cursor,
+            @RequestParam(name = PaginationConstants.PAGE_SIZE_KEY, defaultValue = "10") int pageSize,
+            @RequestParam(name = PaginationConstants.INCLUDE_TOTAL_KEY, defaultValue = "false") boolean includeTotal,
+            @RequestParam(name = "keyword", required = false) String keyword,
+            @RequestParam(name = "status", required = false) String status,
+            @RequestParam(name = "shiftType", required = false) String shiftType,
+            @RequestParam(name = "fromDate", required = false) String fromDate,
+            @RequestParam(name = "toDate", required = false) String toDate
+    ) {
+        CursorPageResponse<ShiftResponse> response = shiftService.searchShiftWithCursor(
+                keyword, status, shiftType, fromDate, toDate, cursor, pageSize, includeTotal);
+
+        return ResponseEntity.ok(
+                ApiResponse.<CursorPageResponse<ShiftResponse>>builder()
+                        .success(true)
+                        .message(ShiftConstants.MESSAGE_SUCCESS_SHOWING_SHIFT_LIST)
+                        .data(response)
+                        .build()
+        );
+    }
+
     @GetMapping(ShiftConstants.SHIFT_SEARCH_FOR_TECHNICIAN)
     @Operation(
         summary = "Lấy danh sách ca làm việc của kỹ thuật viên", 
@@ -256,6 +285,35 @@ public class ShiftController {
         );
     }
 
+    @GetMapping(ShiftConstants.SHIFT_GET_NEXT_AVAILABLE_SLOT)
+    @Operation(summary = "Tìm khung giờ rảnh tiếp theo của kỹ thuật viên", description = "👨‍💼 **Roles:** ADMIN, STAFF - Thời điểm sớm nhất từ 'after' mà kỹ thuật viên rảnh liên tục trong 'durationMinutes' phút")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public ResponseEntity<ApiResponse<LocalDateTime>> findNextAvailableSlot(
+            @PathVariable("technician_id") UUID technicianId,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "60") int durationMinutes) {
+        
+        LocalDateTime from = null;
+        if (after != null) {
+            try {
+                from = LocalDateTime.parse(after);
+            } catch (DateTimeParseException e) {
+                log.warn(ShiftConstants.LOG_WARN_INVALID_SLOT_AFTER, after);
+                throw new EntityValidationException(ShiftConstants.MESSAGE_ERR_INVALID_SLOT_AFTER);
+            }
+        }
+        
+        LocalDateTime slot = shiftService.findNextAvailableSlot(technicianId, from, durationMinutes);
+
+        return ResponseEntity.ok(
+                ApiResponse.<LocalDateTime>builder()
+                        .success(true)
+                        .message(ShiftConstants.MESSAGE_SUCCESS_FINDING_NEXT_AVAILABLE_SLOT)
+                        .data(slot)
+                        .build()
+        );
+    }
+
     @PatchMapping(ShiftConstants.SHIFT_ASSIGN)
     @Operation(summary = "Phân công ca làm việc", description = "👨‍💼 **Roles:** ADMIN, STAFF - Phân công assignee, staff và technicians cho shift đang ở trạng thái PENDING_ASSIGNMENT")
     @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
@@ -0,0 +1,29 @@
+package com.fpt.evcare.dto.request.message;
+
+import com.fpt.evcare.enums.MessageStatusEnum;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Xác nhận theo mốc: "đã nhận/đã đọc tất cả tin nhắn của otherUserId gửi đến tôi có sentAt <= upTo"
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageAckRequest {
+
+    @NotNull(message = "ID người gửi không được để trống")
+    UUID otherUserId;
+    // DELIVERED hoặc READ
+    @NotNull(message = "Trạng thái xác nhận không được để trống")
+    MessageStatusEnum status;
+    // sentAt của tin nhắn mới nhất client đã nhận/đọc, để trống = tới hiện tại
+    LocalDateTime upTo;
+}
@@ -0,0 +1,36 @@
+package com.fpt.evcare.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fpt.evcare.enums.AppointmentStatusEnum;
+import com.fpt.evcare.enums.ServiceModeEnum;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Một dòng trong danh sách cuộc hẹn, đọc thẳng từ bảng appointment_list_view
+ * (JPQL constructor projection, không hydrate entity).
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record AppointmentListItemResponse(
+        UUID appointmentId,
+        UUID customerId,
+        String customerFullName,
+        String customerPhoneNumber,
+        String customerEmail,
+        UUID assigneeId,
+        String assigneeFullName,
+        String technicianNames,
+        String serviceTypeNames,
+        ServiceModeEnum serviceMode,
+        AppointmentStatusEnum status,
+        UUID vehicleTypeId,
+        String vehicleTypeName,
+        String vehicleNumberPlate,
+        LocalDateTime scheduledAt,
+        BigDecimal quotePrice,
+        Boolean isWarrantyAppointment
+) implements Serializable {
+}
@@ -0,0 +1,20 @@
+package com.fpt.evcare.dto.response;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class AppointmentStatsResponse {
+    Long totalAppointments;
+    Long pendingAppointments;
+    Long confirmedAppointments;
+    Long completedAppointments;
+    Long cancelledAppointments;
+    Long appointmentsThisMonth;
+    Long appointmentsLastMonth;
+    Long uniqueVehicles;        // Số biển số xe khác nhau
+}
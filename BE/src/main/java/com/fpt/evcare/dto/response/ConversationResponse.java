@@ -0,0 +1,28 @@
+package com.fpt.evcare.dto.response;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ConversationResponse {
+
+    UUID conversationId;
+
+    // Người còn lại trong cuộc trò chuyện
+    UUID otherUserId;
+    String otherUserName;
+    String otherUserAvatarUrl;
+
+    MessageResponse lastMessage;
+    LocalDateTime lastSentAt;
+
+    // Số tin nhắn user hiện tại chưa đọc trong cuộc trò chuyện
+    int unreadCount;
+}
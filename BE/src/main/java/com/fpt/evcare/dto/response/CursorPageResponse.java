@@ -0,0 +1,21 @@
+package com.fpt.evcare.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import java.util.List;
+
+// Phân trang theo cursor (keyset): trang sau lấy bằng nextCursor thay vì số trang
+@Data
+@Builder
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CursorPageResponse<T> {
+    private List<T> data;
+    private int size;
+    private String nextCursor;
+    private boolean hasNext;
+    // Chỉ có khi client yêu cầu includeTotal=true (tốn thêm 1 query COUNT)
+    private Long totalElements;
+}
@@ -0,0 +1,26 @@
+package com.fpt.evcare.dto.response;
+
+import com.fpt.evcare.enums.MessageStatusEnum;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Một event thay cho từng MessageResponse: mọi tin nhắn từ senderId đến readerId có sentAt <= upTo đã chuyển sang status
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class MessageAckResponse {
+
+    UUID readerId;
+    UUID senderId;
+    MessageStatusEnum status;
+    LocalDateTime upTo;
+    LocalDateTime acknowledgedAt;
+    int updatedCount;
+}
@@ -0,0 +1,45 @@
+package com.fpt.evcare.dto.response;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class QuoteResponse {
+    UUID vehicleTypeId;
+    Long version; // Phiên bản cây dịch vụ dùng để tính giá
+    BigDecimal totalPrice;
+    Integer estimatedDurationMinutes;
+    List<ServiceQuote> services;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ServiceQuote {
+        UUID serviceTypeId;
+        String serviceName;
+        Integer estimatedDurationMinutes;
+        BigDecimal subtotal;
+        List<PartQuote> parts;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PartQuote {
+        UUID vehiclePartId;
+        String vehiclePartName;
+        Integer quantity;
+        BigDecimal unitPrice;
+        BigDecimal totalPrice;
+    }
+}
@@ -5,6 +5,7 @@ import lombok.*;
 import lombok.experimental.FieldDefaults;
 
 import java.io.Serializable;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
@@ -26,6 +27,8 @@ public class ServiceTypeResponse implements Serializable {
     
     Integer estimatedDurationMinutes; 
 
+    BigDecimal estimatedPartCost; // Tổng giá phụ tùng ước tính (dịch vụ cha cộng cả các dịch vụ con)
+
     UUID parentId;
 
     VehicleTypeResponse vehicleTypeResponse;
@@ -0,0 +1,27 @@
+package com.fpt.evcare.dto.response;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Số tin nhắn chưa đọc của user: tổng (badge) và theo từng người gửi
+ * - version tăng sau mỗi lần thay đổi, client chỉ giữ bản có version lớn nhất
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class UnreadCountResponse {
+
+    UUID userId;
+    long totalUnread;
+
+    // otherUserId -> số tin nhắn chưa đọc từ người đó (chỉ các cuộc trò chuyện còn tin chưa đọc)
+    Map<UUID, Long> conversations;
+
+    long version;
+}
@@ -0,0 +1,16 @@
+package com.fpt.evcare.dto.response;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class UserRoleStatsResponse {
+    Long totalCustomers;
+    Long totalStaff;
+    Long totalTechnicians;
+    Long activeCustomers;
+}
@@ -14,7 +14,13 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "appointments")
+@Table(name = "appointments",
+       indexes = {
+           // Phục vụ keyset pagination (is_warranty_appointment, scheduled_at, id)
+           @Index(name = "idx_appointments_list_keyset", columnList = "is_warranty_appointment, scheduled_at, id"),
+           // Phục vụ AppointmentReminderService quét cuộc hẹn theo khoảng scheduled_at
+           @Index(name = "idx_appointments_scheduled_at_status", columnList = "scheduled_at, status")
+       })
 @Data
 @NoArgsConstructor
 @Builder
@@ -70,6 +76,10 @@ public class AppointmentEntity extends BaseEntity {
     @Column(name = "scheduled_at")
     LocalDateTime scheduledAt;
 
+    // Giờ hẹn đã được nhắc; khác scheduledAt (đổi lịch) thì cuộc hẹn được nhắc lại
+    @Column(name = "reminded_for")
+    LocalDateTime remindedFor;
+
     @Column(name = "quote_price")
     BigDecimal quotePrice;
 
@@ -0,0 +1,121 @@
+package com.fpt.evcare.entity;
+
+import com.fpt.evcare.enums.AppointmentStatusEnum;
+import com.fpt.evcare.enums.ServiceModeEnum;
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import org.springframework.data.domain.Persistable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Bảng read-side (denormalized) phục vụ các màn hình danh sách cuộc hẹn.
+ * Mỗi dòng là bản sao phẳng của 1 appointment, được cập nhật lại mỗi khi appointment,
+ * kỹ thuật viên, dịch vụ hoặc trạng thái thay đổi (xem AppointmentListViewEventListener).
+ */
+@Entity
+@Table(name = "appointment_list_view", indexes = {
+        @Index(name = "idx_alv_warranty_scheduled", columnList = "is_warranty_appointment, scheduled_at"),
+        @Index(name = "idx_alv_customer_scheduled", columnList = "customer_id, scheduled_at"),
+        @Index(name = "idx_alv_status", columnList = "status")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class AppointmentListViewEntity implements Persistable<UUID> {
+
+    @Id
+    @Column(name = "appointment_id")
+    UUID appointmentId;
+
+    @Column(name = "customer_id")
+    UUID customerId;
+
+    @Column(name = "customer_full_name")
+    String customerFullName;
+
+    @Column(name = "customer_phone_number")
+    String customerPhoneNumber;
+
+    @Column(name = "customer_email")
+    String customerEmail;
+
+    @Column(name = "assignee_id")
+    UUID assigneeId;
+
+    @Column(name = "assignee_full_name")
+    String assigneeFullName;
+
+    // Tên các kỹ thuật viên, phân tách bằng ", "
+    @Column(name = "technician_names", columnDefinition = "TEXT")
+    String technicianNames;
+
+    // Tên các dịch vụ (con) trong cuộc hẹn, phân tách bằng ", "
+    @Column(name = "service_type_names", columnDefinition = "TEXT")
+    String serviceTypeNames;
+
+    @Column(name = "service_mode")
+    @Enumerated(EnumType.STRING)
+    ServiceModeEnum serviceMode;
+
+    @Column(name = "status")
+    @Enumerated(EnumType.STRING)
+    AppointmentStatusEnum status;
+
+    @Column(name = "vehicle_type_id")
+    UUID vehicleTypeId;
+
+    @Column(name = "vehicle_type_name")
+    String vehicleTypeName;
+
+    @Column(name = "vehicle_number_plate")
+    String vehicleNumberPlate;
+
+    @Column(name = "scheduled_at")
+    LocalDateTime scheduledAt;
+
+    @Column(name = "quote_price")
+    BigDecimal quotePrice;
+
+    @Column(name = "is_warranty_appointment")
+    Boolean isWarrantyAppointment;
+
+    @Column(name = "search")
+    String search;
+
+    @Column(name = "is_deleted")
+    Boolean isDeleted;
+
+    @Column(name = "is_active")
+    Boolean isActive;
+
+    @Column(name = "refreshed_at")
+    LocalDateTime refreshedAt;
+
+    // Id được gán sẵn (= appointmentId) nên cần tự báo cho Spring Data biết dòng mới,
+    // tránh việc save() phải SELECT trước khi INSERT
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    boolean newRow = true;
+
+    @Override
+    public UUID getId() {
+        return appointmentId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newRow;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newRow = false;
+    }
+}
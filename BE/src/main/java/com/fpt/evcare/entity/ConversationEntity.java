@@ -0,0 +1,62 @@
+package com.fpt.evcare.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Bảng tóm tắt cuộc trò chuyện (1 dòng cho mỗi cặp user) phục vụ danh sách hội thoại (inbox)
+ * - Cặp user lưu theo thứ tự cố định: userLow < userHigh theo thứ tự uuid của Postgres (chuỗi hex)
+ * - Cập nhật trong cùng transaction khi gửi/đọc/xóa tin nhắn (xem ConversationService)
+ */
+@Entity
+@Table(name = "conversations",
+       uniqueConstraints = {
+           @UniqueConstraint(name = "uk_conversations_participants", columnNames = {"user_low_id", "user_high_id"})
+       },
+       indexes = {
+           @Index(name = "idx_conversations_low_last_sent", columnList = "user_low_id, last_sent_at"),
+           @Index(name = "idx_conversations_high_last_sent", columnList = "user_high_id, last_sent_at")
+       })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ConversationEntity {
+
+    // Id do câu upsert (native) sinh ra, không dùng @GeneratedValue
+    @Id
+    @Column(name = "conversation_id")
+    UUID conversationId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_low_id", nullable = false)
+    UserEntity userLow;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_high_id", nullable = false)
+    UserEntity userHigh;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "last_message_id", nullable = false)
+    MessageEntity lastMessage;
+
+    @Column(name = "last_sent_at", nullable = false)
+    LocalDateTime lastSentAt;
+
+    // Số tin nhắn userLow chưa đọc
+    @Column(name = "unread_low_count", nullable = false)
+    Integer unreadLowCount;
+
+    // Số tin nhắn userHigh chưa đọc
+    @Column(name = "unread_high_count", nullable = false)
+    Integer unreadHighCount;
+
+    @Column(name = "updated_at")
+    LocalDateTime updatedAt;
+}
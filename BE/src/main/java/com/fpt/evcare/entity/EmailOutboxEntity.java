@@ -0,0 +1,68 @@
+package com.fpt.evcare.entity;
+
+import com.fpt.evcare.enums.EmailOutboxStatusEnum;
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Hàng đợi email (transactional outbox)
+ * Mỗi dòng được ghi trong cùng transaction với nghiệp vụ, EmailOutboxDispatcher gửi sau khi commit
+ */
+@Entity
+@Table(name = "email_outbox",
+        uniqueConstraints = @UniqueConstraint(name = "uk_email_outbox_dedup_key", columnNames = "dedup_key"),
+        indexes = @Index(name = "idx_email_outbox_status_next_attempt", columnList = "status, next_attempt_at"))
+@Getter
+@Setter
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class EmailOutboxEntity {
+
+    @Id
+    @Column(name = "id")
+    UUID emailOutboxId;
+
+    // Hash idempotency key của nghiệp vụ (cùng key chỉ xếp hàng 1 lần), không có key thì là id của dòng
+    @Column(name = "dedup_key", nullable = false, length = 64)
+    String dedupKey;
+
+    @Column(name = "recipient", nullable = false)
+    String recipient;
+
+    @Column(name = "subject")
+    String subject;
+
+    @Column(name = "body", columnDefinition = "TEXT")
+    String body;
+
+    @Column(name = "full_name")
+    String fullName;
+
+    @Column(name = "code")
+    String code;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    EmailOutboxStatusEnum status;
+
+    // Số lần đã lấy ra để gửi
+    @Column(name = "attempts", nullable = false)
+    Integer attempts;
+
+    // Thời điểm sớm nhất được gửi (lần đầu, lần thử lại hoặc hết hạn giữ chỗ của instance đang gửi)
+    @Column(name = "next_attempt_at", nullable = false)
+    LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    LocalDateTime createdAt;
+
+    @Column(name = "sent_at")
+    LocalDateTime sentAt;
+}
@@ -11,7 +11,11 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "messages")
+@Table(name = "messages",
+       indexes = {
+           @Index(name = "idx_messages_conversation_keyset", columnList = "sender_id, receiver_id, sent_at, message_id"),
+           @Index(name = "idx_messages_receiver_status", columnList = "receiver_id, status")
+       })
 @Getter
 @Setter
 @NoArgsConstructor
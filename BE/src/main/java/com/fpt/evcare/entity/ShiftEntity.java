@@ -19,7 +19,10 @@ import java.util.UUID;
 @AllArgsConstructor
 @Builder
 @FieldDefaults(level = AccessLevel.PRIVATE)
-@Table(name = "shifts")
+@Table(name = "shifts",
+       indexes = {
+           @Index(name = "idx_shifts_start_time_keyset", columnList = "start_time, shift_id")
+       })
 public class ShiftEntity extends BaseEntity {
 
     @Id
@@ -0,0 +1,7 @@
+package com.fpt.evcare.enums;
+
+public enum EmailOutboxStatusEnum {
+    PENDING,  // Chờ gửi (kể cả đang chờ gửi lại sau lỗi)
+    SENT,     // Đã gửi thành công
+    FAILED    // Hết số lần thử, không gửi nữa
+}
@@ -0,0 +1,28 @@
+package com.fpt.evcare.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Event được publish khi dữ liệu hiển thị của 1 hoặc nhiều appointment thay đổi
+ * (tạo mới, cập nhật, đổi trạng thái, phân công, dịch vụ thay đổi...)
+ * AppointmentListViewEventListener sẽ bắt event này để cập nhật bảng appointment_list_view
+ */
+@Getter
+public class AppointmentChangedEvent extends ApplicationEvent {
+
+    private final List<UUID> appointmentIds;
+
+    public AppointmentChangedEvent(Object source, UUID appointmentId) {
+        this(source, List.of(appointmentId));
+    }
+
+    public AppointmentChangedEvent(Object source, Collection<UUID> appointmentIds) {
+        super(source);
+        this.appointmentIds = List.copyOf(appointmentIds);
+    }
+}
@@ -0,0 +1,28 @@
+package com.fpt.evcare.event;
+
+import com.fpt.evcare.service.AppointmentListViewService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AppointmentListViewEventListener {
+
+    private final AppointmentListViewService appointmentListViewService;
+
+    /**
+     * Cập nhật bảng appointment_list_view trong CÙNG transaction với thay đổi của appointment
+     * (BEFORE_COMMIT) để bảng đọc không bao giờ lệch với dữ liệu gốc
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void handleAppointmentChangedEvent(AppointmentChangedEvent event) {
+        if (event.getAppointmentIds().isEmpty()) {
+            return;
+        }
+        appointmentListViewService.refresh(event.getAppointmentIds());
+    }
+}
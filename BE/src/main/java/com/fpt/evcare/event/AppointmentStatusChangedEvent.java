@@ -0,0 +1,30 @@
+package com.fpt.evcare.event;
+
+import com.fpt.evcare.enums.AppointmentStatusEnum;
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Event được publish khi appointment được tạo mới (oldStatus = null) hoặc chuyển trạng thái
+ * DashboardStatsEventListener dùng để cộng/trừ bộ đếm thống kê thay vì COUNT lại toàn bảng
+ */
+@Getter
+public class AppointmentStatusChangedEvent extends ApplicationEvent {
+
+    private final UUID appointmentId;
+    private final AppointmentStatusEnum oldStatus;
+    private final AppointmentStatusEnum newStatus;
+    private final LocalDateTime scheduledAt;
+
+    public AppointmentStatusChangedEvent(Object source, UUID appointmentId, AppointmentStatusEnum oldStatus,
+                                         AppointmentStatusEnum newStatus, LocalDateTime scheduledAt) {
+        super(source);
+        this.appointmentId = appointmentId;
+        this.oldStatus = oldStatus;
+        this.newStatus = newStatus;
+        this.scheduledAt = scheduledAt;
+    }
+}
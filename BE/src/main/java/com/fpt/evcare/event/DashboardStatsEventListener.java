@@ -0,0 +1,29 @@
+package com.fpt.evcare.event;
+
+import com.fpt.evcare.service.DashboardService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DashboardStatsEventListener {
+
+    private final DashboardService dashboardService;
+
+    /**
+     * Chỉ cộng/trừ bộ đếm sau khi transaction commit thành công (rollback thì không đếm sai)
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleAppointmentStatusChangedEvent(AppointmentStatusChangedEvent event) {
+        dashboardService.applyAppointmentStatusChange(event.getOldStatus(), event.getNewStatus(), event.getScheduledAt());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handlePaymentCompletedEvent(PaymentCompletedEvent event) {
+        dashboardService.applyPaymentCompleted(event.getAmount(), event.getScheduledAt());
+    }
+}
@@ -0,0 +1,22 @@
+package com.fpt.evcare.event;
+
+import com.fpt.evcare.dto.response.MessageResponse;
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Event được publish khi sender xóa (soft delete) tin nhắn
+ * wasUnread = tin nhắn chưa được receiver đọc lúc bị xóa, để trừ số chưa đọc của receiver
+ */
+@Getter
+public class MessageDeletedEvent extends ApplicationEvent {
+
+    private final MessageResponse message;
+    private final boolean wasUnread;
+
+    public MessageDeletedEvent(Object source, MessageResponse message, boolean wasUnread) {
+        super(source);
+        this.message = message;
+        this.wasUnread = wasUnread;
+    }
+}
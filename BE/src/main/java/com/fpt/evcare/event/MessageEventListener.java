@@ -1,66 +1,73 @@
 package com.fpt.evcare.event;
 
 import com.fpt.evcare.constants.MessageConstants;
+import com.fpt.evcare.dto.response.MessageAckResponse;
 import com.fpt.evcare.dto.response.MessageResponse;
+import com.fpt.evcare.service.WebSocketDeliveryService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.event.EventListener;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class MessageEventListener {
 
-    private final SimpMessagingTemplate messagingTemplate;
+    private final WebSocketDeliveryService webSocketDeliveryService;
 
     /**
-     * Khi có tin nhắn mới, gửi đến receiver qua WebSocket
+     * Khi có tin nhắn mới (sau khi commit), gửi đến receiver qua WebSocket
+     * Việc gửi chạy ở WebSocketDeliveryService, không giữ transaction/thread của request
      */
-    @EventListener
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
     public void handleMessageCreatedEvent(MessageCreatedEvent event) {
         MessageResponse message = event.getMessage();
-        try {
-            // Send to receiver
-            messagingTemplate.convertAndSendToUser(
-                    message.getReceiverId().toString(),
-                    MessageConstants.WS_TOPIC_USER_MESSAGES, 
-                    message
-            );
-            
-            // Echo back to sender (for UI sync)
-            messagingTemplate.convertAndSendToUser(
-                    message.getSenderId().toString(),
-                    MessageConstants.WS_TOPIC_USER_MESSAGES, 
-                    message
-            );
-
-            log.info("✅ Sent message: {} → {} (echoed to both)", 
-                    message.getSenderName(), message.getReceiverName());
-        } catch (Exception e) {
-            log.error("❌ Failed to send WebSocket message", e);
-        }
+        // Gửi cho receiver và echo lại cho sender (để đồng bộ UI), payload serialize một lần
+        webSocketDeliveryService.sendToUsers(
+                List.of(message.getReceiverId(), message.getSenderId()),
+                MessageConstants.WS_TOPIC_USER_MESSAGES,
+                message
+        );
+        log.debug("Queued message {}: {} → {} (echoed to both)",
+                message.getMessageId(), message.getSenderName(), message.getReceiverName());
     }
 
     /**
      * Khi status của message thay đổi (DELIVERED hoặc READ), gửi update qua WebSocket đến sender
+     * Nhiều update của cùng một tin nhắn chưa kịp gửi thì chỉ gửi trạng thái mới nhất
      */
-    @EventListener
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
     public void handleMessageStatusUpdatedEvent(MessageStatusUpdatedEvent event) {
         MessageResponse message = event.getMessage();
-        try {
-            // Gửi status update đến sender để update UI (hiện ✓ hoặc ✓✓)
-            messagingTemplate.convertAndSendToUser(
-                    message.getSenderId().toString(),
-                    MessageConstants.WS_TOPIC_USER_MESSAGES,
-                    message
-            );
+        webSocketDeliveryService.sendCoalesced(
+                message.getSenderId(),
+                MessageConstants.WS_TOPIC_USER_MESSAGES,
+                message.getMessageId().toString(),
+                message
+        );
+        log.debug("Queued status update: Message {} is now {} (sent to sender {})",
+                message.getMessageId(), message.getStatus(), message.getSenderId());
+    }
 
-            log.info("✅ Sent status update: Message {} is now {} (sent to sender {})", 
-                    message.getMessageId(), message.getStatus(), message.getSenderId());
-        } catch (Exception e) {
-            log.error("❌ Failed to send status update via WebSocket", e);
-        }
+    /**
+     * Khi receiver xác nhận theo mốc (đã nhận/đã đọc tới sentAt X), gửi một event gọn đến sender
+     * Các xác nhận cùng loại chưa kịp gửi thì chỉ gửi mốc mới nhất
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleMessagesAcknowledgedEvent(MessagesAcknowledgedEvent event) {
+        MessageAckResponse acknowledgement = event.getAcknowledgement();
+        webSocketDeliveryService.sendCoalesced(
+                acknowledgement.getSenderId(),
+                MessageConstants.WS_TOPIC_USER_MESSAGE_ACKS,
+                acknowledgement.getReaderId() + ":" + acknowledgement.getStatus(),
+                acknowledgement
+        );
+        log.debug("Queued acknowledgement: {} {} messages of {} up to {}",
+                acknowledgement.getReaderId(), acknowledgement.getStatus(),
+                acknowledgement.getSenderId(), acknowledgement.getUpTo());
     }
 }
@@ -0,0 +1,20 @@
+package com.fpt.evcare.event;
+
+import com.fpt.evcare.dto.response.MessageAckResponse;
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Event được publish khi receiver xác nhận đã nhận/đã đọc nhiều tin nhắn theo mốc sentAt
+ * EventListener sẽ gửi một event gọn qua WebSocket đến sender thay vì từng tin nhắn
+ */
+@Getter
+public class MessagesAcknowledgedEvent extends ApplicationEvent {
+
+    private final MessageAckResponse acknowledgement;
+
+    public MessagesAcknowledgedEvent(Object source, MessageAckResponse acknowledgement) {
+        super(source);
+        this.acknowledgement = acknowledgement;
+    }
+}
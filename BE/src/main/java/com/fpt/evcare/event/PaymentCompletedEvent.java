@@ -0,0 +1,27 @@
+package com.fpt.evcare.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Event được publish khi 1 giao dịch thanh toán chuyển sang SUCCESS
+ * scheduledAt là ngày hẹn của appointment - doanh thu dashboard được tính theo tháng của ngày hẹn
+ */
+@Getter
+public class PaymentCompletedEvent extends ApplicationEvent {
+
+    private final UUID appointmentId;
+    private final BigDecimal amount;
+    private final LocalDateTime scheduledAt;
+
+    public PaymentCompletedEvent(Object source, UUID appointmentId, BigDecimal amount, LocalDateTime scheduledAt) {
+        super(source);
+        this.appointmentId = appointmentId;
+        this.amount = amount;
+        this.scheduledAt = scheduledAt;
+    }
+}
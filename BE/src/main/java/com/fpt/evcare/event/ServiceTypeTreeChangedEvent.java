@@ -0,0 +1,21 @@
+package com.fpt.evcare.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.UUID;
+
+/**
+ * Event được publish khi dịch vụ, phụ tùng của dịch vụ hoặc giá phụ tùng thay đổi
+ * ServiceTypeTreeService dựng lại cây dịch vụ của loại xe tương ứng sau khi commit
+ */
+@Getter
+public class ServiceTypeTreeChangedEvent extends ApplicationEvent {
+
+    private final UUID vehicleTypeId;
+
+    public ServiceTypeTreeChangedEvent(Object source, UUID vehicleTypeId) {
+        super(source);
+        this.vehicleTypeId = vehicleTypeId;
+    }
+}
@@ -0,0 +1,69 @@
+package com.fpt.evcare.event;
+
+import com.fpt.evcare.service.ServiceTypeTreeService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.UUID;
+
+/**
+ * Giữ cây dịch vụ trong bộ nhớ đồng bộ với database
+ * - Thay đổi ở instance này: dựng lại cây sau khi commit rồi báo cho các instance khác qua Redis pub/sub
+ * - Nhận thông báo từ instance khác: dựng lại cây của loại xe tương ứng
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ServiceTypeTreeEventListener implements MessageListener {
+
+    private static final String CHANNEL = "service-type:tree:invalidate";
+    private static final String SEPARATOR = "|";
+    private static final String ALL_VEHICLE_TYPES = "*";
+
+    private final ServiceTypeTreeService serviceTypeTreeService;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+
+    // Bỏ qua thông báo do chính instance này gửi
+    private final String instanceId = UUID.randomUUID().toString();
+
+    @PostConstruct
+    public void subscribe() {
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleServiceTypeTreeChangedEvent(ServiceTypeTreeChangedEvent event) {
+        UUID vehicleTypeId = event.getVehicleTypeId();
+        serviceTypeTreeService.refresh(vehicleTypeId);
+        try {
+            String target = vehicleTypeId != null ? vehicleTypeId.toString() : ALL_VEHICLE_TYPES;
+            redisTemplate.convertAndSend(CHANNEL, instanceId + SEPARATOR + target);
+        } catch (Exception e) {
+            log.warn("Cannot publish service type tree invalidation for vehicle type {}: {}", vehicleTypeId, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            String payload = (String) redisTemplate.getValueSerializer().deserialize(message.getBody());
+            if (payload == null || payload.startsWith(instanceId + SEPARATOR)) {
+                return;
+            }
+            String target = payload.substring(payload.indexOf(SEPARATOR) + 1);
+            serviceTypeTreeService.refresh(ALL_VEHICLE_TYPES.equals(target) ? null : UUID.fromString(target));
+        } catch (Exception e) {
+            log.warn("Invalid service type tree invalidation message: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.fpt.evcare.event;
+
+import com.fpt.evcare.service.ShiftIntervalIndexService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.UUID;
+
+/**
+ * Giữ ShiftIntervalIndexService đồng bộ với database
+ * - Ca thay đổi ở instance này: nạp lại ca sau khi commit rồi báo cho các instance khác qua Redis pub/sub
+ * - Nhận thông báo từ instance khác: nạp lại ca tương ứng
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ShiftIntervalIndexEventListener implements MessageListener {
+
+    private static final String CHANNEL = "shift:interval-index:invalidate";
+    private static final String SEPARATOR = "|";
+
+    private final ShiftIntervalIndexService shiftIntervalIndexService;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+
+    // Bỏ qua thông báo do chính instance này gửi
+    private final String instanceId = UUID.randomUUID().toString();
+
+    @PostConstruct
+    public void subscribe() {
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        shiftIntervalIndexService.rebuild();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleShiftScheduleChangedEvent(ShiftScheduleChangedEvent event) {
+        shiftIntervalIndexService.refreshShift(event.getShiftId());
+        try {
+            redisTemplate.convertAndSend(CHANNEL, instanceId + SEPARATOR + event.getShiftId());
+        } catch (Exception e) {
+            log.warn("Cannot publish shift interval index invalidation for shift {}: {}", event.getShiftId(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            String payload = (String) redisTemplate.getValueSerializer().deserialize(message.getBody());
+            if (payload == null || payload.startsWith(instanceId + SEPARATOR)) {
+                return;
+            }
+            UUID shiftId = UUID.fromString(payload.substring(payload.indexOf(SEPARATOR) + 1));
+            shiftIntervalIndexService.refreshShift(shiftId);
+        } catch (Exception e) {
+            log.warn("Invalid shift interval index invalidation message: {}", e.getMessage());
+        }
+    }
+}
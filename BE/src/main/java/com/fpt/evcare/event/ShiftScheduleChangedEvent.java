@@ -0,0 +1,26 @@
+package com.fpt.evcare.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Event được publish khi ca làm việc được tạo, đổi giờ hoặc phân công
+ * ShiftTransitionTimer dùng startTime/endTime để hẹn giờ chuyển trạng thái đúng thời điểm
+ */
+@Getter
+public class ShiftScheduleChangedEvent extends ApplicationEvent {
+
+    private final UUID shiftId;
+    private final LocalDateTime startTime;
+    private final LocalDateTime endTime;
+
+    public ShiftScheduleChangedEvent(Object source, UUID shiftId, LocalDateTime startTime, LocalDateTime endTime) {
+        super(source);
+        this.shiftId = shiftId;
+        this.startTime = startTime;
+        this.endTime = endTime;
+    }
+}
@@ -0,0 +1,52 @@
+package com.fpt.evcare.event;
+
+import com.fpt.evcare.dto.response.MessageAckResponse;
+import com.fpt.evcare.dto.response.MessageResponse;
+import com.fpt.evcare.enums.MessageStatusEnum;
+import com.fpt.evcare.service.UnreadCountService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Cập nhật bộ đếm tin nhắn chưa đọc trong Redis sau khi commit (rollback thì không đếm)
+ * UnreadCountService tự đẩy số mới qua WebSocket cho receiver
+ */
+@Component
+@RequiredArgsConstructor
+public class UnreadCountEventListener {
+
+    private final UnreadCountService unreadCountService;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleMessageCreatedEvent(MessageCreatedEvent event) {
+        MessageResponse message = event.getMessage();
+        unreadCountService.messagesReceived(message.getReceiverId(), message.getSenderId(), 1);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleMessageStatusUpdatedEvent(MessageStatusUpdatedEvent event) {
+        MessageResponse message = event.getMessage();
+        if (message.getStatus() == MessageStatusEnum.READ) {
+            unreadCountService.messagesRead(message.getReceiverId(), message.getSenderId(), 1);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleMessagesAcknowledgedEvent(MessagesAcknowledgedEvent event) {
+        MessageAckResponse acknowledgement = event.getAcknowledgement();
+        if (acknowledgement.getStatus() == MessageStatusEnum.READ) {
+            unreadCountService.messagesRead(acknowledgement.getReaderId(), acknowledgement.getSenderId(),
+                    acknowledgement.getUpdatedCount());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleMessageDeletedEvent(MessageDeletedEvent event) {
+        if (event.isWasUnread()) {
+            MessageResponse message = event.getMessage();
+            unreadCountService.messagesRead(message.getReceiverId(), message.getSenderId(), 1);
+        }
+    }
+}
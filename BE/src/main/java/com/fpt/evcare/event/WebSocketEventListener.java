@@ -5,7 +5,10 @@ import com.fpt.evcare.entity.UserEntity;
 import com.fpt.evcare.enums.RoleEnum;
 import com.fpt.evcare.repository.MessageAssignmentRepository;
 import com.fpt.evcare.repository.UserRepository;
+import com.fpt.evcare.constants.MessageConstants;
 import com.fpt.evcare.service.MessageAssignmentService;
+import com.fpt.evcare.service.UnreadCountService;
+import com.fpt.evcare.service.WebSocketPresenceService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.event.EventListener;
@@ -14,6 +17,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.socket.messaging.SessionConnectedEvent;
 import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
 
 import java.security.Principal;
 import java.util.List;
@@ -32,6 +36,8 @@ public class WebSocketEventListener {
     private final UserRepository userRepository;
     private final MessageAssignmentRepository assignmentRepository;
     private final MessageAssignmentService messageAssignmentService;
+    private final WebSocketPresenceService webSocketPresenceService;
+    private final UnreadCountService unreadCountService;
 
   
     @EventListener
@@ -45,6 +51,7 @@ public class WebSocketEventListener {
 
         try {
             UUID userId = UUID.fromString(principal.getName());
+            webSocketPresenceService.sessionConnected(userId, headerAccessor.getSessionId());
             UserEntity user = userRepository.findByUserIdAndIsDeletedFalse(userId);
             
             if (user == null) {
@@ -74,6 +81,27 @@ public class WebSocketEventListener {
         }
     }
 
+    /**
+     * Khi client subscribe /user/queue/unread-count → gửi ngay số chưa đọc hiện tại, sau đó chỉ gửi khi có thay đổi
+     */
+    @EventListener
+    public void handleSessionSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor headerAccessor = StompHeaderAccessor.wrap(event.getMessage());
+        Principal principal = headerAccessor.getUser();
+        String destination = headerAccessor.getDestination();
+
+        if (principal == null || !("/user" + MessageConstants.WS_TOPIC_USER_UNREAD_COUNT).equals(destination)) {
+            return;
+        }
+
+        try {
+            unreadCountService.pushUnreadCounts(UUID.fromString(principal.getName()));
+        } catch (Exception e) {
+            log.error("❌ Error sending unread count snapshot to user {}: {}",
+                    principal.getName(), e.getMessage(), e);
+        }
+    }
+
     /**
      * Khi user disconnect WebSocket → set isActive = false (nếu là STAFF/ADMIN)
      */
@@ -88,6 +116,12 @@ public class WebSocketEventListener {
 
         try {
             UUID userId = UUID.fromString(principal.getName());
+            webSocketPresenceService.sessionDisconnected(userId, event.getSessionId());
+            // Còn session khác (tab khác hoặc instance khác) thì user vẫn online
+            if (webSocketPresenceService.isOnline(userId)) {
+                log.debug("User {} still has other WebSocket sessions", userId);
+                return;
+            }
             UserEntity user = userRepository.findByUserIdAndIsDeletedFalse(userId);
             
             if (user == null) {
@@ -0,0 +1,51 @@
+package com.fpt.evcare.initializer;
+
+import com.fpt.evcare.repository.AppointmentListViewRepository;
+import com.fpt.evcare.repository.AppointmentRepository;
+import com.fpt.evcare.service.AppointmentListViewService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@Order(300) // Chạy sau tất cả initializer tạo appointment (AppointmentData, ShiftData, VnPayTestDataInitializer)
+public class AppointmentListViewData implements CommandLineRunner {
+
+    private final AppointmentRepository appointmentRepository;
+    private final AppointmentListViewRepository appointmentListViewRepository;
+    private final AppointmentListViewService appointmentListViewService;
+    // Bật để ép đồng bộ lại toàn bảng khi khởi động (vd. sau khi sửa dữ liệu trực tiếp trên database)
+    private final boolean resyncOnStartup;
+
+    public AppointmentListViewData(AppointmentRepository appointmentRepository,
+                                   AppointmentListViewRepository appointmentListViewRepository,
+                                   AppointmentListViewService appointmentListViewService,
+                                   @Value("${appointment-list-view.resync-on-startup:false}") boolean resyncOnStartup) {
+        this.appointmentRepository = appointmentRepository;
+        this.appointmentListViewRepository = appointmentListViewRepository;
+        this.appointmentListViewService = appointmentListViewService;
+        this.resyncOnStartup = resyncOnStartup;
+    }
+
+    @Override
+    public void run(String... args) {
+        // Mặc định chỉ dựng lại khi số dòng lệch với bảng appointments (lần đầu deploy, dữ liệu seed ghi thẳng repository);
+        // lệch nội dung mà số dòng khớp thì bật appointment-list-view.resync-on-startup
+        long appointmentCount = appointmentRepository.count();
+        long listViewCount = appointmentListViewRepository.count();
+        if (!resyncOnStartup && appointmentCount == listViewCount) {
+            log.info("✅ appointment_list_view is up to date ({} rows), skipping resync...", listViewCount);
+            return;
+        }
+
+        log.info("🚀 Resyncing appointment_list_view ({} appointments, {} rows)...", appointmentCount, listViewCount);
+        try {
+            appointmentListViewService.rebuildAll();
+        } catch (Exception e) {
+            log.error("❌ Failed to resync appointment_list_view: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.fpt.evcare.initializer;
+
+import com.fpt.evcare.repository.ConversationRepository;
+import com.fpt.evcare.repository.MessageRepository;
+import com.fpt.evcare.service.ConversationService;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Order(310) // Chạy sau các initializer seed dữ liệu
+public class ConversationData implements CommandLineRunner {
+
+    ConversationRepository conversationRepository;
+    MessageRepository messageRepository;
+    ConversationService conversationService;
+
+    @Override
+    public void run(String... args) {
+        // Chỉ dựng lại lần đầu deploy bảng conversations (đã có messages nhưng chưa có dòng tóm tắt nào)
+        if (conversationRepository.count() > 0 || messageRepository.count() == 0) {
+            log.info("✅ conversations is up to date, skipping rebuild...");
+            return;
+        }
+
+        log.info("🚀 Rebuilding conversations from messages...");
+        try {
+            conversationService.rebuildAll();
+        } catch (Exception e) {
+            log.error("❌ Failed to rebuild conversations: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.fpt.evcare.initializer;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Order(0) // Chạy trước các initializer seed dữ liệu
+public class SearchIndexInitializer implements CommandLineRunner {
+
+    // Các cột được tìm kiếm bằng LOWER(col) LIKE '%keyword%' trong repository
+    // -> index GIN pg_trgm trên biểu thức lower(col) để tránh quét toàn bảng
+    public static final List<SearchIndex> SEARCH_INDEXES = List.of(
+            new SearchIndex("appointments", "search"),
+            new SearchIndex("appointments", "customer_full_name"),
+            new SearchIndex("appointments", "customer_email"),
+            new SearchIndex("appointments", "customer_phone_number"),
+            new SearchIndex("appointment_list_view", "search"),
+            new SearchIndex("shifts", "search"),
+            new SearchIndex("shifts", "notes"),
+            new SearchIndex("invoices", "search"),
+            new SearchIndex("maintenance_managements", "search"),
+            new SearchIndex("maintenance_records", "search"),
+            new SearchIndex("vehicle_part_inventories", "search"),
+            new SearchIndex("vehicle_part_categories", "search"),
+            new SearchIndex("vehicle_types", "search"),
+            new SearchIndex("vehicles", "search"),
+            new SearchIndex("warranty_parts", "search"),
+            new SearchIndex("users", "search"),
+            new SearchIndex("employee_profiles", "search")
+    );
+
+    JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(String... args) {
+        // pg_trgm chỉ có trên PostgreSQL, DB khác (test) thì bỏ qua
+        if (!isPostgreSql()) {
+            log.info("✅ Database is not PostgreSQL, skipping search index creation...");
+            return;
+        }
+
+        try {
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+        } catch (Exception e) {
+            log.warn("⚠️ Cannot enable pg_trgm extension, search will fall back to sequential scan: {}", e.getMessage());
+            return;
+        }
+
+        int createdCount = 0;
+        for (SearchIndex index : SEARCH_INDEXES) {
+            try {
+                // CREATE ... CONCURRENTLY lỗi giữa chừng để lại index INVALID, IF NOT EXISTS sẽ bỏ qua nó mãi mãi
+                if (isInvalid(index)) {
+                    log.warn("⚠️ Search index {} is INVALID (previous build failed), recreating...", index.name());
+                    jdbcTemplate.execute(index.dropSql());
+                }
+                jdbcTemplate.execute(index.createSql());
+                createdCount++;
+            } catch (Exception e) {
+                log.warn("⚠️ Failed to create search index {}: {}", index.name(), e.getMessage());
+            }
+        }
+        log.info("✅ Ensured {}/{} trigram search indexes", createdCount, SEARCH_INDEXES.size());
+    }
+
+    private boolean isInvalid(SearchIndex index) {
+        List<Boolean> valid = jdbcTemplate.queryForList(
+                "SELECT i.indisvalid FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid WHERE c.relname = ?",
+                Boolean.class, index.name());
+        return valid.contains(Boolean.FALSE);
+    }
+
+    private boolean isPostgreSql() {
+        try {
+            String productName = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            return "PostgreSQL".equalsIgnoreCase(productName);
+        } catch (Exception e) {
+            log.warn("⚠️ Cannot detect database product: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    public record SearchIndex(String table, String column) {
+
+        public String name() {
+            return "idx_" + table + "_" + column + "_trgm";
+        }
+
+        // CONCURRENTLY để không khóa ghi khi tạo index trên bảng đã có dữ liệu (prod: ddl-auto=update)
+        public String createSql() {
+            return "CREATE INDEX CONCURRENTLY IF NOT EXISTS " + name()
+                    + " ON " + table + " USING gin (lower(" + column + ") gin_trgm_ops)";
+        }
+
+        public String dropSql() {
+            return "DROP INDEX CONCURRENTLY IF EXISTS " + name();
+        }
+    }
+}
@@ -21,6 +21,7 @@ public interface ServiceTypeMapper {
     @Mapping(target = "children", ignore = true) // Ignore children to avoid recursion
     @Mapping(target = "serviceTypeVehiclePartResponses", ignore = true) // Ignore children to avoid recursion
     @Mapping(target = "vehicleTypeResponse", ignore = true)
+    @Mapping(target = "estimatedPartCost", ignore = true)
     ServiceTypeResponse toResponse (ServiceTypeEntity serviceTypeEntity);
 
     @Mapping(target = "serviceName", ignore = true)
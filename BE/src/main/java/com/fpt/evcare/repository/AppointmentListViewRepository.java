@@ -0,0 +1,94 @@
+package com.fpt.evcare.repository;
+
+import com.fpt.evcare.dto.response.AppointmentListItemResponse;
+import com.fpt.evcare.entity.AppointmentListViewEntity;
+import com.fpt.evcare.enums.AppointmentStatusEnum;
+import com.fpt.evcare.enums.ServiceModeEnum;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.UUID;
+
+public interface AppointmentListViewRepository extends JpaRepository<AppointmentListViewEntity, UUID> {
+
+    // Danh sách cho admin/staff, đọc trực tiếp vào DTO (không load entity)
+    @Query(value = """
+        SELECT new com.fpt.evcare.dto.response.AppointmentListItemResponse(
+            v.appointmentId, v.customerId, v.customerFullName, v.customerPhoneNumber, v.customerEmail,
+            v.assigneeId, v.assigneeFullName, v.technicianNames, v.serviceTypeNames,
+            v.serviceMode, v.status, v.vehicleTypeId, v.vehicleTypeName, v.vehicleNumberPlate,
+            v.scheduledAt, v.quotePrice, v.isWarrantyAppointment)
+        FROM AppointmentListViewEntity v
+        WHERE v.isDeleted = false
+          AND v.isActive = true
+          AND (:keyword IS NULL OR LOWER(v.search) LIKE LOWER(CONCAT('%', :keyword, '%')))
+          AND (:status IS NULL OR v.status = :status)
+          AND (:serviceMode IS NULL OR v.serviceMode = :serviceMode)
+          AND (:fromDate IS NULL OR v.scheduledAt >= :fromDate)
+          AND (:toDate IS NULL OR v.scheduledAt <= :toDate)
+        ORDER BY v.isWarrantyAppointment DESC, v.scheduledAt DESC
+        """,
+            countQuery = """
+        SELECT COUNT(v)
+        FROM AppointmentListViewEntity v
+        WHERE v.isDeleted = false
+          AND v.isActive = true
+          AND (:keyword IS NULL OR LOWER(v.search) LIKE LOWER(CONCAT('%', :keyword, '%')))
+          AND (:status IS NULL OR v.status = :status)
+          AND (:serviceMode IS NULL OR v.serviceMode = :serviceMode)
+          AND (:fromDate IS NULL OR v.scheduledAt >= :fromDate)
+          AND (:toDate IS NULL OR v.scheduledAt <= :toDate)
+        """)
+    Page<AppointmentListItemResponse> findListItems(
+            @Param("keyword") String keyword,
+            @Param("status") AppointmentStatusEnum status,
+            @Param("serviceMode") ServiceModeEnum serviceMode,
+            @Param("fromDate") LocalDateTime fromDate,
+            @Param("toDate") LocalDateTime toDate,
+            Pageable pageable);
+
+    // Danh sách cuộc hẹn của 1 khách hàng
+    @Query(value = """
+        SELECT new com.fpt.evcare.dto.response.AppointmentListItemResponse(
+            v.appointmentId, v.customerId, v.customerFullName, v.customerPhoneNumber, v.customerEmail,
+            v.assigneeId, v.assigneeFullName, v.technicianNames, v.serviceTypeNames,
+            v.serviceMode, v.status, v.vehicleTypeId, v.vehicleTypeName, v.vehicleNumberPlate,
+            v.scheduledAt, v.quotePrice, v.isWarrantyAppointment)
+        FROM AppointmentListViewEntity v
+        WHERE v.isDeleted = false
+          AND v.isActive = true
+          AND v.customerId = :customerId
+          AND (:keyword IS NULL OR LOWER(v.search) LIKE LOWER(CONCAT('%', :keyword, '%')))
+        ORDER BY v.scheduledAt DESC
+        """,
+            countQuery = """
+        SELECT COUNT(v)
+        FROM AppointmentListViewEntity v
+        WHERE v.isDeleted = false
+          AND v.isActive = true
+          AND v.customerId = :customerId
+          AND (:keyword IS NULL OR LOWER(v.search) LIKE LOWER(CONCAT('%', :keyword, '%')))
+        """)
+    Page<AppointmentListItemResponse> findListItemsByCustomerId(
+            @Param("customerId") UUID customerId,
+            @Param("keyword") String keyword,
+            Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM AppointmentListViewEntity v WHERE v.appointmentId IN :appointmentIds")
+    void deleteByAppointmentIdIn(@Param("appointmentIds") Collection<UUID> appointmentIds);
+
+    // Xóa các dòng không còn appointment gốc (appointment bị xóa cứng mà không publish event)
+    @Modifying
+    @Query("""
+        DELETE FROM AppointmentListViewEntity v
+        WHERE NOT EXISTS (SELECT 1 FROM AppointmentEntity a WHERE a.appointmentId = v.appointmentId)
+        """)
+    int deleteOrphanRows();
+}
@@ -1,6 +1,7 @@
 package com.fpt.evcare.repository;
 
 
+import com.fpt.evcare.dto.response.AppointmentStatsResponse;
 import com.fpt.evcare.entity.AppointmentEntity;
 import com.fpt.evcare.entity.MaintenanceManagementEntity;
 import org.springframework.data.repository.query.Param;
@@ -10,6 +11,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -24,6 +26,51 @@ public interface AppointmentRepository extends JpaRepository<AppointmentEntity,
         """, nativeQuery = true)
     Page<AppointmentEntity> findByIsDeletedFalse(Pageable pageable);
     
+    /**
+     * Batch-load customer, assignee, kỹ thuật viên (kèm role) và loại xe cho cả một trang appointment.
+     * Dùng sau câu query phân trang để tránh lazy load từng dòng (N+1).
+     */
+    @Query("""
+        SELECT DISTINCT a
+        FROM AppointmentEntity a
+        LEFT JOIN FETCH a.customer c
+        LEFT JOIN FETCH c.role
+        LEFT JOIN FETCH a.assignee asg
+        LEFT JOIN FETCH asg.role
+        LEFT JOIN FETCH a.vehicleTypeEntity
+        LEFT JOIN FETCH a.technicianEntities t
+        LEFT JOIN FETCH t.role
+        WHERE a.appointmentId IN :appointmentIds
+        """)
+    List<AppointmentEntity> fetchUsersAndVehicleTypeByAppointmentIdIn(@Param("appointmentIds") Collection<UUID> appointmentIds);
+
+    /**
+     * Batch-load danh sách dịch vụ (kèm dịch vụ cha và loại xe) cho cả một trang appointment.
+     * Tách riêng khỏi query trên vì Hibernate không cho fetch 2 bag (List) trong cùng một query.
+     */
+    @Query("""
+        SELECT DISTINCT a
+        FROM AppointmentEntity a
+        LEFT JOIN FETCH a.serviceTypeEntities st
+        LEFT JOIN FETCH st.vehicleTypeEntity
+        LEFT JOIN FETCH st.parent p
+        LEFT JOIN FETCH p.vehicleTypeEntity
+        WHERE a.appointmentId IN :appointmentIds
+        """)
+    List<AppointmentEntity> fetchServiceTypesByAppointmentIdIn(@Param("appointmentIds") Collection<UUID> appointmentIds);
+
+    // Keyset theo id cho các job quét toàn bảng (dựng lại appointment_list_view): thứ tự ổn định, không OFFSET
+    @Query("SELECT a.appointmentId FROM AppointmentEntity a WHERE a.appointmentId > :afterId ORDER BY a.appointmentId")
+    List<UUID> findAppointmentIdsAfter(@Param("afterId") UUID afterId, Pageable pageable);
+
+    // Lấy id các appointment có sử dụng 1 trong các dịch vụ (để cập nhật appointment_list_view khi dịch vụ đổi)
+    @Query(value = """
+        SELECT DISTINCT ast.appointment_id
+        FROM appointment_service_types ast
+        WHERE ast.service_type_id IN (:serviceTypeIds)
+        """, nativeQuery = true)
+    List<UUID> findAppointmentIdsByServiceTypeIdIn(@Param("serviceTypeIds") Collection<UUID> serviceTypeIds);
+
     @Query(value = """
         SELECT a.* 
         FROM appointments a
@@ -68,9 +115,12 @@ public interface AppointmentRepository extends JpaRepository<AppointmentEntity,
             @Param("appointmentId") UUID appointmentId
     );
 
-    Page<AppointmentEntity> findAllBySearchContainingIgnoreCaseAndCustomerIsNull(String keyword, Pageable pageable);
+    // Dùng LOWER(...) khớp với index trigram lower(search) (IgnoreCase của Spring Data sinh ra UPPER)
+    @Query("SELECT a FROM AppointmentEntity a WHERE LOWER(a.search) LIKE LOWER(CONCAT('%', :keyword, '%')) AND a.customer IS NULL")
+    Page<AppointmentEntity> searchByKeywordAndCustomerIsNull(@Param("keyword") String keyword, Pageable pageable);
 
-    Page<AppointmentEntity> findAllBySearchContainingIgnoreCaseAndCustomerIsNotNull(String keyword, Pageable pageable);
+    @Query("SELECT a FROM AppointmentEntity a WHERE LOWER(a.search) LIKE LOWER(CONCAT('%', :keyword, '%')) AND a.customer IS NOT NULL")
+    Page<AppointmentEntity> searchByKeywordAndCustomerIsNotNull(@Param("keyword") String keyword, Pageable pageable);
 
     // Query để tìm kiếm theo email hoặc phone cho khách hàng đã đăng nhập (có customer)
     @Query(value = """
@@ -160,6 +210,60 @@ public interface AppointmentRepository extends JpaRepository<AppointmentEntity,
             @Param("toDate") String toDate,
             Pageable pageable);
 
+    // Keyset pagination: cùng filter và thứ tự với findAppointmentsWithFilters, trang sau bắt đầu ngay sau
+    // dòng cuối (is_warranty_appointment, scheduled_at, id) của trang trước thay vì OFFSET
+    // scheduled_at NULL đứng đầu nhóm (DESC NULLS FIRST, giống mặc định của Postgres và thứ tự quét ngược index);
+    // so sánh tuple bỏ qua dòng NULL nên cursor có scheduled_at NULL đi nhánh riêng
+    @Query(value = """
+        SELECT a.* 
+        FROM appointments a
+        WHERE a.is_deleted = FALSE
+          AND a.is_active = TRUE
+          AND (:keyword IS NULL OR :keyword = '' OR LOWER(a.search) LIKE LOWER(CONCAT('%', :keyword, '%')))
+          AND (:status IS NULL OR :status = '' OR UPPER(a.status) = UPPER(:status))
+          AND (:serviceMode IS NULL OR :serviceMode = '' OR UPPER(a.service_mode) = UPPER(:serviceMode))
+          AND (:fromDate IS NULL OR a.scheduled_at >= CAST(:fromDate AS TIMESTAMP))
+          AND (:toDate IS NULL OR a.scheduled_at <= CAST(:toDate AS TIMESTAMP))
+          AND (:cursorId IS NULL
+               OR (:cursorScheduledAt IS NOT NULL
+                   AND (a.is_warranty_appointment, a.scheduled_at, a.id)
+                       < (CAST(:cursorWarranty AS BOOLEAN), CAST(:cursorScheduledAt AS TIMESTAMP), CAST(:cursorId AS UUID)))
+               OR (:cursorScheduledAt IS NULL
+                   AND (a.is_warranty_appointment < CAST(:cursorWarranty AS BOOLEAN)
+                        OR (a.is_warranty_appointment = CAST(:cursorWarranty AS BOOLEAN)
+                            AND (a.scheduled_at IS NOT NULL OR a.id < CAST(:cursorId AS UUID))))))
+        ORDER BY a.is_warranty_appointment DESC, a.scheduled_at DESC NULLS FIRST, a.id DESC
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<AppointmentEntity> findAppointmentsWithFiltersAfter(
+            @Param("keyword") String keyword,
+            @Param("status") String status,
+            @Param("serviceMode") String serviceMode,
+            @Param("fromDate") String fromDate,
+            @Param("toDate") String toDate,
+            @Param("cursorWarranty") String cursorWarranty,
+            @Param("cursorScheduledAt") String cursorScheduledAt,
+            @Param("cursorId") String cursorId,
+            @Param("limit") int limit);
+
+    @Query(value = """
+        SELECT COUNT(*) 
+        FROM appointments a
+        WHERE a.is_deleted = FALSE
+          AND a.is_active = TRUE
+          AND (:keyword IS NULL OR :keyword = '' OR LOWER(a.search) LIKE LOWER(CONCAT('%', :keyword, '%')))
+          AND (:status IS NULL OR :status = '' OR UPPER(a.status) = UPPER(:status))
+          AND (:serviceMode IS NULL OR :serviceMode = '' OR UPPER(a.service_mode) = UPPER(:serviceMode))
+          AND (:fromDate IS NULL OR a.scheduled_at >= CAST(:fromDate AS TIMESTAMP))
+          AND (:toDate IS NULL OR a.scheduled_at <= CAST(:toDate AS TIMESTAMP))
+        """, nativeQuery = true)
+    long countAppointmentsWithFilters(
+            @Param("keyword") String keyword,
+            @Param("status") String status,
+            @Param("serviceMode") String serviceMode,
+            @Param("fromDate") String fromDate,
+            @Param("toDate") String toDate);
+
     // Dashboard chart queries (PostgreSQL syntax) - only up to current month
     @Query(value = """
         SELECT EXTRACT(MONTH FROM a.scheduled_at) as month, COUNT(*) as count
@@ -211,6 +315,26 @@ public interface AppointmentRepository extends JpaRepository<AppointmentEntity,
         """, nativeQuery = true)
     List<Object[]> countAppointmentsByServiceType();
 
+    // Dashboard statistics - toàn bộ số liệu appointment trong 1 lần quét bảng (aggregate FILTER)
+    @Query("""
+        SELECT new com.fpt.evcare.dto.response.AppointmentStatsResponse(
+            COUNT(a),
+            COUNT(a) FILTER (WHERE a.status = com.fpt.evcare.enums.AppointmentStatusEnum.PENDING),
+            COUNT(a) FILTER (WHERE a.status = com.fpt.evcare.enums.AppointmentStatusEnum.CONFIRMED),
+            COUNT(a) FILTER (WHERE a.status = com.fpt.evcare.enums.AppointmentStatusEnum.COMPLETED),
+            COUNT(a) FILTER (WHERE a.status = com.fpt.evcare.enums.AppointmentStatusEnum.CANCELLED),
+            COUNT(a) FILTER (WHERE a.scheduledAt BETWEEN :startOfMonth AND :endOfMonth),
+            COUNT(a) FILTER (WHERE a.scheduledAt BETWEEN :startOfLastMonth AND :endOfLastMonth),
+            COUNT(DISTINCT a.vehicleNumberPlate)
+        )
+        FROM AppointmentEntity a
+        WHERE a.isDeleted = false AND a.isActive = true
+        """)
+    AppointmentStatsResponse getAppointmentStats(@Param("startOfMonth") LocalDateTime startOfMonth,
+                                                 @Param("endOfMonth") LocalDateTime endOfMonth,
+                                                 @Param("startOfLastMonth") LocalDateTime startOfLastMonth,
+                                                 @Param("endOfLastMonth") LocalDateTime endOfLastMonth);
+
     // Dashboard statistics queries
     @Query("SELECT COUNT(a) FROM AppointmentEntity a WHERE a.isDeleted = false AND a.isActive = true")
     Long countTotalActiveAppointments();
@@ -339,4 +463,28 @@ public interface AppointmentRepository extends JpaRepository<AppointmentEntity,
             @Param("customerPhoneNumber") String customerPhoneNumber,
             @Param("customerFullName") String customerFullName);
 
+
+    // Nhận 1 lô cuộc hẹn cần nhắc lịch (giờ hẹn trong (now, until]) và đánh dấu đã nhắc trong cùng câu lệnh
+    // SKIP LOCKED + reminded_for để mỗi giờ hẹn chỉ được 1 instance nhắc đúng 1 lần
+    // Chỉ nhắc cuộc hẹn đặt trước giờ hẹn ít nhất leadSeconds, đặt sát giờ thì khách vừa nhận email xác nhận đặt lịch
+    @Query(value = """
+        UPDATE appointments
+        SET reminded_for = scheduled_at
+        WHERE id IN (
+            SELECT a.id FROM appointments a
+            WHERE a.scheduled_at > :now AND a.scheduled_at <= :until
+              AND a.status IN ('PENDING', 'CONFIRMED')
+              AND a.is_deleted = FALSE
+              AND a.created_at <= a.scheduled_at - make_interval(secs => :leadSeconds)
+              AND (a.reminded_for IS NULL OR a.reminded_for <> a.scheduled_at)
+            ORDER BY a.scheduled_at
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+        )
+        RETURNING *
+        """, nativeQuery = true)
+    List<AppointmentEntity> claimDueReminders(@Param("now") LocalDateTime now,
+                                              @Param("until") LocalDateTime until,
+                                              @Param("leadSeconds") long leadSeconds,
+                                              @Param("limit") int limit);
 }
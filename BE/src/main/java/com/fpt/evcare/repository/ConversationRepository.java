@@ -0,0 +1,121 @@
+package com.fpt.evcare.repository;
+
+import com.fpt.evcare.entity.ConversationEntity;
+import com.fpt.evcare.entity.MessageEntity;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Repository
+public interface ConversationRepository extends JpaRepository<ConversationEntity, UUID> {
+
+    /**
+     * Ghi nhận tin nhắn mới: tạo dòng cho cặp user nếu chưa có, cộng số chưa đọc cho phía nhận
+     * Một câu lệnh nguyên tử nên 2 tin nhắn gửi đồng thời trong cùng cuộc trò chuyện không ghi đè nhau
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO conversations (conversation_id, user_low_id, user_high_id, last_message_id, last_sent_at,
+                                   unread_low_count, unread_high_count, updated_at)
+        VALUES (:id, :lowId, :highId, :messageId, :sentAt, :unreadLow, :unreadHigh, :now)
+        ON CONFLICT (user_low_id, user_high_id) DO UPDATE SET
+            last_message_id = CASE WHEN EXCLUDED.last_sent_at >= conversations.last_sent_at
+                                   THEN EXCLUDED.last_message_id ELSE conversations.last_message_id END,
+            last_sent_at = GREATEST(conversations.last_sent_at, EXCLUDED.last_sent_at),
+            unread_low_count = conversations.unread_low_count + EXCLUDED.unread_low_count,
+            unread_high_count = conversations.unread_high_count + EXCLUDED.unread_high_count,
+            updated_at = EXCLUDED.updated_at
+        """, nativeQuery = true)
+    int upsertOnMessage(@Param("id") UUID id,
+                        @Param("lowId") UUID lowId,
+                        @Param("highId") UUID highId,
+                        @Param("messageId") UUID messageId,
+                        @Param("sentAt") LocalDateTime sentAt,
+                        @Param("unreadLow") int unreadLow,
+                        @Param("unreadHigh") int unreadHigh,
+                        @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE ConversationEntity c " +
+           "SET c.unreadLowCount = GREATEST(c.unreadLowCount - :count, 0), c.updatedAt = :now " +
+           "WHERE c.userLow.userId = :lowId AND c.userHigh.userId = :highId")
+    int decrementUnreadLow(@Param("lowId") UUID lowId,
+                           @Param("highId") UUID highId,
+                           @Param("count") int count,
+                           @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE ConversationEntity c " +
+           "SET c.unreadHighCount = GREATEST(c.unreadHighCount - :count, 0), c.updatedAt = :now " +
+           "WHERE c.userLow.userId = :lowId AND c.userHigh.userId = :highId")
+    int decrementUnreadHigh(@Param("lowId") UUID lowId,
+                            @Param("highId") UUID highId,
+                            @Param("count") int count,
+                            @Param("now") LocalDateTime now);
+
+    /**
+     * Tin cuối bị xóa: trỏ sang tin khác, chỉ khi dòng vẫn đang trỏ vào tin đã xóa (không đè tin mới gửi đồng thời)
+     */
+    @Modifying
+    @Query("UPDATE ConversationEntity c " +
+           "SET c.lastMessage = :message, c.lastSentAt = :sentAt, c.updatedAt = :now " +
+           "WHERE c.userLow.userId = :lowId AND c.userHigh.userId = :highId " +
+           "AND c.lastMessage.messageId = :deletedMessageId")
+    int replaceLastMessage(@Param("lowId") UUID lowId,
+                           @Param("highId") UUID highId,
+                           @Param("deletedMessageId") UUID deletedMessageId,
+                           @Param("message") MessageEntity message,
+                           @Param("sentAt") LocalDateTime sentAt,
+                           @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM ConversationEntity c " +
+           "WHERE c.userLow.userId = :lowId AND c.userHigh.userId = :highId " +
+           "AND c.lastMessage.messageId = :deletedMessageId")
+    int deleteByLastMessage(@Param("lowId") UUID lowId,
+                            @Param("highId") UUID highId,
+                            @Param("deletedMessageId") UUID deletedMessageId);
+
+    /**
+     * Inbox của user: các cuộc trò chuyện mới hoạt động nhất trước, kèm tin nhắn cuối và 2 user trong một câu query
+     */
+    @Query(value = "SELECT c FROM ConversationEntity c " +
+                   "JOIN FETCH c.userLow " +
+                   "JOIN FETCH c.userHigh " +
+                   "JOIN FETCH c.lastMessage " +
+                   "WHERE c.userLow.userId = :userId OR c.userHigh.userId = :userId " +
+                   "ORDER BY c.lastSentAt DESC",
+           countQuery = "SELECT COUNT(c) FROM ConversationEntity c " +
+                        "WHERE c.userLow.userId = :userId OR c.userHigh.userId = :userId")
+    Page<ConversationEntity> findInbox(@Param("userId") UUID userId, Pageable pageable);
+
+    /**
+     * Dựng lại bảng từ messages (lần đầu deploy): mỗi cặp user một dòng, tin cuối và số chưa đọc mỗi phía
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO conversations (conversation_id, user_low_id, user_high_id, last_message_id, last_sent_at,
+                                   unread_low_count, unread_high_count, updated_at)
+        SELECT gen_random_uuid(), p.low_id, p.high_id,
+               (ARRAY_AGG(p.message_id ORDER BY p.sent_at DESC, p.message_id DESC))[1],
+               MAX(p.sent_at),
+               COUNT(*) FILTER (WHERE p.status <> 'READ' AND p.receiver_id = p.low_id),
+               COUNT(*) FILTER (WHERE p.status <> 'READ' AND p.receiver_id = p.high_id),
+               :now
+        FROM (SELECT m.message_id, m.sent_at, m.status, m.receiver_id,
+                     LEAST(m.sender_id, m.receiver_id) AS low_id,
+                     GREATEST(m.sender_id, m.receiver_id) AS high_id
+              FROM messages m
+              WHERE m.is_deleted = FALSE) p
+        GROUP BY p.low_id, p.high_id
+        ON CONFLICT (user_low_id, user_high_id) DO NOTHING
+        """, nativeQuery = true)
+    int rebuildFromMessages(@Param("now") LocalDateTime now);
+}
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -47,6 +48,38 @@ public interface CustomerWarrantyPartRepository extends JpaRepository<CustomerWa
             @Param("vehiclePartId") UUID vehiclePartId,
             @Param("currentDate") LocalDateTime currentDate);
 
+    /**
+     * Tìm warranty còn hiệu lực của customer cho nhiều phụ tùng trong 1 query
+     * Kết quả sắp xếp theo warranty_start_date giảm dần, phía gọi lấy dòng đầu tiên của mỗi phụ tùng
+     */
+    @Query(value = """
+        SELECT cwp.* 
+        FROM customer_warranty_parts cwp
+        WHERE cwp.is_deleted = FALSE
+          AND cwp.is_active = TRUE
+          AND cwp.vehicle_part_id IN (:vehiclePartIds)
+          AND (
+              (:customerId IS NOT NULL AND cwp.customer_id = :customerId)
+              OR
+              (
+                  :customerId IS NULL 
+                  AND cwp.customer_id IS NULL
+                  AND (:customerEmail IS NOT NULL AND :customerEmail != '' 
+                       AND LOWER(cwp.customer_email) = LOWER(:customerEmail))
+                  AND (:customerPhoneNumber IS NOT NULL AND :customerPhoneNumber != '' 
+                       AND cwp.customer_phone_number = :customerPhoneNumber)
+              )
+          )
+          AND cwp.warranty_end_date >= :currentDate
+        ORDER BY cwp.warranty_start_date DESC
+        """, nativeQuery = true)
+    List<CustomerWarrantyPartEntity> findActiveWarrantiesByCustomerAndVehicleParts(
+            @Param("customerId") UUID customerId,
+            @Param("customerEmail") String customerEmail,
+            @Param("customerPhoneNumber") String customerPhoneNumber,
+            @Param("vehiclePartIds") Collection<UUID> vehiclePartIds,
+            @Param("currentDate") LocalDateTime currentDate);
+
     /**
      * Tìm tất cả warranty còn hiệu lực của customer
      */
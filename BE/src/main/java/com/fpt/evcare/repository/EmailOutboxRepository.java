@@ -0,0 +1,72 @@
+package com.fpt.evcare.repository;
+
+import com.fpt.evcare.entity.EmailOutboxEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxEntity, UUID> {
+
+    // Email trùng idempotency key (cùng dedup_key) bị bỏ qua thay vì làm lỗi transaction của nghiệp vụ
+    @Modifying
+    @Query(value = """
+        INSERT INTO email_outbox (id, dedup_key, recipient, subject, body, full_name, code, status, attempts, next_attempt_at, created_at)
+        VALUES (:id, :dedupKey, :recipient, :subject, :body, :fullName, :code, 'PENDING', 0, :now, :now)
+        ON CONFLICT (dedup_key) DO NOTHING
+        """, nativeQuery = true)
+    int insertIfAbsent(@Param("id") UUID id,
+                       @Param("dedupKey") String dedupKey,
+                       @Param("recipient") String recipient,
+                       @Param("subject") String subject,
+                       @Param("body") String body,
+                       @Param("fullName") String fullName,
+                       @Param("code") String code,
+                       @Param("now") LocalDateTime now);
+
+    // Lấy 1 lô email đến hạn và giữ chỗ tới leaseUntil; SKIP LOCKED để nhiều instance lấy các lô khác nhau
+    // Instance chết giữa chừng thì email được lấy lại khi hết hạn giữ chỗ
+    @Query(value = """
+        UPDATE email_outbox
+        SET attempts = attempts + 1, next_attempt_at = :leaseUntil
+        WHERE id IN (
+            SELECT id FROM email_outbox
+            WHERE status = 'PENDING' AND next_attempt_at <= :now
+            ORDER BY next_attempt_at
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+        )
+        RETURNING *
+        """, nativeQuery = true)
+    List<EmailOutboxEntity> claimDueBatch(@Param("now") LocalDateTime now,
+                                          @Param("leaseUntil") LocalDateTime leaseUntil,
+                                          @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE EmailOutboxEntity e SET e.status = com.fpt.evcare.enums.EmailOutboxStatusEnum.SENT, e.sentAt = :sentAt, e.lastError = null " +
+           "WHERE e.emailOutboxId IN :ids")
+    int markSent(@Param("ids") Collection<UUID> ids, @Param("sentAt") LocalDateTime sentAt);
+
+    @Modifying
+    @Query("UPDATE EmailOutboxEntity e SET e.nextAttemptAt = :nextAttemptAt, e.lastError = :lastError " +
+           "WHERE e.emailOutboxId = :id")
+    int scheduleRetry(@Param("id") UUID id, @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                      @Param("lastError") String lastError);
+
+    @Modifying
+    @Query("UPDATE EmailOutboxEntity e SET e.status = com.fpt.evcare.enums.EmailOutboxStatusEnum.FAILED, e.lastError = :lastError WHERE e.emailOutboxId = :id")
+    int markFailed(@Param("id") UUID id, @Param("lastError") String lastError);
+
+    // Dọn email đã xong (gửi được hoặc bỏ cuộc) quá thời gian lưu, giải phóng dedup_key của chúng
+    // Email FAILED không có sentAt: next_attempt_at là hạn giữ chỗ của lần thử cuối
+    @Modifying
+    @Query("DELETE FROM EmailOutboxEntity e " +
+           "WHERE (e.status = com.fpt.evcare.enums.EmailOutboxStatusEnum.SENT AND e.sentAt < :before) " +
+           "OR (e.status = com.fpt.evcare.enums.EmailOutboxStatusEnum.FAILED AND e.nextAttemptAt < :before)")
+    int deleteFinishedBefore(@Param("before") LocalDateTime before);
+}
@@ -4,6 +4,8 @@ import com.fpt.evcare.entity.EmployeeProfileEntity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.UUID;
 
@@ -11,7 +13,8 @@ public interface EmployeeProfileRepository extends JpaRepository<EmployeeProfile
     EmployeeProfileEntity findByEmployeeProfileIdAndIsDeletedFalse(UUID vehicleId);
     EmployeeProfileEntity findByEmployeeProfileIdAndIsDeletedTrue(UUID vehicleId);
     Page<EmployeeProfileEntity> findAllByIsDeletedFalse(Pageable pageable);
-    Page<EmployeeProfileEntity> findBySearchContainingIgnoreCaseAndIsDeletedFalse(String keyword, Pageable pageable);
+    @Query("SELECT e FROM EmployeeProfileEntity e WHERE LOWER(e.search) LIKE LOWER(CONCAT('%', :keyword, '%')) AND e.isDeleted = false")
+    Page<EmployeeProfileEntity> searchByKeywordAndIsDeletedFalse(@Param("keyword") String keyword, Pageable pageable);
     
     EmployeeProfileEntity findByUserUserIdAndIsDeletedFalse(UUID userId);
 
@@ -19,6 +19,17 @@ public interface MaintenanceManagementRepository extends JpaRepository<Maintenan
     @Query("SELECT m FROM MaintenanceManagementEntity m WHERE m.appointment.appointmentId = :appointmentId AND m.isDeleted = false")
     List<MaintenanceManagementEntity> findByAppointmentIdAndIsDeletedFalse(@Param("appointmentId") UUID appointmentId);
 
+    @Query("""
+        SELECT DISTINCT m
+        FROM MaintenanceManagementEntity m
+        LEFT JOIN FETCH m.serviceType
+        LEFT JOIN FETCH m.maintenanceRecords r
+        LEFT JOIN FETCH r.vehiclePart
+        WHERE m.appointment.appointmentId = :appointmentId
+          AND m.isDeleted = false
+    """)
+    List<MaintenanceManagementEntity> findWithRecordsByAppointmentIdAndIsDeletedFalse(@Param("appointmentId") UUID appointmentId);
+
     @Query("SELECT m FROM MaintenanceManagementEntity m WHERE m.appointment.appointmentId = :appointmentId AND m.serviceType.serviceTypeId = :serviceTypeId AND m.isDeleted = false")
     MaintenanceManagementEntity findByAppointmentIdAndServiceTypeIdAndIsDeletedFalse(@Param("appointmentId") UUID appointmentId, @Param("serviceTypeId") UUID serviceTypeId);
 
@@ -36,6 +36,36 @@ public interface MessageRepository extends JpaRepository<MessageEntity, UUID> {
         Pageable pageable
     );
     
+    /**
+     * Lấy cuộc trò chuyện theo cursor (sent_at, message_id) - trang sau bắt đầu ngay sau tin nhắn cuối của trang trước
+     */
+    @Query(value = "SELECT m.* FROM messages m " +
+           "WHERE m.is_deleted = FALSE " +
+           "AND ((m.sender_id = :user1Id AND m.receiver_id = :user2Id) " +
+           "     OR (m.sender_id = :user2Id AND m.receiver_id = :user1Id)) " +
+           "AND (:cursorSentAt IS NULL " +
+           "     OR (m.sent_at, m.message_id) < (CAST(:cursorSentAt AS TIMESTAMP), CAST(:cursorId AS UUID))) " +
+           "ORDER BY m.sent_at DESC, m.message_id DESC " +
+           "LIMIT :limit", nativeQuery = true)
+    List<MessageEntity> findConversationAfter(
+        @Param("user1Id") UUID user1Id,
+        @Param("user2Id") UUID user2Id,
+        @Param("cursorSentAt") String cursorSentAt,
+        @Param("cursorId") String cursorId,
+        @Param("limit") int limit
+    );
+    
+    /**
+     * Đếm tổng số tin nhắn trong cuộc trò chuyện
+     */
+    @Query("SELECT COUNT(m) FROM MessageEntity m " +
+           "WHERE m.isDeleted = false " +
+           "AND ((m.sender.userId = :user1Id AND m.receiver.userId = :user2Id) " +
+           "     OR (m.sender.userId = :user2Id AND m.receiver.userId = :user1Id))")
+    long countConversation(
+        @Param("user1Id") UUID user1Id,
+        @Param("user2Id") UUID user2Id
+    );    
     /**
      * Đếm tin nhắn chưa đọc của 1 user
      */
@@ -117,6 +147,44 @@ public interface MessageRepository extends JpaRepository<MessageEntity, UUID> {
         @Param("readAt") LocalDateTime readAt
     );
     
+    /**
+     * Đánh dấu DELIVERED các tin nhắn SENT từ senderId đến receiverId có sentAt <= upTo (một câu UPDATE)
+     */
+    @Modifying
+    @Query("UPDATE MessageEntity m " +
+           "SET m.status = com.fpt.evcare.enums.MessageStatusEnum.DELIVERED, m.deliveredAt = :deliveredAt " +
+           "WHERE m.isDeleted = false " +
+           "AND m.sender.userId = :senderId " +
+           "AND m.receiver.userId = :receiverId " +
+           "AND m.sentAt <= :upTo " +
+           "AND m.status = com.fpt.evcare.enums.MessageStatusEnum.SENT")
+    int markDeliveredUpTo(
+        @Param("senderId") UUID senderId,
+        @Param("receiverId") UUID receiverId,
+        @Param("upTo") LocalDateTime upTo,
+        @Param("deliveredAt") LocalDateTime deliveredAt
+    );
+
+    /**
+     * Đánh dấu READ các tin nhắn chưa đọc từ senderId đến receiverId có sentAt <= upTo (một câu UPDATE)
+     * Tin chưa có deliveredAt thì coi như nhận và đọc cùng lúc
+     */
+    @Modifying
+    @Query("UPDATE MessageEntity m " +
+           "SET m.status = com.fpt.evcare.enums.MessageStatusEnum.READ, m.readAt = :readAt, " +
+           "    m.deliveredAt = COALESCE(m.deliveredAt, :readAt) " +
+           "WHERE m.isDeleted = false " +
+           "AND m.sender.userId = :senderId " +
+           "AND m.receiver.userId = :receiverId " +
+           "AND m.sentAt <= :upTo " +
+           "AND m.status <> com.fpt.evcare.enums.MessageStatusEnum.READ")
+    int markReadUpTo(
+        @Param("senderId") UUID senderId,
+        @Param("receiverId") UUID receiverId,
+        @Param("upTo") LocalDateTime upTo,
+        @Param("readAt") LocalDateTime readAt
+    );
+
     /**
      * Tìm welcome message gần đây từ staff đến customer (created by SYSTEM, trong vòng X phút)
      * Để tránh spam welcome message khi polling
@@ -134,5 +202,16 @@ public interface MessageRepository extends JpaRepository<MessageEntity, UUID> {
         @Param("sinceTime") LocalDateTime sinceTime,
         org.springframework.data.domain.Pageable pageable
     );
+
+    /**
+     * Đếm tin nhắn chưa đọc theo (receiver, sender) cho nhiều receiver trong một câu query
+     * Mỗi dòng: [receiverId, senderId, count]
+     */
+    @Query("SELECT m.receiver.userId, m.sender.userId, COUNT(m) FROM MessageEntity m " +
+           "WHERE m.isDeleted = false " +
+           "AND m.receiver.userId IN :receiverIds " +
+           "AND m.status <> com.fpt.evcare.enums.MessageStatusEnum.READ " +
+           "GROUP BY m.receiver.userId, m.sender.userId")
+    List<Object[]> countUnreadBySender(@Param("receiverIds") java.util.Collection<UUID> receiverIds);
 }
 
@@ -5,7 +5,9 @@ import com.fpt.evcare.entity.PaymentTransactionEntity;
 import com.fpt.evcare.enums.PaymentTransactionStatusEnum;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -19,6 +21,13 @@ import java.util.UUID;
 public interface PaymentTransactionRepository extends JpaRepository<PaymentTransactionEntity, UUID> {
     
     Optional<PaymentTransactionEntity> findByTransactionReference(String transactionReference);
+
+    /**
+     * Khóa dòng giao dịch khi xử lý callback VNPay: IPN gửi lại / return URL đồng thời phải chờ nhau
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT pt FROM PaymentTransactionEntity pt WHERE pt.transactionReference = :transactionReference")
+    Optional<PaymentTransactionEntity> findByTransactionReferenceForUpdate(@Param("transactionReference") String transactionReference);
     
     List<PaymentTransactionEntity> findByInvoiceAndIsDeletedFalse(InvoiceEntity invoice);
     
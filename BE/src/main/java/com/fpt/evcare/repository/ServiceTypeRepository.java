@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -26,6 +27,7 @@ public interface ServiceTypeRepository extends JpaRepository<ServiceTypeEntity,
     List<ServiceTypeEntity> findByVehicleTypeAndParent(@Param("vehicleTypeId") UUID vehicleTypeId, @Param("parentId") UUID parentId);
 
     List<ServiceTypeEntity> findByParentServiceTypeIdAndIsDeletedFalse(UUID id);
+    List<ServiceTypeEntity> findByParentServiceTypeIdInAndIsDeletedFalse(Collection<UUID> ids);
     List<ServiceTypeEntity> findByParentServiceTypeIdAndIsDeletedTrue(UUID id);
     List<ServiceTypeEntity> findByVehicleTypeEntityVehicleTypeIdAndIsDeletedFalse(UUID id);
     Page<ServiceTypeEntity> findByVehicleTypeEntityVehicleTypeIdAndIsDeletedFalse(UUID vehicleTypeId, Pageable pageable);
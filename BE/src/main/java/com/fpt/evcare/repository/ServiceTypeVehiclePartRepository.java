@@ -5,6 +5,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -13,6 +14,28 @@ public interface ServiceTypeVehiclePartRepository extends JpaRepository<ServiceT
     ServiceTypeVehiclePartEntity findByServiceTypeVehiclePartIdAndIsDeletedTrue(UUID id);
     List<ServiceTypeVehiclePartEntity> findAllByServiceTypeServiceTypeIdAndIsDeletedFalse(UUID id);
 
+    // Phụ tùng của nhiều dịch vụ trong 1 query (kèm vehicle part), dùng cho danh sách dịch vụ có phân trang
+    @Query("""
+    SELECT stvp FROM ServiceTypeVehiclePartEntity stvp
+    JOIN FETCH stvp.serviceType
+    LEFT JOIN FETCH stvp.vehiclePart
+    WHERE stvp.serviceType.serviceTypeId IN :serviceTypeIds
+      AND stvp.isDeleted = false
+    """)
+    List<ServiceTypeVehiclePartEntity> findAllWithVehiclePartByServiceTypeIdIn(@Param("serviceTypeIds") Collection<UUID> serviceTypeIds);
+
+    // (serviceTypeId, vehiclePartId, vehiclePartName, requiredQuantity, unitPrice) của các phụ tùng còn hiệu lực trong dịch vụ của 1 loại xe
+    @Query("""
+    SELECT stvp.serviceType.serviceTypeId, vp.vehiclePartId, vp.vehiclePartName, stvp.requiredQuantity, vp.unitPrice
+    FROM ServiceTypeVehiclePartEntity stvp
+    JOIN stvp.vehiclePart vp
+    WHERE stvp.serviceType.vehicleTypeEntity.vehicleTypeId = :vehicleTypeId
+      AND stvp.isDeleted = false
+      AND vp.isDeleted = false
+    ORDER BY vp.vehiclePartName
+    """)
+    List<Object[]> findPartLinesByVehicleTypeId(@Param("vehicleTypeId") UUID vehicleTypeId);
+
     @Query(value = """
     SELECT EXISTS (
         SELECT 1
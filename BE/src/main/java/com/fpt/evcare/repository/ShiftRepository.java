@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -82,6 +83,31 @@ public interface ShiftRepository extends JpaRepository<ShiftEntity, UUID> {
             @Param("excludeShiftId") UUID excludeShiftId
     );
 
+    // Kiểm tra trùng lịch cho cả danh sách technician trong 1 query (thay vì 1 query / technician)
+    // Mỗi dòng: [userId, fullName, username, shiftId, startTime, endTime]
+    // shiftId = null nghĩa là technician rảnh; technician có nhiều ca trùng sẽ có nhiều dòng (ca sớm nhất trước)
+    @Query("""
+        SELECT u.userId, u.fullName, u.username, s.shiftId, s.startTime, s.endTime
+        FROM UserEntity u
+        LEFT JOIN ShiftEntity s ON u MEMBER OF s.technicians
+            AND s.isDeleted = false
+            AND s.isActive = true
+            AND (
+                (s.startTime <= :endTime AND s.endTime >= :startTime) OR
+                (s.startTime >= :startTime AND s.startTime < :endTime)
+            )
+            AND (:excludeShiftId IS NULL OR s.shiftId != :excludeShiftId)
+        WHERE u.userId IN :technicianIds
+        AND u.isDeleted = false
+        ORDER BY s.startTime
+    """)
+    List<Object[]> findTechnicianConflicts(
+            @Param("technicianIds") Collection<UUID> technicianIds,
+            @Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime,
+            @Param("excludeShiftId") UUID excludeShiftId
+    );
+
     // Tìm tất cả shifts cần update status (scheduled -> in_progress)
     @Query("""
         SELECT s FROM ShiftEntity s
@@ -108,6 +134,75 @@ public interface ShiftRepository extends JpaRepository<ShiftEntity, UUID> {
         AND s.startTime <= :now
     """)
     List<ShiftEntity> findShiftsWithLateAssignment(@Param("now") LocalDateTime now);
+
+    // Dữ liệu cho ShiftIntervalIndexService: mỗi dòng [shiftId, startTime, endTime, technicianId]
+    // Cùng điều kiện với findConflictingShiftsByTechnician (isDeleted = false, isActive = true, mọi trạng thái)
+    @Query("""
+        SELECT s.shiftId, s.startTime, s.endTime, t.userId
+        FROM ShiftEntity s JOIN s.technicians t
+        WHERE s.isDeleted = false
+        AND s.isActive = true
+        AND (s.endTime >= :from OR (s.endTime IS NULL AND s.startTime >= :from))
+    """)
+    List<Object[]> findTechnicianShiftIntervals(@Param("from") LocalDateTime from);
+
+    @Query("""
+        SELECT s.shiftId, s.startTime, s.endTime, t.userId
+        FROM ShiftEntity s JOIN s.technicians t
+        WHERE s.shiftId = :shiftId
+        AND s.isDeleted = false
+        AND s.isActive = true
+    """)
+    List<Object[]> findTechnicianShiftIntervalsByShiftId(@Param("shiftId") UUID shiftId);
+
+    // Các mốc chuyển trạng thái sắp tới cho ShiftTransitionTimer (chỉ lấy cột thời gian, không load entity)
+    @Query("""
+        SELECT s.startTime FROM ShiftEntity s
+        WHERE s.isDeleted = false
+        AND s.status IN ('SCHEDULED', 'PENDING_ASSIGNMENT')
+        AND s.startTime > :from AND s.startTime <= :to
+    """)
+    List<LocalDateTime> findUpcomingStartTimes(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("""
+        SELECT s.endTime FROM ShiftEntity s
+        WHERE s.isDeleted = false
+        AND s.status IN ('SCHEDULED', 'IN_PROGRESS')
+        AND s.endTime > :from AND s.endTime <= :to
+    """)
+    List<LocalDateTime> findUpcomingEndTimes(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Chuyển trạng thái hàng loạt cho scheduler: 1 câu UPDATE thay vì load entity + save từng dòng
+    // RETURNING trả về id các ca đã chuyển (không dùng @Modifying vì @Modifying chỉ trả về số dòng)
+    @Query(value = """
+        UPDATE shifts
+        SET status = 'LATE_ASSIGNMENT', updated_at = :now
+        WHERE is_deleted = FALSE
+          AND status = 'PENDING_ASSIGNMENT'
+          AND start_time <= :now
+        RETURNING shift_id
+        """, nativeQuery = true)
+    List<UUID> markShiftsWithLateAssignment(@Param("now") LocalDateTime now);
+
+    @Query(value = """
+        UPDATE shifts
+        SET status = 'IN_PROGRESS', updated_at = :now
+        WHERE is_deleted = FALSE
+          AND status = 'SCHEDULED'
+          AND start_time <= :now
+        RETURNING shift_id
+        """, nativeQuery = true)
+    List<UUID> startShiftsDueBy(@Param("now") LocalDateTime now);
+
+    @Query(value = """
+        UPDATE shifts
+        SET status = 'COMPLETED', updated_at = :now
+        WHERE is_deleted = FALSE
+          AND status = 'IN_PROGRESS'
+          AND end_time <= :now
+        RETURNING shift_id
+        """, nativeQuery = true)
+    List<UUID> completeShiftsDueBy(@Param("now") LocalDateTime now);
     
     // Tìm shifts với filters (status, shiftType, date range)
     @Query(value = """
@@ -129,6 +224,50 @@ public interface ShiftRepository extends JpaRepository<ShiftEntity, UUID> {
             @Param("fromDate") String fromDate,
             @Param("toDate") String toDate,
             Pageable pageable);
+
+    // Keyset pagination theo (start_time, shift_id), cùng filter với findShiftsWithFilters
+    @Query(value = """
+        SELECT s.* 
+        FROM shifts s
+        WHERE s.is_deleted = FALSE
+          AND s.is_active = TRUE
+          AND (:keyword IS NULL OR :keyword = '' OR LOWER(s.search) LIKE LOWER(CONCAT('%', :keyword, '%')))
+          AND (:status IS NULL OR :status = '' OR UPPER(s.status) = UPPER(:status))
+          AND (:shiftType IS NULL OR :shiftType = '' OR UPPER(s.shift_type) = UPPER(:shiftType))
+          AND (:fromDate IS NULL OR s.start_time >= CAST(:fromDate AS TIMESTAMP))
+          AND (:toDate IS NULL OR s.start_time <= CAST(:toDate AS TIMESTAMP))
+          AND (:cursorStartTime IS NULL
+               OR (s.start_time, s.shift_id) < (CAST(:cursorStartTime AS TIMESTAMP), CAST(:cursorId AS UUID)))
+        ORDER BY s.start_time DESC, s.shift_id DESC
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<ShiftEntity> findShiftsWithFiltersAfter(
+            @Param("keyword") String keyword,
+            @Param("status") String status,
+            @Param("shiftType") String shiftType,
+            @Param("fromDate") String fromDate,
+            @Param("toDate") String toDate,
+            @Param("cursorStartTime") String cursorStartTime,
+            @Param("cursorId") String cursorId,
+            @Param("limit") int limit);
+
+    @Query(value = """
+        SELECT COUNT(*) 
+        FROM shifts s
+        WHERE s.is_deleted = FALSE
+          AND s.is_active = TRUE
+          AND (:keyword IS NULL OR :keyword = '' OR LOWER(s.search) LIKE LOWER(CONCAT('%', :keyword, '%')))
+          AND (:status IS NULL OR :status = '' OR UPPER(s.status) = UPPER(:status))
+          AND (:shiftType IS NULL OR :shiftType = '' OR UPPER(s.shift_type) = UPPER(:shiftType))
+          AND (:fromDate IS NULL OR s.start_time >= CAST(:fromDate AS TIMESTAMP))
+          AND (:toDate IS NULL OR s.start_time <= CAST(:toDate AS TIMESTAMP))
+        """, nativeQuery = true)
+    long countShiftsWithFilters(
+            @Param("keyword") String keyword,
+            @Param("status") String status,
+            @Param("shiftType") String shiftType,
+            @Param("fromDate") String fromDate,
+            @Param("toDate") String toDate);
 }
 
 
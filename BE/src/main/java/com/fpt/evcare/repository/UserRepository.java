@@ -1,5 +1,6 @@
 package com.fpt.evcare.repository;
 
+import com.fpt.evcare.dto.response.UserRoleStatsResponse;
 import com.fpt.evcare.entity.UserEntity;
 import org.springframework.data.repository.query.Param;
 import com.fpt.evcare.enums.RoleEnum;
@@ -7,6 +8,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -15,7 +17,8 @@ public interface UserRepository extends JpaRepository<UserEntity, UUID> {
     UserEntity findByUserIdAndIsDeletedTrue(UUID id);
     UserEntity findByEmailAndIsDeletedFalse(String email);
     Page<UserEntity> findByIsDeletedFalse(Pageable pageable);
-    Page<UserEntity> findBySearchContainingIgnoreCaseAndIsDeletedFalse(String keyword, Pageable pageable);
+    @Query("SELECT u FROM UserEntity u WHERE LOWER(u.search) LIKE LOWER(CONCAT('%', :keyword, '%')) AND u.isDeleted = false")
+    Page<UserEntity> searchByKeywordAndIsDeletedFalse(@Param("keyword") String keyword, Pageable pageable);
     boolean existsByEmail(String email);
     boolean existsByUsername(String username);
     boolean existsByNumberPhone(String numberPhone);
@@ -40,10 +43,44 @@ public interface UserRepository extends JpaRepository<UserEntity, UUID> {
     @Query("SELECT u FROM UserEntity u WHERE u.role.roleName = :roleName AND u.isDeleted = false")
     List<UserEntity> findByRoleNameAndIsDeletedFalse(@Param("roleName") RoleEnum roleName);
 
+    // Technician rảnh trong khoảng thời gian: 1 query NOT EXISTS thay vì kiểm tra trùng lịch từng technician
+    @Query("""
+        SELECT u FROM UserEntity u
+        WHERE u.role.roleName = com.fpt.evcare.enums.RoleEnum.TECHNICIAN
+        AND u.isDeleted = false
+        AND NOT EXISTS (
+            SELECT 1 FROM ShiftEntity s JOIN s.technicians t
+            WHERE t.userId = u.userId
+            AND s.isDeleted = false
+            AND s.isActive = true
+            AND (
+                (s.startTime <= :endTime AND s.endTime >= :startTime) OR
+                (s.startTime >= :startTime AND s.startTime < :endTime)
+            )
+            AND (:excludeShiftId IS NULL OR s.shiftId != :excludeShiftId)
+        )
+        """)
+    List<UserEntity> findAvailableTechnicians(@Param("startTime") LocalDateTime startTime,
+                                              @Param("endTime") LocalDateTime endTime,
+                                              @Param("excludeShiftId") UUID excludeShiftId);
+
     // Count users by role
     @Query("SELECT COUNT(u) FROM UserEntity u WHERE u.role.roleName = :roleName AND u.isDeleted = false")
     Long countByRoleRoleNameAndIsDeletedFalse(@Param("roleName") RoleEnum roleName);
 
     @Query("SELECT COUNT(u) FROM UserEntity u WHERE u.role.roleName = :roleName AND u.isActive = :isActive AND u.isDeleted = false")
     Long countByRoleRoleNameAndIsActiveAndIsDeletedFalse(@Param("roleName") RoleEnum roleName, @Param("isActive") Boolean isActive);
+
+    // Đếm user theo tất cả role trong 1 query (dashboard)
+    @Query("""
+        SELECT new com.fpt.evcare.dto.response.UserRoleStatsResponse(
+            COUNT(u) FILTER (WHERE r.roleName = com.fpt.evcare.enums.RoleEnum.CUSTOMER),
+            COUNT(u) FILTER (WHERE r.roleName = com.fpt.evcare.enums.RoleEnum.STAFF),
+            COUNT(u) FILTER (WHERE r.roleName = com.fpt.evcare.enums.RoleEnum.TECHNICIAN),
+            COUNT(u) FILTER (WHERE r.roleName = com.fpt.evcare.enums.RoleEnum.CUSTOMER AND u.isActive = true)
+        )
+        FROM UserEntity u JOIN u.role r
+        WHERE u.isDeleted = false
+        """)
+    UserRoleStatsResponse getUserRoleStats();
 }
@@ -4,6 +4,8 @@ import com.fpt.evcare.entity.VehiclePartCategoryEntity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -13,7 +15,8 @@ public interface VehiclePartCategoryRepository extends JpaRepository <VehiclePar
     VehiclePartCategoryEntity findByVehiclePartCategoryIdAndIsDeletedFalse(UUID id);
     List<VehiclePartCategoryEntity> findAllByIsDeletedFalse();
     Page<VehiclePartCategoryEntity> findAllByIsDeletedFalse(Pageable pageable);
-    Page<VehiclePartCategoryEntity> findBySearchContainingIgnoreCaseAndIsDeletedFalse(String keyword, Pageable pageable);
+    @Query("SELECT c FROM VehiclePartCategoryEntity c WHERE LOWER(c.search) LIKE LOWER(CONCAT('%', :keyword, '%')) AND c.isDeleted = false")
+    Page<VehiclePartCategoryEntity> searchByKeywordAndIsDeletedFalse(@Param("keyword") String keyword, Pageable pageable);
     boolean existsByPartCategoryNameAndIsDeletedFalse(String partCategoryName);
 
     //For data initializer
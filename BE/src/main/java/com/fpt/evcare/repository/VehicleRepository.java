@@ -5,6 +5,8 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.UUID;
@@ -13,11 +15,13 @@ public interface VehicleRepository extends JpaRepository<VehicleEntity, UUID> {
     VehicleEntity findByVehicleIdAndIsDeletedFalse(UUID vehicleId);
     VehicleEntity findByVehicleIdAndIsDeletedTrue(UUID vehicleId);
     Page<VehicleEntity> findAllByIsDeletedFalse(Pageable pageable);
-    Page<VehicleEntity> findBySearchContainingIgnoreCaseAndIsDeletedFalse(String keyword, Pageable pageable);
+    @Query("SELECT v FROM VehicleEntity v WHERE LOWER(v.search) LIKE LOWER(CONCAT('%', :keyword, '%')) AND v.isDeleted = false")
+    Page<VehicleEntity> searchByKeywordAndIsDeletedFalse(@Param("keyword") String keyword, Pageable pageable);
 
     // Filter by vehicle type
     Page<VehicleEntity> findAllByVehicleType_VehicleTypeIdAndIsDeletedFalse(UUID vehicleTypeId, Pageable pageable);
-    Page<VehicleEntity> findBySearchContainingIgnoreCaseAndVehicleType_VehicleTypeIdAndIsDeletedFalse(String keyword, UUID vehicleTypeId, Pageable pageable);
+    @Query("SELECT v FROM VehicleEntity v WHERE LOWER(v.search) LIKE LOWER(CONCAT('%', :keyword, '%')) AND v.vehicleType.vehicleTypeId = :vehicleTypeId AND v.isDeleted = false")
+    Page<VehicleEntity> searchByKeywordAndVehicleTypeIdAndIsDeletedFalse(@Param("keyword") String keyword, @Param("vehicleTypeId") UUID vehicleTypeId, Pageable pageable);
 
     boolean existsByVehicleIdAndIsDeletedFalse(UUID isDeleted);
 
@@ -4,6 +4,8 @@ import com.fpt.evcare.entity.VehicleTypeEntity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.UUID;
@@ -13,7 +15,8 @@ public interface VehicleTypeRepository extends JpaRepository<VehicleTypeEntity,
     VehicleTypeEntity findByVehicleTypeIdAndIsDeletedTrue(UUID vehicleTypeId);
     List<VehicleTypeEntity> findByIsDeletedFalse();
     Page<VehicleTypeEntity> findAllByIsDeletedFalse(Pageable pageable);
-    Page<VehicleTypeEntity> findBySearchContainingIgnoreCaseAndIsDeletedFalse(Pageable pageable, String keyword);
+    @Query("SELECT vt FROM VehicleTypeEntity vt WHERE LOWER(vt.search) LIKE LOWER(CONCAT('%', :keyword, '%')) AND vt.isDeleted = false")
+    Page<VehicleTypeEntity> searchByKeywordAndIsDeletedFalse(Pageable pageable, @Param("keyword") String keyword);
     boolean existsVehiclePartByVehicleTypeNameLikeIgnoreCaseAndIsDeletedFalse(String vehicleTypeName);
 
 }
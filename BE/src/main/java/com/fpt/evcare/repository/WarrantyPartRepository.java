@@ -4,7 +4,11 @@ import com.fpt.evcare.entity.WarrantyPartEntity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -16,13 +20,16 @@ public interface WarrantyPartRepository extends JpaRepository<WarrantyPartEntity
     
     Page<WarrantyPartEntity> findAllByIsDeletedFalse(Pageable pageable);
     
-    Page<WarrantyPartEntity> findBySearchContainingIgnoreCaseAndIsDeletedFalse(String search, Pageable pageable);
+    @Query("SELECT w FROM WarrantyPartEntity w WHERE LOWER(w.search) LIKE LOWER(CONCAT('%', :keyword, '%')) AND w.isDeleted = false")
+    Page<WarrantyPartEntity> searchByKeywordAndIsDeletedFalse(@Param("keyword") String search, Pageable pageable);
     
     boolean existsByVehiclePartVehiclePartIdAndIsDeletedFalse(UUID vehiclePartId);
     
     Page<WarrantyPartEntity> findByVehiclePartVehiclePartIdAndIsDeletedFalse(UUID vehiclePartId, Pageable pageable);
     
     Optional<WarrantyPartEntity> findByVehiclePartVehiclePartIdAndIsDeletedFalseAndIsActiveTrue(UUID vehiclePartId);
+
+    List<WarrantyPartEntity> findByVehiclePartVehiclePartIdInAndIsDeletedFalseAndIsActiveTrue(Collection<UUID> vehiclePartIds);
     
     Optional<WarrantyPartEntity> findByVehiclePartVehiclePartIdAndIsDeletedFalse(UUID vehiclePartId);
     
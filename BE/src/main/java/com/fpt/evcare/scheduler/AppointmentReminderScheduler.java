@@ -0,0 +1,32 @@
+package com.fpt.evcare.scheduler;
+
+import com.fpt.evcare.service.AppointmentReminderService;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@Slf4j
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class AppointmentReminderScheduler {
+
+    AppointmentReminderService appointmentReminderService;
+
+    /**
+     * Nhắc lịch cuộc hẹn sắp tới mỗi phút
+     * - Mỗi lượt lấy các cuộc hẹn PENDING/CONFIRMED có giờ hẹn trong khoảng lead-time tới, theo từng lô
+     * - Nhiều instance cùng chạy không nhắc trùng (xem AppointmentRepository.claimDueReminders)
+     */
+    @Scheduled(fixedDelayString = "${appointment-reminder.poll-interval:1m}", initialDelay = 60000)
+    public void sendAppointmentReminders() {
+        try {
+            appointmentReminderService.sendDueReminders();
+        } catch (Exception e) {
+            log.error("Failed to send appointment reminders: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.fpt.evcare.scheduler;
+
+import com.fpt.evcare.service.DashboardService;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@Slf4j
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class DashboardStatsScheduler {
+
+    DashboardService dashboardService;
+
+    /**
+     * Tính lại toàn bộ thống kê dashboard mỗi 5 phút
+     * - Sửa lệch của bộ đếm tăng dần (đổi lịch hẹn, xóa, thêm user... không phát event)
+     * - Làm mới dữ liệu biểu đồ
+     */
+    @Scheduled(fixedDelay = 300000, initialDelay = 60000) // Chạy mỗi 5 phút (300000 milliseconds)
+    public void refreshDashboardStats() {
+        log.info("Running scheduled task: Refresh Dashboard Stats");
+        dashboardService.refreshDashboardCache();
+    }
+}
@@ -0,0 +1,44 @@
+package com.fpt.evcare.scheduler;
+
+import com.fpt.evcare.service.EmailOutboxService;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@Slf4j
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class EmailOutboxDispatcher {
+
+    // Giới hạn số lô mỗi lượt để không chiếm thread scheduler quá lâu khi tồn đọng nhiều
+    static final int MAX_BATCHES_PER_RUN = 10;
+
+    EmailOutboxService emailOutboxService;
+
+    /**
+     * Gửi email trong outbox: lấy từng lô cho tới khi hết email đến hạn
+     */
+    @Scheduled(fixedDelayString = "${email-outbox.poll-interval:2s}", initialDelay = 10000)
+    public void dispatchEmails() {
+        try {
+            for (int i = 0; i < MAX_BATCHES_PER_RUN && emailOutboxService.dispatchDueEmails() > 0; i++) {
+                // Lô vừa gửi có dữ liệu, thử lấy tiếp lô sau
+            }
+        } catch (Exception e) {
+            log.error("Failed to dispatch email outbox: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Dọn email đã gửi hoặc đã bỏ cuộc mỗi ngày lúc 3h sáng
+     */
+    @Scheduled(cron = "0 0 3 * * *")
+    public void purgeFinishedEmails() {
+        int deleted = emailOutboxService.purgeFinishedEmails();
+        log.info("Purged {} sent/failed emails from outbox", deleted);
+    }
+}
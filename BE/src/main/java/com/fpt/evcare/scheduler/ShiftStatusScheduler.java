@@ -1,6 +1,6 @@
 package com.fpt.evcare.scheduler;
 
-import com.fpt.evcare.service.ShiftService;
+import com.fpt.evcare.service.ShiftIntervalIndexService;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.experimental.FieldDefaults;
@@ -14,18 +14,30 @@ import org.springframework.stereotype.Component;
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class ShiftStatusScheduler {
 
-    ShiftService shiftService;
+    ShiftTransitionTimer shiftTransitionTimer;
+    ShiftIntervalIndexService shiftIntervalIndexService;
 
     /**
-     * Tự động cập nhật trạng thái ca làm việc mỗi 1 phút
+     * Quét đối soát trạng thái ca làm việc mỗi 15 phút (ShiftTransitionTimer chuyển trạng thái đúng giờ)
      * - PENDING_ASSIGNMENT → LATE_ASSIGNMENT (quá giờ bắt đầu mà chưa phân công)
      * - SCHEDULED → IN_PROGRESS (khi đến giờ bắt đầu)
      * - IN_PROGRESS → COMPLETED (khi đến giờ kết thúc)
+     * Bù các mốc bị sót (ca sửa ở instance khác, instance giữ timer bị tắt...) và nạp lại mốc sắp tới
      */
-    @Scheduled(fixedDelay = 60000) // Chạy mỗi 1 phút (60000 milliseconds)
+    @Scheduled(fixedDelay = 900000, initialDelay = 900000) // Chạy mỗi 15 phút (900000 milliseconds)
     public void updateShiftStatuses() {
-        log.info("Running scheduled task: Update Shift Status");
-        shiftService.updateShiftStatuses();
+        log.info("Running scheduled task: Reconcile Shift Status");
+        shiftTransitionTimer.reconcile();
+    }
+
+    /**
+     * Nạp lại index lịch kỹ thuật viên mỗi 15 phút
+     * - Bù các thay đổi không phát event (đổi lịch appointment, mất thông báo Redis...) và bỏ các ca đã qua
+     */
+    @Scheduled(fixedDelay = 900000, initialDelay = 900000) // Chạy mỗi 15 phút (900000 milliseconds)
+    public void rebuildShiftIntervalIndex() {
+        log.info("Running scheduled task: Rebuild Shift Interval Index");
+        shiftIntervalIndexService.rebuild();
     }
 }
 
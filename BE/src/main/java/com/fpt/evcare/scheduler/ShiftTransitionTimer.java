@@ -0,0 +1,182 @@
+package com.fpt.evcare.scheduler;
+
+import com.fpt.evcare.event.ShiftScheduleChangedEvent;
+import com.fpt.evcare.repository.ShiftRepository;
+import com.fpt.evcare.service.ShiftService;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Hẹn giờ chuyển trạng thái ca làm việc đúng thời điểm thay vì quét DB mỗi phút
+ * - Giữ các mốc startTime/endTime sắp tới trong 1 hàng đợi ưu tiên, chỉ hẹn 1 timer cho mốc sớm nhất
+ * - Đến giờ: chạy ShiftService.updateShiftStatuses (UPDATE hàng loạt, idempotent) rồi hẹn mốc kế tiếp
+ * - Nhiều instance: chỉ instance giữ lease Redis mới chạy; ShiftStatusScheduler quét lại định kỳ để bù sót
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ShiftTransitionTimer {
+
+    private static final String LOCK_KEY = "shift:transition:lock";
+    private static final Duration LOCK_LEASE = Duration.ofSeconds(30);
+    private static final Duration LOCK_RETRY_DELAY = Duration.ofSeconds(5);
+    // Chỉ nạp các mốc trong khoảng này, phần sau sẽ được nạp ở lần reconcile tiếp theo
+    private static final Duration LOAD_HORIZON = Duration.ofHours(24);
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final ShiftRepository shiftRepository;
+    private final ShiftService shiftService;
+    private final StringRedisTemplate stringRedisTemplate;
+
+    // Thread riêng cho timer, không dùng chung scheduler của message broker
+    private final ThreadPoolTaskScheduler taskScheduler = createTaskScheduler();
+    private final NavigableSet<LocalDateTime> dueTimes = new ConcurrentSkipListSet<>();
+    private final String instanceId = UUID.randomUUID().toString();
+    private ScheduledFuture<?> nextRun;
+    private LocalDateTime nextRunAt;
+
+    private static ThreadPoolTaskScheduler createTaskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("shift-timer-");
+        scheduler.initialize();
+        return scheduler;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        taskScheduler.shutdown();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reconcile();
+    }
+
+    /**
+     * Chạy bù các chuyển trạng thái đã đến hạn và nạp lại các mốc sắp tới từ DB
+     */
+    public void reconcile() {
+        try {
+            runTransitions();
+        } catch (Exception e) {
+            log.error("Failed to run shift transitions during reconcile: {}", e.getMessage(), e);
+        }
+        loadUpcomingDueTimes();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleShiftScheduleChangedEvent(ShiftScheduleChangedEvent event) {
+        register(event.getStartTime());
+        register(event.getEndTime());
+        arm();
+    }
+
+    private void loadUpcomingDueTimes() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime horizon = now.plus(LOAD_HORIZON);
+        try {
+            List<LocalDateTime> startTimes = shiftRepository.findUpcomingStartTimes(now, horizon);
+            List<LocalDateTime> endTimes = shiftRepository.findUpcomingEndTimes(now, horizon);
+            dueTimes.clear();
+            dueTimes.addAll(startTimes);
+            dueTimes.addAll(endTimes);
+            log.info("Loaded {} upcoming shift transition times", dueTimes.size());
+        } catch (Exception e) {
+            log.error("Failed to load upcoming shift transition times: {}", e.getMessage(), e);
+        }
+        arm();
+    }
+
+    private void register(LocalDateTime dueTime) {
+        if (dueTime != null && dueTime.isBefore(LocalDateTime.now().plus(LOAD_HORIZON))) {
+            dueTimes.add(dueTime);
+        }
+    }
+
+    // Hẹn timer cho mốc sớm nhất, chỉ hẹn lại khi mốc sớm nhất thay đổi
+    private synchronized void arm() {
+        LocalDateTime head = dueTimes.isEmpty() ? null : dueTimes.first();
+        if (head == null || head.equals(nextRunAt)) {
+            return;
+        }
+        if (nextRun != null) {
+            nextRun.cancel(false);
+        }
+        nextRunAt = head;
+        nextRun = taskScheduler.schedule(this::fire, head.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    private void fire() {
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (this) {
+            nextRun = null;
+            nextRunAt = null;
+        }
+        dueTimes.headSet(now, true).clear();
+        try {
+            if (!runTransitions()) {
+                // Instance khác đang giữ lease (có thể bắt đầu trước mốc này) -> thử lại sau ít giây
+                dueTimes.add(now.plus(LOCK_RETRY_DELAY));
+            }
+        } catch (Exception e) {
+            log.error("Failed to run shift transitions: {}", e.getMessage(), e);
+        } finally {
+            arm();
+        }
+    }
+
+    // Trả về false nếu bỏ qua vì instance khác đang chạy
+    private boolean runTransitions() {
+        Boolean acquired;
+        try {
+            acquired = stringRedisTemplate.opsForValue().setIfAbsent(LOCK_KEY, instanceId, LOCK_LEASE);
+        } catch (Exception e) {
+            // Redis lỗi: vẫn chạy vì các câu UPDATE chỉ đổi dòng còn ở trạng thái cũ (chạy trùng cũng không sai)
+            log.warn("Cannot acquire shift transition lock, running without it: {}", e.getMessage());
+            acquired = null;
+        }
+        if (Boolean.FALSE.equals(acquired)) {
+            log.debug("Shift transitions are being run by another instance, skipping");
+            return false;
+        }
+
+        try {
+            shiftService.updateShiftStatuses();
+            return true;
+        } finally {
+            if (acquired != null) {
+                releaseLock();
+            }
+        }
+    }
+
+    private void releaseLock() {
+        try {
+            stringRedisTemplate.execute(RELEASE_SCRIPT, List.of(LOCK_KEY), instanceId);
+        } catch (Exception e) {
+            log.warn("Cannot release shift transition lock, it will expire after {}s: {}",
+                    LOCK_LEASE.toSeconds(), e.getMessage());
+        }
+    }
+}
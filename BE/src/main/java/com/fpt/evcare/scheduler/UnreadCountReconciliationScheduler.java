@@ -0,0 +1,31 @@
+package com.fpt.evcare.scheduler;
+
+import com.fpt.evcare.service.UnreadCountService;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@Slf4j
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class UnreadCountReconciliationScheduler {
+
+    UnreadCountService unreadCountService;
+
+    /**
+     * Đối chiếu bộ đếm chưa đọc trong Redis với Postgres cho các user đang kết nối WebSocket ở instance này
+     * - Sửa lệch do mất cập nhật (Redis lỗi, instance dừng giữa chừng) và đẩy số đúng cho client
+     */
+    @Scheduled(fixedDelayString = "${websocket.unread.reconcile-interval:2m}")
+    public void reconcileUnreadCounts() {
+        try {
+            unreadCountService.reconcileConnectedUsers();
+        } catch (Exception e) {
+            log.error("Failed to reconcile unread counters: {}", e.getMessage(), e);
+        }
+    }
+}
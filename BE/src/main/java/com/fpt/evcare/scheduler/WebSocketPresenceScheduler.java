@@ -0,0 +1,31 @@
+package com.fpt.evcare.scheduler;
+
+import com.fpt.evcare.service.WebSocketPresenceService;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@Slf4j
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class WebSocketPresenceScheduler {
+
+    WebSocketPresenceService webSocketPresenceService;
+
+    /**
+     * Gia hạn trạng thái online của các user đang kết nối WebSocket ở instance này
+     * - Chu kỳ phải ngắn hơn websocket.cluster.presence-stale-after, nếu không user sẽ bị coi là offline
+     */
+    @Scheduled(fixedDelayString = "${websocket.cluster.presence-heartbeat:15s}")
+    public void refreshPresence() {
+        try {
+            webSocketPresenceService.refreshPresence();
+        } catch (Exception e) {
+            log.error("Failed to refresh WebSocket presence: {}", e.getMessage(), e);
+        }
+    }
+}
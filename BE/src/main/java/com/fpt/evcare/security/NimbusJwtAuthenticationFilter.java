@@ -1,6 +1,13 @@
 package com.fpt.evcare.security;
 
+import com.fpt.evcare.exception.JWTInitializationException;
 import com.fpt.evcare.serviceimpl.CustomJWTDecode;
+import com.fpt.evcare.utils.UtilFunction;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.nimbusds.jose.JOSEException;
 import com.nimbusds.jose.JWSVerifier;
 import com.nimbusds.jose.crypto.MACVerifier;
 import com.nimbusds.jwt.JWTClaimsSet;
@@ -9,8 +16,9 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -20,15 +28,43 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
 import java.util.List;
 
 @Slf4j
 @Component
-@AllArgsConstructor
 public class NimbusJwtAuthenticationFilter extends OncePerRequestFilter {
 
-    private final CustomJWTDecode customJWTDecode;
+    // Token đã xác thực: key là SHA-256 của token (không giữ token gốc trong bộ nhớ), hết hạn đúng theo exp của token
+    private final Cache<String, VerifiedToken> verifiedTokens;
+    // Cùng key với MACSigner mà TokenServiceImpl dùng để ký token; MACVerifier thread-safe nên dùng chung
+    private final JWSVerifier verifier;
+    private final Clock clock;
+
+    @Autowired
+    public NimbusJwtAuthenticationFilter(CustomJWTDecode customJWTDecode,
+                                         @Value("${jwt.verified-cache.maximum-size:10000}") long verifiedCacheMaximumSize) {
+        this(customJWTDecode, verifiedCacheMaximumSize, Clock.systemUTC(), Ticker.systemTicker());
+    }
+
+    // clock dùng để kiểm tra exp, ticker dùng cho thời hạn trong cache (test truyền đồng hồ giả để không phải chờ)
+    NimbusJwtAuthenticationFilter(CustomJWTDecode customJWTDecode, long verifiedCacheMaximumSize, Clock clock, Ticker ticker) {
+        this.clock = clock;
+        try {
+            this.verifier = new MACVerifier(String.valueOf(customJWTDecode.getMacSigner()));
+        } catch (JOSEException e) {
+            throw new JWTInitializationException("Failed to initialize MACVerifier: " + e.getMessage());
+        }
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaximumSize)
+                .ticker(ticker)
+                .expireAfter(Expiry.creating((String tokenHash, VerifiedToken token) ->
+                        Duration.between(clock.instant(), token.expiresAt())))
+                .build();
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -37,40 +73,18 @@ public class NimbusJwtAuthenticationFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
         try {
             String jwt = getJwtFromRequest(request);
-            log.info("🔐 Processing request: {} - JWT present: {}", request.getRequestURI(), jwt != null);
-            if (StringUtils.hasText(jwt) && validateToken(jwt)) {
-                // Parse JWT và lấy claims
-                SignedJWT signedJWT = SignedJWT.parse(jwt);
-                JWTClaimsSet claims = signedJWT.getJWTClaimsSet();
-                
-                // Lấy userId từ subject claim (QUAN TRỌNG: Principal phải là userId)
-                String userId = claims.getSubject();  // ← subject chứa userId (UUID)
-                String username = claims.getStringClaim("username");  // username chỉ để log
-                
-                // Lấy role từ JWT (single role)
-                List<SimpleGrantedAuthority> authorities = new java.util.ArrayList<>();
-                try {
-                    String role = claims.getStringClaim("role");
-                    if (role != null && !role.isEmpty()) {
-                        authorities.add(new SimpleGrantedAuthority("ROLE_" + role));
-                    } else {
-                        // Fallback: default role
-                        authorities.add(new SimpleGrantedAuthority("ROLE_CUSTOMER"));
-                    }
-                } catch (Exception e) {
-                    log.warn("Could not parse role from JWT, using default role");
-                    authorities.add(new SimpleGrantedAuthority("ROLE_CUSTOMER"));
-                }
-
+            log.debug("Processing request: {} - JWT present: {}", request.getRequestURI(), jwt != null);
+            VerifiedToken token = StringUtils.hasText(jwt) ? verify(jwt) : null;
+            if (token != null) {
                 // Log để debug
-                log.debug("User {} (userId: {}) authenticated with role: {}", username, userId, authorities);
+                log.debug("User {} (userId: {}) authenticated with role: {}", token.username(), token.userId(), token.authorities());
 
                 // Tạo authentication token với userId làm principal
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(
-                                userId,  // ← Principal là userId (UUID string)
+                                token.userId(),  // ← Principal là userId (UUID string)
                                 null,
-                                authorities
+                                token.authorities()
                         );
 
                 authentication.setDetails(
@@ -94,23 +108,70 @@ public class NimbusJwtAuthenticationFilter extends OncePerRequestFilter {
         return null;
     }
 
-    private boolean validateToken(String token) {
-        try {
-            SignedJWT signedJWT = SignedJWT.parse(token);
-            JWSVerifier verifier = new MACVerifier(String.valueOf(customJWTDecode.getMacSigner()));
+    /**
+     * Token hợp lệ (đúng chữ ký, chưa hết hạn) thì trả về thông tin đăng nhập, ngược lại trả về null
+     * Token đã xác thực trước đó lấy từ cache, không parse và verify HMAC lại
+     */
+    VerifiedToken verify(String jwt) {
+        String tokenHash = UtilFunction.sha256Hex(jwt);
+        VerifiedToken cached = verifiedTokens.getIfPresent(tokenHash);
+        if (cached != null) {
+            return cached;
+        }
 
-            boolean signatureValid = signedJWT.verify(verifier);
-            boolean notExpired = signedJWT.getJWTClaimsSet()
-                    .getExpirationTime()
-                    .after(new Date());
+        VerifiedToken token = parseAndVerify(jwt);
+        if (token != null) {
+            verifiedTokens.put(tokenHash, token);
+        }
+        return token;
+    }
 
-            return signatureValid && notExpired;
+    private VerifiedToken parseAndVerify(String jwt) {
+        try {
+            SignedJWT signedJWT = SignedJWT.parse(jwt);
+            if (!signedJWT.verify(verifier)) {
+                log.debug("Token validation failed: invalid signature");
+                return null;
+            }
+            JWTClaimsSet claims = signedJWT.getJWTClaimsSet();
+            Date expirationTime = claims.getExpirationTime();
+            if (expirationTime == null || !expirationTime.toInstant().isAfter(clock.instant())) {
+                log.debug("Token validation failed: token expired");
+                return null;
+            }
+
+            // Lấy userId từ subject claim (QUAN TRỌNG: Principal phải là userId)
+            String userId = claims.getSubject();  // ← subject chứa userId (UUID)
+            String username = claims.getStringClaim("username");  // username chỉ để log
+            return new VerifiedToken(userId, username, resolveAuthorities(claims), expirationTime.toInstant());
         } catch (Exception e) {
             log.error("Token validation failed: {}", e.getMessage());
-            return false;
+            return null;
         }
     }
 
+    // Lấy role từ JWT (single role)
+    private List<SimpleGrantedAuthority> resolveAuthorities(JWTClaimsSet claims) {
+        try {
+            String role = claims.getStringClaim("role");
+            if (role != null && !role.isEmpty()) {
+                return List.of(new SimpleGrantedAuthority("ROLE_" + role));
+            }
+        } catch (Exception e) {
+            log.warn("Could not parse role from JWT, using default role");
+        }
+        // Fallback: default role
+        return List.of(new SimpleGrantedAuthority("ROLE_CUSTOMER"));
+    }
+
+    long verifiedTokenCount() {
+        verifiedTokens.cleanUp();
+        return verifiedTokens.estimatedSize();
+    }
+
+    record VerifiedToken(String userId, String username, List<SimpleGrantedAuthority> authorities, Instant expiresAt) {
+    }
+
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
         String path = request.getServletPath();
@@ -0,0 +1,12 @@
+package com.fpt.evcare.service;
+
+import java.util.UUID;
+
+public interface AccessTokenRegistryService {
+
+    void accessTokenIssued(UUID userId, String token);
+
+    void tokensRemoved(UUID userId);
+
+    boolean isCurrentAccessToken(UUID userId, String token);
+}
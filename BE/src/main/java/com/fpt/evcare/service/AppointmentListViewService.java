@@ -0,0 +1,16 @@
+package com.fpt.evcare.service;
+
+import com.fpt.evcare.dto.response.AppointmentListItemResponse;
+import com.fpt.evcare.dto.response.PageResponse;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Collection;
+import java.util.UUID;
+
+public interface AppointmentListViewService {
+    void refresh(Collection<UUID> appointmentIds);
+    int rebuildAll();
+    PageResponse<AppointmentListItemResponse> searchAppointments(String keyword, String status, String serviceMode,
+                                                                 String fromDate, String toDate, Pageable pageable);
+    PageResponse<AppointmentListItemResponse> getAppointmentsByCustomerId(UUID customerId, String keyword, Pageable pageable);
+}
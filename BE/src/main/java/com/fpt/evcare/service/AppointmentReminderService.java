@@ -0,0 +1,10 @@
+package com.fpt.evcare.service;
+
+public interface AppointmentReminderService {
+
+    /**
+     * Nhắc lịch các cuộc hẹn sắp tới (email qua outbox + notification WebSocket)
+     * Trả về số cuộc hẹn đã nhắc
+     */
+    int sendDueReminders();
+}
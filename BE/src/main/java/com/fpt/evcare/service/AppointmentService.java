@@ -5,6 +5,7 @@ import com.fpt.evcare.dto.request.appointment.CreationAppointmentRequest;
 import com.fpt.evcare.dto.request.appointment.UpdationAppointmentRequest;
 import com.fpt.evcare.dto.request.appointment.UpdationCustomerAppointmentRequest;
 import com.fpt.evcare.dto.response.AppointmentResponse;
+import com.fpt.evcare.dto.response.CursorPageResponse;
 import com.fpt.evcare.dto.response.PageResponse;
 import com.fpt.evcare.entity.AppointmentEntity;
 import org.springframework.data.domain.Pageable;
@@ -27,6 +28,9 @@ public interface AppointmentService {
     PageResponse<AppointmentResponse> searchAppointment(String keyword, Pageable pageable);
     PageResponse<AppointmentResponse> searchAppointmentWithFilters(String keyword, String status, String serviceMode, 
                                                                     String fromDate, String toDate, Pageable pageable);
+    CursorPageResponse<AppointmentResponse> searchAppointmentWithCursor(String keyword, String status, String serviceMode,
+                                                                        String fromDate, String toDate, String cursor,
+                                                                        int size, boolean includeTotal);
 
     boolean addAppointment(CreationAppointmentRequest creationAppointmentRequest);
     boolean updateAppointmentForCustomer(UUID id, UpdationCustomerAppointmentRequest updationCustomerAppointmentRequest);
@@ -0,0 +1,16 @@
+package com.fpt.evcare.service;
+
+import com.fpt.evcare.dto.response.ConversationResponse;
+import com.fpt.evcare.dto.response.PageResponse;
+import com.fpt.evcare.entity.MessageEntity;
+import org.springframework.data.domain.Pageable;
+
+import java.util.UUID;
+
+public interface ConversationService {
+    void recordMessageSent(MessageEntity message);
+    void recordMessagesRead(UUID readerId, UUID senderId, int readCount);
+    void recordMessageDeleted(MessageEntity message, boolean wasUnread);
+    PageResponse<ConversationResponse> getConversations(UUID userId, Pageable pageable);
+    int rebuildAll();
+}
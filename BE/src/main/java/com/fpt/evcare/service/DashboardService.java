@@ -2,6 +2,10 @@ package com.fpt.evcare.service;
 
 import com.fpt.evcare.dto.response.DashboardChartsResponse;
 import com.fpt.evcare.dto.response.DashboardStatsResponse;
+import com.fpt.evcare.enums.AppointmentStatusEnum;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 public interface DashboardService {
     
@@ -16,5 +20,20 @@ public interface DashboardService {
      * @return DashboardChartsResponse containing chart data
      */
     DashboardChartsResponse getChartData();
-}
 
+    /**
+     * Recompute statistics and chart data from the database and overwrite the cache
+     */
+    void refreshDashboardCache();
+
+    /**
+     * Apply an appointment status transition to the cached counters
+     * @param oldStatus previous status, null when the appointment was just created
+     */
+    void applyAppointmentStatusChange(AppointmentStatusEnum oldStatus, AppointmentStatusEnum newStatus, LocalDateTime scheduledAt);
+
+    /**
+     * Add a successful payment to the cached monthly revenue
+     */
+    void applyPaymentCompleted(BigDecimal amount, LocalDateTime scheduledAt);
+}
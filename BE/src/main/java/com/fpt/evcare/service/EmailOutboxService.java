@@ -0,0 +1,33 @@
+package com.fpt.evcare.service;
+
+import com.fpt.evcare.dto.request.EmailRequestDTO;
+
+/**
+ * Hàng đợi email gửi đi (transactional outbox)
+ * Nghiệp vụ chỉ ghi email vào bảng email_outbox, việc gửi SMTP chạy nền sau khi commit
+ */
+public interface EmailOutboxService {
+
+    /**
+     * Ghi email vào outbox trong transaction hiện tại (không có thì mở transaction mới)
+     * Không chống trùng: gọi 2 lần là gửi 2 email
+     */
+    void enqueue(EmailRequestDTO emailRequest);
+
+    /**
+     * Như enqueue(emailRequest) nhưng email cùng idempotencyKey (VD: "invoice-paid:{invoiceId}") chỉ được xếp hàng 1 lần
+     * trong thời gian lưu của outbox
+     */
+    void enqueue(EmailRequestDTO emailRequest, String idempotencyKey);
+
+    /**
+     * Lấy 1 lô email đến hạn, gửi song song trên pool giới hạn rồi cập nhật trạng thái
+     * Trả về số email đã lấy ra trong lô
+     */
+    int dispatchDueEmails();
+
+    /**
+     * Xóa các email đã gửi hoặc đã bỏ cuộc (FAILED) quá thời gian lưu, trả về số dòng đã xóa
+     */
+    int purgeFinishedEmails();
+}
@@ -3,10 +3,24 @@ package com.fpt.evcare.service;
 
 import com.fpt.evcare.dto.request.EmailRequestDTO;
 import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.mail.MailException;
 import org.springframework.stereotype.Service;
 
 @Service
 public interface EmailService {
 
     void sendEmailTemplate(EmailRequestDTO emailDetail) throws MessagingException;
+
+    // Chỉ dựng HTML từ template (không gửi), an toàn khi gọi song song
+    String renderEmailTemplate(EmailRequestDTO emailDetail);
+
+    // Tạo MimeMessage từ HTML đã dựng sẵn bằng renderEmailTemplate
+    MimeMessage createMimeMessage(EmailRequestDTO emailDetail, String htmlContent) throws MessagingException;
+
+    /**
+     * Gửi nhiều email trên cùng 1 kết nối SMTP
+     * Email gửi lỗi được trả về trong MailSendException.getFailedMessages() (key là MimeMessage truyền vào)
+     */
+    void sendMimeMessages(MimeMessage... mimeMessages) throws MailException;
 }
@@ -1,6 +1,10 @@
 package com.fpt.evcare.service;
 
 import com.fpt.evcare.dto.request.message.CreationMessageRequest;
+import com.fpt.evcare.dto.request.message.MessageAckRequest;
+import com.fpt.evcare.dto.response.MessageAckResponse;
+import com.fpt.evcare.dto.response.ConversationResponse;
+import com.fpt.evcare.dto.response.CursorPageResponse;
 import com.fpt.evcare.dto.response.MessageResponse;
 import com.fpt.evcare.dto.response.PageResponse;
 import org.springframework.data.domain.Pageable;
@@ -11,11 +15,14 @@ public interface MessageService {
     MessageResponse sendMessage(UUID senderId, CreationMessageRequest request);
     MessageResponse getMessage(UUID messageId, UUID currentUserId);
     PageResponse<MessageResponse> getConversation(UUID currentUserId, UUID otherUserId, Pageable pageable);
+    CursorPageResponse<MessageResponse> getConversationWithCursor(UUID currentUserId, UUID otherUserId, String cursor,
+                                                                  int size, boolean includeTotal);
     MessageResponse markAsRead(UUID messageId, UUID userId);
     int markConversationAsRead(UUID currentUserId, UUID otherUserId);
     MessageResponse markAsDelivered(UUID messageId, UUID userId);
+    MessageAckResponse acknowledgeMessages(UUID userId, MessageAckRequest request);
     long countUnreadMessages(UUID userId);
-    PageResponse<MessageResponse> getRecentConversations(UUID userId, Pageable pageable);
+    PageResponse<ConversationResponse> getRecentConversations(UUID userId, Pageable pageable);
     void deleteMessage(UUID messageId, UUID currentUserId);
 }
 
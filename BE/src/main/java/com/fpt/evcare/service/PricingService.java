@@ -0,0 +1,50 @@
+package com.fpt.evcare.service;
+
+import com.fpt.evcare.dto.response.InvoiceResponse;
+import com.fpt.evcare.entity.AppointmentEntity;
+import com.fpt.evcare.entity.CustomerWarrantyPartEntity;
+import com.fpt.evcare.entity.MaintenanceManagementEntity;
+import com.fpt.evcare.entity.WarrantyPartEntity;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Tính giá phụ tùng và giảm giá bảo hành cho cả appointment
+ * Warranty part và warranty của customer được nạp 1 lần cho tất cả phụ tùng, phần tính toán làm trong bộ nhớ
+ */
+public interface PricingService {
+
+    /**
+     * Tính chi tiết dịch vụ + phụ tùng (đã trừ giảm giá bảo hành) của appointment
+     * @param applyWarranty false nếu không muốn xét bảo hành (vd appointment chưa COMPLETED)
+     */
+    AppointmentPricing priceAppointment(AppointmentEntity appointment,
+                                        List<MaintenanceManagementEntity> maintenanceManagements,
+                                        boolean applyWarranty);
+
+    /**
+     * Nạp warranty part và warranty còn hiệu lực của customer cho danh sách phụ tùng (mỗi loại 1 query)
+     */
+    WarrantyLookup loadWarrantyLookup(AppointmentEntity appointment, Collection<UUID> vehiclePartIds);
+
+    /**
+     * Id các phụ tùng thuộc maintenance record đã được duyệt và chưa xóa
+     */
+    List<UUID> collectApprovedVehiclePartIds(List<MaintenanceManagementEntity> maintenanceManagements);
+
+    record AppointmentPricing(List<InvoiceResponse.MaintenanceManagementSummary> maintenanceDetails,
+                              BigDecimal partsTotal,
+                              BigDecimal warrantyDiscountTotal) {
+    }
+
+    /**
+     * Kết quả tra cứu theo vehiclePartId; customerWarranties chỉ giữ warranty mới nhất của mỗi phụ tùng
+     */
+    record WarrantyLookup(Map<UUID, WarrantyPartEntity> warrantyParts,
+                          Map<UUID, CustomerWarrantyPartEntity> customerWarranties) {
+    }
+}
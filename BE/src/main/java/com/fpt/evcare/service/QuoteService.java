@@ -0,0 +1,23 @@
+package com.fpt.evcare.service;
+
+import com.fpt.evcare.dto.response.QuoteResponse;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Tính giá tạm tính theo phụ tùng của các dịch vụ được chọn, đọc từ bảng giá trong cây dịch vụ dựng sẵn
+ */
+public interface QuoteService {
+
+    /**
+     * Chi tiết giá từng dịch vụ con và tổng tiền; id trùng chỉ tính 1 lần
+     */
+    QuoteResponse getQuote(UUID vehicleTypeId, Collection<UUID> serviceTypeIds);
+
+    /**
+     * Giống getQuote nhưng dùng khi đặt/đổi lịch (dịch vụ đã được kiểm tra tồn tại trong database):
+     * snapshot thiếu dịch vụ thì dựng lại từ database 1 lần trước khi báo lỗi
+     */
+    QuoteResponse getQuoteForBooking(UUID vehicleTypeId, Collection<UUID> serviceTypeIds);
+}
@@ -0,0 +1,35 @@
+package com.fpt.evcare.service;
+
+import com.fpt.evcare.dto.response.QuoteResponse;
+import com.fpt.evcare.dto.response.ServiceTypeResponse;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Cây dịch vụ dựng sẵn trong bộ nhớ cho từng loại xe (màn hình đặt lịch)
+ * Mỗi snapshot không bị sửa sau khi dựng, khi dữ liệu thay đổi thì dựng snapshot mới và thay thế nguyên khối
+ */
+public interface ServiceTypeTreeService {
+
+    /**
+     * Snapshot hiện tại của loại xe, dựng từ database ở lần đọc đầu tiên
+     */
+    ServiceTypeTree getTree(UUID vehicleTypeId);
+
+    /**
+     * Dựng lại snapshot của loại xe (nếu đang có trong bộ nhớ)
+     * vehicleTypeId null nghĩa là dựng lại tất cả loại xe đang có snapshot
+     */
+    void refresh(UUID vehicleTypeId);
+
+    /**
+     * roots: các dịch vụ cha kèm danh sách con, danh sách đều là bản chỉ đọc
+     * serviceQuotes: bảng giá phụ tùng đã tính sẵn của từng dịch vụ (serviceTypeId -> chi tiết giá)
+     */
+    record ServiceTypeTree(UUID vehicleTypeId, long version, LocalDateTime builtAt, List<ServiceTypeResponse> roots,
+                           Map<UUID, ServiceTypeResponse> nodes, Map<UUID, QuoteResponse.ServiceQuote> serviceQuotes) {
+    }
+}
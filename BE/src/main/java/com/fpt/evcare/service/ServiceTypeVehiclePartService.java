@@ -4,12 +4,15 @@ import com.fpt.evcare.dto.request.service_type_vehicle_part.CreationServiceTypeV
 import com.fpt.evcare.dto.request.service_type_vehicle_part.UpdationServiceTypeVehiclePartRequest;
 import com.fpt.evcare.dto.response.ServiceTypeVehiclePartResponse;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 public interface ServiceTypeVehiclePartService {
     ServiceTypeVehiclePartResponse getServiceTypeVehiclePartById(UUID id);
     List<ServiceTypeVehiclePartResponse> getVehiclePartResponseByServiceTypeId(UUID id);
+    Map<UUID, List<ServiceTypeVehiclePartResponse>> getVehiclePartResponsesByServiceTypeIds(Collection<UUID> ids);
     boolean createServiceTypeVehiclePart(CreationServiceTypeVehiclePartRequest creationServiceTypeVehiclePartRequest);
     boolean updateServiceTypeVehiclePart(UUID id, UpdationServiceTypeVehiclePartRequest updationServiceTypeVehiclePartRequest);
     boolean deleteServiceTypeVehiclePart(UUID id);
@@ -0,0 +1,42 @@
+package com.fpt.evcare.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Index trong bộ nhớ các ca làm việc của từng kỹ thuật viên để trả lời câu hỏi lịch rảnh không cần query DB
+ */
+public interface ShiftIntervalIndexService {
+
+    /**
+     * Nạp lại toàn bộ index từ database
+     */
+    void rebuild();
+
+    /**
+     * Nạp lại các khoảng thời gian của 1 ca (ca mới, đổi giờ, phân công, xóa/khôi phục)
+     */
+    void refreshShift(UUID shiftId);
+
+    /**
+     * Index đã sẵn sàng và có đủ dữ liệu cho khoảng thời gian bắt đầu từ startTime
+     * Nếu false, phía gọi cần tự kiểm tra bằng database
+     */
+    boolean covers(LocalDateTime startTime);
+
+    /**
+     * Ca trùng sớm nhất của kỹ thuật viên trong khoảng [startTime, endTime] (cùng quy tắc trùng với ShiftRepository)
+     */
+    Optional<ShiftInterval> findFirstConflict(UUID technicianId, LocalDateTime startTime, LocalDateTime endTime,
+                                              UUID excludeShiftId);
+
+    /**
+     * Thời điểm sớm nhất từ after mà kỹ thuật viên rảnh liên tục trong khoảng duration
+     */
+    LocalDateTime findFirstFreeSlot(UUID technicianId, LocalDateTime after, Duration duration);
+
+    record ShiftInterval(UUID shiftId, LocalDateTime startTime, LocalDateTime endTime) {
+    }
+}
@@ -4,6 +4,7 @@ import com.fpt.evcare.dto.request.shift.AssignShiftRequest;
 import com.fpt.evcare.dto.request.shift.CheckTechnicianAvailabilityRequest;
 import com.fpt.evcare.dto.request.shift.CreationShiftRequest;
 import com.fpt.evcare.dto.request.shift.UpdationShiftRequest;
+import com.fpt.evcare.dto.response.CursorPageResponse;
 import com.fpt.evcare.dto.response.PageResponse;
 import com.fpt.evcare.dto.response.ShiftResponse;
 import com.fpt.evcare.dto.response.TechnicianAvailabilityResponse;
@@ -27,6 +28,10 @@ public interface ShiftService {
     PageResponse<ShiftResponse> searchShiftWithFilters(String keyword, String status, String shiftType,
                                                         String fromDate, String toDate, Pageable pageable);
     
+    CursorPageResponse<ShiftResponse> searchShiftWithCursor(String keyword, String status, String shiftType,
+                                                            String fromDate, String toDate, String cursor,
+                                                            int size, boolean includeTotal);
+    
     PageResponse<ShiftResponse> getShiftsByAppointmentId(UUID appointmentId, Pageable pageable);
     
     PageResponse<ShiftResponse> searchShiftForTechnician(UUID technicianId, String keyword, Pageable pageable);
@@ -51,6 +56,8 @@ public interface ShiftService {
             LocalDateTime endTime,
             UUID excludeShiftId);
 
+    LocalDateTime findNextAvailableSlot(UUID technicianId, LocalDateTime after, int durationMinutes);
+
     void updateShiftStatuses();
 }
 
@@ -0,0 +1,14 @@
+package com.fpt.evcare.service;
+
+import com.fpt.evcare.dto.response.UnreadCountResponse;
+
+import java.util.UUID;
+
+public interface UnreadCountService {
+    long countUnread(UUID userId);
+    UnreadCountResponse getUnreadCounts(UUID userId);
+    void messagesReceived(UUID receiverId, UUID senderId, int count);
+    void messagesRead(UUID readerId, UUID senderId, int count);
+    void pushUnreadCounts(UUID userId);
+    int reconcileConnectedUsers();
+}
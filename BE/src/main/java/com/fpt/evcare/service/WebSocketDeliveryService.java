@@ -0,0 +1,11 @@
+package com.fpt.evcare.service;
+
+import java.util.Collection;
+import java.util.UUID;
+
+public interface WebSocketDeliveryService {
+
+    void sendToUsers(Collection<UUID> userIds, String destination, Object payload);
+
+    void sendCoalesced(UUID userId, String destination, String coalesceKey, Object payload);
+}
@@ -0,0 +1,20 @@
+package com.fpt.evcare.service;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
+
+public interface WebSocketPresenceService {
+
+    void sessionConnected(UUID userId, String sessionId);
+
+    void sessionDisconnected(UUID userId, String sessionId);
+
+    boolean isOnline(UUID userId);
+
+    Set<UUID> findOnline(Collection<UUID> userIds);
+
+    Set<UUID> findLocallyConnected();
+
+    void refreshPresence();
+}
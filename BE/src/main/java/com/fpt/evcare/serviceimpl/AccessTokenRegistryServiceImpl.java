@@ -0,0 +1,111 @@
+package com.fpt.evcare.serviceimpl;
+
+import com.fpt.evcare.constants.TokenConstants;
+import com.fpt.evcare.service.AccessTokenRegistryService;
+import com.fpt.evcare.service.RedisService;
+import com.fpt.evcare.utils.UtilFunction;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Access token hiện tại của từng user giữ trong bộ nhớ (SHA-256 của token) để kiểm tra token không cần gọi Redis
+ * - Redis vẫn là nguồn dữ liệu gốc: chưa có trong bộ nhớ thì đọc Redis một lần rồi giữ lại
+ * - Cấp token mới / logout ở instance này: cập nhật bộ nhớ rồi báo các instance khác qua Redis pub/sub để bỏ bản cũ
+ * - Mỗi bản ghi sống tối đa local-ttl nên nếu mất thông báo pub/sub, token bị thu hồi cũng chỉ còn dùng được trong khoảng đó
+ */
+@Slf4j
+@Service
+public class AccessTokenRegistryServiceImpl implements AccessTokenRegistryService, MessageListener {
+
+    private static final String SEPARATOR = "|";
+    // User không có access token nào trong Redis (đã logout hoặc token hết hạn)
+    private static final String NO_TOKEN = "";
+
+    private final RedisService<String> redisService;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+    private final Cache<UUID, String> currentTokens;
+
+    // Bỏ qua thông báo do chính instance này gửi
+    private final String instanceId = UUID.randomUUID().toString();
+
+    public AccessTokenRegistryServiceImpl(RedisService<String> redisService,
+                                          StringRedisTemplate stringRedisTemplate,
+                                          RedisMessageListenerContainer redisMessageListenerContainer,
+                                          @Value("${jwt.revocation.local-ttl:60s}") Duration localTtl,
+                                          @Value("${jwt.revocation.maximum-size:100000}") long maximumSize) {
+        this.redisService = redisService;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.redisMessageListenerContainer = redisMessageListenerContainer;
+        this.currentTokens = Caffeine.newBuilder()
+                .expireAfterWrite(localTtl)
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(TokenConstants.ACCESS_TOKEN_CHANGED_CHANNEL));
+    }
+
+    @Override
+    public void accessTokenIssued(UUID userId, String token) {
+        currentTokens.put(userId, UtilFunction.sha256Hex(token));
+        publishChange(userId);
+    }
+
+    @Override
+    public void tokensRemoved(UUID userId) {
+        currentTokens.put(userId, NO_TOKEN);
+        publishChange(userId);
+    }
+
+    @Override
+    public boolean isCurrentAccessToken(UUID userId, String token) {
+        if (userId == null || token == null) {
+            return false;
+        }
+        String currentHash = currentTokens.get(userId, this::loadFromRedis);
+        return !NO_TOKEN.equals(currentHash) && currentHash.equals(UtilFunction.sha256Hex(token));
+    }
+
+    private String loadFromRedis(UUID userId) {
+        String stored = redisService.getValue(TokenConstants.ACCESS_PREFIX + userId);
+        return stored != null ? UtilFunction.sha256Hex(stored) : NO_TOKEN;
+    }
+
+    private void publishChange(UUID userId) {
+        try {
+            stringRedisTemplate.convertAndSend(TokenConstants.ACCESS_TOKEN_CHANGED_CHANNEL, instanceId + SEPARATOR + userId);
+        } catch (Exception e) {
+            log.warn(TokenConstants.LOG_WARN_CANNOT_PUBLISH_TOKEN_CHANGE, userId, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            String payload = new String(message.getBody(), StandardCharsets.UTF_8);
+            if (payload.startsWith(instanceId + SEPARATOR)) {
+                return;
+            }
+            // Không biết token mới nên bỏ bản trong bộ nhớ, lần kiểm tra sau sẽ đọc lại từ Redis
+            currentTokens.invalidate(UUID.fromString(payload.substring(payload.indexOf(SEPARATOR) + 1)));
+        } catch (Exception e) {
+            log.warn(TokenConstants.LOG_WARN_INVALID_TOKEN_CHANGE_MESSAGE, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.fpt.evcare.serviceimpl;
+
+import com.fpt.evcare.constants.AppointmentConstants;
+import com.fpt.evcare.dto.response.AppointmentListItemResponse;
+import com.fpt.evcare.dto.response.PageResponse;
+import com.fpt.evcare.entity.AppointmentEntity;
+import com.fpt.evcare.entity.AppointmentListViewEntity;
+import com.fpt.evcare.entity.ServiceTypeEntity;
+import com.fpt.evcare.entity.UserEntity;
+import com.fpt.evcare.enums.AppointmentStatusEnum;
+import com.fpt.evcare.enums.ServiceModeEnum;
+import com.fpt.evcare.exception.EntityValidationException;
+import com.fpt.evcare.repository.AppointmentListViewRepository;
+import com.fpt.evcare.repository.AppointmentRepository;
+import com.fpt.evcare.service.AppointmentListViewService;
+import com.fpt.evcare.utils.UtilFunction;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class AppointmentListViewServiceImpl implements AppointmentListViewService {
+
+    private static final int REBUILD_BATCH_SIZE = 200;
+    // UUID nhỏ nhất, điểm bắt đầu của keyset khi duyệt toàn bảng
+    private static final UUID FIRST_APPOINTMENT_ID = new UUID(0L, 0L);
+
+    AppointmentRepository appointmentRepository;
+    AppointmentListViewRepository appointmentListViewRepository;
+    TransactionTemplate transactionTemplate;
+
+    @Override
+    @Transactional
+    public void refresh(Collection<UUID> appointmentIds) {
+        if (appointmentIds == null || appointmentIds.isEmpty()) {
+            return;
+        }
+        List<UUID> ids = appointmentIds.stream().filter(Objects::nonNull).distinct().toList();
+
+        // Load cả graph bằng 2 query batch (customer/assignee/technicians + service types)
+        List<AppointmentEntity> appointments = appointmentRepository.fetchUsersAndVehicleTypeByAppointmentIdIn(ids);
+        appointmentRepository.fetchServiceTypesByAppointmentIdIn(ids);
+
+        // Dòng đã có thì cập nhật tại chỗ, chưa có thì tạo mới (1 query đọc cho cả batch)
+        Map<UUID, AppointmentListViewEntity> existingRows = appointmentListViewRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(AppointmentListViewEntity::getAppointmentId, row -> row));
+        List<AppointmentListViewEntity> rows = appointments.stream()
+                .map(appointment -> fillListViewEntity(
+                        existingRows.getOrDefault(appointment.getAppointmentId(), new AppointmentListViewEntity()),
+                        appointment))
+                .toList();
+        appointmentListViewRepository.saveAll(rows);
+
+        // Appointment đã bị xóa cứng thì xóa luôn dòng tương ứng
+        Set<UUID> foundIds = appointments.stream().map(AppointmentEntity::getAppointmentId).collect(Collectors.toSet());
+        List<UUID> missingIds = ids.stream().filter(id -> !foundIds.contains(id)).toList();
+        if (!missingIds.isEmpty()) {
+            appointmentListViewRepository.deleteByAppointmentIdIn(missingIds);
+        }
+
+        log.debug(AppointmentConstants.LOG_INFO_REFRESHED_APPOINTMENT_LIST_VIEW, rows.size());
+    }
+
+    @Override
+    public int rebuildAll() {
+        // Duyệt keyset theo id, mỗi batch commit trong transaction riêng: không giữ 1 transaction dài
+        // và persistence context chỉ chứa 1 batch
+        int total = 0;
+        UUID lastId = FIRST_APPOINTMENT_ID;
+        List<UUID> ids;
+        do {
+            ids = appointmentRepository.findAppointmentIdsAfter(lastId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+            if (!ids.isEmpty()) {
+                List<UUID> batch = ids;
+                transactionTemplate.executeWithoutResult(status -> refresh(batch));
+                total += ids.size();
+                lastId = ids.get(ids.size() - 1);
+            }
+        } while (ids.size() == REBUILD_BATCH_SIZE);
+        Integer orphanRows = transactionTemplate.execute(status -> appointmentListViewRepository.deleteOrphanRows());
+
+        log.info(AppointmentConstants.LOG_INFO_REBUILT_APPOINTMENT_LIST_VIEW, total, orphanRows);
+        return total;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PageResponse<AppointmentListItemResponse> searchAppointments(String keyword, String status, String serviceMode,
+                                                                        String fromDate, String toDate, Pageable pageable) {
+        log.info(AppointmentConstants.LOG_INFO_SHOWING_APPOINTMENT_LIST_VIEW);
+        Page<AppointmentListItemResponse> page = appointmentListViewRepository.findListItems(
+                normalizeKeyword(keyword),
+                parseStatus(status),
+                parseServiceMode(serviceMode),
+                parseDate(fromDate, LocalTime.MIN),
+                parseDate(toDate, LocalTime.MAX),
+                pageable);
+        return toPageResponse(page);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PageResponse<AppointmentListItemResponse> getAppointmentsByCustomerId(UUID customerId, String keyword, Pageable pageable) {
+        log.info(AppointmentConstants.LOG_INFO_SHOWING_USER_APPOINTMENT_LIST_VIEW, customerId);
+        Page<AppointmentListItemResponse> page = appointmentListViewRepository.findListItemsByCustomerId(
+                customerId, normalizeKeyword(keyword), pageable);
+        return toPageResponse(page);
+    }
+
+    private AppointmentListViewEntity fillListViewEntity(AppointmentListViewEntity row, AppointmentEntity appointment) {
+        UserEntity customer = appointment.getCustomer();
+        UserEntity assignee = appointment.getAssignee();
+
+        String technicianNames = appointment.getTechnicianEntities() == null ? "" : appointment.getTechnicianEntities().stream()
+                .filter(Objects::nonNull)
+                .map(UserEntity::getFullName)
+                .filter(Objects::nonNull)
+                .collect(Collectors.joining(", "));
+
+        List<ServiceTypeEntity> activeServiceTypes = appointment.getServiceTypeEntities() == null ? List.of() : appointment.getServiceTypeEntities().stream()
+                .filter(serviceType -> serviceType != null && !Boolean.TRUE.equals(serviceType.getIsDeleted()))
+                .toList();
+        String serviceTypeNames = activeServiceTypes.stream()
+                .map(ServiceTypeEntity::getServiceName)
+                .collect(Collectors.joining(", "));
+
+        // Giống getAppointmentById: nếu dịch vụ không còn tồn tại thì giá tạm tính = 0
+        BigDecimal quotePrice = activeServiceTypes.isEmpty() ? BigDecimal.ZERO : appointment.getQuotePrice();
+
+        row.setAppointmentId(appointment.getAppointmentId());
+        row.setCustomerId(customer != null ? customer.getUserId() : null);
+        row.setCustomerFullName(appointment.getCustomerFullName());
+        row.setCustomerPhoneNumber(appointment.getCustomerPhoneNumber());
+        row.setCustomerEmail(appointment.getCustomerEmail());
+        row.setAssigneeId(assignee != null ? assignee.getUserId() : null);
+        row.setAssigneeFullName(assignee != null ? assignee.getFullName() : null);
+        row.setTechnicianNames(technicianNames);
+        row.setServiceTypeNames(serviceTypeNames);
+        row.setServiceMode(appointment.getServiceMode());
+        row.setStatus(appointment.getStatus());
+        row.setVehicleTypeId(appointment.getVehicleTypeEntity() != null ? appointment.getVehicleTypeEntity().getVehicleTypeId() : null);
+        row.setVehicleTypeName(appointment.getVehicleTypeEntity() != null ? appointment.getVehicleTypeEntity().getVehicleTypeName() : null);
+        row.setVehicleNumberPlate(appointment.getVehicleNumberPlate());
+        row.setScheduledAt(appointment.getScheduledAt());
+        row.setQuotePrice(quotePrice);
+        row.setIsWarrantyAppointment(Boolean.TRUE.equals(appointment.getIsWarrantyAppointment()));
+        row.setSearch(appointment.getSearch());
+        row.setIsDeleted(Boolean.TRUE.equals(appointment.getIsDeleted()));
+        row.setIsActive(!Boolean.FALSE.equals(appointment.getIsActive()));
+        row.setRefreshedAt(LocalDateTime.now());
+        return row;
+    }
+
+    // Chuẩn hóa keyword giống cột search (chữ thường, bỏ khoảng trắng)
+    private String normalizeKeyword(String keyword) {
+        String normalized = UtilFunction.concatenateSearchField(keyword);
+        return normalized.isEmpty() ? null : normalized;
+    }
+
+    private AppointmentStatusEnum parseStatus(String status) {
+        if (status == null || status.isBlank()) {
+            return null;
+        }
+        try {
+            return AppointmentStatusEnum.valueOf(status.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            log.warn(AppointmentConstants.LOG_ERR_APPOINTMENT_STATUS_NOT_MATCH, status);
+            throw new EntityValidationException(AppointmentConstants.MESSAGE_ERR_APPOINTMENT_STATUS_NOT_MATCH);
+        }
+    }
+
+    private ServiceModeEnum parseServiceMode(String serviceMode) {
+        if (serviceMode == null || serviceMode.isBlank()) {
+            return null;
+        }
+        try {
+            return ServiceModeEnum.valueOf(serviceMode.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            log.warn(AppointmentConstants.LOG_ERR_SERVICE_MODE_ENUM_NOT_MATCH, serviceMode);
+            throw new EntityValidationException(AppointmentConstants.MESSAGE_ERR_SERVICE_MODE_ENUM_NOT_MATCH);
+        }
+    }
+
+    // Định dạng yyyy-MM-dd, giống API danh sách cũ
+    private LocalDateTime parseDate(String date, LocalTime time) {
+        if (date == null || date.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(date.trim()).atTime(time);
+        } catch (DateTimeParseException e) {
+            log.warn(AppointmentConstants.LOG_ERR_INVALID_DATE_FILTER, date);
+            throw new EntityValidationException(AppointmentConstants.MESSAGE_ERR_INVALID_DATE_FILTER);
+        }
+    }
+
+    private PageResponse<AppointmentListItemResponse> toPageResponse(Page<AppointmentListItemResponse> page) {
+        return PageResponse.<AppointmentListItemResponse>builder()
+                .data(page.getContent())
+                .page(page.getNumber())
+                .size(page.getSize())
+                .totalElements(page.getTotalElements())
+                .totalPages(page.getTotalPages())
+                .last(page.isLast())
+                .build();
+    }
+}
@@ -0,0 +1,130 @@
+package com.fpt.evcare.serviceimpl;
+
+import com.fpt.evcare.constants.AppointmentConstants;
+import com.fpt.evcare.dto.request.EmailRequestDTO;
+import com.fpt.evcare.entity.AppointmentEntity;
+import com.fpt.evcare.repository.AppointmentRepository;
+import com.fpt.evcare.service.AppointmentReminderService;
+import com.fpt.evcare.service.EmailOutboxService;
+import com.fpt.evcare.service.NotificationHelperService;
+import com.fpt.evcare.service.NotificationHelperService.NotificationData;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@Slf4j
+@Service
+public class AppointmentReminderServiceImpl implements AppointmentReminderService {
+
+    private static final DateTimeFormatter SCHEDULED_AT_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+    // Giới hạn số lô mỗi lượt quét để không chiếm thread scheduler quá lâu khi tồn đọng nhiều
+    static final int MAX_BATCHES_PER_RUN = 100;
+
+    private final AppointmentRepository appointmentRepository;
+    private final EmailOutboxService emailOutboxService;
+    private final NotificationHelperService notificationHelperService;
+    private final TransactionTemplate transactionTemplate;
+
+    // Nhắc trước giờ hẹn bao lâu
+    private final Duration leadTime;
+    private final int batchSize;
+
+    public AppointmentReminderServiceImpl(AppointmentRepository appointmentRepository,
+                                          EmailOutboxService emailOutboxService,
+                                          NotificationHelperService notificationHelperService,
+                                          TransactionTemplate transactionTemplate,
+                                          @Value("${appointment-reminder.lead-time:24h}") Duration leadTime,
+                                          @Value("${appointment-reminder.batch-size:500}") int batchSize) {
+        this.appointmentRepository = appointmentRepository;
+        this.emailOutboxService = emailOutboxService;
+        this.notificationHelperService = notificationHelperService;
+        this.transactionTemplate = transactionTemplate;
+        this.leadTime = leadTime;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public int sendDueReminders() {
+        int total = 0;
+        for (int i = 0; i < MAX_BATCHES_PER_RUN; i++) {
+            LocalDateTime now = LocalDateTime.now();
+            List<PendingNotification> notifications = new ArrayList<>();
+            // Đánh dấu đã nhắc và ghi email vào outbox trong cùng 1 transaction: lỗi thì cả lô được nhắc lại ở lượt sau
+            Integer claimed = transactionTemplate.execute(status -> {
+                List<AppointmentEntity> appointments = appointmentRepository.claimDueReminders(
+                        now, now.plus(leadTime), leadTime.toSeconds(), batchSize);
+                appointments.forEach(appointment -> {
+                    enqueueReminderEmail(appointment);
+                    if (appointment.getCustomer() != null) {
+                        notifications.add(new PendingNotification(appointment.getCustomer().getUserId(),
+                                buildReminderNotification(appointment)));
+                    }
+                });
+                return appointments.size();
+            });
+
+            // Notification WebSocket chỉ gửi sau khi commit
+            notifications.forEach(notification ->
+                    notificationHelperService.sendNotification(notification.userId(), notification.data()));
+
+            int count = claimed != null ? claimed : 0;
+            total += count;
+            if (count < batchSize) {
+                break;
+            }
+        }
+
+        if (total > 0) {
+            log.info(AppointmentConstants.LOG_INFO_SENT_APPOINTMENT_REMINDERS, total);
+        }
+        return total;
+    }
+
+    private void enqueueReminderEmail(AppointmentEntity appointment) {
+        if (appointment.getCustomerEmail() == null || appointment.getCustomerEmail().isEmpty()) {
+            return;
+        }
+        String emailBody = String.format(
+            AppointmentConstants.EMAIL_BODY_REMINDER_GREETING +
+            AppointmentConstants.EMAIL_BODY_REMINDER_CONTENT +
+            AppointmentConstants.EMAIL_BODY_REMINDER_APPOINTMENT_INFO +
+            AppointmentConstants.EMAIL_BODY_REMINDER_APPOINTMENT_ID +
+            AppointmentConstants.EMAIL_BODY_REMINDER_VEHICLE +
+            AppointmentConstants.EMAIL_BODY_REMINDER_TIME +
+            AppointmentConstants.EMAIL_BODY_REMINDER_FOOTER,
+            appointment.getCustomerFullName(),
+            appointment.getAppointmentId(),
+            appointment.getVehicleNumberPlate(),
+            appointment.getScheduledAt().format(SCHEDULED_AT_FORMATTER)
+        );
+
+        emailOutboxService.enqueue(EmailRequestDTO.builder()
+                .to(appointment.getCustomerEmail())
+                .subject(AppointmentConstants.EMAIL_SUBJECT_REMINDER)
+                .text(emailBody)
+                .fullName(appointment.getCustomerFullName())
+                .code(null)
+                .build());
+    }
+
+    private NotificationData buildReminderNotification(AppointmentEntity appointment) {
+        NotificationData notif = new NotificationData();
+        notif.setTitle(AppointmentConstants.NOTIFICATION_TITLE_REMINDER);
+        notif.setContent(String.format(AppointmentConstants.NOTIFICATION_CONTENT_REMINDER,
+                appointment.getVehicleNumberPlate(), appointment.getScheduledAt().format(SCHEDULED_AT_FORMATTER)));
+        notif.setNotificationType("REMINDER");
+        notif.setAppointmentId(appointment.getAppointmentId().toString());
+        return notif;
+    }
+
+    private record PendingNotification(UUID userId, NotificationData data) {
+    }
+}
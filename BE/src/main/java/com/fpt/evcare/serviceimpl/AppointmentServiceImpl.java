@@ -21,14 +21,19 @@ import com.fpt.evcare.mapper.InvoiceMapper;
 import com.fpt.evcare.repository.*;
 import com.fpt.evcare.service.*;
 import com.fpt.evcare.service.RedisService;
+import com.fpt.evcare.utils.CursorUtil;
 import com.fpt.evcare.utils.UtilFunction;
 import com.fpt.evcare.dto.request.EmailRequestDTO;
 import com.fpt.evcare.entity.MaintenanceManagementEntity;
 import com.fpt.evcare.entity.MaintenanceRecordEntity;
+import com.fpt.evcare.event.AppointmentChangedEvent;
+import com.fpt.evcare.event.AppointmentStatusChangedEvent;
+import com.fpt.evcare.event.ShiftScheduleChangedEvent;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -39,7 +44,6 @@ import java.math.RoundingMode;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 @Service
@@ -52,21 +56,21 @@ public class AppointmentServiceImpl implements AppointmentService {
     AppointmentMapper appointmentMapper;
     ServiceTypeRepository serviceTypeRepository;
     UserRepository userRepository;
-    VehiclePartRepository vehiclePartRepository;
     VehiclePartService vehiclePartService;
     VehicleTypeRepository vehicleTypeRepository;
     MaintenanceManagementService maintenanceManagementService;
     MaintenanceRecordRepository maintenanceRecordRepository;
     MaintenanceManagementRepository maintenanceManagementRepository;
-    WarrantyPartRepository warrantyPartRepository;
-    com.fpt.evcare.repository.CustomerWarrantyPartRepository customerWarrantyPartRepository;
-    EmailService emailService;
+    PricingService pricingService;
+    QuoteService quoteService;
+    EmailOutboxService emailOutboxService;
     InvoiceRepository invoiceRepository;
     InvoiceMapper invoiceMapper;
     PaymentMethodRepository paymentMethodRepository;
     ShiftRepository shiftRepository;
     com.fpt.evcare.service.NotificationHelperService notificationHelperService;
     RedisService<String> redisService;
+    ApplicationEventPublisher eventPublisher;
     
     private static final String GUEST_OTP_REDIS_KEY_PREFIX = "guest_appointment_otp:";
     private static final int OTP_LENGTH = 6;
@@ -209,7 +213,7 @@ public class AppointmentServiceImpl implements AppointmentService {
         }
 
         // Force initialization of lazy-loaded relationships within transaction
-        appointmentEntityPage.getContent().forEach(this::initializeAppointmentRelations);
+        initializeAppointmentRelations(appointmentEntityPage.getContent());
 
         List<AppointmentResponse> appointmentResponseList = appointmentEntityPage.map(appointmentEntity -> {
             AppointmentResponse appointmentResponse = appointmentMapper.toResponse(appointmentEntity);
@@ -292,7 +296,7 @@ public class AppointmentServiceImpl implements AppointmentService {
         }
 
         // Force initialization of lazy-loaded relationships within transaction
-        appointmentEntityPage.getContent().forEach(this::initializeAppointmentRelations);
+        initializeAppointmentRelations(appointmentEntityPage.getContent());
 
         List<AppointmentResponse> appointmentResponseList = appointmentEntityPage.map(appointmentEntity -> {
             AppointmentResponse appointmentResponse = appointmentMapper.toResponse(appointmentEntity);
@@ -360,63 +364,118 @@ public class AppointmentServiceImpl implements AppointmentService {
                 keyword, status, serviceMode, fromDate, toDate, pageable);
 
         // Force initialization of lazy-loaded relationships within transaction
-        appointmentEntityPage.getContent().forEach(this::initializeAppointmentRelations);
+        initializeAppointmentRelations(appointmentEntityPage.getContent());
 
-        List<AppointmentResponse> appointmentResponseList = appointmentEntityPage.map(appointmentEntity -> {
-            AppointmentResponse appointmentResponse = appointmentMapper.toResponse(appointmentEntity);
+        List<AppointmentResponse> appointmentResponseList = appointmentEntityPage.map(this::mapToListResponse).getContent();
 
-            UserEntity customer = appointmentEntity.getCustomer();
-            if(customer != null){
-                UserResponse response = new UserResponse();
-                response.setUserId(customer.getUserId());
-                appointmentResponse.setCustomer(response);
-            }
+        log.info(AppointmentConstants.LOG_INFO_SHOWING_APPOINTMENT_LIST);
+        return PageResponse.<AppointmentResponse>builder()
+                .data(appointmentResponseList)
+                .page(appointmentEntityPage.getNumber())
+                .totalElements(appointmentEntityPage.getTotalElements())
+                .totalPages(appointmentEntityPage.getTotalPages())
+                .build();
+    }
 
-            List<UserResponse> technicianEntities = new ArrayList<>();
-            appointmentEntity.getTechnicianEntities().forEach(technicianEntity -> {
-                UserResponse technicianResponse = mapUserEntityToResponse(technicianEntity);
-                technicianEntities.add(technicianResponse);
-            });
-            appointmentResponse.setTechnicianResponses(technicianEntities);
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponse<AppointmentResponse> searchAppointmentWithCursor(String keyword, String status, String serviceMode,
+                                                                               String fromDate, String toDate, String cursor,
+                                                                               int size, boolean includeTotal) {
+        log.info(AppointmentConstants.LOG_INFO_SHOWING_APPOINTMENT_LIST);
 
-            UserEntity assignee = appointmentEntity.getAssignee();
-            appointmentResponse.setAssignee(mapUserEntityToResponse(assignee));
+        int pageSize = Math.min(Math.max(size, 1), PaginationConstants.MAX_CURSOR_PAGE_SIZE);
 
-            // Lấy những dịch vụ có trong cuộc hẹn
-            appointmentResponse.setServiceTypeResponses(getServiceTypeResponsesForAppointment(appointmentEntity));
+        // Cursor = (is_warranty_appointment, scheduled_at, id) của dòng cuối trang trước
+        String cursorWarranty = null;
+        String cursorScheduledAt = null;
+        String cursorId = null;
+        String[] cursorParts = CursorUtil.decode(cursor, 3);
+        if (cursorParts != null) {
+            cursorWarranty = String.valueOf(CursorUtil.parseBoolean(cursorParts[0]));
+            LocalDateTime scheduledAt = CursorUtil.parseNullable(cursorParts[1], LocalDateTime::parse);
+            cursorScheduledAt = scheduledAt != null ? scheduledAt.toString() : null;
+            cursorId = CursorUtil.parse(cursorParts[2], UUID::fromString).toString();
+        }
 
-            VehicleTypeResponse vehicleTypeResponse = new VehicleTypeResponse();
-            if(appointmentEntity.getVehicleTypeEntity() != null) {
-                vehicleTypeResponse.setVehicleTypeId(appointmentEntity.getVehicleTypeEntity().getVehicleTypeId());
-                vehicleTypeResponse.setVehicleTypeName(appointmentEntity.getVehicleTypeEntity().getVehicleTypeName());
-                vehicleTypeResponse.setBatteryCapacity(appointmentEntity.getVehicleTypeEntity().getBatteryCapacity());
-                vehicleTypeResponse.setMaintenanceIntervalKm(appointmentEntity.getVehicleTypeEntity().getMaintenanceIntervalKm());
-                vehicleTypeResponse.setMaintenanceIntervalMonths(appointmentEntity.getVehicleTypeEntity().getMaintenanceIntervalMonths());
-                vehicleTypeResponse.setManufacturer(appointmentEntity.getVehicleTypeEntity().getManufacturer());
-                vehicleTypeResponse.setModelYear(appointmentEntity.getVehicleTypeEntity().getModelYear());
-                vehicleTypeResponse.setDescription(appointmentEntity.getVehicleTypeEntity().getDescription());
-            }
-            appointmentResponse.setVehicleTypeResponse(vehicleTypeResponse);
+        // Lấy dư 1 dòng để biết còn trang sau hay không, không cần COUNT
+        List<AppointmentEntity> appointmentEntities = appointmentRepository.findAppointmentsWithFiltersAfter(
+                keyword, status, serviceMode, fromDate, toDate, cursorWarranty, cursorScheduledAt, cursorId, pageSize + 1);
 
-            // Nếu dịch vụ đó không còn tồn tại, giá tạm tính phải mất
-            if(appointmentResponse.getServiceTypeResponses().isEmpty()) {
-                appointmentResponse.setQuotePrice(BigDecimal.ZERO);
-            } else {
-                appointmentResponse.setQuotePrice(appointmentEntity.getQuotePrice());
-            }
+        boolean hasNext = appointmentEntities.size() > pageSize;
+        if (hasNext) {
+            appointmentEntities = appointmentEntities.subList(0, pageSize);
+        }
 
-            return appointmentResponse;
-        }).getContent();
+        initializeAppointmentRelations(appointmentEntities);
 
-        log.info(AppointmentConstants.LOG_INFO_SHOWING_APPOINTMENT_LIST);
-        return PageResponse.<AppointmentResponse>builder()
+        List<AppointmentResponse> appointmentResponseList = appointmentEntities.stream()
+                .map(this::mapToListResponse)
+                .toList();
+
+        String nextCursor = null;
+        if (hasNext) {
+            AppointmentEntity last = appointmentEntities.get(appointmentEntities.size() - 1);
+            nextCursor = CursorUtil.encode(last.getIsWarrantyAppointment(), last.getScheduledAt(), last.getAppointmentId());
+        }
+
+        return CursorPageResponse.<AppointmentResponse>builder()
                 .data(appointmentResponseList)
-                .page(appointmentEntityPage.getNumber())
-                .totalElements(appointmentEntityPage.getTotalElements())
-                .totalPages(appointmentEntityPage.getTotalPages())
+                .size(pageSize)
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
+                .totalElements(includeTotal
+                        ? appointmentRepository.countAppointmentsWithFilters(keyword, status, serviceMode, fromDate, toDate)
+                        : null)
                 .build();
     }
 
+    private AppointmentResponse mapToListResponse(AppointmentEntity appointmentEntity) {
+        AppointmentResponse appointmentResponse = appointmentMapper.toResponse(appointmentEntity);
+
+        UserEntity customer = appointmentEntity.getCustomer();
+        if(customer != null){
+            UserResponse response = new UserResponse();
+            response.setUserId(customer.getUserId());
+            appointmentResponse.setCustomer(response);
+        }
+
+        List<UserResponse> technicianEntities = new ArrayList<>();
+        appointmentEntity.getTechnicianEntities().forEach(technicianEntity -> {
+            UserResponse technicianResponse = mapUserEntityToResponse(technicianEntity);
+            technicianEntities.add(technicianResponse);
+        });
+        appointmentResponse.setTechnicianResponses(technicianEntities);
+
+        UserEntity assignee = appointmentEntity.getAssignee();
+        appointmentResponse.setAssignee(mapUserEntityToResponse(assignee));
+
+        // Lấy những dịch vụ có trong cuộc hẹn
+        appointmentResponse.setServiceTypeResponses(getServiceTypeResponsesForAppointment(appointmentEntity));
+
+        VehicleTypeResponse vehicleTypeResponse = new VehicleTypeResponse();
+        if(appointmentEntity.getVehicleTypeEntity() != null) {
+            vehicleTypeResponse.setVehicleTypeId(appointmentEntity.getVehicleTypeEntity().getVehicleTypeId());
+            vehicleTypeResponse.setVehicleTypeName(appointmentEntity.getVehicleTypeEntity().getVehicleTypeName());
+            vehicleTypeResponse.setBatteryCapacity(appointmentEntity.getVehicleTypeEntity().getBatteryCapacity());
+            vehicleTypeResponse.setMaintenanceIntervalKm(appointmentEntity.getVehicleTypeEntity().getMaintenanceIntervalKm());
+            vehicleTypeResponse.setMaintenanceIntervalMonths(appointmentEntity.getVehicleTypeEntity().getMaintenanceIntervalMonths());
+            vehicleTypeResponse.setManufacturer(appointmentEntity.getVehicleTypeEntity().getManufacturer());
+            vehicleTypeResponse.setModelYear(appointmentEntity.getVehicleTypeEntity().getModelYear());
+            vehicleTypeResponse.setDescription(appointmentEntity.getVehicleTypeEntity().getDescription());
+        }
+        appointmentResponse.setVehicleTypeResponse(vehicleTypeResponse);
+
+        // Nếu dịch vụ đó không còn tồn tại, giá tạm tính phải mất
+        if(appointmentResponse.getServiceTypeResponses().isEmpty()) {
+            appointmentResponse.setQuotePrice(BigDecimal.ZERO);
+        } else {
+            appointmentResponse.setQuotePrice(appointmentEntity.getQuotePrice());
+        }
+
+        return appointmentResponse;
+    }
+
     // Hàm để tra cứu appointment cho khách hàng đã đăng nhập theo email và phone
     @Override
     @Transactional(readOnly = true)
@@ -456,7 +515,7 @@ public class AppointmentServiceImpl implements AppointmentService {
         }
 
         // Force initialization of lazy-loaded relationships within transaction
-        appointmentEntityPage.getContent().forEach(this::initializeAppointmentRelations);
+        initializeAppointmentRelations(appointmentEntityPage.getContent());
 
         List<AppointmentResponse> appointmentResponseList = appointmentEntityPage.map(appointmentEntity -> {
                     AppointmentResponse appointmentResponse = appointmentMapper.toResponse(appointmentEntity);
@@ -536,7 +595,7 @@ public class AppointmentServiceImpl implements AppointmentService {
         }
 
         // Force initialization of lazy-loaded relationships within transaction
-        appointmentEntityPage.getContent().forEach(this::initializeAppointmentRelations);
+        initializeAppointmentRelations(appointmentEntityPage.getContent());
 
         List<AppointmentResponse> appointmentResponseList = appointmentEntityPage.map(appointmentEntity -> {
                     AppointmentResponse appointmentResponse = appointmentMapper.toResponse(appointmentEntity);
@@ -681,7 +740,7 @@ public class AppointmentServiceImpl implements AppointmentService {
         appointmentEntity.setVehicleTypeEntity(vehicleType);
 
         //Tính giá tạm tính cho những dịch vụ mà khách hàng chọn
-        BigDecimal quotePrice = calculateQuotePrice(serviceTypeEntityList);
+        BigDecimal quotePrice = quoteService.getQuoteForBooking(vehicleType.getVehicleTypeId(), creationAppointmentRequest.getServiceTypeIds()).getTotalPrice();
         appointmentEntity.setQuotePrice(quotePrice);
 
         //Kiểm tra ngày lên lịch có phù hợp không
@@ -706,6 +765,9 @@ public class AppointmentServiceImpl implements AppointmentService {
                 savedEntity.getCustomer() != null ? savedEntity.getCustomer().getUserId() : "NULL");
 
         autoCreateShiftForAppointment(appointmentEntity);
+        eventPublisher.publishEvent(new AppointmentChangedEvent(this, savedEntity.getAppointmentId()));
+        eventPublisher.publishEvent(new AppointmentStatusChangedEvent(this, savedEntity.getAppointmentId(),
+                null, savedEntity.getStatus(), savedEntity.getScheduledAt()));
 
         // Gửi email thông báo tạo appointment thành công (trạng thái PENDING)
         sendPendingEmail(appointmentEntity);
@@ -769,6 +831,7 @@ public class AppointmentServiceImpl implements AppointmentService {
             shift.setSearch(search);
 
             shiftRepository.save(shift);
+            eventPublisher.publishEvent(new ShiftScheduleChangedEvent(this, shift.getShiftId(), shift.getStartTime(), shift.getEndTime()));
             log.info(AppointmentConstants.LOG_SUCCESS_AUTO_CREATED_SHIFT,
                     shift.getShiftId(), appointment.getAppointmentId(), endTime, totalHours);
 
@@ -854,7 +917,7 @@ public class AppointmentServiceImpl implements AppointmentService {
         appointmentEntity.setScheduledAt(updationCustomerAppointmentRequest.getScheduledAt());
 
         //Tính giá tạm tính cho những dịch vụ mà khách hàng chọn
-        BigDecimal quotePrice = calculateQuotePrice(serviceTypeEntityList);
+        BigDecimal quotePrice = quoteService.getQuoteForBooking(vehicleType.getVehicleTypeId(), updationCustomerAppointmentRequest.getServiceTypeIds()).getTotalPrice();
         appointmentEntity.setQuotePrice(quotePrice);
 
         //Ghép các thông tin lại
@@ -864,6 +927,7 @@ public class AppointmentServiceImpl implements AppointmentService {
         );
         appointmentEntity.setSearch(search);
 
+        eventPublisher.publishEvent(new AppointmentChangedEvent(this, id));
         log.info(AppointmentConstants.LOG_INFO_UPDATING_APPOINTMENT_BY_CUSTOMER + id);
         return true;
     }
@@ -924,10 +988,13 @@ public class AppointmentServiceImpl implements AppointmentService {
             !technicians.isEmpty() && assignee != null) {
             appointmentEntity.setStatus(AppointmentStatusEnum.CONFIRMED);
             log.info(AppointmentConstants.LOG_INFO_APPOINTMENT_AUTO_CONFIRMED, id);
+            eventPublisher.publishEvent(new AppointmentStatusChangedEvent(this, id,
+                    AppointmentStatusEnum.PENDING, AppointmentStatusEnum.CONFIRMED, appointmentEntity.getScheduledAt()));
         }
 
         log.info(AppointmentConstants.LOG_INFO_UPDATING_APPOINTMENT, id);
         appointmentRepository.save(appointmentEntity);
+        eventPublisher.publishEvent(new AppointmentChangedEvent(this, id));
         return true;
     }
 
@@ -973,6 +1040,9 @@ public class AppointmentServiceImpl implements AppointmentService {
         appointmentEntity.setStatus(newStatus);
         appointmentRepository.save(appointmentEntity);
         appointmentRepository.flush();
+        eventPublisher.publishEvent(new AppointmentChangedEvent(this, id));
+        eventPublisher.publishEvent(new AppointmentStatusChangedEvent(this, id,
+                currentStatus, newStatus, appointmentEntity.getScheduledAt()));
         
         // Reload entity để đảm bảo có đầy đủ thông tin (bao gồm cả customerEmail từ customer entity)
         AppointmentEntity refreshedAppointment = appointmentRepository.findByAppointmentIdAndIsDeletedFalse(id);
@@ -1062,25 +1132,6 @@ public class AppointmentServiceImpl implements AppointmentService {
         log.info(AppointmentConstants.LOG_INFO_APPOINTMENT_STATUS_UPDATE, id, currentStatus, newStatus);
     }
 
-    // Lấy giá tạm tính cho cuộc hẹn
-    @Transactional
-    public BigDecimal calculateQuotePrice(List<ServiceTypeEntity> serviceTypeEntities) {
-        AtomicReference<BigDecimal> quotePrice = new AtomicReference<>(BigDecimal.ZERO);
-        log.info(AppointmentConstants.LOG_INFO_CALCULATING_QUOTE_PRICE);
-        serviceTypeEntities.forEach(serviceTypeEntity -> serviceTypeEntity.getServiceTypeVehiclePartList().forEach(serviceTypeVehiclePart -> {
-                    VehiclePartEntity vehiclePartEntity = serviceTypeVehiclePart.getVehiclePart();
-                    if (vehiclePartRepository.existsByVehiclePartIdAndIsDeletedFalse(vehiclePartEntity.getVehiclePartId()) && vehiclePartEntity.getUnitPrice() != null) {
-                        // Calculate price based on required quantity (default to 1 if not specified)
-                        Integer requiredQuantity = serviceTypeVehiclePart.getRequiredQuantity() != null ? serviceTypeVehiclePart.getRequiredQuantity() : 1;
-                        BigDecimal partPrice = vehiclePartEntity.getUnitPrice().multiply(BigDecimal.valueOf(requiredQuantity));
-                        quotePrice.set(quotePrice.get().add(partPrice));
-                    }
-                })
-        );
-        log.info(AppointmentConstants.LOG_SUCCESS_CALCULATING_QUOTE_PRICE);
-        return quotePrice.get();
-    }
-
     private UserResponse mapUserEntityToResponse(UserEntity userEntity){
         UserResponse userResponse = new UserResponse();
         if(userEntity != null) {
@@ -1379,7 +1430,7 @@ public class AppointmentServiceImpl implements AppointmentService {
                     .code(null)
                     .build();
 
-            emailService.sendEmailTemplate(emailRequest);
+            emailOutboxService.enqueue(emailRequest);
             log.info(AppointmentConstants.LOG_INFO_SENT_PENDING_EMAIL, appointment.getCustomerEmail());
         } catch (Exception e) {
             log.error(AppointmentConstants.LOG_ERR_FAILED_SEND_PENDING_EMAIL, e.getMessage());
@@ -1419,7 +1470,7 @@ public class AppointmentServiceImpl implements AppointmentService {
                     .code(null)
                     .build();
 
-            emailService.sendEmailTemplate(emailRequest);
+            emailOutboxService.enqueue(emailRequest);
             log.info(AppointmentConstants.LOG_INFO_SENT_IN_PROGRESS_EMAIL, appointment.getCustomerEmail());
         } catch (Exception e) {
             log.error(AppointmentConstants.LOG_ERR_FAILED_SEND_IN_PROGRESS_EMAIL, e.getMessage());
@@ -1523,7 +1574,7 @@ public class AppointmentServiceImpl implements AppointmentService {
                     .code(null)
                     .build();
 
-            emailService.sendEmailTemplate(emailRequest);
+            emailOutboxService.enqueue(emailRequest);
             log.info(AppointmentConstants.LOG_INFO_SENT_CONFIRMED_EMAIL, appointment.getCustomerEmail());
         } catch (Exception e) {
             log.error(AppointmentConstants.LOG_ERR_FAILED_SEND_CONFIRMED_EMAIL, e.getMessage());
@@ -1561,7 +1612,7 @@ public class AppointmentServiceImpl implements AppointmentService {
                     .code(null)
                     .build();
 
-            emailService.sendEmailTemplate(emailRequest);
+            emailOutboxService.enqueue(emailRequest);
             log.info(AppointmentConstants.LOG_INFO_SENT_COMPLETED_EMAIL, appointment.getCustomerEmail());
         } catch (Exception e) {
             log.error(AppointmentConstants.LOG_ERR_FAILED_SEND_COMPLETED_EMAIL, e.getMessage());
@@ -1601,7 +1652,7 @@ public class AppointmentServiceImpl implements AppointmentService {
                     .code(null)
                     .build();
 
-            emailService.sendEmailTemplate(emailRequest);
+            emailOutboxService.enqueue(emailRequest);
             log.info(AppointmentConstants.LOG_INFO_SENT_CANCELLED_EMAIL, appointment.getCustomerEmail());
         } catch (Exception e) {
             log.error(AppointmentConstants.LOG_ERR_FAILED_SEND_CANCELLED_EMAIL, e.getMessage());
@@ -1690,7 +1741,7 @@ public class AppointmentServiceImpl implements AppointmentService {
                     .code(null)
                     .build();
 
-            emailService.sendEmailTemplate(emailRequest);
+            emailOutboxService.enqueue(emailRequest);
             log.info(AppointmentConstants.LOG_INFO_SENT_PENDING_PAYMENT_EMAIL, appointment.getCustomerEmail());
         } catch (Exception e) {
             log.error(AppointmentConstants.LOG_ERR_FAILED_SEND_PENDING_PAYMENT_EMAIL, e.getMessage());
@@ -1827,7 +1878,7 @@ public class AppointmentServiceImpl implements AppointmentService {
                     .fullName(appointment.getCustomerFullName())
                     .code(otp)
                     .build();
-            emailService.sendEmailTemplate(emailRequest);
+            emailOutboxService.enqueue(emailRequest);
             log.info(AppointmentConstants.LOG_SUCCESS_SEND_OTP_FOR_GUEST, appointmentId);
         } catch (Exception e) {
             log.error(AppointmentConstants.LOG_ERR_FAILED_SEND_OTP_EMAIL, appointmentId, e.getMessage());
@@ -1934,7 +1985,7 @@ public class AppointmentServiceImpl implements AppointmentService {
         }
         
         // Force initialization of lazy-loaded relationships within transaction
-        appointmentEntityPage.getContent().forEach(this::initializeWarrantyAppointmentRelations);
+        initializeAppointmentRelations(appointmentEntityPage.getContent());
         
         List<AppointmentResponse> appointmentResponseList = appointmentEntityPage.map(appointmentEntity -> {
             AppointmentResponse appointmentResponse = appointmentMapper.toResponse(appointmentEntity);
@@ -2010,16 +2061,28 @@ public class AppointmentServiceImpl implements AppointmentService {
     }
 
     /**
-     * Helper method to force initialization of lazy-loaded warranty appointment relationships
+     * Batch version of {@link #initializeAppointmentRelations(AppointmentEntity)} for a whole page.
+     * Loads the page graph with a fixed number of queries (users + vehicle type, then service types)
+     * instead of one lazy load per relation per row. Entities are already managed by the current
+     * persistence context, so the fetch joins initialize their associations in place.
      * This must be called within an active transaction
      */
-    private void initializeWarrantyAppointmentRelations(AppointmentEntity appointment) {
-        if (appointment == null) {
+    private void initializeAppointmentRelations(List<AppointmentEntity> appointments) {
+        if (appointments == null || appointments.isEmpty()) {
             return;
         }
-        
-        // Initialize all standard appointment relationships
-        initializeAppointmentRelations(appointment);
+
+        List<UUID> appointmentIds = appointments.stream()
+                .map(AppointmentEntity::getAppointmentId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        if (appointmentIds.isEmpty()) {
+            return;
+        }
+
+        appointmentRepository.fetchUsersAndVehicleTypeByAppointmentIdIn(appointmentIds);
+        appointmentRepository.fetchServiceTypesByAppointmentIdIn(appointmentIds);
     }
 
     private String generateOtp() {
@@ -2050,105 +2113,12 @@ public class AppointmentServiceImpl implements AppointmentService {
 
         // Populate maintenance management details (services + parts used)
         java.util.List<com.fpt.evcare.entity.MaintenanceManagementEntity> maintenanceList = 
-            maintenanceManagementRepository.findByAppointmentIdAndIsDeletedFalse(appointmentId);
-        
-        java.util.List<com.fpt.evcare.dto.response.InvoiceResponse.MaintenanceManagementSummary> maintenanceDetails = maintenanceList.stream()
-            .map(mm -> {
-                java.util.List<com.fpt.evcare.dto.response.InvoiceResponse.PartUsed> partsUsed = mm.getMaintenanceRecords().stream()
-                    .filter(record -> !record.getIsDeleted() && Boolean.TRUE.equals(record.getApprovedByUser()))
-                    .map(record -> {
-                        java.math.BigDecimal unitPrice = record.getVehiclePart() != null ? record.getVehiclePart().getUnitPrice() : java.math.BigDecimal.ZERO;
-                        java.math.BigDecimal originalPrice = unitPrice.multiply(java.math.BigDecimal.valueOf(record.getQuantityUsed()));
-                        
-                        // Kiểm tra warranty cho phụ tùng này
-                        UUID vehiclePartId = record.getVehiclePart() != null ? record.getVehiclePart().getVehiclePartId() : null;
-                        com.fpt.evcare.entity.WarrantyPartEntity warrantyPart = null;
-                        Boolean isUnderWarranty = false;
-                        String warrantyDiscountType = null;
-                        java.math.BigDecimal warrantyDiscountValue = null;
-                        java.math.BigDecimal warrantyDiscountAmount = java.math.BigDecimal.ZERO;
-                        java.math.BigDecimal totalPrice = originalPrice;
-                        
-                        if (vehiclePartId != null && appointment.getStatus() == AppointmentStatusEnum.COMPLETED) {
-                            // Chỉ kiểm tra warranty nếu appointment đã COMPLETED
-                            warrantyPart = warrantyPartRepository
-                                .findByVehiclePartVehiclePartIdAndIsDeletedFalseAndIsActiveTrue(vehiclePartId)
-                                .orElse(null);
-                            
-                            if (warrantyPart != null) {
-                                // ✅ CHỈ áp dụng warranty discount nếu appointment có isWarrantyAppointment = true
-                                if (Boolean.TRUE.equals(appointment.getIsWarrantyAppointment())) {
-                                    // Kiểm tra warranty dựa trên CustomerWarrantyPart (logic mới)
-                                    UUID customerId = appointment.getCustomer() != null ? appointment.getCustomer().getUserId() : null;
-                                    String customerEmail = appointment.getCustomerEmail();
-                                    String customerPhoneNumber = appointment.getCustomerPhoneNumber();
-                                    
-                                    // Tìm CustomerWarrantyPart active cho customer và phụ tùng này
-                                    // CHỈ áp dụng warranty nếu đã có appointment COMPLETED trước đó (không phải appointment hiện tại)
-                                    com.fpt.evcare.entity.CustomerWarrantyPartEntity customerWarranty = customerWarrantyPartRepository
-                                            .findActiveWarrantyByCustomerAndVehiclePart(
-                                                    customerId,
-                                                    customerEmail,
-                                                    customerPhoneNumber,
-                                                    vehiclePartId,
-                                                    java.time.LocalDateTime.now()
-                                            )
-                                            .orElse(null);
-                                    
-                                    // Đảm bảo warranty đến từ appointment KHÁC appointment hiện tại
-                                    // (Warranty chỉ được áp dụng từ appointment thứ 2 trở đi)
-                                    if (customerWarranty != null && 
-                                        customerWarranty.getAppointment() != null &&
-                                        !customerWarranty.getAppointment().getAppointmentId().equals(appointment.getAppointmentId())) {
-                                        
-                                        // Customer có warranty active cho phụ tùng này từ appointment trước đó
-                                        isUnderWarranty = true;
-                                        warrantyDiscountType = warrantyPart.getDiscountType().name();
-                                        
-                                        if (warrantyPart.getDiscountType() == com.fpt.evcare.enums.WarrantyDiscountTypeEnum.PERCENTAGE) {
-                                            warrantyDiscountValue = warrantyPart.getDiscountValue();
-                                            warrantyDiscountAmount = originalPrice.multiply(warrantyDiscountValue)
-                                                .divide(java.math.BigDecimal.valueOf(100), 2, java.math.RoundingMode.HALF_UP);
-                                            totalPrice = originalPrice.subtract(warrantyDiscountAmount);
-                                        } else if (warrantyPart.getDiscountType() == com.fpt.evcare.enums.WarrantyDiscountTypeEnum.FREE) {
-                                            warrantyDiscountAmount = originalPrice;
-                                            totalPrice = java.math.BigDecimal.ZERO;
-                                        }
-                                    } else if (customerWarranty != null && 
-                                               customerWarranty.getAppointment() != null &&
-                                               customerWarranty.getAppointment().getAppointmentId().equals(appointment.getAppointmentId())) {
-                                        // Warranty đến từ chính appointment hiện tại -> không áp dụng (đây là appointment đầu tiên)
-                                        log.debug("⚠️ Skipping warranty discount - warranty from current appointment {} (first appointment, no discount applied)", 
-                                                appointment.getAppointmentId());
-                                    }
-                                } else {
-                                    log.debug("⚠️ Skipping warranty discount - appointment {} is not a warranty appointment (isWarrantyAppointment = false)", 
-                                            appointment.getAppointmentId());
-                                }
-                            }
-                        }
-                        
-                        return com.fpt.evcare.dto.response.InvoiceResponse.PartUsed.builder()
-                            .partName(record.getVehiclePart() != null ? record.getVehiclePart().getVehiclePartName() : "N/A")
-                            .quantity(record.getQuantityUsed())
-                            .unitPrice(unitPrice)
-                            .totalPrice(totalPrice)
-                            .originalPrice(originalPrice)
-                            .isUnderWarranty(isUnderWarranty)
-                            .warrantyDiscountType(warrantyDiscountType)
-                            .warrantyDiscountValue(warrantyDiscountValue)
-                            .warrantyDiscountAmount(warrantyDiscountAmount)
-                            .build();
-                    })
-                    .toList();
-
-                return com.fpt.evcare.dto.response.InvoiceResponse.MaintenanceManagementSummary.builder()
-                    .serviceName(mm.getServiceType() != null ? mm.getServiceType().getServiceName() : "N/A")
-                    .serviceCost(mm.getTotalCost() != null ? mm.getTotalCost() : java.math.BigDecimal.ZERO)
-                    .partsUsed(partsUsed)
-                    .build();
-            })
-            .toList();
+            maintenanceManagementRepository.findWithRecordsByAppointmentIdAndIsDeletedFalse(appointmentId);
+
+        // Chỉ kiểm tra warranty nếu appointment đã COMPLETED
+        java.util.List<com.fpt.evcare.dto.response.InvoiceResponse.MaintenanceManagementSummary> maintenanceDetails = pricingService
+            .priceAppointment(appointment, maintenanceList, appointment.getStatus() == AppointmentStatusEnum.COMPLETED)
+            .maintenanceDetails();
 
         return maintenanceDetails;
     }
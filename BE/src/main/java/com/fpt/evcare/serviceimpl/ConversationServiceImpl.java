@@ -0,0 +1,148 @@
+package com.fpt.evcare.serviceimpl;
+
+import com.fpt.evcare.constants.MessageConstants;
+import com.fpt.evcare.dto.response.ConversationResponse;
+import com.fpt.evcare.dto.response.PageResponse;
+import com.fpt.evcare.entity.ConversationEntity;
+import com.fpt.evcare.entity.MessageEntity;
+import com.fpt.evcare.entity.UserEntity;
+import com.fpt.evcare.mapper.MessageMapper;
+import com.fpt.evcare.repository.ConversationRepository;
+import com.fpt.evcare.repository.MessageRepository;
+import com.fpt.evcare.service.ConversationService;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Duy trì bảng conversations trong cùng transaction với thao tác trên messages
+ * - Gửi: upsert nguyên tử (tin cuối, thời điểm gửi, +1 chưa đọc cho phía nhận)
+ * - Đọc/xóa: trừ số chưa đọc bằng câu UPDATE, không load lại dòng
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ConversationServiceImpl implements ConversationService {
+
+    ConversationRepository conversationRepository;
+    MessageRepository messageRepository;
+    MessageMapper messageMapper;
+
+    @Override
+    @Transactional
+    public void recordMessageSent(MessageEntity message) {
+        UUID senderId = message.getSender().getUserId();
+        UUID receiverId = message.getReceiver().getUserId();
+        UUID lowId = lowOf(senderId, receiverId);
+        UUID highId = highOf(senderId, receiverId);
+        boolean receiverIsLow = receiverId.equals(lowId);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime sentAt = message.getSentAt() != null ? message.getSentAt() : now;
+
+        // Ghi tin nhắn xuống trước để khóa ngoại last_message_id hợp lệ
+        conversationRepository.flush();
+        conversationRepository.upsertOnMessage(UUID.randomUUID(), lowId, highId, message.getMessageId(), sentAt,
+                receiverIsLow ? 1 : 0, receiverIsLow ? 0 : 1, now);
+    }
+
+    @Override
+    @Transactional
+    public void recordMessagesRead(UUID readerId, UUID senderId, int readCount) {
+        if (readCount <= 0) {
+            return;
+        }
+        decrementUnread(readerId, senderId, readCount, LocalDateTime.now());
+    }
+
+    @Override
+    @Transactional
+    public void recordMessageDeleted(MessageEntity message, boolean wasUnread) {
+        UUID senderId = message.getSender().getUserId();
+        UUID receiverId = message.getReceiver().getUserId();
+        LocalDateTime now = LocalDateTime.now();
+
+        if (wasUnread) {
+            decrementUnread(receiverId, senderId, 1, now);
+        }
+
+        // Tin bị xóa là tin cuối: trỏ sang tin còn lại mới nhất, hết tin thì bỏ cuộc trò chuyện khỏi inbox
+        UUID lowId = lowOf(senderId, receiverId);
+        UUID highId = highOf(senderId, receiverId);
+        MessageEntity previous = messageRepository.findLastMessage(senderId, receiverId);
+        if (previous == null) {
+            conversationRepository.deleteByLastMessage(lowId, highId, message.getMessageId());
+        } else {
+            conversationRepository.replaceLastMessage(lowId, highId, message.getMessageId(), previous,
+                    previous.getSentAt(), now);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PageResponse<ConversationResponse> getConversations(UUID userId, Pageable pageable) {
+        Page<ConversationEntity> conversationPage = conversationRepository.findInbox(userId, pageable);
+
+        List<ConversationResponse> conversations = conversationPage.getContent().stream()
+                .map(conversation -> toResponse(conversation, userId))
+                .toList();
+
+        return PageResponse.<ConversationResponse>builder()
+                .page(conversationPage.getNumber())
+                .size(conversationPage.getSize())
+                .totalElements(conversationPage.getTotalElements())
+                .totalPages(conversationPage.getTotalPages())
+                .data(conversations)
+                .build();
+    }
+
+    @Override
+    @Transactional
+    public int rebuildAll() {
+        int rows = conversationRepository.rebuildFromMessages(LocalDateTime.now());
+        log.info(MessageConstants.LOG_INFO_REBUILT_CONVERSATIONS, rows);
+        return rows;
+    }
+
+    private void decrementUnread(UUID readerId, UUID senderId, int count, LocalDateTime now) {
+        UUID lowId = lowOf(readerId, senderId);
+        UUID highId = highOf(readerId, senderId);
+        if (readerId.equals(lowId)) {
+            conversationRepository.decrementUnreadLow(lowId, highId, count, now);
+        } else {
+            conversationRepository.decrementUnreadHigh(lowId, highId, count, now);
+        }
+    }
+
+    private ConversationResponse toResponse(ConversationEntity conversation, UUID userId) {
+        boolean isLow = conversation.getUserLow().getUserId().equals(userId);
+        UserEntity otherUser = isLow ? conversation.getUserHigh() : conversation.getUserLow();
+        return ConversationResponse.builder()
+                .conversationId(conversation.getConversationId())
+                .otherUserId(otherUser.getUserId())
+                .otherUserName(otherUser.getFullName())
+                .otherUserAvatarUrl(otherUser.getAvatarUrl())
+                .lastMessage(messageMapper.toResponse(conversation.getLastMessage()))
+                .lastSentAt(conversation.getLastSentAt())
+                .unreadCount(isLow ? conversation.getUnreadLowCount() : conversation.getUnreadHighCount())
+                .build();
+    }
+
+    // Thứ tự cặp user khớp thứ tự uuid của Postgres (so sánh chuỗi hex chữ thường) để upsert và rebuild cùng một dòng
+    private static UUID lowOf(UUID a, UUID b) {
+        return a.toString().compareTo(b.toString()) <= 0 ? a : b;
+    }
+
+    private static UUID highOf(UUID a, UUID b) {
+        return a.toString().compareTo(b.toString()) <= 0 ? b : a;
+    }
+}
@@ -1,7 +1,8 @@
 package com.fpt.evcare.serviceimpl;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fpt.evcare.dto.response.*;
-import com.fpt.evcare.enums.RoleEnum;
+import com.fpt.evcare.enums.AppointmentStatusEnum;
 import com.fpt.evcare.repository.AppointmentRepository;
 import com.fpt.evcare.repository.PaymentTransactionRepository;
 import com.fpt.evcare.repository.UserRepository;
@@ -10,13 +11,18 @@ import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Service
@@ -24,16 +30,133 @@ import java.util.List;
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class DashboardServiceImpl implements DashboardService {
 
+    // Thống kê lưu trong 1 Redis hash: đọc O(1), cộng/trừ tăng dần theo event, tính lại định kỳ (DashboardStatsScheduler)
+    static String STATS_KEY = "dashboard:stats";
+    static String CHARTS_KEY = "dashboard:charts";
+    static long CHARTS_TTL_MINUTES = 10;
+
+    static String FIELD_MONTH = "month";
+    static String FIELD_TOTAL_CUSTOMERS = "totalCustomers";
+    static String FIELD_TOTAL_STAFF = "totalStaff";
+    static String FIELD_TOTAL_TECHNICIANS = "totalTechnicians";
+    static String FIELD_ACTIVE_CUSTOMERS = "activeCustomers";
+    static String FIELD_TOTAL_VEHICLES = "totalVehicles";
+    static String FIELD_TOTAL_APPOINTMENTS = "totalAppointments";
+    static String FIELD_PENDING_APPOINTMENTS = "pendingAppointments";
+    static String FIELD_CONFIRMED_APPOINTMENTS = "confirmedAppointments";
+    static String FIELD_COMPLETED_APPOINTMENTS = "completedAppointments";
+    static String FIELD_CANCELLED_APPOINTMENTS = "cancelledAppointments";
+    static String FIELD_APPOINTMENTS_THIS_MONTH = "appointmentsThisMonth";
+    static String FIELD_APPOINTMENTS_LAST_MONTH = "appointmentsLastMonth";
+    static String FIELD_MONTHLY_REVENUE = "monthlyRevenue";
+    static List<String> COUNTER_FIELDS = List.of(
+            FIELD_TOTAL_CUSTOMERS, FIELD_TOTAL_STAFF, FIELD_TOTAL_TECHNICIANS, FIELD_ACTIVE_CUSTOMERS,
+            FIELD_TOTAL_VEHICLES, FIELD_TOTAL_APPOINTMENTS, FIELD_PENDING_APPOINTMENTS, FIELD_CONFIRMED_APPOINTMENTS,
+            FIELD_COMPLETED_APPOINTMENTS, FIELD_CANCELLED_APPOINTMENTS, FIELD_APPOINTMENTS_THIS_MONTH,
+            FIELD_APPOINTMENTS_LAST_MONTH, FIELD_MONTHLY_REVENUE);
+
     UserRepository userRepository;
     AppointmentRepository appointmentRepository;
     PaymentTransactionRepository paymentTransactionRepository;
+    StringRedisTemplate stringRedisTemplate;
+    ObjectMapper objectMapper;
 
     @Override
     public DashboardStatsResponse getDashboardStats() {
+        YearMonth currentMonth = YearMonth.now();
+        try {
+            Map<Object, Object> cached = stringRedisTemplate.opsForHash().entries(STATS_KEY);
+            if (isValidStatsCache(cached, currentMonth)) {
+                return toStatsResponse(cached);
+            }
+        } catch (Exception e) {
+            log.warn("Cannot read dashboard statistics from cache, computing from database: {}", e.getMessage());
+        }
+
+        DashboardStatsResponse stats = computeDashboardStats(currentMonth);
+        saveStatsCache(stats, currentMonth);
+        return stats;
+    }
+
+    @Override
+    public DashboardChartsResponse getChartData() {
+        try {
+            String cached = stringRedisTemplate.opsForValue().get(CHARTS_KEY);
+            if (cached != null) {
+                return objectMapper.readValue(cached, DashboardChartsResponse.class);
+            }
+        } catch (Exception e) {
+            log.warn("Cannot read dashboard chart data from cache, computing from database: {}", e.getMessage());
+        }
+
+        DashboardChartsResponse charts = computeChartData();
+        saveChartsCache(charts);
+        return charts;
+    }
+
+    @Override
+    public void refreshDashboardCache() {
+        YearMonth currentMonth = YearMonth.now();
+        saveStatsCache(computeDashboardStats(currentMonth), currentMonth);
+        saveChartsCache(computeChartData());
+    }
+
+    @Override
+    public void applyAppointmentStatusChange(AppointmentStatusEnum oldStatus, AppointmentStatusEnum newStatus, LocalDateTime scheduledAt) {
+        try {
+            HashOperations<String, Object, Object> hashOps = stringRedisTemplate.opsForHash();
+            Object cachedMonth = hashOps.get(STATS_KEY, FIELD_MONTH);
+            if (cachedMonth == null) {
+                return; // Chưa có cache, lần đọc sau sẽ tính lại từ database
+            }
+
+            // Appointment mới tạo: cộng vào tổng và thống kê theo tháng của ngày hẹn
+            if (oldStatus == null) {
+                hashOps.increment(STATS_KEY, FIELD_TOTAL_APPOINTMENTS, 1);
+                YearMonth month = YearMonth.parse(cachedMonth.toString());
+                if (scheduledAt != null && YearMonth.from(scheduledAt).equals(month)) {
+                    hashOps.increment(STATS_KEY, FIELD_APPOINTMENTS_THIS_MONTH, 1);
+                } else if (scheduledAt != null && YearMonth.from(scheduledAt).equals(month.minusMonths(1))) {
+                    hashOps.increment(STATS_KEY, FIELD_APPOINTMENTS_LAST_MONTH, 1);
+                }
+            }
+
+            String oldField = statusField(oldStatus);
+            String newField = statusField(newStatus);
+            if (oldField != null && !oldField.equals(newField)) {
+                hashOps.increment(STATS_KEY, oldField, -1);
+            }
+            if (newField != null && !newField.equals(oldField)) {
+                hashOps.increment(STATS_KEY, newField, 1);
+            }
+        } catch (Exception e) {
+            log.warn("Cannot update dashboard counters, evicting cache: {}", e.getMessage());
+            evictStatsCache();
+        }
+    }
+
+    @Override
+    public void applyPaymentCompleted(BigDecimal amount, LocalDateTime scheduledAt) {
+        if (amount == null || scheduledAt == null) {
+            return;
+        }
+        try {
+            HashOperations<String, Object, Object> hashOps = stringRedisTemplate.opsForHash();
+            Object cachedMonth = hashOps.get(STATS_KEY, FIELD_MONTH);
+            // Doanh thu tháng tính theo tháng của ngày hẹn (giống sumRevenueByDateRange)
+            if (cachedMonth != null && YearMonth.from(scheduledAt).equals(YearMonth.parse(cachedMonth.toString()))) {
+                hashOps.increment(STATS_KEY, FIELD_MONTHLY_REVENUE, amount.doubleValue());
+            }
+        } catch (Exception e) {
+            log.warn("Cannot update dashboard revenue, evicting cache: {}", e.getMessage());
+            evictStatsCache();
+        }
+    }
+
+    private DashboardStatsResponse computeDashboardStats(YearMonth currentMonth) {
         log.info("Fetching dashboard statistics...");
 
         // Get current month date range
-        YearMonth currentMonth = YearMonth.now();
         LocalDateTime startOfMonth = currentMonth.atDay(1).atStartOfDay();
         LocalDateTime endOfMonth = currentMonth.atEndOfMonth().atTime(23, 59, 59);
 
@@ -42,30 +165,25 @@ public class DashboardServiceImpl implements DashboardService {
         LocalDateTime startOfLastMonth = lastMonth.atDay(1).atStartOfDay();
         LocalDateTime endOfLastMonth = lastMonth.atEndOfMonth().atTime(23, 59, 59);
 
-        // User statistics
-        Long totalCustomers = userRepository.countByRoleRoleNameAndIsDeletedFalse(RoleEnum.CUSTOMER);
-        Long totalStaff = userRepository.countByRoleRoleNameAndIsDeletedFalse(RoleEnum.STAFF);
-        Long totalTechnicians = userRepository.countByRoleRoleNameAndIsDeletedFalse(RoleEnum.TECHNICIAN);
-        Long activeCustomers = userRepository.countByRoleRoleNameAndIsActiveAndIsDeletedFalse(RoleEnum.CUSTOMER, true);
+        // 3 round trip: 1 aggregate cho users, 1 cho appointments, 1 cho doanh thu
+        UserRoleStatsResponse userStats = userRepository.getUserRoleStats();
+        Long totalCustomers = userStats.getTotalCustomers();
+        Long totalStaff = userStats.getTotalStaff();
+        Long totalTechnicians = userStats.getTotalTechnicians();
+        Long activeCustomers = userStats.getActiveCustomers();
 
+        AppointmentStatsResponse appointmentStats = appointmentRepository.getAppointmentStats(
+                startOfMonth, endOfMonth, startOfLastMonth, endOfLastMonth);
         // Vehicle statistics - count unique vehicles from appointments
-        Long totalVehicles = appointmentRepository.countUniqueVehicles();
+        Long totalVehicles = appointmentStats.getUniqueVehicles();
         // Long activeVehicles = vehicleRepository.countByStatusAndIsDeletedFalse("ACTIVE"); // TODO: Implement when status field exists
-
-        // Appointment statistics
-        Long totalAppointments = appointmentRepository.countTotalActiveAppointments();
-        Long pendingAppointments = appointmentRepository.countByStatusAndIsDeletedFalseAndIsActiveTrue(
-                com.fpt.evcare.enums.AppointmentStatusEnum.PENDING);
-        Long confirmedAppointments = appointmentRepository.countByStatusAndIsDeletedFalseAndIsActiveTrue(
-                com.fpt.evcare.enums.AppointmentStatusEnum.CONFIRMED);
-        Long completedAppointments = appointmentRepository.countByStatusAndIsDeletedFalseAndIsActiveTrue(
-                com.fpt.evcare.enums.AppointmentStatusEnum.COMPLETED);
-        Long cancelledAppointments = appointmentRepository.countByStatusAndIsDeletedFalseAndIsActiveTrue(
-                com.fpt.evcare.enums.AppointmentStatusEnum.CANCELLED);
-        Long appointmentsThisMonth = appointmentRepository.countByScheduledAtBetweenAndIsDeletedFalseAndIsActiveTrue(
-                startOfMonth, endOfMonth);
-        Long appointmentsLastMonth = appointmentRepository.countByScheduledAtBetweenAndIsDeletedFalseAndIsActiveTrue(
-                startOfLastMonth, endOfLastMonth);
+        Long totalAppointments = appointmentStats.getTotalAppointments();
+        Long pendingAppointments = appointmentStats.getPendingAppointments();
+        Long confirmedAppointments = appointmentStats.getConfirmedAppointments();
+        Long completedAppointments = appointmentStats.getCompletedAppointments();
+        Long cancelledAppointments = appointmentStats.getCancelledAppointments();
+        Long appointmentsThisMonth = appointmentStats.getAppointmentsThisMonth();
+        Long appointmentsLastMonth = appointmentStats.getAppointmentsLastMonth();
         Double monthlyRevenue = paymentTransactionRepository.sumRevenueByDateRange(startOfMonth, endOfMonth);
 
         // Calculate growth rates
@@ -99,8 +217,7 @@ public class DashboardServiceImpl implements DashboardService {
                 .build();
     }
 
-    @Override
-    public DashboardChartsResponse getChartData() {
+    private DashboardChartsResponse computeChartData() {
         log.info("Fetching dashboard chart data...");
 
         // 1. Appointment trend by month (last 12 months)
@@ -168,6 +285,97 @@ public class DashboardServiceImpl implements DashboardService {
                 .build();
     }
 
+    private boolean isValidStatsCache(Map<Object, Object> cached, YearMonth currentMonth) {
+        // Sang tháng mới thì "tháng này/tháng trước" đã đổi -> tính lại
+        return cached != null
+                && currentMonth.toString().equals(cached.get(FIELD_MONTH))
+                && cached.keySet().containsAll(COUNTER_FIELDS);
+    }
+
+    private DashboardStatsResponse toStatsResponse(Map<Object, Object> cached) {
+        Long totalCustomers = Long.parseLong(cached.get(FIELD_TOTAL_CUSTOMERS).toString());
+        Long activeCustomers = Long.parseLong(cached.get(FIELD_ACTIVE_CUSTOMERS).toString());
+        Long totalVehicles = Long.parseLong(cached.get(FIELD_TOTAL_VEHICLES).toString());
+        Long appointmentsThisMonth = Long.parseLong(cached.get(FIELD_APPOINTMENTS_THIS_MONTH).toString());
+        Long appointmentsLastMonth = Long.parseLong(cached.get(FIELD_APPOINTMENTS_LAST_MONTH).toString());
+
+        return DashboardStatsResponse.builder()
+                .totalCustomers(totalCustomers)
+                .totalStaff(Long.parseLong(cached.get(FIELD_TOTAL_STAFF).toString()))
+                .totalTechnicians(Long.parseLong(cached.get(FIELD_TOTAL_TECHNICIANS).toString()))
+                .activeCustomers(activeCustomers)
+                .totalVehicles(totalVehicles)
+                .activeVehicles(totalVehicles) // Temporary: use total as active
+                .totalAppointments(Long.parseLong(cached.get(FIELD_TOTAL_APPOINTMENTS).toString()))
+                .pendingAppointments(Long.parseLong(cached.get(FIELD_PENDING_APPOINTMENTS).toString()))
+                .confirmedAppointments(Long.parseLong(cached.get(FIELD_CONFIRMED_APPOINTMENTS).toString()))
+                .completedAppointments(Long.parseLong(cached.get(FIELD_COMPLETED_APPOINTMENTS).toString()))
+                .cancelledAppointments(Long.parseLong(cached.get(FIELD_CANCELLED_APPOINTMENTS).toString()))
+                .appointmentsThisMonth(appointmentsThisMonth)
+                .appointmentsLastMonth(appointmentsLastMonth)
+                .monthlyRevenue(Double.parseDouble(cached.get(FIELD_MONTHLY_REVENUE).toString()))
+                .customerGrowthRate(calculateGrowthRate(activeCustomers, totalCustomers))
+                .appointmentGrowthRate(calculateGrowthRate(appointmentsThisMonth, appointmentsLastMonth))
+                .build();
+    }
+
+    private void saveStatsCache(DashboardStatsResponse stats, YearMonth currentMonth) {
+        Map<String, String> values = new HashMap<>();
+        values.put(FIELD_MONTH, currentMonth.toString());
+        values.put(FIELD_TOTAL_CUSTOMERS, String.valueOf(nullToZero(stats.getTotalCustomers())));
+        values.put(FIELD_TOTAL_STAFF, String.valueOf(nullToZero(stats.getTotalStaff())));
+        values.put(FIELD_TOTAL_TECHNICIANS, String.valueOf(nullToZero(stats.getTotalTechnicians())));
+        values.put(FIELD_ACTIVE_CUSTOMERS, String.valueOf(nullToZero(stats.getActiveCustomers())));
+        values.put(FIELD_TOTAL_VEHICLES, String.valueOf(nullToZero(stats.getTotalVehicles())));
+        values.put(FIELD_TOTAL_APPOINTMENTS, String.valueOf(nullToZero(stats.getTotalAppointments())));
+        values.put(FIELD_PENDING_APPOINTMENTS, String.valueOf(nullToZero(stats.getPendingAppointments())));
+        values.put(FIELD_CONFIRMED_APPOINTMENTS, String.valueOf(nullToZero(stats.getConfirmedAppointments())));
+        values.put(FIELD_COMPLETED_APPOINTMENTS, String.valueOf(nullToZero(stats.getCompletedAppointments())));
+        values.put(FIELD_CANCELLED_APPOINTMENTS, String.valueOf(nullToZero(stats.getCancelledAppointments())));
+        values.put(FIELD_APPOINTMENTS_THIS_MONTH, String.valueOf(nullToZero(stats.getAppointmentsThisMonth())));
+        values.put(FIELD_APPOINTMENTS_LAST_MONTH, String.valueOf(nullToZero(stats.getAppointmentsLastMonth())));
+        values.put(FIELD_MONTHLY_REVENUE, String.valueOf(stats.getMonthlyRevenue() != null ? stats.getMonthlyRevenue() : 0.0));
+        try {
+            stringRedisTemplate.opsForHash().putAll(STATS_KEY, values);
+        } catch (Exception e) {
+            log.warn("Cannot save dashboard statistics to cache: {}", e.getMessage());
+        }
+    }
+
+    private void saveChartsCache(DashboardChartsResponse charts) {
+        try {
+            stringRedisTemplate.opsForValue().set(CHARTS_KEY, objectMapper.writeValueAsString(charts),
+                    CHARTS_TTL_MINUTES, TimeUnit.MINUTES);
+        } catch (Exception e) {
+            log.warn("Cannot save dashboard chart data to cache: {}", e.getMessage());
+        }
+    }
+
+    private void evictStatsCache() {
+        try {
+            stringRedisTemplate.delete(STATS_KEY);
+        } catch (Exception e) {
+            log.warn("Cannot evict dashboard statistics cache: {}", e.getMessage());
+        }
+    }
+
+    private String statusField(AppointmentStatusEnum status) {
+        if (status == null) {
+            return null;
+        }
+        return switch (status) {
+            case PENDING -> FIELD_PENDING_APPOINTMENTS;
+            case CONFIRMED -> FIELD_CONFIRMED_APPOINTMENTS;
+            case COMPLETED -> FIELD_COMPLETED_APPOINTMENTS;
+            case CANCELLED -> FIELD_CANCELLED_APPOINTMENTS;
+            default -> null; // Các trạng thái khác không hiển thị trên dashboard
+        };
+    }
+
+    private long nullToZero(Long value) {
+        return value != null ? value : 0L;
+    }
+
     /**
      * Calculate growth rate percentage
      * @param current Current period value
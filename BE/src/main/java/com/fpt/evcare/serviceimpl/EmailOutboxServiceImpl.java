@@ -0,0 +1,249 @@
+package com.fpt.evcare.serviceimpl;
+
+import com.fpt.evcare.dto.request.EmailRequestDTO;
+import com.fpt.evcare.entity.EmailOutboxEntity;
+import com.fpt.evcare.repository.EmailOutboxRepository;
+import com.fpt.evcare.service.EmailOutboxService;
+import com.fpt.evcare.service.EmailService;
+import com.fpt.evcare.utils.UtilFunction;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Service
+public class EmailOutboxServiceImpl implements EmailOutboxService {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final EmailService emailService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+    private final int workers;
+    // Số email tối đa gửi trên 1 kết nối SMTP
+    private final int messagesPerConnection;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    // Thời gian giữ chỗ 1 lô, phải dài hơn thời gian gửi tối đa (timeout SMTP) của 1 email
+    private final Duration lease;
+    private final Duration retention;
+
+    // Pool riêng cho SMTP: số thread cố định, hàng đợi vừa đủ 1 lô nên không phình thread khi email dồn dập
+    private final ThreadPoolTaskExecutor sendExecutor;
+    // Pool dựng HTML (tốn CPU) tách khỏi pool SMTP (chờ I/O), mặc định bằng số CPU
+    private final ThreadPoolTaskExecutor renderExecutor;
+
+    public EmailOutboxServiceImpl(EmailOutboxRepository emailOutboxRepository,
+                                  EmailService emailService,
+                                  TransactionTemplate transactionTemplate,
+                                  @Value("${email-outbox.workers:4}") int workers,
+                                  @Value("${email-outbox.render-workers:0}") int renderWorkers,
+                                  @Value("${email-outbox.batch-size:100}") int batchSize,
+                                  @Value("${email-outbox.messages-per-connection:25}") int messagesPerConnection,
+                                  @Value("${email-outbox.max-attempts:6}") int maxAttempts,
+                                  @Value("${email-outbox.initial-backoff:30s}") Duration initialBackoff,
+                                  @Value("${email-outbox.max-backoff:30m}") Duration maxBackoff,
+                                  @Value("${email-outbox.lease:5m}") Duration lease,
+                                  @Value("${email-outbox.retention:7d}") Duration retention) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.emailService = emailService;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.workers = workers;
+        this.messagesPerConnection = messagesPerConnection;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.lease = lease;
+        this.retention = retention;
+        this.sendExecutor = createExecutor("email-outbox-", workers, batchSize);
+        this.renderExecutor = createExecutor("email-render-",
+                renderWorkers > 0 ? renderWorkers : Runtime.getRuntime().availableProcessors(), batchSize);
+    }
+
+    private static ThreadPoolTaskExecutor createExecutor(String threadNamePrefix, int workers, int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renderExecutor.shutdown();
+        sendExecutor.shutdown();
+    }
+
+    @Override
+    @Transactional
+    public void enqueue(EmailRequestDTO emailRequest) {
+        enqueue(emailRequest, null);
+    }
+
+    @Override
+    @Transactional
+    public void enqueue(EmailRequestDTO emailRequest, String idempotencyKey) {
+        LocalDateTime now = LocalDateTime.now();
+        UUID id = UUID.randomUUID();
+        int inserted = emailOutboxRepository.insertIfAbsent(id, dedupKey(id, idempotencyKey),
+                emailRequest.getTo(), emailRequest.getSubject(), emailRequest.getText(),
+                emailRequest.getFullName(), emailRequest.getCode(), now);
+        if (inserted == 0) {
+            log.info("Skipped duplicate email to {} with idempotency key '{}'", emailRequest.getTo(), idempotencyKey);
+        }
+    }
+
+    @Override
+    public int dispatchDueEmails() {
+        LocalDateTime now = LocalDateTime.now();
+        List<EmailOutboxEntity> batch = transactionTemplate.execute(status ->
+                emailOutboxRepository.claimDueBatch(now, now.plus(lease), batchSize));
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        List<UUID> sentIds = Collections.synchronizedList(new ArrayList<>());
+        Map<EmailOutboxEntity, String> failures = new ConcurrentHashMap<>();
+        // Chia lô cho các worker SMTP, mỗi phần gửi trên 1 kết nối và không quá messagesPerConnection email
+        int chunkSize = Math.min(messagesPerConnection, Math.ceilDiv(batch.size(), workers));
+        List<CompletableFuture<?>> sends = new ArrayList<>();
+        for (int from = 0; from < batch.size(); from += chunkSize) {
+            List<EmailOutboxEntity> chunk = batch.subList(from, Math.min(from + chunkSize, batch.size()));
+            // Dựng HTML từng email trên pool render, phần nào dựng xong thì chuyển ngay sang pool SMTP
+            Map<EmailOutboxEntity, CompletableFuture<MimeMessage>> renders = new LinkedHashMap<>();
+            chunk.forEach(email -> renders.put(email, CompletableFuture.supplyAsync(() -> buildMessage(email), renderExecutor)));
+            sends.add(CompletableFuture.allOf(renders.values().toArray(CompletableFuture[]::new))
+                    .handle((ignored, e) -> null)
+                    .thenRunAsync(() -> sendChunk(renders, sentIds, failures), sendExecutor)
+                    .exceptionally(e -> {
+                        chunk.forEach(email -> failures.putIfAbsent(email, String.valueOf(rootCause(e).getMessage())));
+                        return null;
+                    }));
+        }
+        // Chờ cả lô xong mới lấy lô tiếp: mỗi instance chỉ có tối đa 1 lô đang gửi
+        CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).join();
+
+        LocalDateTime finishedAt = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!sentIds.isEmpty()) {
+                emailOutboxRepository.markSent(sentIds, finishedAt);
+            }
+            failures.forEach((email, error) -> handleFailure(email, error, finishedAt));
+        });
+
+        log.info("Email outbox batch dispatched: {} sent, {} failed", sentIds.size(), failures.size());
+        return batch.size();
+    }
+
+    @Override
+    @Transactional
+    public int purgeFinishedEmails() {
+        return emailOutboxRepository.deleteFinishedBefore(LocalDateTime.now().minus(retention));
+    }
+
+    private MimeMessage buildMessage(EmailOutboxEntity email) {
+        EmailRequestDTO request = toRequest(email);
+        try {
+            return emailService.createMimeMessage(request, emailService.renderEmailTemplate(request));
+        } catch (MessagingException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private void sendChunk(Map<EmailOutboxEntity, CompletableFuture<MimeMessage>> renders,
+                           List<UUID> sentIds, Map<EmailOutboxEntity, String> failures) {
+        // Email dựng lỗi không được gửi, các email còn lại vẫn đi chung 1 kết nối
+        Map<MimeMessage, EmailOutboxEntity> messages = new IdentityHashMap<>();
+        renders.forEach((email, render) -> {
+            try {
+                messages.put(render.join(), email);
+            } catch (CompletionException e) {
+                failures.put(email, String.valueOf(rootCause(e).getMessage()));
+            }
+        });
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        Map<Object, Exception> failedMessages = Map.of();
+        try {
+            emailService.sendMimeMessages(messages.keySet().toArray(MimeMessage[]::new));
+        } catch (MailSendException e) {
+            failedMessages = e.getFailedMessages();
+        } catch (MailException e) {
+            // Lỗi không gắn với email cụ thể (ví dụ sai tài khoản SMTP): cả phần coi như lỗi
+            messages.values().forEach(email -> failures.put(email, String.valueOf(e.getMessage())));
+            return;
+        }
+        for (Map.Entry<MimeMessage, EmailOutboxEntity> entry : messages.entrySet()) {
+            Exception error = failedMessages.get(entry.getKey());
+            if (error == null) {
+                sentIds.add(entry.getValue().getEmailOutboxId());
+            } else {
+                failures.put(entry.getValue(), String.valueOf(error.getMessage()));
+            }
+        }
+    }
+
+    private static Throwable rootCause(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+
+    private void handleFailure(EmailOutboxEntity email, String error, LocalDateTime now) {
+        String lastError = error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+        if (email.getAttempts() >= maxAttempts) {
+            log.error("Giving up email {} to {} after {} attempts: {}",
+                    email.getEmailOutboxId(), email.getRecipient(), email.getAttempts(), lastError);
+            emailOutboxRepository.markFailed(email.getEmailOutboxId(), lastError);
+            return;
+        }
+        Duration delay = backoff(email.getAttempts());
+        log.warn("Email {} to {} failed (attempt {}), retrying in {}s: {}",
+                email.getEmailOutboxId(), email.getRecipient(), email.getAttempts(), delay.toSeconds(), lastError);
+        emailOutboxRepository.scheduleRetry(email.getEmailOutboxId(), now.plus(delay), lastError);
+    }
+
+    // initialBackoff * 2^(attempts - 1), tối đa maxBackoff
+    Duration backoff(int attempts) {
+        Duration delay = initialBackoff.multipliedBy(1L << Math.min(Math.max(attempts - 1, 0), 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private EmailRequestDTO toRequest(EmailOutboxEntity email) {
+        return EmailRequestDTO.builder()
+                .to(email.getRecipient())
+                .subject(email.getSubject())
+                .text(email.getBody())
+                .fullName(email.getFullName())
+                .code(email.getCode())
+                .build();
+    }
+
+    // SHA-256 của idempotency key do nghiệp vụ truyền vào; không có key thì dùng id của dòng (không bao giờ trùng)
+    static String dedupKey(UUID id, String idempotencyKey) {
+        return idempotencyKey != null ? UtilFunction.sha256Hex(idempotencyKey) : id.toString();
+    }
+}
@@ -3,13 +3,14 @@ package com.fpt.evcare.serviceimpl;
 import com.fpt.evcare.dto.request.EmailRequestDTO;
 import com.fpt.evcare.exception.BusinessException;
 import com.fpt.evcare.service.EmailService;
+import jakarta.annotation.PostConstruct;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
@@ -20,6 +21,8 @@ import java.io.UnsupportedEncodingException;
 @Service
 public class EmailServiceImpl implements EmailService {
 
+    private static final String EMAIL_TEMPLATE = "email-template";
+
     private final JavaMailSender mailSender;
     private final TemplateEngine templateEngine;
 
@@ -35,10 +38,39 @@ public class EmailServiceImpl implements EmailService {
     @Value("${spring.mail.properties.mail.from-name:EVcare Support}")
     private String fromName;
 
+    /**
+     * Parse template 1 lần lúc khởi động để nạp vào template cache của Thymeleaf
+     * (spring.thymeleaf.cache), email đầu tiên không phải chờ đọc và parse file
+     */
+    @PostConstruct
+    public void warmUpTemplate() {
+        try {
+            renderEmailTemplate(EmailRequestDTO.builder().subject("").text("").build());
+        } catch (Exception e) {
+            log.warn("Không thể nạp trước template email: {}", e.getMessage());
+        }
+    }
+
     @Override
-    @Async
     public void sendEmailTemplate(EmailRequestDTO emailDetail) throws MessagingException {
+        sendMimeMessages(createMimeMessage(emailDetail, renderEmailTemplate(emailDetail)));
+    }
+
+    @Override
+    public String renderEmailTemplate(EmailRequestDTO emailDetail) {
+        // Chuẩn bị nội dung Thymeleaf
+        Context context = new Context();
+        context.setVariable("subject", emailDetail.getSubject());
+        context.setVariable("fullName", emailDetail.getFullName() != null ? emailDetail.getFullName() : "Người dùng");
+        context.setVariable("body", emailDetail.getText() != null ? emailDetail.getText() : "");
+        context.setVariable("code", emailDetail.getCode() != null && !emailDetail.getCode().isEmpty() ? emailDetail.getCode() : null);
 
+        // Xử lý template Thymeleaf (template đã parse được lấy từ cache)
+        return templateEngine.process(EMAIL_TEMPLATE, context);
+    }
+
+    @Override
+    public MimeMessage createMimeMessage(EmailRequestDTO emailDetail, String htmlContent) throws MessagingException {
         try {
             // Tạo MimeMessage
             MimeMessage mimeMessage = mailSender.createMimeMessage();
@@ -48,24 +80,18 @@ public class EmailServiceImpl implements EmailService {
             helper.setFrom(fromEmail, fromName);
             helper.setTo(emailDetail.getTo());
             helper.setSubject(emailDetail.getSubject());
-
-            // Chuẩn bị nội dung Thymeleaf
-            Context context = new Context();
-            context.setVariable("subject", emailDetail.getSubject());
-            context.setVariable("fullName", emailDetail.getFullName() != null ? emailDetail.getFullName() : "Người dùng");
-            context.setVariable("body", emailDetail.getText() != null ? emailDetail.getText() : "");
-            context.setVariable("code", emailDetail.getCode() != null && !emailDetail.getCode().isEmpty() ? emailDetail.getCode() : null);
-
-            // Xử lý template Thymeleaf
-            String htmlContent = templateEngine.process("email-template", context);
             helper.setText(htmlContent, true); // true: nội dung HTML
-
-            // Gửi email
-            mailSender.send(mimeMessage);
-            log.info("Gửi email thành công tới {}", emailDetail.getTo());
+            return mimeMessage;
         } catch (UnsupportedEncodingException e) {
             log.error("Lỗi khi gửi email: Encoding không được hỗ trợ", e);
             throw new BusinessException("Lỗi khi gửi email: Encoding không được hỗ trợ");
         }
     }
+
+    @Override
+    public void sendMimeMessages(MimeMessage... mimeMessages) throws MailException {
+        // JavaMailSender mở 1 kết nối SMTP cho cả mảng, email lỗi không làm dừng các email còn lại
+        mailSender.send(mimeMessages);
+        log.info("Gửi thành công {} email trên 1 kết nối SMTP", mimeMessages.length);
+    }
 }
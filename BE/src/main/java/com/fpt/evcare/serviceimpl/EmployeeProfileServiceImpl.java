@@ -165,7 +165,7 @@ public class EmployeeProfileServiceImpl implements EmployeeProfileService {
             if (keyword == null || keyword.trim().isEmpty()) {
                 employeeProfileEntityPage = employeeProfileRepository.findAllByIsDeletedFalse(pageable);
             } else {
-                employeeProfileEntityPage = employeeProfileRepository.findBySearchContainingIgnoreCaseAndIsDeletedFalse(keyword.trim(), pageable);
+                employeeProfileEntityPage = employeeProfileRepository.searchByKeywordAndIsDeletedFalse(keyword.trim(), pageable);
             }
             
             // Nếu không có kết quả, trả về page rỗng thay vì throw exception
@@ -5,13 +5,11 @@ import com.fpt.evcare.dto.request.ResetPasswordRequest;
 import com.fpt.evcare.dto.response.VerifyOtpResponse;
 import com.fpt.evcare.entity.UserEntity;
 import com.fpt.evcare.exception.OtpExpiredException;
-import com.fpt.evcare.exception.ResourceNotFoundException;
 import com.fpt.evcare.repository.UserRepository;
-import com.fpt.evcare.service.EmailService;
+import com.fpt.evcare.service.EmailOutboxService;
 import com.fpt.evcare.service.ForgotPasswordService;
 import com.fpt.evcare.service.RedisService;
 import com.fpt.evcare.service.UserService;
-import jakarta.mail.MessagingException;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.experimental.FieldDefaults;
@@ -33,7 +31,7 @@ public class ForgotPasswordServiceImpl implements ForgotPasswordService {
     UserRepository userRepository;
     RedisService<String> redisService;
     PasswordEncoder passwordEncoder;
-    EmailService emailService;
+    EmailOutboxService emailOutboxService;
     SecureRandom random = new SecureRandom();
 
 
@@ -112,19 +110,14 @@ public class ForgotPasswordServiceImpl implements ForgotPasswordService {
     }
 
     private void sendEmailOtp(String email, String otp, String fullName) {
-        try {
-            EmailRequestDTO emailRequestDTO = EmailRequestDTO.builder()
-                    .to(email)
-                    .text("Chúng tôi đã nhận được yêu cầu thay đổi địa chỉ email cho tài khoản của bạn. Vui lòng sử dụng mã xác nhận bên dưới để xác nhận thay đổi.")
-                    .subject("Xác thực thay đổi email")
-                    .code(otp)
-                    .fullName(fullName)
-                    .build();
-            emailService.sendEmailTemplate(emailRequestDTO);
-        } catch (MessagingException e) {
-            throw new ResourceNotFoundException(e.getMessage());
-        }
-
+        EmailRequestDTO emailRequestDTO = EmailRequestDTO.builder()
+                .to(email)
+                .text("Chúng tôi đã nhận được yêu cầu thay đổi địa chỉ email cho tài khoản của bạn. Vui lòng sử dụng mã xác nhận bên dưới để xác nhận thay đổi.")
+                .subject("Xác thực thay đổi email")
+                .code(otp)
+                .fullName(fullName)
+                .build();
+        emailOutboxService.enqueue(emailRequestDTO);
     }
 
 
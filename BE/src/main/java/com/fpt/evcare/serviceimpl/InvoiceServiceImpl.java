@@ -8,6 +8,8 @@ import com.fpt.evcare.entity.*;
 import com.fpt.evcare.enums.AppointmentStatusEnum;
 import com.fpt.evcare.enums.InvoiceStatusEnum;
 import com.fpt.evcare.enums.MethodTypeEnum;
+import com.fpt.evcare.event.AppointmentChangedEvent;
+import com.fpt.evcare.event.AppointmentStatusChangedEvent;
 import com.fpt.evcare.exception.EntityValidationException;
 import com.fpt.evcare.exception.ResourceNotFoundException;
 import com.fpt.evcare.mapper.InvoiceMapper;
@@ -15,12 +17,14 @@ import com.fpt.evcare.repository.AppointmentRepository;
 import com.fpt.evcare.repository.InvoiceRepository;
 import com.fpt.evcare.repository.MaintenanceManagementRepository;
 import com.fpt.evcare.repository.PaymentMethodRepository;
-import com.fpt.evcare.service.EmailService;
+import com.fpt.evcare.service.EmailOutboxService;
 import com.fpt.evcare.service.InvoiceService;
+import com.fpt.evcare.service.PricingService;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -39,10 +43,11 @@ public class InvoiceServiceImpl implements InvoiceService {
     AppointmentRepository appointmentRepository;
     PaymentMethodRepository paymentMethodRepository;
     MaintenanceManagementRepository maintenanceManagementRepository;
-    EmailService emailService;
+    EmailOutboxService emailOutboxService;
     com.fpt.evcare.repository.ShiftRepository shiftRepository;
-    com.fpt.evcare.repository.WarrantyPartRepository warrantyPartRepository;
     com.fpt.evcare.repository.CustomerWarrantyPartRepository customerWarrantyPartRepository;
+    PricingService pricingService;
+    ApplicationEventPublisher eventPublisher;
 //
 //    @Override
 //    @Transactional
@@ -105,113 +110,14 @@ public class InvoiceServiceImpl implements InvoiceService {
 
         // Populate maintenance management details (services + parts used)
         java.util.List<com.fpt.evcare.entity.MaintenanceManagementEntity> maintenanceList = 
-            maintenanceManagementRepository.findByAppointmentIdAndIsDeletedFalse(appointmentId);
-        
-        java.util.List<InvoiceResponse.MaintenanceManagementSummary> maintenanceDetails = maintenanceList.stream()
-            .map(mm -> {
-                java.util.List<InvoiceResponse.PartUsed> partsUsed = mm.getMaintenanceRecords().stream()
-                    .filter(record -> !record.getIsDeleted() && Boolean.TRUE.equals(record.getApprovedByUser()))
-                    .map(record -> {
-                        BigDecimal unitPrice = record.getVehiclePart() != null ? record.getVehiclePart().getUnitPrice() : BigDecimal.ZERO;
-                        BigDecimal originalPrice = unitPrice.multiply(BigDecimal.valueOf(record.getQuantityUsed()));
-                        
-                        // Kiểm tra warranty cho phụ tùng này
-                        UUID vehiclePartId = record.getVehiclePart() != null ? record.getVehiclePart().getVehiclePartId() : null;
-                        com.fpt.evcare.entity.WarrantyPartEntity warrantyPart = null;
-                        Boolean isUnderWarranty = false;
-                        String warrantyDiscountType = null;
-                        BigDecimal warrantyDiscountValue = null;
-                        BigDecimal warrantyDiscountAmount = BigDecimal.ZERO;
-                        BigDecimal totalPrice = originalPrice;
-                        
-                        if (vehiclePartId != null) {
-                            // Kiểm tra warranty cho cả PENDING_PAYMENT và COMPLETED
-                            warrantyPart = warrantyPartRepository
-                                .findByVehiclePartVehiclePartIdAndIsDeletedFalseAndIsActiveTrue(vehiclePartId)
-                                .orElse(null);
-                            
-                            if (warrantyPart != null) {
-                                // ✅ CHỈ áp dụng warranty discount nếu appointment có isWarrantyAppointment = true
-                                if (Boolean.TRUE.equals(appointment.getIsWarrantyAppointment())) {
-                                    // Kiểm tra warranty dựa trên CustomerWarrantyPart (logic mới)
-                                    UUID customerId = appointment.getCustomer() != null ? appointment.getCustomer().getUserId() : null;
-                                    String customerEmail = appointment.getCustomerEmail();
-                                    String customerPhoneNumber = appointment.getCustomerPhoneNumber();
-                                    
-                                    // Tìm CustomerWarrantyPart active cho customer và phụ tùng này
-                                    // CHỈ áp dụng warranty nếu đã có appointment COMPLETED trước đó (không phải appointment hiện tại)
-                                    com.fpt.evcare.entity.CustomerWarrantyPartEntity customerWarranty = customerWarrantyPartRepository
-                                            .findActiveWarrantyByCustomerAndVehiclePart(
-                                                    customerId,
-                                                    customerEmail,
-                                                    customerPhoneNumber,
-                                                    vehiclePartId,
-                                                    LocalDateTime.now()
-                                            )
-                                            .orElse(null);
-                                    
-                                    // Đảm bảo warranty đến từ appointment KHÁC appointment hiện tại
-                                    // (Warranty chỉ được áp dụng từ appointment thứ 2 trở đi)
-                                    if (customerWarranty != null && 
-                                        customerWarranty.getAppointment() != null &&
-                                        !customerWarranty.getAppointment().getAppointmentId().equals(appointment.getAppointmentId())) {
-                                        
-                                        // Customer có warranty active cho phụ tùng này từ appointment trước đó
-                                        isUnderWarranty = true;
-                                        warrantyDiscountType = warrantyPart.getDiscountType().name();
-                                        
-                                        if (warrantyPart.getDiscountType() == com.fpt.evcare.enums.WarrantyDiscountTypeEnum.PERCENTAGE) {
-                                            warrantyDiscountValue = warrantyPart.getDiscountValue();
-                                            warrantyDiscountAmount = originalPrice.multiply(warrantyDiscountValue)
-                                                .divide(BigDecimal.valueOf(100), 2, java.math.RoundingMode.HALF_UP);
-                                            totalPrice = originalPrice.subtract(warrantyDiscountAmount);
-                                        } else if (warrantyPart.getDiscountType() == com.fpt.evcare.enums.WarrantyDiscountTypeEnum.FREE) {
-                                            warrantyDiscountAmount = originalPrice;
-                                            totalPrice = BigDecimal.ZERO;
-                                        }
-                                    } else if (customerWarranty != null && 
-                                               customerWarranty.getAppointment() != null &&
-                                               customerWarranty.getAppointment().getAppointmentId().equals(appointment.getAppointmentId())) {
-                                        // Warranty đến từ chính appointment hiện tại -> không áp dụng (đây là appointment đầu tiên)
-                                        log.debug("⚠️ Skipping warranty discount - warranty from current appointment {} (first appointment, no discount applied)", 
-                                                appointment.getAppointmentId());
-                                    }
-                                } else {
-                                    log.debug("⚠️ Skipping warranty discount - appointment {} is not a warranty appointment (isWarrantyAppointment = false)", 
-                                            appointment.getAppointmentId());
-                                }
-                            }
-                        }
-                        
-                        return InvoiceResponse.PartUsed.builder()
-                            .partName(record.getVehiclePart() != null ? record.getVehiclePart().getVehiclePartName() : "N/A")
-                            .quantity(record.getQuantityUsed())
-                            .unitPrice(unitPrice)
-                            .totalPrice(totalPrice)
-                            .originalPrice(originalPrice)
-                            .isUnderWarranty(isUnderWarranty)
-                            .warrantyDiscountType(warrantyDiscountType)
-                            .warrantyDiscountValue(warrantyDiscountValue)
-                            .warrantyDiscountAmount(warrantyDiscountAmount)
-                            .build();
-                    })
-                    .toList();
-
-                return InvoiceResponse.MaintenanceManagementSummary.builder()
-                    .serviceName(mm.getServiceType() != null ? mm.getServiceType().getServiceName() : "N/A")
-                    .serviceCost(mm.getTotalCost() != null ? mm.getTotalCost() : BigDecimal.ZERO)
-                    .partsUsed(partsUsed)
-                    .build();
-            })
-            .toList();
+            maintenanceManagementRepository.findWithRecordsByAppointmentIdAndIsDeletedFalse(appointmentId);
 
-        response.setMaintenanceDetails(maintenanceDetails);
+        // Kiểm tra warranty cho cả PENDING_PAYMENT và COMPLETED
+        PricingService.AppointmentPricing pricing = pricingService.priceAppointment(appointment, maintenanceList, true);
+        response.setMaintenanceDetails(pricing.maintenanceDetails());
 
         // Tính lại totalAmount từ maintenanceDetails với warranty discount
-        BigDecimal recalculatedTotalAmount = maintenanceDetails.stream()
-            .flatMap(mm -> mm.getPartsUsed().stream())
-            .map(part -> part.getTotalPrice()) // Sử dụng totalPrice đã có warranty discount
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal recalculatedTotalAmount = pricing.partsTotal();
         
         // Cập nhật totalAmount trong response để phản ánh warranty discount
         response.setTotalAmount(recalculatedTotalAmount);
@@ -476,8 +382,12 @@ public class InvoiceServiceImpl implements InvoiceService {
             log.info(InvoiceConstants.LOG_INFO_INVOICE_MARKED_AS_PAID, invoiceId);
 
             // Cập nhật appointment sang COMPLETED
+            AppointmentStatusEnum previousStatus = appointment.getStatus();
             appointment.setStatus(AppointmentStatusEnum.COMPLETED);
             appointmentRepository.save(appointment);
+            eventPublisher.publishEvent(new AppointmentChangedEvent(this, appointment.getAppointmentId()));
+            eventPublisher.publishEvent(new AppointmentStatusChangedEvent(this, appointment.getAppointmentId(),
+                    previousStatus, AppointmentStatusEnum.COMPLETED, appointment.getScheduledAt()));
             appointmentRepository.flush();
             
             // Refresh appointment từ database
@@ -553,8 +463,12 @@ public class InvoiceServiceImpl implements InvoiceService {
         log.info(InvoiceConstants.LOG_INFO_INVOICE_MARKED_AS_PAID, invoiceId);
 
         // Cập nhật appointment sang COMPLETED
+        AppointmentStatusEnum previousStatus = appointment.getStatus();
         appointment.setStatus(AppointmentStatusEnum.COMPLETED);
         appointmentRepository.save(appointment);
+        eventPublisher.publishEvent(new AppointmentChangedEvent(this, appointment.getAppointmentId()));
+        eventPublisher.publishEvent(new AppointmentStatusChangedEvent(this, appointment.getAppointmentId(),
+                previousStatus, AppointmentStatusEnum.COMPLETED, appointment.getScheduledAt()));
         appointmentRepository.flush(); // Flush để đảm bảo dữ liệu được ghi vào database ngay lập tức
         
         // Refresh appointment từ database để đảm bảo có dữ liệu mới nhất
@@ -635,7 +549,8 @@ public class InvoiceServiceImpl implements InvoiceService {
                     .code(null)
                     .build();
 
-            emailService.sendEmailTemplate(emailRequest);
+            // VNPay gửi lại callback / thanh toán lặp: mỗi hóa đơn chỉ 1 email xác nhận
+            emailOutboxService.enqueue(emailRequest, "invoice-paid:" + invoice.getInvoiceId());
             log.info(InvoiceConstants.LOG_INFO_SENT_PAYMENT_CONFIRMATION_EMAIL, invoice.getAppointment().getCustomerEmail());
         } catch (Exception e) {
             log.error(InvoiceConstants.LOG_ERR_FAILED_SEND_PAYMENT_CONFIRMATION_EMAIL, e.getMessage());
@@ -676,7 +591,7 @@ public class InvoiceServiceImpl implements InvoiceService {
                     .code(null)
                     .build();
 
-            emailService.sendEmailTemplate(emailRequest);
+            emailOutboxService.enqueue(emailRequest);
             log.info(InvoiceConstants.LOG_INFO_SENT_PAYMENT_FAILED_EMAIL, invoice.getAppointment().getCustomerEmail());
         } catch (Exception e) {
             log.error(InvoiceConstants.LOG_ERR_FAILED_SEND_PAYMENT_FAILED_EMAIL, e.getMessage());
@@ -799,7 +714,7 @@ public class InvoiceServiceImpl implements InvoiceService {
 //                    .code(null)
 //                    .build();
 //
-//            emailService.sendEmailTemplate(emailRequest);
+//            emailOutboxService.enqueue(emailRequest);
 //            log.info(InvoiceConstants.LOG_INFO_SENT_PAYMENT_CONFIRMATION_EMAIL, invoice.getAppointment().getCustomerEmail());
 //        } catch (Exception e) {
 //            log.error(InvoiceConstants.LOG_ERR_FAILED_SEND_PAYMENT_CONFIRMATION_EMAIL, e.getMessage());
@@ -844,7 +759,7 @@ public class InvoiceServiceImpl implements InvoiceService {
             
             // Lấy tất cả maintenance managements của appointment
             java.util.List<MaintenanceManagementEntity> maintenanceManagements = 
-                    maintenanceManagementRepository.findByAppointmentIdAndIsDeletedFalse(appointment.getAppointmentId());
+                    maintenanceManagementRepository.findWithRecordsByAppointmentIdAndIsDeletedFalse(appointment.getAppointmentId());
             
             if (maintenanceManagements == null || maintenanceManagements.isEmpty()) {
                 log.debug("No maintenance managements found for appointment: {}", appointment.getAppointmentId());
@@ -858,6 +773,10 @@ public class InvoiceServiceImpl implements InvoiceService {
             String customerFullName = appointment.getCustomerFullName();
             
             int resetCount = 0;
+
+            // Nạp warranty part + warranty hiện có của customer cho tất cả phụ tùng trong 1 lần
+            PricingService.WarrantyLookup warrantyLookup = pricingService.loadWarrantyLookup(
+                    appointment, pricingService.collectApprovedVehiclePartIds(maintenanceManagements));
             
             // Duyệt qua tất cả maintenance managements
             for (MaintenanceManagementEntity mm : maintenanceManagements) {
@@ -874,9 +793,7 @@ public class InvoiceServiceImpl implements InvoiceService {
                         UUID vehiclePartId = record.getVehiclePart().getVehiclePartId();
                         
                         // Kiểm tra phụ tùng này có warranty không
-                        WarrantyPartEntity warrantyPart = warrantyPartRepository
-                                .findByVehiclePartVehiclePartIdAndIsDeletedFalseAndIsActiveTrue(vehiclePartId)
-                                .orElse(null);
+                        WarrantyPartEntity warrantyPart = warrantyLookup.warrantyParts().get(vehiclePartId);
                         
                         if (warrantyPart != null) {
                             // Tính warranty_end_date
@@ -886,15 +803,7 @@ public class InvoiceServiceImpl implements InvoiceService {
                                     warrantyPart.getValidityPeriodUnit());
                             
                             // Tìm hoặc tạo CustomerWarrantyPart
-                            CustomerWarrantyPartEntity existingWarranty = customerWarrantyPartRepository
-                                    .findActiveWarrantyByCustomerAndVehiclePart(
-                                            customerId,
-                                            customerEmail,
-                                            customerPhoneNumber,
-                                            vehiclePartId,
-                                            LocalDateTime.now()
-                                    )
-                                    .orElse(null);
+                            CustomerWarrantyPartEntity existingWarranty = warrantyLookup.customerWarranties().get(vehiclePartId);
                             
                             if (existingWarranty != null) {
                                 // Update warranty date
@@ -925,6 +834,7 @@ public class InvoiceServiceImpl implements InvoiceService {
                                 newWarranty.setIsDeleted(false);
                                 
                                 customerWarrantyPartRepository.save(newWarranty);
+                                warrantyLookup.customerWarranties().put(vehiclePartId, newWarranty);
                                 log.info("✅ Created warranty for part {} - Customer: {}, Start: {}, End: {}", 
                                         record.getVehiclePart().getVehiclePartName(),
                                         customerId != null ? customerId : customerEmail,
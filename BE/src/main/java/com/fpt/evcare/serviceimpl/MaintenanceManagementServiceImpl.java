@@ -12,6 +12,8 @@ import com.fpt.evcare.enums.InvoiceStatusEnum;
 import com.fpt.evcare.enums.MaintenanceManagementStatusEnum;
 import com.fpt.evcare.enums.MethodTypeEnum;
 import com.fpt.evcare.enums.RoleEnum;
+import com.fpt.evcare.event.AppointmentChangedEvent;
+import com.fpt.evcare.event.AppointmentStatusChangedEvent;
 import com.fpt.evcare.exception.AppointmentValidationException;
 import com.fpt.evcare.exception.EntityValidationException;
 import com.fpt.evcare.exception.ResourceNotFoundException;
@@ -24,18 +26,16 @@ import com.fpt.evcare.repository.MaintenanceManagementRepository;
 import com.fpt.evcare.repository.PaymentMethodRepository;
 import com.fpt.evcare.repository.ServiceTypeRepository;
 import com.fpt.evcare.repository.UserRepository;
-import com.fpt.evcare.repository.WarrantyPartRepository;
-import com.fpt.evcare.service.EmailService;
+import com.fpt.evcare.service.EmailOutboxService;
 import com.fpt.evcare.service.MaintenanceCostService;
 import com.fpt.evcare.service.MaintenanceManagementService;
 import com.fpt.evcare.service.MaintenanceRecordService;
+import com.fpt.evcare.service.PricingService;
 import com.fpt.evcare.service.VehiclePartService;
 import com.fpt.evcare.dto.request.EmailRequestDTO;
 import com.fpt.evcare.entity.InvoiceEntity;
 import com.fpt.evcare.entity.MaintenanceRecordEntity;
 import com.fpt.evcare.entity.PaymentMethodEntity;
-import com.fpt.evcare.entity.WarrantyPartEntity;
-import com.fpt.evcare.enums.WarrantyDiscountTypeEnum;
 import com.fpt.evcare.utils.UtilFunction;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
@@ -43,6 +43,7 @@ import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -68,12 +69,12 @@ public class MaintenanceManagementServiceImpl implements MaintenanceManagementSe
     AppointmentRepository appointmentRepository;
     VehiclePartService vehiclePartService;
     ServiceTypeRepository serviceTypeRepository;
-    EmailService emailService;
+    EmailOutboxService emailOutboxService;
     InvoiceRepository invoiceRepository;
     InvoiceMapper invoiceMapper;
     PaymentMethodRepository paymentMethodRepository;
-    WarrantyPartRepository warrantyPartRepository;
-    com.fpt.evcare.repository.CustomerWarrantyPartRepository customerWarrantyPartRepository;
+    PricingService pricingService;
+    ApplicationEventPublisher eventPublisher;
 
     @Override
     public List<String> getMaintenanceManagementStatuses(){
@@ -566,8 +567,12 @@ public class MaintenanceManagementServiceImpl implements MaintenanceManagementSe
             
             // ====== Tự động chuyển appointment sang IN_PROGRESS khi bắt đầu maintenance đầu tiên ======
             if (appointment.getStatus() == AppointmentStatusEnum.CONFIRMED) {
+                AppointmentStatusEnum previousStatus = appointment.getStatus();
                 appointment.setStatus(AppointmentStatusEnum.IN_PROGRESS);
                 appointmentRepository.save(appointment);
+                eventPublisher.publishEvent(new AppointmentChangedEvent(this, appointment.getAppointmentId()));
+                eventPublisher.publishEvent(new AppointmentStatusChangedEvent(this, appointment.getAppointmentId(),
+                        previousStatus, AppointmentStatusEnum.IN_PROGRESS, appointment.getScheduledAt()));
                 log.info(AppointmentConstants.LOG_INFO_APPOINTMENT_STATUS_AUTO_UPDATED,
                         appointment.getAppointmentId(), AppointmentStatusEnum.CONFIRMED, AppointmentStatusEnum.IN_PROGRESS);
             }
@@ -627,8 +632,12 @@ public class MaintenanceManagementServiceImpl implements MaintenanceManagementSe
                                 .allMatch(m -> m.getStatus() == MaintenanceManagementStatusEnum.COMPLETED);
 
                 if (allCompleted && appointment.getStatus() == AppointmentStatusEnum.IN_PROGRESS) {
+                    AppointmentStatusEnum previousStatus = appointment.getStatus();
                     appointment.setStatus(AppointmentStatusEnum.PENDING_PAYMENT);
                     appointmentRepository.save(appointment);
+                    eventPublisher.publishEvent(new AppointmentChangedEvent(this, appointment.getAppointmentId()));
+                    eventPublisher.publishEvent(new AppointmentStatusChangedEvent(this, appointment.getAppointmentId(),
+                            previousStatus, AppointmentStatusEnum.PENDING_PAYMENT, appointment.getScheduledAt()));
                     log.info(AppointmentConstants.LOG_INFO_APPOINTMENT_STATUS_AUTO_COMPLETED,
                             appointment.getAppointmentId(), AppointmentStatusEnum.PENDING_PAYMENT);
                     
@@ -789,7 +798,7 @@ public class MaintenanceManagementServiceImpl implements MaintenanceManagementSe
 
         // Tính tổng total_cost từ tất cả maintenance managements
         List<MaintenanceManagementEntity> maintenanceManagements = maintenanceManagementRepository
-                .findByAppointmentIdAndIsDeletedFalse(appointment.getAppointmentId());
+                .findWithRecordsByAppointmentIdAndIsDeletedFalse(appointment.getAppointmentId());
         
         BigDecimal totalAmount = maintenanceManagements.stream()
                 .filter(mm -> mm.getTotalCost() != null)
@@ -867,8 +876,12 @@ public class MaintenanceManagementServiceImpl implements MaintenanceManagementSe
             log.info("✅ Invoice {} auto-marked as PAID (totalAmount = 0)", invoiceEntity.getInvoiceId());
 
             // Cập nhật appointment sang COMPLETED
+            AppointmentStatusEnum previousStatus = appointment.getStatus();
             appointment.setStatus(AppointmentStatusEnum.COMPLETED);
             appointmentRepository.save(appointment);
+            eventPublisher.publishEvent(new AppointmentChangedEvent(this, appointment.getAppointmentId()));
+            eventPublisher.publishEvent(new AppointmentStatusChangedEvent(this, appointment.getAppointmentId(),
+                    previousStatus, AppointmentStatusEnum.COMPLETED, appointment.getScheduledAt()));
             appointmentRepository.flush();
             log.info("✅ Appointment {} auto-marked as COMPLETED (invoice totalAmount = 0)", appointment.getAppointmentId());
             
@@ -916,7 +929,7 @@ public class MaintenanceManagementServiceImpl implements MaintenanceManagementSe
                     .code(null)
                     .build();
 
-            emailService.sendEmailTemplate(emailRequest);
+            emailOutboxService.enqueue(emailRequest);
             log.info(MaintenanceManagementConstants.LOG_INFO_SENT_COMPLETION_EMAIL, appointment.getCustomerEmail());
         } catch (Exception e) {
             log.error(MaintenanceManagementConstants.LOG_ERR_FAILED_SEND_COMPLETION_EMAIL, e.getMessage());
@@ -928,97 +941,10 @@ public class MaintenanceManagementServiceImpl implements MaintenanceManagementSe
      * Kiểm tra CustomerWarrantyPart active để áp dụng giảm giá cho phụ tùng được bảo hành
      */
     private BigDecimal calculateTotalWarrantyDiscount(List<MaintenanceManagementEntity> maintenanceManagements, AppointmentEntity currentAppointment) {
-        BigDecimal totalDiscount = BigDecimal.ZERO;
+        BigDecimal totalDiscount = pricingService
+                .priceAppointment(currentAppointment, maintenanceManagements, true)
+                .warrantyDiscountTotal();
 
-        if (maintenanceManagements == null || maintenanceManagements.isEmpty()) {
-            return totalDiscount;
-        }
-
-        // ✅ CHỈ áp dụng warranty discount nếu appointment có isWarrantyAppointment = true
-        if (!Boolean.TRUE.equals(currentAppointment.getIsWarrantyAppointment())) {
-            log.debug("⚠️ Skipping warranty discount calculation - appointment {} is not a warranty appointment (isWarrantyAppointment = false)", 
-                    currentAppointment.getAppointmentId());
-            return totalDiscount;
-        }
-        
-        // Lấy thông tin customer
-        UUID customerId = currentAppointment.getCustomer() != null ? currentAppointment.getCustomer().getUserId() : null;
-        String customerEmail = currentAppointment.getCustomerEmail();
-        String customerPhoneNumber = currentAppointment.getCustomerPhoneNumber();
-        
-        // Áp dụng giảm giá cho phụ tùng có warranty active
-        for (MaintenanceManagementEntity maintenanceManagement : maintenanceManagements) {
-            try {
-                List<MaintenanceRecordEntity> maintenanceRecords = maintenanceManagement.getMaintenanceRecords();
-                
-                if (maintenanceRecords == null || maintenanceRecords.isEmpty()) {
-                    continue;
-                }
-
-                for (MaintenanceRecordEntity record : maintenanceRecords) {
-                    try {
-                        // Chỉ tính giảm giá cho các record đã được approved
-                        if (!Boolean.TRUE.equals(record.getApprovedByUser())) {
-                            continue;
-                        }
-
-                        if (record.getVehiclePart() == null || record.getQuantityUsed() == null) {
-                            continue;
-                        }
-
-                        UUID vehiclePartId = record.getVehiclePart().getVehiclePartId();
-                        
-                        // Kiểm tra customer có warranty active cho phụ tùng này không
-                        // CHỈ áp dụng warranty nếu đã có appointment COMPLETED trước đó (không phải appointment hiện tại)
-                        com.fpt.evcare.entity.CustomerWarrantyPartEntity customerWarranty = customerWarrantyPartRepository
-                                .findActiveWarrantyByCustomerAndVehiclePart(
-                                        customerId,
-                                        customerEmail,
-                                        customerPhoneNumber,
-                                        vehiclePartId,
-                                        LocalDateTime.now()
-                                )
-                                .orElse(null);
-                        
-                        // Đảm bảo warranty đến từ appointment KHÁC appointment hiện tại
-                        // (Warranty chỉ được áp dụng từ appointment thứ 2 trở đi)
-                        if (customerWarranty != null && 
-                            customerWarranty.getAppointment() != null &&
-                            !customerWarranty.getAppointment().getAppointmentId().equals(currentAppointment.getAppointmentId())) {
-                            
-                            // Lấy warranty part active cho vehicle part này
-                            WarrantyPartEntity warrantyPart = warrantyPartRepository
-                                    .findByVehiclePartVehiclePartIdAndIsDeletedFalseAndIsActiveTrue(vehiclePartId)
-                                    .orElse(null);
-
-                            if (warrantyPart != null) {
-                                // Tính số tiền giảm giá cho record này
-                                BigDecimal discountAmount = calculateWarrantyDiscountForRecord(record, warrantyPart);
-                                totalDiscount = totalDiscount.add(discountAmount);
-                                log.info("✅ Applied warranty discount for part {} (CustomerWarrantyPart from appointment {}): {} VNĐ", 
-                                        record.getVehiclePart().getVehiclePartName(),
-                                        customerWarranty.getAppointment().getAppointmentId(),
-                                        discountAmount);
-                            }
-                        } else if (customerWarranty != null && 
-                                   customerWarranty.getAppointment() != null &&
-                                   customerWarranty.getAppointment().getAppointmentId().equals(currentAppointment.getAppointmentId())) {
-                            // Warranty đến từ chính appointment hiện tại -> không áp dụng (đây là appointment đầu tiên)
-                            log.debug("⚠️ Skipping warranty discount - warranty from current appointment {} (first appointment, no discount applied)", 
-                                    currentAppointment.getAppointmentId());
-                        }
-                    } catch (Exception e) {
-                        log.error("❌ Error calculating warranty discount for record {}: {}", 
-                                record != null ? record.getMaintenanceRecordId() : "null", e.getMessage(), e);
-                    }
-                }
-            } catch (Exception e) {
-                log.error("❌ Error processing maintenance records for maintenance management {}: {}", 
-                        maintenanceManagement != null ? maintenanceManagement.getMaintenanceManagementId() : "null", 
-                        e.getMessage(), e);
-            }
-        }
-        
         if (totalDiscount.compareTo(BigDecimal.ZERO) > 0) {
             log.info("✅ Total warranty discount applied for appointment {}: {} VNĐ", 
                     currentAppointment.getAppointmentId(), totalDiscount);
@@ -1027,51 +953,6 @@ public class MaintenanceManagementServiceImpl implements MaintenanceManagementSe
         return totalDiscount;
     }
 
-
-    /**
-     * Tính số tiền giảm giá cho một maintenance record dựa trên warranty part
-     */
-    private BigDecimal calculateWarrantyDiscountForRecord(MaintenanceRecordEntity record, WarrantyPartEntity warrantyPart) {
-        VehiclePartEntity vehiclePart = record.getVehiclePart();
-        
-        // Kiểm tra null để tránh NullPointerException
-        if (vehiclePart == null || vehiclePart.getUnitPrice() == null || record.getQuantityUsed() == null) {
-            log.warn("⚠️ Missing data for warranty discount calculation - vehiclePart: {}, unitPrice: {}, quantity: {}", 
-                    vehiclePart != null, 
-                    vehiclePart != null && vehiclePart.getUnitPrice() != null,
-                    record.getQuantityUsed() != null);
-            return BigDecimal.ZERO;
-        }
-        
-        BigDecimal unitPrice = vehiclePart.getUnitPrice();
-        Integer quantity = record.getQuantityUsed();
-        
-        // Tổng giá trị của phụ tùng (trước giảm giá)
-        BigDecimal totalPrice = unitPrice.multiply(BigDecimal.valueOf(quantity));
-        
-        BigDecimal discountAmount = BigDecimal.ZERO;
-        
-        if (warrantyPart.getDiscountType() == WarrantyDiscountTypeEnum.PERCENTAGE) {
-            // Giảm giá theo phần trăm
-            if (warrantyPart.getDiscountValue() != null) {
-                discountAmount = totalPrice.multiply(warrantyPart.getDiscountValue())
-                        .divide(BigDecimal.valueOf(100), 2, java.math.RoundingMode.HALF_UP);
-                log.debug("Áp dụng giảm giá {}% cho phụ tùng {}: {} VNĐ", 
-                        warrantyPart.getDiscountValue(), 
-                        vehiclePart.getVehiclePartName(), 
-                        discountAmount);
-            }
-        } else if (warrantyPart.getDiscountType() == WarrantyDiscountTypeEnum.FREE) {
-            // Miễn phí toàn bộ
-            discountAmount = totalPrice;
-            log.debug("Áp dụng miễn phí cho phụ tùng {}: {} VNĐ", 
-                    vehiclePart.getVehiclePartName(), 
-                    discountAmount);
-        }
-        
-        return discountAmount;
-    }
-
     @Override
     @Transactional
     public boolean deleteMaintenanceManagement(UUID id) {
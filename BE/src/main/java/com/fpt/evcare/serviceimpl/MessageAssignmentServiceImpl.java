@@ -20,7 +20,9 @@ import com.fpt.evcare.mapper.UserMapper;
 import com.fpt.evcare.repository.MessageAssignmentRepository;
 import com.fpt.evcare.repository.MessageRepository;
 import com.fpt.evcare.repository.UserRepository;
+import com.fpt.evcare.service.ConversationService;
 import com.fpt.evcare.service.MessageAssignmentService;
+import com.fpt.evcare.service.WebSocketPresenceService;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
@@ -28,14 +30,13 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.messaging.simp.user.SimpUser;
-import org.springframework.messaging.simp.user.SimpUserRegistry;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -52,7 +53,8 @@ public class MessageAssignmentServiceImpl implements MessageAssignmentService {
     MessageMapper messageMapper;
     UserMapper userMapper;
     ApplicationEventPublisher eventPublisher;
-    SimpUserRegistry simpUserRegistry; // Để check WebSocket session thực tế
+    ConversationService conversationService;
+    WebSocketPresenceService webSocketPresenceService; // Để check WebSocket session thực tế trên toàn cụm
     
     @Override
     @Transactional
@@ -410,6 +412,7 @@ public class MessageAssignmentServiceImpl implements MessageAssignmentService {
                     .build();
             
             MessageEntity savedWelcomeMsg = messageRepository.save(welcomeMsg);
+            conversationService.recordMessageSent(savedWelcomeMsg);
             log.info(MessageConstants.LOG_INFO_CREATED_WELCOME_MESSAGE, selectedStaff.getUserId(), customerId);
             
             // Gửi tin nhắn chào mừng qua WebSocket
@@ -442,14 +445,13 @@ public class MessageAssignmentServiceImpl implements MessageAssignmentService {
         // Get all STAFF only (not ADMIN)
         List<UserEntity> allStaff = userRepository.findByRoleNameAndIsDeletedFalse(RoleEnum.STAFF);
         
-        // Filter chỉ STAFF có WebSocket session ACTIVE (check qua SimpUserRegistry)
+        // Filter chỉ STAFF có WebSocket session ACTIVE ở bất kỳ instance nào (check qua WebSocketPresenceService)
+        Set<UUID> onlineStaffIds = webSocketPresenceService.findOnline(
+                allStaff.stream().map(UserEntity::getUserId).toList());
         List<UserEntity> onlineStaff = allStaff.stream()
                 .filter(staff -> {
                     // Check WebSocket session thực tế (không chỉ dựa vào DB isActive)
-                    String userIdStr = staff.getUserId().toString();
-                    SimpUser simpUser = simpUserRegistry.getUser(userIdStr);
-                    
-                    boolean hasActiveSession = simpUser != null && !simpUser.getSessions().isEmpty();
+                    boolean hasActiveSession = onlineStaffIds.contains(staff.getUserId());
                     
                     if (!hasActiveSession) {
                         log.debug(MessageConstants.LOG_DEBUG_STAFF_NO_WEBSOCKET_SESSION, 
@@ -1,7 +1,12 @@
 package com.fpt.evcare.serviceimpl;
 import com.fpt.evcare.constants.MessageConstants;
+import com.fpt.evcare.constants.PaginationConstants;
 import com.fpt.evcare.constants.UserConstants;
 import com.fpt.evcare.dto.request.message.CreationMessageRequest;
+import com.fpt.evcare.dto.request.message.MessageAckRequest;
+import com.fpt.evcare.dto.response.MessageAckResponse;
+import com.fpt.evcare.dto.response.ConversationResponse;
+import com.fpt.evcare.dto.response.CursorPageResponse;
 import com.fpt.evcare.dto.response.MessageResponse;
 import com.fpt.evcare.dto.response.PageResponse;
 import com.fpt.evcare.entity.MessageAssignmentEntity;
@@ -10,15 +15,20 @@ import com.fpt.evcare.entity.UserEntity;
 import com.fpt.evcare.enums.MessageStatusEnum;
 import com.fpt.evcare.enums.RoleEnum;
 import com.fpt.evcare.event.MessageCreatedEvent;
+import com.fpt.evcare.event.MessageDeletedEvent;
 import com.fpt.evcare.event.MessageStatusUpdatedEvent;
+import com.fpt.evcare.event.MessagesAcknowledgedEvent;
 import com.fpt.evcare.exception.ResourceNotFoundException;
 import com.fpt.evcare.exception.UnauthorizedException;
 import com.fpt.evcare.mapper.MessageMapper;
 import com.fpt.evcare.repository.MessageAssignmentRepository;
 import com.fpt.evcare.repository.MessageRepository;
 import com.fpt.evcare.repository.UserRepository;
+import com.fpt.evcare.service.ConversationService;
 import com.fpt.evcare.service.MessageService;
+import com.fpt.evcare.service.UnreadCountService;
 import com.fpt.evcare.service.UserService;
+import com.fpt.evcare.utils.CursorUtil;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
@@ -45,6 +55,8 @@ public class MessageServiceImpl implements MessageService {
     MessageAssignmentRepository assignmentRepository;
     MessageMapper messageMapper;
     ApplicationEventPublisher eventPublisher;
+    ConversationService conversationService;
+    UnreadCountService unreadCountService;
 
     
     @Override
@@ -97,6 +109,7 @@ public class MessageServiceImpl implements MessageService {
                 .build();
         
         MessageEntity savedMessage = messageRepository.save(message);
+        conversationService.recordMessageSent(savedMessage);
         log.info(MessageConstants.LOG_SUCCESS_SEND_MESSAGE, senderId, request.getReceiverId());
         
 
@@ -210,6 +223,65 @@ public class MessageServiceImpl implements MessageService {
                 .data(messageResponses)
                 .build();
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponse<MessageResponse> getConversationWithCursor(UUID currentUserId, UUID otherUserId, String cursor,
+                                                                         int size, boolean includeTotal) {
+        UserEntity currentUser = userRepository.findByUserIdAndIsDeletedFalse(currentUserId);
+        UserEntity otherUser = userRepository.findByUserIdAndIsDeletedFalse(otherUserId);
+        
+        if (currentUser == null || otherUser == null) {
+            throw new ResourceNotFoundException(UserConstants.MESSAGE_ERR_USER_NOT_FOUND);
+        }
+        
+        if (currentUser.getRole().getRoleName() == RoleEnum.CUSTOMER) {
+            validateCustomerCanChat(currentUserId, otherUserId);
+        }
+        if (otherUser.getRole().getRoleName() == RoleEnum.CUSTOMER) {
+            validateCustomerCanChat(otherUserId, currentUserId);
+        }
+        
+        int pageSize = Math.min(Math.max(size, 1), PaginationConstants.MAX_CURSOR_PAGE_SIZE);
+        
+        // Cursor = (sent_at, message_id) của tin nhắn cũ nhất trang trước
+        String cursorSentAt = null;
+        String cursorId = null;
+        String[] cursorParts = CursorUtil.decode(cursor, 2);
+        if (cursorParts != null) {
+            cursorSentAt = CursorUtil.parse(cursorParts[0], LocalDateTime::parse).toString();
+            cursorId = CursorUtil.parse(cursorParts[1], UUID::fromString).toString();
+        }
+        
+        List<MessageEntity> messages = messageRepository.findConversationAfter(
+                currentUserId, otherUserId, cursorSentAt, cursorId, pageSize + 1);
+        
+        boolean hasNext = messages.size() > pageSize;
+        if (hasNext) {
+            messages = messages.subList(0, pageSize);
+        }
+        
+        // Force initialization of lazy-loaded relationships before mapping
+        messages.forEach(this::initializeMessageRelations);
+        
+        List<MessageResponse> messageResponses = messages.stream()
+                .map(messageMapper::toResponse)
+                .collect(Collectors.toList());
+        
+        String nextCursor = null;
+        if (hasNext) {
+            MessageEntity last = messages.get(messages.size() - 1);
+            nextCursor = CursorUtil.encode(last.getSentAt(), last.getMessageId());
+        }
+        
+        return CursorPageResponse.<MessageResponse>builder()
+                .data(messageResponses)
+                .size(pageSize)
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
+                .totalElements(includeTotal ? messageRepository.countConversation(currentUserId, otherUserId) : null)
+                .build();
+    }
     
 
     @Override
@@ -235,6 +307,7 @@ public class MessageServiceImpl implements MessageService {
             message.setStatus(MessageStatusEnum.READ);
             message.setReadAt(LocalDateTime.now());
             messageRepository.save(message);
+            conversationService.recordMessagesRead(userId, message.getSender().getUserId(), 1);
             log.info(MessageConstants.LOG_SUCCESS_MARK_READ, messageId, userId);
             
             // Publish event để gửi status update qua WebSocket đến sender
@@ -248,10 +321,48 @@ public class MessageServiceImpl implements MessageService {
     @Override
     @Transactional
     public int markConversationAsRead(UUID currentUserId, UUID otherUserId) {
-        // Mark all messages from otherUserId to currentUserId as READ
-        // Note: Status updates sẽ được handle qua individual markAsRead calls
-        // Nên không cần publish event ở đây để tránh spam
-        return messageRepository.markAllAsRead(otherUserId, currentUserId, LocalDateTime.now());
+        // Mark all messages from otherUserId to currentUserId as READ (mốc = hiện tại), sender nhận một event gọn
+        MessageAckRequest request = MessageAckRequest.builder()
+                .otherUserId(otherUserId)
+                .status(MessageStatusEnum.READ)
+                .build();
+        return acknowledgeMessages(currentUserId, request).getUpdatedCount();
+    }
+    
+    @Override
+    @Transactional
+    public MessageAckResponse acknowledgeMessages(UUID userId, MessageAckRequest request) {
+        MessageStatusEnum status = request.getStatus();
+        if (status != MessageStatusEnum.DELIVERED && status != MessageStatusEnum.READ) {
+            throw new IllegalArgumentException(MessageConstants.MESSAGE_ERR_INVALID_ACK_STATUS);
+        }
+        
+        // Không nhận mốc trong tương lai: tin nhắn gửi sau thời điểm xác nhận thì client chưa thể thấy
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime upTo = request.getUpTo() == null || request.getUpTo().isAfter(now) ? now : request.getUpTo();
+        
+        // Một câu UPDATE cho cả đoạn hội thoại thay vì load/save từng tin nhắn
+        int updatedCount = status == MessageStatusEnum.READ
+                ? messageRepository.markReadUpTo(request.getOtherUserId(), userId, upTo, now)
+                : messageRepository.markDeliveredUpTo(request.getOtherUserId(), userId, upTo, now);
+        
+        MessageAckResponse response = MessageAckResponse.builder()
+                .readerId(userId)
+                .senderId(request.getOtherUserId())
+                .status(status)
+                .upTo(upTo)
+                .acknowledgedAt(now)
+                .updatedCount(updatedCount)
+                .build();
+        
+        if (updatedCount > 0) {
+            if (status == MessageStatusEnum.READ) {
+                conversationService.recordMessagesRead(userId, request.getOtherUserId(), updatedCount);
+            }
+            log.info(MessageConstants.LOG_SUCCESS_ACK, userId, status, updatedCount, request.getOtherUserId(), upTo);
+            eventPublisher.publishEvent(new MessagesAcknowledgedEvent(this, response));
+        }
+        return response;
     }
     
     @Override
@@ -288,20 +399,16 @@ public class MessageServiceImpl implements MessageService {
     }
     
     @Override
-    @Transactional(readOnly = true)
     public long countUnreadMessages(UUID userId) {
-        return messageRepository.countUnreadMessages(userId);
+        // Đọc bộ đếm trong Redis, chỉ đếm lại trong database khi chưa có hoặc Redis lỗi
+        return unreadCountService.countUnread(userId);
     }
     
     @Override
-    public PageResponse<MessageResponse> getRecentConversations(UUID userId, Pageable pageable) {
-        return PageResponse.<MessageResponse>builder()
-                .page(0)
-                .size(pageable.getPageSize())
-                .totalElements(0L)
-                .totalPages(0)
-                .data(List.of())
-                .build();
+    @Transactional(readOnly = true)
+    public PageResponse<ConversationResponse> getRecentConversations(UUID userId, Pageable pageable) {
+        // Đọc từ bảng tóm tắt conversations: 1 query có index, sắp theo hoạt động gần nhất
+        return conversationService.getConversations(userId, pageable);
     }
     
     @Override
@@ -322,9 +429,13 @@ public class MessageServiceImpl implements MessageService {
             throw new UnauthorizedException(MessageConstants.MESSAGE_ERR_UNAUTHORIZED);
         }
         
+        boolean wasUnread = message.getStatus() != MessageStatusEnum.READ;
         message.setIsDeleted(true);
         messageRepository.save(message);
+        conversationService.recordMessageDeleted(message, wasUnread);
         log.info(MessageConstants.LOG_INFO_DELETED_MESSAGE, messageId);
+        
+        eventPublisher.publishEvent(new MessageDeletedEvent(this, messageMapper.toResponse(message), wasUnread));
     }
 }
 
@@ -0,0 +1,193 @@
+package com.fpt.evcare.serviceimpl;
+
+import com.fpt.evcare.dto.response.InvoiceResponse;
+import com.fpt.evcare.entity.AppointmentEntity;
+import com.fpt.evcare.entity.CustomerWarrantyPartEntity;
+import com.fpt.evcare.entity.MaintenanceManagementEntity;
+import com.fpt.evcare.entity.MaintenanceRecordEntity;
+import com.fpt.evcare.entity.VehiclePartEntity;
+import com.fpt.evcare.entity.WarrantyPartEntity;
+import com.fpt.evcare.enums.WarrantyDiscountTypeEnum;
+import com.fpt.evcare.repository.CustomerWarrantyPartRepository;
+import com.fpt.evcare.repository.WarrantyPartRepository;
+import com.fpt.evcare.service.PricingService;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+@Slf4j
+@Service
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class PricingServiceImpl implements PricingService {
+
+    WarrantyPartRepository warrantyPartRepository;
+    CustomerWarrantyPartRepository customerWarrantyPartRepository;
+
+    @Override
+    public AppointmentPricing priceAppointment(AppointmentEntity appointment,
+                                               List<MaintenanceManagementEntity> maintenanceManagements,
+                                               boolean applyWarranty) {
+        if (maintenanceManagements == null || maintenanceManagements.isEmpty()) {
+            return new AppointmentPricing(List.of(), BigDecimal.ZERO, BigDecimal.ZERO);
+        }
+
+        // ✅ CHỈ áp dụng warranty discount nếu appointment có isWarrantyAppointment = true
+        boolean warrantyEnabled = applyWarranty && Boolean.TRUE.equals(appointment.getIsWarrantyAppointment());
+        if (applyWarranty && !warrantyEnabled) {
+            log.debug("⚠️ Skipping warranty discount - appointment {} is not a warranty appointment (isWarrantyAppointment = false)",
+                    appointment.getAppointmentId());
+        }
+
+        WarrantyLookup lookup = warrantyEnabled
+                ? loadWarrantyLookup(appointment, collectApprovedVehiclePartIds(maintenanceManagements))
+                : new WarrantyLookup(Map.of(), Map.of());
+
+        List<InvoiceResponse.MaintenanceManagementSummary> maintenanceDetails = new ArrayList<>();
+        BigDecimal partsTotal = BigDecimal.ZERO;
+        BigDecimal discountTotal = BigDecimal.ZERO;
+
+        for (MaintenanceManagementEntity mm : maintenanceManagements) {
+            List<InvoiceResponse.PartUsed> partsUsed = new ArrayList<>();
+            if (mm.getMaintenanceRecords() != null) {
+                for (MaintenanceRecordEntity record : mm.getMaintenanceRecords()) {
+                    if (!isApproved(record)) {
+                        continue;
+                    }
+                    InvoiceResponse.PartUsed part = priceRecord(record, appointment, lookup);
+                    partsUsed.add(part);
+                    partsTotal = partsTotal.add(part.getTotalPrice());
+                    discountTotal = discountTotal.add(part.getWarrantyDiscountAmount());
+                }
+            }
+
+            maintenanceDetails.add(InvoiceResponse.MaintenanceManagementSummary.builder()
+                    .serviceName(mm.getServiceType() != null ? mm.getServiceType().getServiceName() : "N/A")
+                    .serviceCost(mm.getTotalCost() != null ? mm.getTotalCost() : BigDecimal.ZERO)
+                    .partsUsed(partsUsed)
+                    .build());
+        }
+
+        return new AppointmentPricing(maintenanceDetails, partsTotal, discountTotal);
+    }
+
+    @Override
+    public WarrantyLookup loadWarrantyLookup(AppointmentEntity appointment, Collection<UUID> vehiclePartIds) {
+        if (vehiclePartIds == null || vehiclePartIds.isEmpty()) {
+            return new WarrantyLookup(new HashMap<>(), new HashMap<>());
+        }
+
+        Map<UUID, WarrantyPartEntity> warrantyParts = new HashMap<>();
+        for (WarrantyPartEntity warrantyPart : warrantyPartRepository
+                .findByVehiclePartVehiclePartIdInAndIsDeletedFalseAndIsActiveTrue(vehiclePartIds)) {
+            warrantyParts.putIfAbsent(warrantyPart.getVehiclePart().getVehiclePartId(), warrantyPart);
+        }
+
+        Map<UUID, CustomerWarrantyPartEntity> customerWarranties = new HashMap<>();
+        if (!warrantyParts.isEmpty()) {
+            UUID customerId = appointment.getCustomer() != null ? appointment.getCustomer().getUserId() : null;
+            // Query đã sắp xếp warranty_start_date giảm dần nên dòng đầu tiên của mỗi phụ tùng là warranty mới nhất
+            for (CustomerWarrantyPartEntity customerWarranty : customerWarrantyPartRepository
+                    .findActiveWarrantiesByCustomerAndVehicleParts(
+                            customerId,
+                            appointment.getCustomerEmail(),
+                            appointment.getCustomerPhoneNumber(),
+                            warrantyParts.keySet(),
+                            LocalDateTime.now())) {
+                customerWarranties.putIfAbsent(customerWarranty.getVehiclePart().getVehiclePartId(), customerWarranty);
+            }
+        }
+
+        return new WarrantyLookup(warrantyParts, customerWarranties);
+    }
+
+    @Override
+    public List<UUID> collectApprovedVehiclePartIds(List<MaintenanceManagementEntity> maintenanceManagements) {
+        Set<UUID> vehiclePartIds = new LinkedHashSet<>();
+        if (maintenanceManagements == null) {
+            return new ArrayList<>(vehiclePartIds);
+        }
+        for (MaintenanceManagementEntity mm : maintenanceManagements) {
+            if (mm.getMaintenanceRecords() == null) {
+                continue;
+            }
+            for (MaintenanceRecordEntity record : mm.getMaintenanceRecords()) {
+                if (isApproved(record) && record.getVehiclePart() != null) {
+                    vehiclePartIds.add(record.getVehiclePart().getVehiclePartId());
+                }
+            }
+        }
+        return new ArrayList<>(vehiclePartIds);
+    }
+
+    private InvoiceResponse.PartUsed priceRecord(MaintenanceRecordEntity record, AppointmentEntity appointment,
+                                                 WarrantyLookup lookup) {
+        VehiclePartEntity vehiclePart = record.getVehiclePart();
+        BigDecimal unitPrice = vehiclePart != null && vehiclePart.getUnitPrice() != null
+                ? vehiclePart.getUnitPrice() : BigDecimal.ZERO;
+        int quantity = record.getQuantityUsed() != null ? record.getQuantityUsed() : 0;
+        BigDecimal originalPrice = unitPrice.multiply(BigDecimal.valueOf(quantity));
+
+        boolean isUnderWarranty = false;
+        String warrantyDiscountType = null;
+        BigDecimal warrantyDiscountValue = null;
+        BigDecimal warrantyDiscountAmount = BigDecimal.ZERO;
+
+        UUID vehiclePartId = vehiclePart != null ? vehiclePart.getVehiclePartId() : null;
+        WarrantyPartEntity warrantyPart = vehiclePartId != null ? lookup.warrantyParts().get(vehiclePartId) : null;
+        CustomerWarrantyPartEntity customerWarranty = vehiclePartId != null ? lookup.customerWarranties().get(vehiclePartId) : null;
+
+        // Warranty chỉ được áp dụng từ appointment thứ 2 trở đi (warranty đến từ appointment KHÁC appointment hiện tại)
+        if (warrantyPart != null && customerWarranty != null && customerWarranty.getAppointment() != null) {
+            if (!customerWarranty.getAppointment().getAppointmentId().equals(appointment.getAppointmentId())) {
+                isUnderWarranty = true;
+                warrantyDiscountType = warrantyPart.getDiscountType().name();
+
+                if (warrantyPart.getDiscountType() == WarrantyDiscountTypeEnum.PERCENTAGE) {
+                    warrantyDiscountValue = warrantyPart.getDiscountValue();
+                    if (warrantyDiscountValue != null) {
+                        warrantyDiscountAmount = originalPrice.multiply(warrantyDiscountValue)
+                                .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+                    }
+                } else if (warrantyPart.getDiscountType() == WarrantyDiscountTypeEnum.FREE) {
+                    warrantyDiscountAmount = originalPrice;
+                }
+            } else {
+                log.debug("⚠️ Skipping warranty discount - warranty from current appointment {} (first appointment, no discount applied)",
+                        appointment.getAppointmentId());
+            }
+        }
+
+        return InvoiceResponse.PartUsed.builder()
+                .partName(vehiclePart != null ? vehiclePart.getVehiclePartName() : "N/A")
+                .quantity(record.getQuantityUsed())
+                .unitPrice(unitPrice)
+                .totalPrice(originalPrice.subtract(warrantyDiscountAmount))
+                .originalPrice(originalPrice)
+                .isUnderWarranty(isUnderWarranty)
+                .warrantyDiscountType(warrantyDiscountType)
+                .warrantyDiscountValue(warrantyDiscountValue)
+                .warrantyDiscountAmount(warrantyDiscountAmount)
+                .build();
+    }
+
+    private boolean isApproved(MaintenanceRecordEntity record) {
+        return record != null
+                && !Boolean.TRUE.equals(record.getIsDeleted())
+                && Boolean.TRUE.equals(record.getApprovedByUser());
+    }
+}
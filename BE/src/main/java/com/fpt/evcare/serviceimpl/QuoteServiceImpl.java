@@ -0,0 +1,80 @@
+package com.fpt.evcare.serviceimpl;
+
+import com.fpt.evcare.constants.AppointmentConstants;
+import com.fpt.evcare.constants.ServiceTypeConstants;
+import com.fpt.evcare.dto.response.QuoteResponse;
+import com.fpt.evcare.dto.response.ServiceTypeResponse;
+import com.fpt.evcare.exception.ResourceNotFoundException;
+import com.fpt.evcare.service.QuoteService;
+import com.fpt.evcare.service.ServiceTypeTreeService;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+@Slf4j
+@Service
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class QuoteServiceImpl implements QuoteService {
+
+    ServiceTypeTreeService serviceTypeTreeService;
+
+    @Override
+    public QuoteResponse getQuote(UUID vehicleTypeId, Collection<UUID> serviceTypeIds) {
+        // Endpoint xem trước công khai: chỉ đọc snapshot, id không có thì báo lỗi luôn, không chạm database
+        return calculateQuote(vehicleTypeId, serviceTypeIds, false);
+    }
+
+    @Override
+    public QuoteResponse getQuoteForBooking(UUID vehicleTypeId, Collection<UUID> serviceTypeIds) {
+        return calculateQuote(vehicleTypeId, serviceTypeIds, true);
+    }
+
+    private QuoteResponse calculateQuote(UUID vehicleTypeId, Collection<UUID> serviceTypeIds, boolean rebuildOnMiss) {
+        log.info(ServiceTypeConstants.LOG_INFO_CALCULATING_QUOTE_BY_VEHICLE_TYPE, vehicleTypeId);
+        ServiceTypeTreeService.ServiceTypeTree tree = serviceTypeTreeService.getTree(vehicleTypeId);
+        Set<UUID> selectedIds = serviceTypeIds != null ? new LinkedHashSet<>(serviceTypeIds) : Set.of();
+
+        // Snapshot có thể cũ hơn database (mất thông báo refresh) -> dựng lại từ database 1 lần trước khi báo lỗi
+        if (rebuildOnMiss && !tree.nodes().keySet().containsAll(selectedIds)) {
+            serviceTypeTreeService.refresh(vehicleTypeId);
+            tree = serviceTypeTreeService.getTree(vehicleTypeId);
+        }
+
+        List<QuoteResponse.ServiceQuote> services = new ArrayList<>();
+        BigDecimal totalPrice = BigDecimal.ZERO;
+        int estimatedDurationMinutes = 0;
+        for (UUID serviceTypeId : selectedIds) {
+            ServiceTypeResponse node = tree.nodes().get(serviceTypeId);
+            if (node == null) {
+                log.warn(ServiceTypeConstants.LOG_ERR_SERVICE_TYPE_FOR_VEHICLE_TYPE_NOT_FOUND, vehicleTypeId);
+                throw new ResourceNotFoundException(ServiceTypeConstants.MESSAGE_ERR_SERVICE_TYPE_FOR_VEHICLE_TYPE_NOT_FOUND);
+            } else if (node.getParentId() == null) {
+                log.warn(ServiceTypeConstants.LOG_ERR_MUST_CHOOSING_SPECIFIC_SERVICE_TYPE, serviceTypeId);
+                throw new ResourceNotFoundException(ServiceTypeConstants.MESSAGE_ERR_MUST_CHOOSING_SPECIFIC_SERVICE_TYPE);
+            }
+
+            // Dùng lại chi tiết giá đã tính sẵn trong snapshot, không tạo bản sao
+            QuoteResponse.ServiceQuote serviceQuote = tree.serviceQuotes().get(serviceTypeId);
+            services.add(serviceQuote);
+            totalPrice = totalPrice.add(serviceQuote.getSubtotal());
+            if (serviceQuote.getEstimatedDurationMinutes() != null) {
+                estimatedDurationMinutes += serviceQuote.getEstimatedDurationMinutes();
+            }
+        }
+
+        log.info(AppointmentConstants.LOG_SUCCESS_CALCULATING_QUOTE_PRICE, totalPrice);
+        return QuoteResponse.builder()
+                .vehicleTypeId(vehicleTypeId)
+                .version(tree.version())
+                .totalPrice(totalPrice)
+                .estimatedDurationMinutes(estimatedDurationMinutes)
+                .services(services)
+                .build();
+    }
+}
@@ -1,5 +1,6 @@
 package com.fpt.evcare.serviceimpl;
 
+import com.fpt.evcare.constants.CacheConstants;
 import com.fpt.evcare.constants.RoleConstants;
 import com.fpt.evcare.dto.request.RoleRequest;
 import com.fpt.evcare.dto.response.RoleResponse;
@@ -13,6 +14,9 @@ import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -29,6 +33,7 @@ public class RoleServiceImpl implements RoleService {
     RoleMapper roleMapper;
 
     @Override
+    @CacheEvict(cacheNames = CacheConstants.ROLE_LISTS, allEntries = true)
     public void createRole(RoleRequest roleRequest) {
         RoleEntity roleEntity = roleMapper.toEntity(roleRequest);
         roleRepository.save(roleEntity);
@@ -63,6 +68,10 @@ public class RoleServiceImpl implements RoleService {
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConstants.ROLES, key = "#roleId"),
+            @CacheEvict(cacheNames = CacheConstants.ROLE_LISTS, allEntries = true)
+    })
     public void updateRole(UUID roleId, RoleRequest roleRequest) {
         RoleEntity roleEntity = getRoleEntity(roleId);
 
@@ -74,17 +83,23 @@ public class RoleServiceImpl implements RoleService {
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConstants.ROLES)
     public RoleResponse getRoleByIdResponse(UUID roleId) {
         return roleMapper.toResponse(getRoleEntity(roleId));
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConstants.ROLE_LISTS, key = CacheConstants.KEY_ALL)
     public List<RoleResponse> getAllRoles() {
         List<RoleEntity> all = roleRepository.findAllByIsDeletedFalse();
         return roleMapper.toResponseList(all);
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConstants.ROLES, key = "#roleId"),
+            @CacheEvict(cacheNames = CacheConstants.ROLE_LISTS, allEntries = true)
+    })
     public void deleteRole(UUID roleId) {
         RoleEntity roleEntity = getRoleEntity(roleId);
         roleEntity.setIsDeleted(true);
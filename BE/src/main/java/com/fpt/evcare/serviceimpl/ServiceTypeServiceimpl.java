@@ -1,5 +1,6 @@
 package com.fpt.evcare.serviceimpl;
 
+import com.fpt.evcare.constants.CacheConstants;
 import com.fpt.evcare.constants.ServiceTypeConstants;
 import com.fpt.evcare.constants.ServiceTypeVehiclePartConstants;
 import com.fpt.evcare.constants.VehicleTypeConstants;
@@ -13,18 +14,24 @@ import com.fpt.evcare.entity.ServiceTypeEntity;
 import com.fpt.evcare.entity.ServiceTypeVehiclePartEntity;
 import com.fpt.evcare.entity.VehiclePartEntity;
 import com.fpt.evcare.entity.VehicleTypeEntity;
+import com.fpt.evcare.event.AppointmentChangedEvent;
+import com.fpt.evcare.event.ServiceTypeTreeChangedEvent;
 import com.fpt.evcare.exception.EntityValidationException;
 import com.fpt.evcare.exception.ResourceNotFoundException;
 import com.fpt.evcare.mapper.ServiceTypeMapper;
 import com.fpt.evcare.repository.*;
 import com.fpt.evcare.service.AppointmentService;
 import com.fpt.evcare.service.ServiceTypeService;
+import com.fpt.evcare.service.ServiceTypeTreeService;
 import com.fpt.evcare.service.ServiceTypeVehiclePartService;
 import com.fpt.evcare.utils.UtilFunction;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -40,12 +47,16 @@ import java.util.stream.Collectors;
 public class ServiceTypeServiceimpl implements ServiceTypeService {
 
     ServiceTypeVehiclePartService serviceTypeVehiclePartService;
+    ServiceTypeTreeService serviceTypeTreeService;
     VehicleTypeRepository vehicleTypeRepository;
     ServiceTypeRepository serviceTypeRepository;
     ServiceTypeMapper serviceTypeMapper;
     ServiceTypeVehiclePartRepository serviceTypeVehiclePartRepository;
+    AppointmentRepository appointmentRepository;
+    ApplicationEventPublisher eventPublisher;
 
     @Override
+    @Cacheable(cacheNames = CacheConstants.SERVICE_TYPE_PARENTS)
     public List<ServiceTypeResponse> getParentServiceListByVehicleTypeId(UUID vehicleTypeId){
         List<ServiceTypeEntity> serviceTypeEntityList = serviceTypeRepository.findByServiceTypeIdAndParentIdIsNullAndIsDeletedFalse(vehicleTypeId);
         if(serviceTypeEntityList.isEmpty()){
@@ -63,6 +74,7 @@ public class ServiceTypeServiceimpl implements ServiceTypeService {
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConstants.SERVICE_TYPE_CHILDREN)
     public List<ServiceTypeResponse> getChildrenServiceByParentIdAndVehicleTypeId(UUID parentId, UUID vehicleTypeId){
         List<ServiceTypeEntity> serviceTypeEntities = serviceTypeRepository.findByVehicleTypeAndParent(vehicleTypeId, parentId);
         if(serviceTypeEntities.isEmpty()){
@@ -81,39 +93,14 @@ public class ServiceTypeServiceimpl implements ServiceTypeService {
 
     @Override
     public List<ServiceTypeResponse> getAllServiceTypesByVehicleTypeForAppointment(UUID vehicleTypeId) {
-        List<ServiceTypeEntity> serviceTypeEntities = serviceTypeRepository.findByVehicleTypeEntityVehicleTypeIdAndIsDeletedFalse(vehicleTypeId);
+        // Cây dựng sẵn trong bộ nhớ, chỉ dựng lại khi dịch vụ hoặc phụ tùng của loại xe thay đổi
+        List<ServiceTypeResponse> rootNodes = serviceTypeTreeService.getTree(vehicleTypeId).roots();
 
-        if (serviceTypeEntities.isEmpty()) {
+        if (rootNodes.isEmpty()) {
             log.warn(VehicleTypeConstants.LOG_ERR_VEHICLE_TYPE_NOT_FOUND + vehicleTypeId);
             throw new ResourceNotFoundException(VehicleTypeConstants.MESSAGE_ERR_VEHICLE_TYPE_NOT_FOUND);
         }
 
-        // Bước 2: Tạo Map<id, Response> để lưu tất cả node
-        Map<UUID, ServiceTypeResponse> nodeMap = new HashMap<>();
-        for (ServiceTypeEntity entity : serviceTypeEntities) {
-            ServiceTypeResponse response = new ServiceTypeResponse();
-            response.setServiceTypeId(entity.getServiceTypeId());
-            response.setServiceName(entity.getServiceName());
-            response.setParentId(entity.getParentId());
-            nodeMap.put(response.getServiceTypeId(), response);
-        }
-
-        // Bước 3: Xây cây lồng nhau
-        List<ServiceTypeResponse> rootNodes = new ArrayList<>();
-        for (ServiceTypeResponse node : nodeMap.values()) {
-            if (node.getParentId() == null) {
-                rootNodes.add(node);
-            } else {
-                ServiceTypeResponse parent = nodeMap.get(node.getParentId());
-                if (parent != null) {
-                    if (parent.getChildren() == null) {
-                        parent.setChildren(new ArrayList<>());
-                    }
-                    parent.getChildren().add(node);
-                }
-            }
-        }
-
         log.info(ServiceTypeConstants.LOG_INFO_SHOWING_SERVICE_TYPE_LIST_BY_VEHICLE_TYPE_FOR_APPOINTMENT + vehicleTypeId);
         return rootNodes;
     }
@@ -183,34 +170,36 @@ public class ServiceTypeServiceimpl implements ServiceTypeService {
                     .build();
         }
 
-        // Bước 2: Build parent services và load children cho mỗi parent
+        // Bước 2: Load children của cả trang và vehicle part của cha + con bằng 2 query batch (không query theo từng node)
+        List<UUID> parentIds = entities.stream().map(ServiceTypeEntity::getServiceTypeId).toList();
+        Map<UUID, List<ServiceTypeEntity>> childrenByParent = new HashMap<>();
+        for (ServiceTypeEntity childEntity : serviceTypeRepository.findByParentServiceTypeIdInAndIsDeletedFalse(parentIds)) {
+            // Filter children theo isActive nếu cần
+            if (isActive != null && !childEntity.getIsActive().equals(isActive)) {
+                continue;
+            }
+            childrenByParent.computeIfAbsent(childEntity.getParentId(), id -> new ArrayList<>()).add(childEntity);
+        }
+
+        List<UUID> serviceTypeIds = new ArrayList<>(parentIds);
+        childrenByParent.values().forEach(children -> children.forEach(child -> serviceTypeIds.add(child.getServiceTypeId())));
+        Map<UUID, List<ServiceTypeVehiclePartResponse>> vehiclePartsByServiceType =
+                serviceTypeVehiclePartService.getVehiclePartResponsesByServiceTypeIds(serviceTypeIds);
+
+        // Bước 3: Build parent services kèm children
         List<ServiceTypeResponse> rootNodes = new ArrayList<>();
         for (ServiceTypeEntity parentEntity : entities) {
             ServiceTypeResponse parentResponse = serviceTypeMapper.toResponse(parentEntity);
+            parentResponse.setServiceTypeVehiclePartResponses(vehiclePartsByServiceType.get(parentEntity.getServiceTypeId()));
 
-            //Lấy danh sách vehicle part trong bảng trung gian cho parent
-            List<ServiceTypeVehiclePartResponse> parentVehicleParts = serviceTypeVehiclePartService.getVehiclePartResponseByServiceTypeId(parentEntity.getServiceTypeId());
-            parentResponse.setServiceTypeVehiclePartResponses(parentVehicleParts.isEmpty() ? null : parentVehicleParts);
-
-            // Load children cho parent này
-            List<ServiceTypeEntity> childrenEntities = serviceTypeRepository.findByParentServiceTypeIdAndIsDeletedFalse(parentEntity.getServiceTypeId());
             List<ServiceTypeResponse> childrenResponses = new ArrayList<>();
-            
-            for (ServiceTypeEntity childEntity : childrenEntities) {
-                // Filter children theo isActive nếu cần
-                if (isActive != null && !childEntity.getIsActive().equals(isActive)) {
-                    continue;
-                }
-                
+            for (ServiceTypeEntity childEntity : childrenByParent.getOrDefault(parentEntity.getServiceTypeId(), List.of())) {
                 ServiceTypeResponse childResponse = serviceTypeMapper.toResponse(childEntity);
-                
-                //Lấy vehicle parts cho child
-                List<ServiceTypeVehiclePartResponse> childVehicleParts = serviceTypeVehiclePartService.getVehiclePartResponseByServiceTypeId(childEntity.getServiceTypeId());
-                childResponse.setServiceTypeVehiclePartResponses(childVehicleParts.isEmpty() ? null : childVehicleParts);
-                
+                childResponse.setServiceTypeVehiclePartResponses(vehiclePartsByServiceType.get(childEntity.getServiceTypeId()));
                 childrenResponses.add(childResponse);
             }
-            
+
+
             parentResponse.setChildren(childrenResponses.isEmpty() ? null : childrenResponses);
             rootNodes.add(parentResponse);
         }
@@ -228,6 +217,7 @@ public class ServiceTypeServiceimpl implements ServiceTypeService {
 
     @Override
     @Transactional
+    @CacheEvict(cacheNames = {CacheConstants.SERVICE_TYPE_PARENTS, CacheConstants.SERVICE_TYPE_CHILDREN}, allEntries = true)
     public boolean createServiceType(CreationServiceTypeRequest creationServiceTypeRequest) {
         checkDuplicateCreationServiceName(creationServiceTypeRequest.getServiceName(), creationServiceTypeRequest.getVehicleTypeId());
         ServiceTypeEntity serviceTypeEntity = serviceTypeMapper.toEntity(creationServiceTypeRequest);
@@ -251,11 +241,13 @@ public class ServiceTypeServiceimpl implements ServiceTypeService {
 
         log.info(ServiceTypeConstants.LOG_INFO_CREATING_SERVICE_TYPE, serviceTypeEntity.getServiceTypeId());
         serviceTypeRepository.save(serviceTypeEntity);
+        eventPublisher.publishEvent(new ServiceTypeTreeChangedEvent(this, vehicleType.getVehicleTypeId()));
         return true;
     }
 
     @Override
     @Transactional
+    @CacheEvict(cacheNames = {CacheConstants.SERVICE_TYPE_PARENTS, CacheConstants.SERVICE_TYPE_CHILDREN}, allEntries = true)
     public boolean updateServiceType(UUID id, UpdationServiceTypeRequest updationServiceTypeRequest) {
         checkDependOnAppointmentByServiceTypeId(id);
 
@@ -282,12 +274,15 @@ public class ServiceTypeServiceimpl implements ServiceTypeService {
         log.info(ServiceTypeConstants.LOG_INFO_UPDATING_SERVICE_TYPE, id);
         serviceTypeMapper.updateServiceType(updationServiceTypeRequest, serviceTypeEntity);
         serviceTypeRepository.save(serviceTypeEntity);
+        publishAppointmentsChanged(List.of(id));
+        eventPublisher.publishEvent(new ServiceTypeTreeChangedEvent(this, vehicleType.getVehicleTypeId()));
         return true;
     }
 
     //HÀM XÓA DỊCH VỤ
     @Override
     @Transactional
+    @CacheEvict(cacheNames = {CacheConstants.SERVICE_TYPE_PARENTS, CacheConstants.SERVICE_TYPE_CHILDREN}, allEntries = true)
     public boolean deleteServiceType(UUID id) {
         ServiceTypeEntity serviceType = serviceTypeRepository.findByServiceTypeIdAndIsDeletedFalse(id);
         if (serviceType == null) {
@@ -306,12 +301,15 @@ public class ServiceTypeServiceimpl implements ServiceTypeService {
                 child.setIsDeleted(true);
             }
             serviceTypeRepository.saveAll(children);
+            publishAppointmentsChanged(children.stream().map(ServiceTypeEntity::getServiceTypeId).toList());
         }
         deleteVehiclePartsOfServiceType(serviceType);
 
         log.info(ServiceTypeConstants.LOG_INFO_DELETING_SERVICE_TYPE, id);
         serviceType.setIsDeleted(true);
         serviceTypeRepository.save(serviceType);
+        publishAppointmentsChanged(List.of(id));
+        eventPublisher.publishEvent(new ServiceTypeTreeChangedEvent(this, serviceType.getVehicleTypeEntity().getVehicleTypeId()));
         return true;
     }
 
@@ -327,6 +325,7 @@ public class ServiceTypeServiceimpl implements ServiceTypeService {
 
     //HÀM KHÔI PHỤC DỊCH VỤ CON
     @Override
+    @CacheEvict(cacheNames = {CacheConstants.SERVICE_TYPE_PARENTS, CacheConstants.SERVICE_TYPE_CHILDREN}, allEntries = true)
     public boolean restoreServiceType(UUID id) {
         ServiceTypeEntity serviceTypeEntity = serviceTypeRepository.findByServiceTypeIdAndIsDeletedTrue(id);
         if (serviceTypeEntity == null) {
@@ -380,6 +379,8 @@ public class ServiceTypeServiceimpl implements ServiceTypeService {
 
         log.info(ServiceTypeConstants.LOG_INFO_RESTORING_SERVICE_TYPE, id);
         serviceTypeRepository.saveAll(entitiesToRestore);
+        publishAppointmentsChanged(entitiesToRestore.stream().map(ServiceTypeEntity::getServiceTypeId).toList());
+        eventPublisher.publishEvent(new ServiceTypeTreeChangedEvent(this, serviceTypeEntity.getVehicleTypeEntity().getVehicleTypeId()));
 
         return true;
     }
@@ -443,6 +444,17 @@ public class ServiceTypeServiceimpl implements ServiceTypeService {
         }
     }
 
+    // Báo cho appointment_list_view cập nhật lại các cuộc hẹn đang dùng những dịch vụ này
+    private void publishAppointmentsChanged(List<UUID> serviceTypeIds) {
+        if (serviceTypeIds.isEmpty()) {
+            return;
+        }
+        List<UUID> appointmentIds = appointmentRepository.findAppointmentIdsByServiceTypeIdIn(serviceTypeIds);
+        if (!appointmentIds.isEmpty()) {
+            eventPublisher.publishEvent(new AppointmentChangedEvent(this, appointmentIds));
+        }
+    }
+
     public void checkDependOnAppointmentByServiceTypeId(UUID serviceTypeId){
         boolean existedActiveAppointmentByServiceTypeId = serviceTypeVehiclePartRepository.existsActiveAppointmentsInServiceTypeVehiclePartByServiceTypeId(serviceTypeId);
         if(existedActiveAppointmentByServiceTypeId){
@@ -0,0 +1,205 @@
+package com.fpt.evcare.serviceimpl;
+
+import com.fpt.evcare.dto.response.QuoteResponse;
+import com.fpt.evcare.dto.response.ServiceTypeResponse;
+import com.fpt.evcare.entity.ServiceTypeEntity;
+import com.fpt.evcare.repository.ServiceTypeRepository;
+import com.fpt.evcare.repository.ServiceTypeVehiclePartRepository;
+import com.fpt.evcare.service.ServiceTypeTreeService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ServiceTypeTreeServiceImpl implements ServiceTypeTreeService {
+
+    // Dựng lại snapshot quá hạn để giới hạn dữ liệu cũ nếu mất thông báo pub/sub từ instance khác
+    private static final Duration MAX_AGE = Duration.ofMinutes(10);
+
+    // Số loại xe giữ snapshot tối đa; id lấy từ endpoint công khai nên không để bộ nhớ tăng theo id tùy ý
+    private static final long MAXIMUM_SIZE = 500;
+
+    private final ServiceTypeRepository serviceTypeRepository;
+    private final ServiceTypeVehiclePartRepository serviceTypeVehiclePartRepository;
+
+    // vehicleTypeId -> snapshot; dựng ngoài lock của cache, khi ghi chỉ giữ bản có version lớn hơn
+    // Loại xe không có dịch vụ nào (hoặc không tồn tại) không được lưu
+    private final Cache<UUID, ServiceTypeTree> trees = Caffeine.newBuilder()
+            .maximumSize(MAXIMUM_SIZE)
+            .build();
+    // vehicleTypeId -> version tại thời điểm refresh: bản dựng lấy version trước mốc này đã đọc dữ liệu trước commit
+    // nên không được lưu; giữ quá MAX_AGE là thừa vì không có bản dựng nào chạy lâu như vậy
+    private final Cache<UUID, Long> refreshedVersions = Caffeine.newBuilder()
+            .maximumSize(MAXIMUM_SIZE)
+            .expireAfterWrite(MAX_AGE)
+            .build();
+    // Mốc refresh toàn bộ (refresh(null)), áp dụng cho cả loại xe chưa có snapshot
+    private final AtomicLong refreshedAllVersion = new AtomicLong();
+    private final AtomicLong versionSequence = new AtomicLong();
+
+    @Override
+    public ServiceTypeTree getTree(UUID vehicleTypeId) {
+        ServiceTypeTree tree = trees.getIfPresent(vehicleTypeId);
+        if (tree == null) {
+            return store(build(vehicleTypeId));
+        }
+        if (tree.builtAt().isAfter(LocalDateTime.now().minus(MAX_AGE))) {
+            return tree;
+        }
+        try {
+            return store(build(vehicleTypeId));
+        } catch (Exception e) {
+            log.warn("Failed to rebuild expired service type tree for vehicle type {}, serving version {}: {}",
+                    vehicleTypeId, tree.version(), e.getMessage());
+            return tree;
+        }
+    }
+
+    @Override
+    public void refresh(UUID vehicleTypeId) {
+        if (vehicleTypeId == null) {
+            refreshedAllVersion.accumulateAndGet(versionSequence.incrementAndGet(), Math::max);
+            new ArrayList<>(trees.asMap().keySet()).forEach(this::refreshTree);
+            return;
+        }
+        refreshedVersions.asMap().merge(vehicleTypeId, versionSequence.incrementAndGet(), Math::max);
+        refreshTree(vehicleTypeId);
+    }
+
+    private void refreshTree(UUID vehicleTypeId) {
+        // Đã ghi mốc refresh trước khi kiểm tra: bản dựng dở đang chạy sẽ bị store() từ chối,
+        // còn bản nào kịp lưu trước mốc thì có mặt ở đây và được dựng lại
+        if (trees.getIfPresent(vehicleTypeId) == null) {
+            return;
+        }
+        try {
+            ServiceTypeTree tree = build(vehicleTypeId);
+            if (tree.nodes().isEmpty()) {
+                trees.invalidate(vehicleTypeId);
+            } else {
+                store(tree);
+            }
+        } catch (Exception e) {
+            // Không dựng lại được -> bỏ snapshot cũ để lần đọc sau nạp lại từ database
+            trees.invalidate(vehicleTypeId);
+            log.warn("Failed to rebuild service type tree for vehicle type {}: {}", vehicleTypeId, e.getMessage());
+        }
+    }
+
+    private ServiceTypeTree store(ServiceTypeTree tree) {
+        if (tree.nodes().isEmpty()) {
+            return tree;
+        }
+        // Kiểm tra mốc refresh trong compute để không lọt giữa lúc kiểm tra và lúc ghi;
+        // request khác đã lưu bản mới hơn trong lúc dựng thì dùng luôn bản đó
+        ServiceTypeTree stored = trees.asMap().compute(tree.vehicleTypeId(), (id, current) -> {
+            if (isOutdated(tree)) {
+                return current;
+            }
+            return current == null || tree.version() > current.version() ? tree : current;
+        });
+        return stored != null ? stored : tree;
+    }
+
+    private boolean isOutdated(ServiceTypeTree tree) {
+        Long refreshedVersion = refreshedVersions.getIfPresent(tree.vehicleTypeId());
+        return tree.version() < refreshedAllVersion.get()
+                || (refreshedVersion != null && tree.version() < refreshedVersion);
+    }
+
+    private ServiceTypeTree build(UUID vehicleTypeId) {
+        // Lấy version TRƯỚC khi đọc database để so được với mốc refresh (xem isOutdated)
+        long version = versionSequence.incrementAndGet();
+        List<ServiceTypeEntity> entities = serviceTypeRepository.findByVehicleTypeEntityVehicleTypeIdAndIsDeletedFalse(vehicleTypeId);
+        if (entities.isEmpty()) {
+            return new ServiceTypeTree(vehicleTypeId, version, LocalDateTime.now(), List.of(), Map.of(), Map.of());
+        }
+
+        Map<UUID, List<QuoteResponse.PartQuote>> partsByServiceType = new HashMap<>();
+        for (Object[] row : serviceTypeVehiclePartRepository.findPartLinesByVehicleTypeId(vehicleTypeId)) {
+            BigDecimal unitPrice = (BigDecimal) row[4];
+            if (unitPrice == null) {
+                continue;
+            }
+            // Không khai báo số lượng thì tính 1 phụ tùng
+            int quantity = row[3] != null ? (Integer) row[3] : 1;
+            partsByServiceType.computeIfAbsent((UUID) row[0], id -> new ArrayList<>()).add(QuoteResponse.PartQuote.builder()
+                    .vehiclePartId((UUID) row[1])
+                    .vehiclePartName((String) row[2])
+                    .quantity(quantity)
+                    .unitPrice(unitPrice)
+                    .totalPrice(unitPrice.multiply(BigDecimal.valueOf(quantity)))
+                    .build());
+        }
+
+        Map<UUID, QuoteResponse.ServiceQuote> serviceQuotes = new HashMap<>();
+        for (ServiceTypeEntity entity : entities) {
+            List<QuoteResponse.PartQuote> parts = List.copyOf(partsByServiceType.getOrDefault(entity.getServiceTypeId(), List.of()));
+            serviceQuotes.put(entity.getServiceTypeId(), QuoteResponse.ServiceQuote.builder()
+                    .serviceTypeId(entity.getServiceTypeId())
+                    .serviceName(entity.getServiceName())
+                    .estimatedDurationMinutes(entity.getEstimatedDurationMinutes())
+                    .subtotal(parts.stream().map(QuoteResponse.PartQuote::getTotalPrice).reduce(BigDecimal.ZERO, BigDecimal::add))
+                    .parts(parts)
+                    .build());
+        }
+
+        // Giữ thứ tự database trả về; con có cha không thuộc danh sách (cha đã xóa) thì bỏ qua như trước
+        List<ServiceTypeEntity> rootEntities = new ArrayList<>();
+        Map<UUID, List<ServiceTypeEntity>> childrenByParent = new LinkedHashMap<>();
+        for (ServiceTypeEntity entity : entities) {
+            if (entity.getParentId() == null) {
+                rootEntities.add(entity);
+            } else {
+                childrenByParent.computeIfAbsent(entity.getParentId(), id -> new ArrayList<>()).add(entity);
+            }
+        }
+
+        Map<UUID, ServiceTypeResponse> nodes = new HashMap<>();
+        List<ServiceTypeResponse> roots = rootEntities.stream()
+                .map(entity -> toNode(entity, childrenByParent, serviceQuotes, nodes))
+                .toList();
+
+        ServiceTypeTree tree = new ServiceTypeTree(vehicleTypeId, version, LocalDateTime.now(),
+                roots, Collections.unmodifiableMap(nodes), Collections.unmodifiableMap(serviceQuotes));
+        log.info("Service type tree built for vehicle type {}: version {}, {} service types",
+                vehicleTypeId, tree.version(), entities.size());
+        return tree;
+    }
+
+    private ServiceTypeResponse toNode(ServiceTypeEntity entity, Map<UUID, List<ServiceTypeEntity>> childrenByParent,
+                                       Map<UUID, QuoteResponse.ServiceQuote> serviceQuotes, Map<UUID, ServiceTypeResponse> nodes) {
+        List<ServiceTypeResponse> children = childrenByParent.getOrDefault(entity.getServiceTypeId(), List.of()).stream()
+                .map(child -> toNode(child, childrenByParent, serviceQuotes, nodes))
+                .toList();
+
+        // Giá phụ tùng của dịch vụ cha = phụ tùng của chính nó + của tất cả dịch vụ con
+        BigDecimal estimatedPartCost = serviceQuotes.get(entity.getServiceTypeId()).getSubtotal();
+        for (ServiceTypeResponse child : children) {
+            estimatedPartCost = estimatedPartCost.add(child.getEstimatedPartCost());
+        }
+
+        ServiceTypeResponse node = ServiceTypeResponse.builder()
+                .serviceTypeId(entity.getServiceTypeId())
+                .serviceName(entity.getServiceName())
+                .description(entity.getDescription())
+                .estimatedDurationMinutes(entity.getEstimatedDurationMinutes())
+                .estimatedPartCost(estimatedPartCost)
+                .parentId(entity.getParentId())
+                .isActive(entity.getIsActive())
+                .children(children.isEmpty() ? null : children)
+                .build();
+        nodes.put(node.getServiceTypeId(), node);
+        return node;
+    }
+}
@@ -11,6 +11,7 @@ import com.fpt.evcare.dto.response.ServiceTypeVehiclePartResponse;
 import com.fpt.evcare.dto.response.VehiclePartResponse;
 import com.fpt.evcare.entity.*;
 import com.fpt.evcare.enums.AppointmentStatusEnum;
+import com.fpt.evcare.event.ServiceTypeTreeChangedEvent;
 import com.fpt.evcare.exception.EntityValidationException;
 import com.fpt.evcare.exception.ResourceNotFoundException;
 import com.fpt.evcare.mapper.ServiceTypeVehiclePartMapper;
@@ -21,11 +22,16 @@ import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
 
@@ -39,6 +45,7 @@ public class ServiceTypeVehiclePartServiceImpl implements ServiceTypeVehiclePart
     ServiceTypeVehiclePartMapper serviceTypeVehiclePartMapper;
     ServiceTypeRepository serviceTypeRepository;
     VehiclePartRepository vehiclePartRepository;
+    ApplicationEventPublisher eventPublisher;
 
     @Override
     public ServiceTypeVehiclePartResponse getServiceTypeVehiclePartById(UUID id){
@@ -70,6 +77,38 @@ public class ServiceTypeVehiclePartServiceImpl implements ServiceTypeVehiclePart
         return serviceTypeVehiclePartResponse;
     }
 
+    @Override
+    public Map<UUID, List<ServiceTypeVehiclePartResponse>> getVehiclePartResponsesByServiceTypeIds(Collection<UUID> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        // Giống getVehiclePartResponseByServiceTypeId nhưng 1 query cho cả danh sách, phụ tùng đã xóa thì không gắn vehiclePart
+        Map<UUID, List<ServiceTypeVehiclePartResponse>> responsesByServiceType = new HashMap<>();
+        for (ServiceTypeVehiclePartEntity entity : serviceTypeVehiclePartRepository.findAllWithVehiclePartByServiceTypeIdIn(ids)) {
+            ServiceTypeVehiclePartResponse serviceTypeVehiclePartResponse = new ServiceTypeVehiclePartResponse();
+            serviceTypeVehiclePartResponse.setServiceTypeVehiclePartId(entity.getServiceTypeVehiclePartId());
+            serviceTypeVehiclePartResponse.setRequiredQuantity(entity.getRequiredQuantity());
+            serviceTypeVehiclePartResponse.setEstimatedTimeDefault(entity.getEstimatedTimeDefault());
+
+            VehiclePartEntity vehiclePartEntity = entity.getVehiclePart();
+            if (vehiclePartEntity != null && !Boolean.TRUE.equals(vehiclePartEntity.getIsDeleted())) {
+                VehiclePartResponse vehiclePartResponse = new VehiclePartResponse();
+                vehiclePartResponse.setVehiclePartId(vehiclePartEntity.getVehiclePartId());
+                vehiclePartResponse.setVehiclePartName(vehiclePartEntity.getVehiclePartName());
+                vehiclePartResponse.setCurrentQuantity(vehiclePartEntity.getCurrentQuantity());
+                vehiclePartResponse.setMinStock(vehiclePartEntity.getMinStock());
+                vehiclePartResponse.setUnitPrice(vehiclePartEntity.getUnitPrice());
+
+                serviceTypeVehiclePartResponse.setVehiclePart(vehiclePartResponse);
+            }
+
+            responsesByServiceType.computeIfAbsent(entity.getServiceType().getServiceTypeId(), id -> new ArrayList<>())
+                    .add(serviceTypeVehiclePartResponse);
+        }
+        return responsesByServiceType;
+    }
+
     @Override
     public List<ServiceTypeVehiclePartResponse> getVehiclePartResponseByServiceTypeId(UUID id) {
         List<ServiceTypeVehiclePartEntity> serviceTypeVehiclePartEntityList = serviceTypeVehiclePartRepository.findAllByServiceTypeServiceTypeIdAndIsDeletedFalse(id);
@@ -148,6 +187,7 @@ public class ServiceTypeVehiclePartServiceImpl implements ServiceTypeVehiclePart
 
         log.info(ServiceTypeVehiclePartConstants.LOG_INFO_CREATING_SERVICE_TYPE_VEHICLE_PART);
         serviceTypeVehiclePartRepository.save(serviceTypeVehiclePartEntity);
+        publishServiceTypeTreeChanged(serviceTypeEntity);
         return true;
     }
 
@@ -160,6 +200,9 @@ public class ServiceTypeVehiclePartServiceImpl implements ServiceTypeVehiclePart
             throw new ResourceNotFoundException(ServiceTypeVehiclePartConstants.MESSAGE_ERR_SERVICE_TYPE_VEHICLE_PART_NOT_FOUND);
         }
 
+        // Dịch vụ cũ cũng cần dựng lại cây nếu phụ tùng được chuyển sang dịch vụ khác
+        ServiceTypeEntity previousServiceTypeEntity = serviceTypeVehiclePartEntity.getServiceType();
+
         // Thêm dịch vụ vào danh sách
         ServiceTypeEntity serviceTypeEntity = serviceTypeRepository.findByServiceTypeIdAndIsDeletedFalse(updationServiceTypeVehiclePartRequest.getServiceTypeId());
         if(serviceTypeEntity == null){
@@ -197,10 +240,16 @@ public class ServiceTypeVehiclePartServiceImpl implements ServiceTypeVehiclePart
         log.info(ServiceTypeVehiclePartConstants.LOG_INFO_UPDATING_SERVICE_TYPE_VEHICLE_PART + id);
         serviceTypeVehiclePartMapper.toUpdate(serviceTypeVehiclePartEntity, updationServiceTypeVehiclePartRequest);
         serviceTypeVehiclePartRepository.save(serviceTypeVehiclePartEntity);
+        publishServiceTypeTreeChanged(serviceTypeEntity);
+        if (previousServiceTypeEntity != null
+                && !Objects.equals(previousServiceTypeEntity.getVehicleTypeEntity().getVehicleTypeId(), vehicleTypeOfServiceType.getVehicleTypeId())) {
+            publishServiceTypeTreeChanged(previousServiceTypeEntity);
+        }
         return true;
     }
 
     @Override
+    @Transactional
     public boolean deleteServiceTypeVehiclePart(UUID id) {
         ServiceTypeVehiclePartEntity serviceTypeVehiclePartEntity = serviceTypeVehiclePartRepository.findByServiceTypeVehiclePartIdAndIsDeletedFalse(id);
         if(serviceTypeVehiclePartEntity == null){
@@ -222,10 +271,12 @@ public class ServiceTypeVehiclePartServiceImpl implements ServiceTypeVehiclePart
         log.info(ServiceTypeVehiclePartConstants.LOG_INFO_DELETING_SERVICE_TYPE_VEHICLE_PART + id);
         serviceTypeVehiclePartEntity.setIsDeleted(true);
         serviceTypeVehiclePartRepository.save(serviceTypeVehiclePartEntity);
+        publishServiceTypeTreeChanged(serviceTypeEntity);
         return true;
     }
 
     @Override
+    @Transactional
     public boolean restoreServiceTypeVehiclePart(UUID id){
         ServiceTypeVehiclePartEntity serviceTypeVehiclePartEntity = serviceTypeVehiclePartRepository.findByServiceTypeVehiclePartIdAndIsDeletedTrue(id);
         if(serviceTypeVehiclePartEntity == null){
@@ -236,9 +287,17 @@ public class ServiceTypeVehiclePartServiceImpl implements ServiceTypeVehiclePart
         log.info(ServiceTypeVehiclePartConstants.LOG_INFO_RESTORING_SERVICE_TYPE_VEHICLE_PART + id);
         serviceTypeVehiclePartEntity.setIsDeleted(false);
         serviceTypeVehiclePartRepository.save(serviceTypeVehiclePartEntity);
+        publishServiceTypeTreeChanged(serviceTypeVehiclePartEntity.getServiceType());
         return true;
     }
 
+    // Dựng lại cây dịch vụ của loại xe sau khi commit (giá phụ tùng ước tính của dịch vụ thay đổi)
+    private void publishServiceTypeTreeChanged(ServiceTypeEntity serviceTypeEntity) {
+        if (serviceTypeEntity != null && serviceTypeEntity.getVehicleTypeEntity() != null) {
+            eventPublisher.publishEvent(new ServiceTypeTreeChangedEvent(this, serviceTypeEntity.getVehicleTypeEntity().getVehicleTypeId()));
+        }
+    }
+
     private void validQuantityForAppointment(Integer quantity, VehiclePartEntity vehiclePart){
         if(vehiclePart.getCurrentQuantity() < quantity){
             log.warn(VehiclePartConstants.LOG_ERR_QUANTITY_NOT_ENOUGH + vehiclePart.getCurrentQuantity());
@@ -0,0 +1,220 @@
+package com.fpt.evcare.serviceimpl;
+
+import com.fpt.evcare.repository.ShiftRepository;
+import com.fpt.evcare.service.ShiftIntervalIndexService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ShiftIntervalIndexServiceImpl implements ShiftIntervalIndexService {
+
+    // Giữ lại ca đã kết thúc trong khoảng này để các form sửa ca gần đây vẫn dùng được index
+    private static final Duration RETENTION = Duration.ofDays(1);
+    // Thời gian ca được lưu tới phút, slot rảnh phải bắt đầu sau giờ kết thúc ca trước (quy tắc trùng tính cả biên)
+    private static final Duration SLOT_STEP = Duration.ofMinutes(1);
+
+    private final ShiftRepository shiftRepository;
+
+    // technicianId -> các ca sắp theo startTime (mảng bất biến, thay mới khi có thay đổi)
+    private volatile Map<UUID, TechnicianSchedule> schedules = new ConcurrentHashMap<>();
+    // shiftId -> các technician của ca, để gỡ ca cũ khi ca thay đổi
+    private volatile Map<UUID, Set<UUID>> techniciansByShift = new ConcurrentHashMap<>();
+    private volatile LocalDateTime indexedFrom;
+    // Các ca thay đổi trong lúc rebuild đang chạy, áp dụng lại sau khi đổi sang index mới
+    private final Set<UUID> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private volatile boolean rebuilding;
+
+    @Override
+    public void rebuild() {
+        LocalDateTime from = LocalDateTime.now().minus(RETENTION);
+        changedDuringRebuild.clear();
+        rebuilding = true;
+        try {
+            Map<UUID, List<ShiftInterval>> intervalsByTechnician = new HashMap<>();
+            Map<UUID, Set<UUID>> newTechniciansByShift = new ConcurrentHashMap<>();
+            for (Object[] row : shiftRepository.findTechnicianShiftIntervals(from)) {
+                ShiftInterval interval = new ShiftInterval((UUID) row[0], (LocalDateTime) row[1], (LocalDateTime) row[2]);
+                UUID technicianId = (UUID) row[3];
+                intervalsByTechnician.computeIfAbsent(technicianId, id -> new ArrayList<>()).add(interval);
+                newTechniciansByShift.computeIfAbsent(interval.shiftId(), id -> ConcurrentHashMap.newKeySet()).add(technicianId);
+            }
+
+            Map<UUID, TechnicianSchedule> newSchedules = new ConcurrentHashMap<>();
+            intervalsByTechnician.forEach((technicianId, intervals) ->
+                    newSchedules.put(technicianId, TechnicianSchedule.of(intervals)));
+
+            synchronized (this) {
+                schedules = newSchedules;
+                techniciansByShift = newTechniciansByShift;
+                indexedFrom = from;
+                rebuilding = false;
+            }
+            log.info("Shift interval index rebuilt: {} shifts, {} technicians",
+                    newTechniciansByShift.size(), newSchedules.size());
+        } catch (Exception e) {
+            log.error("Failed to rebuild shift interval index: {}", e.getMessage(), e);
+        } finally {
+            rebuilding = false;
+        }
+
+        for (UUID shiftId : changedDuringRebuild) {
+            refreshShift(shiftId);
+        }
+        changedDuringRebuild.clear();
+    }
+
+    @Override
+    public void refreshShift(UUID shiftId) {
+        if (rebuilding) {
+            changedDuringRebuild.add(shiftId);
+        }
+        List<Object[]> rows;
+        try {
+            rows = shiftRepository.findTechnicianShiftIntervalsByShiftId(shiftId);
+        } catch (Exception e) {
+            // Không đọc được ca -> không chắc index còn đúng, tắt index cho tới lần rebuild sau
+            log.error("Failed to refresh shift {} in interval index, disabling index until next rebuild: {}",
+                    shiftId, e.getMessage());
+            indexedFrom = null;
+            return;
+        }
+
+        synchronized (this) {
+            Set<UUID> oldTechnicians = techniciansByShift.remove(shiftId);
+            if (oldTechnicians != null) {
+                for (UUID technicianId : oldTechnicians) {
+                    schedules.computeIfPresent(technicianId, (id, schedule) -> schedule.without(shiftId));
+                }
+            }
+
+            Set<UUID> newTechnicians = ConcurrentHashMap.newKeySet();
+            for (Object[] row : rows) {
+                ShiftInterval interval = new ShiftInterval((UUID) row[0], (LocalDateTime) row[1], (LocalDateTime) row[2]);
+                UUID technicianId = (UUID) row[3];
+                schedules.merge(technicianId, TechnicianSchedule.of(List.of(interval)),
+                        (schedule, added) -> schedule.with(interval));
+                newTechnicians.add(technicianId);
+            }
+            if (!newTechnicians.isEmpty()) {
+                techniciansByShift.put(shiftId, newTechnicians);
+            }
+        }
+    }
+
+    @Override
+    public boolean covers(LocalDateTime startTime) {
+        LocalDateTime from = indexedFrom;
+        return from != null && startTime != null && !startTime.isBefore(from);
+    }
+
+    @Override
+    public Optional<ShiftInterval> findFirstConflict(UUID technicianId, LocalDateTime startTime, LocalDateTime endTime,
+                                                     UUID excludeShiftId) {
+        TechnicianSchedule schedule = schedules.get(technicianId);
+        if (schedule == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(schedule.firstConflict(startTime, endTime, excludeShiftId));
+    }
+
+    @Override
+    public LocalDateTime findFirstFreeSlot(UUID technicianId, LocalDateTime after, Duration duration) {
+        TechnicianSchedule schedule = schedules.get(technicianId);
+        LocalDateTime candidate = after;
+        if (schedule == null) {
+            return candidate;
+        }
+        // Mỗi lần trùng, nhảy tới sau ca trùng -> số vòng lặp không vượt quá số ca của kỹ thuật viên
+        ShiftInterval conflict;
+        while ((conflict = schedule.firstConflict(candidate, candidate.plus(duration), null)) != null) {
+            LocalDateTime busyUntil = conflict.endTime() != null ? conflict.endTime() : conflict.startTime();
+            candidate = busyUntil.plus(SLOT_STEP);
+        }
+        return candidate;
+    }
+
+    /**
+     * Các ca của 1 kỹ thuật viên sắp theo startTime, kèm maxEnd[i] = giờ kết thúc lớn nhất của ca 0..i
+     * để tìm ca trùng bằng tìm kiếm nhị phân và dừng sớm khi không còn ca nào có thể trùng
+     */
+    private record TechnicianSchedule(ShiftInterval[] intervals, LocalDateTime[] maxEnd) {
+
+        static TechnicianSchedule of(List<ShiftInterval> intervals) {
+            ShiftInterval[] sorted = intervals.toArray(ShiftInterval[]::new);
+            Arrays.sort(sorted, Comparator.comparing(ShiftInterval::startTime));
+            LocalDateTime[] maxEnd = new LocalDateTime[sorted.length];
+            LocalDateTime max = null;
+            for (int i = 0; i < sorted.length; i++) {
+                LocalDateTime end = busyUntil(sorted[i]);
+                max = max == null || end.isAfter(max) ? end : max;
+                maxEnd[i] = max;
+            }
+            return new TechnicianSchedule(sorted, maxEnd);
+        }
+
+        TechnicianSchedule with(ShiftInterval interval) {
+            List<ShiftInterval> list = new ArrayList<>(Arrays.asList(intervals));
+            list.add(interval);
+            return of(list);
+        }
+
+        TechnicianSchedule without(UUID shiftId) {
+            List<ShiftInterval> list = new ArrayList<>(intervals.length);
+            for (ShiftInterval interval : intervals) {
+                if (!interval.shiftId().equals(shiftId)) {
+                    list.add(interval);
+                }
+            }
+            return list.isEmpty() ? null : of(list);
+        }
+
+        ShiftInterval firstConflict(LocalDateTime startTime, LocalDateTime endTime, UUID excludeShiftId) {
+            // Chỉ các ca có startTime <= endTime mới có thể trùng
+            int index = lastIndexStartingAtOrBefore(endTime);
+            ShiftInterval earliest = null;
+            for (int i = index; i >= 0 && !maxEnd[i].isBefore(startTime); i--) {
+                ShiftInterval interval = intervals[i];
+                if (!interval.shiftId().equals(excludeShiftId) && overlaps(interval, startTime, endTime)) {
+                    earliest = interval;
+                }
+            }
+            return earliest;
+        }
+
+        private int lastIndexStartingAtOrBefore(LocalDateTime time) {
+            int low = 0;
+            int high = intervals.length - 1;
+            int result = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (intervals[mid].startTime().isAfter(time)) {
+                    high = mid - 1;
+                } else {
+                    result = mid;
+                    low = mid + 1;
+                }
+            }
+            return result;
+        }
+
+        // Giống điều kiện trùng của ShiftRepository.findConflictingShiftsByTechnician
+        private static boolean overlaps(ShiftInterval interval, LocalDateTime startTime, LocalDateTime endTime) {
+            if (interval.endTime() != null) {
+                return !interval.startTime().isAfter(endTime) && !interval.endTime().isBefore(startTime);
+            }
+            return !interval.startTime().isBefore(startTime) && interval.startTime().isBefore(endTime);
+        }
+
+        private static LocalDateTime busyUntil(ShiftInterval interval) {
+            return interval.endTime() != null ? interval.endTime() : interval.startTime();
+        }
+    }
+}
@@ -1,15 +1,18 @@
 package com.fpt.evcare.serviceimpl;
+import com.fpt.evcare.constants.PaginationConstants;
 import com.fpt.evcare.constants.ShiftConstants;
 import com.fpt.evcare.dto.request.appointment.UpdationAppointmentRequest;
 import com.fpt.evcare.dto.request.shift.AssignShiftRequest;
 import com.fpt.evcare.dto.request.shift.CheckTechnicianAvailabilityRequest;
 import com.fpt.evcare.dto.request.shift.CreationShiftRequest;
 import com.fpt.evcare.dto.request.shift.UpdationShiftRequest;
+import com.fpt.evcare.dto.response.CursorPageResponse;
 import com.fpt.evcare.dto.response.PageResponse;
 import com.fpt.evcare.dto.response.ShiftResponse;
 import com.fpt.evcare.dto.response.TechnicianAvailabilityResponse;
 import com.fpt.evcare.dto.response.UserResponse;
 import com.fpt.evcare.entity.AppointmentEntity;
+import com.fpt.evcare.event.ShiftScheduleChangedEvent;
 import com.fpt.evcare.entity.ShiftEntity;
 import com.fpt.evcare.entity.UserEntity;
 import com.fpt.evcare.enums.RoleEnum;
@@ -24,12 +27,15 @@ import com.fpt.evcare.repository.AppointmentRepository;
 import com.fpt.evcare.repository.ShiftRepository;
 import com.fpt.evcare.repository.UserRepository;
 import com.fpt.evcare.service.AppointmentService;
+import com.fpt.evcare.service.ShiftIntervalIndexService;
 import com.fpt.evcare.service.ShiftService;
+import com.fpt.evcare.utils.CursorUtil;
 import com.fpt.evcare.utils.UtilFunction;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -39,7 +45,10 @@ import java.math.RoundingMode;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -54,6 +63,8 @@ public class ShiftServiceImpl implements ShiftService {
     ShiftMapper shiftMapper;
     UserRepository userRepository;
     UserMapper userMapper;
+    ShiftIntervalIndexService shiftIntervalIndexService;
+    ApplicationEventPublisher eventPublisher;
 
     @Override
     public List<String> getAllShiftTypes() {
@@ -149,6 +160,60 @@ public class ShiftServiceImpl implements ShiftService {
                 .build();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ShiftResponse> searchShiftWithCursor(String keyword, String status, String shiftType,
+                                                                   String fromDate, String toDate, String cursor,
+                                                                   int size, boolean includeTotal) {
+        log.info(ShiftConstants.LOG_INFO_SHOWING_SHIFT_LIST);
+
+        int pageSize = Math.min(Math.max(size, 1), PaginationConstants.MAX_CURSOR_PAGE_SIZE);
+
+        // Cursor = (start_time, shift_id) của ca cuối trang trước
+        String cursorStartTime = null;
+        String cursorId = null;
+        String[] cursorParts = CursorUtil.decode(cursor, 2);
+        if (cursorParts != null) {
+            cursorStartTime = CursorUtil.parse(cursorParts[0], LocalDateTime::parse).toString();
+            cursorId = CursorUtil.parse(cursorParts[1], UUID::fromString).toString();
+        }
+
+        List<ShiftEntity> shifts = shiftRepository.findShiftsWithFiltersAfter(
+                keyword, status, shiftType, fromDate, toDate, cursorStartTime, cursorId, pageSize + 1);
+
+        boolean hasNext = shifts.size() > pageSize;
+        if (hasNext) {
+            shifts = shifts.subList(0, pageSize);
+        }
+
+        // Force initialization of lazy-loaded relationships within transaction
+        shifts.forEach(shift -> {
+            if (shift.getAppointment() != null) {
+                initializeAppointmentRelations(shift.getAppointment());
+            }
+        });
+
+        List<ShiftResponse> shiftResponses = shifts.stream()
+                .map(shiftMapper::toResponse)
+                .toList();
+
+        String nextCursor = null;
+        if (hasNext) {
+            ShiftEntity last = shifts.get(shifts.size() - 1);
+            nextCursor = CursorUtil.encode(last.getStartTime(), last.getShiftId());
+        }
+
+        return CursorPageResponse.<ShiftResponse>builder()
+                .data(shiftResponses)
+                .size(pageSize)
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
+                .totalElements(includeTotal
+                        ? shiftRepository.countShiftsWithFilters(keyword, status, shiftType, fromDate, toDate)
+                        : null)
+                .build();
+    }
+
     @Override
     @Transactional(readOnly = true)
     public PageResponse<ShiftResponse> getShiftsByAppointmentId(UUID appointmentId, Pageable pageable) {
@@ -269,6 +334,7 @@ public class ShiftServiceImpl implements ShiftService {
             shiftEntity.setSearch(buildSearchString(shiftEntity));
             
             shiftRepository.save(shiftEntity);
+            eventPublisher.publishEvent(new ShiftScheduleChangedEvent(this, shiftEntity.getShiftId(), shiftEntity.getStartTime(), shiftEntity.getEndTime()));
             
             // Only update appointment if it exists
             if (appointment != null) {
@@ -341,6 +407,7 @@ public class ShiftServiceImpl implements ShiftService {
             shiftEntity.setSearch(buildSearchString(shiftEntity));
             
             shiftRepository.save(shiftEntity);
+            eventPublisher.publishEvent(new ShiftScheduleChangedEvent(this, shiftEntity.getShiftId(), shiftEntity.getStartTime(), shiftEntity.getEndTime()));
             return true;
         } catch (Exception e) {
             log.error(ShiftConstants.LOG_ERR_UPDATING_SHIFT, e);
@@ -362,6 +429,7 @@ public class ShiftServiceImpl implements ShiftService {
 
             shiftEntity.setIsDeleted(true);
             shiftRepository.save(shiftEntity);
+            eventPublisher.publishEvent(new ShiftScheduleChangedEvent(this, shiftEntity.getShiftId(), shiftEntity.getStartTime(), shiftEntity.getEndTime()));
             return true;
         } catch (Exception e) {
             log.error(ShiftConstants.LOG_ERR_DELETING_SHIFT, e);
@@ -380,6 +448,7 @@ public class ShiftServiceImpl implements ShiftService {
 
             shiftEntity.setIsDeleted(false);
             shiftRepository.save(shiftEntity);
+            eventPublisher.publishEvent(new ShiftScheduleChangedEvent(this, shiftEntity.getShiftId(), shiftEntity.getStartTime(), shiftEntity.getEndTime()));
             return true;
         } catch (Exception e) {
             log.error(ShiftConstants.LOG_ERR_RESTORING_SHIFT, e);
@@ -392,12 +461,26 @@ public class ShiftServiceImpl implements ShiftService {
             CheckTechnicianAvailabilityRequest request) {
         log.info(ShiftConstants.LOG_INFO_CHECKING_AVAILABILITY, request.getTechnicianIds().size());
         
+        if (shiftIntervalIndexService.covers(request.getStartTime())) {
+            return checkTechnicianAvailabilityWithIndex(request);
+        }
+        
+        // Index chưa sẵn sàng / khoảng thời gian quá cũ -> 1 query cho cả danh sách: mỗi technician kèm ca trùng sớm nhất (nếu có)
+        Map<UUID, Object[]> firstRowByTechnician = new HashMap<>();
+        for (Object[] row : shiftRepository.findTechnicianConflicts(
+                request.getTechnicianIds(),
+                request.getStartTime(),
+                request.getEndTime(),
+                request.getExcludeShiftId())) {
+            firstRowByTechnician.putIfAbsent((UUID) row[0], row);
+        }
+        
         List<TechnicianAvailabilityResponse> results = new ArrayList<>();
         
         for (UUID technicianId : request.getTechnicianIds()) {
-            UserEntity technician = userRepository.findByUserIdAndIsDeletedFalse(technicianId);
+            Object[] row = firstRowByTechnician.get(technicianId);
             
-            if (technician == null) {
+            if (row == null) {
                 results.add(TechnicianAvailabilityResponse.builder()
                         .technicianId(technicianId)
                         .technicianName("Unknown")
@@ -407,32 +490,25 @@ public class ShiftServiceImpl implements ShiftService {
                 continue;
             }
             
-            // Tìm shifts trùng thời gian
-            List<ShiftEntity> conflictingShifts = shiftRepository.findConflictingShiftsByTechnician(
-                    technicianId,
-                    request.getStartTime(),
-                    request.getEndTime(),
-                    request.getExcludeShiftId()
-            );
+            String technicianName = row[1] != null ? (String) row[1] : (String) row[2];
             
-            if (conflictingShifts.isEmpty()) {
+            if (row[3] == null) {
                 // Available
                 results.add(TechnicianAvailabilityResponse.builder()
                         .technicianId(technicianId)
-                        .technicianName(technician.getFullName() != null ? technician.getFullName() : technician.getUsername())
+                        .technicianName(technicianName)
                         .isAvailable(true)
                         .build());
             } else {
                 // Not available - có shift trùng
-                ShiftEntity conflictShift = conflictingShifts.getFirst();
                 results.add(TechnicianAvailabilityResponse.builder()
                         .technicianId(technicianId)
-                        .technicianName(technician.getFullName() != null ? technician.getFullName() : technician.getUsername())
+                        .technicianName(technicianName)
                         .isAvailable(false)
                         .reason(ShiftConstants.MESSAGE_TECHNICIAN_NOT_AVAILABLE)
-                        .conflictShiftId(conflictShift.getShiftId())
-                        .conflictStartTime(conflictShift.getStartTime())
-                        .conflictEndTime(conflictShift.getEndTime())
+                        .conflictShiftId((UUID) row[3])
+                        .conflictStartTime((LocalDateTime) row[4])
+                        .conflictEndTime((LocalDateTime) row[5])
                         .build());
             }
         }
@@ -447,31 +523,107 @@ public class ShiftServiceImpl implements ShiftService {
             UUID excludeShiftId) {
         log.info(ShiftConstants.LOG_INFO_GETTING_AVAILABLE_TECHNICIANS, startTime, endTime);
         
-        // 1. Lấy tất cả technicians
-        List<UserEntity> allTechnicians = userRepository.findByRoleNameAndIsDeletedFalse(
-                RoleEnum.TECHNICIAN
+        if (shiftIntervalIndexService.covers(startTime)) {
+            return userRepository.findByRoleNameAndIsDeletedFalse(RoleEnum.TECHNICIAN).stream()
+                    .filter(technician -> shiftIntervalIndexService.findFirstConflict(
+                            technician.getUserId(), startTime, endTime, excludeShiftId).isEmpty())
+                    .map(userMapper::toResponse)
+                    .collect(Collectors.toList());
+        }
+        
+        // Lọc technician rảnh ngay trong DB (NOT EXISTS), không kiểm tra từng người
+        List<UserEntity> availableTechnicians = userRepository.findAvailableTechnicians(
+                startTime,
+                endTime,
+                excludeShiftId
         );
         
-        // 2. Filter chỉ lấy available technicians
-        List<UserEntity> availableTechnicians = new ArrayList<>();
+        return availableTechnicians.stream()
+                .map(userMapper::toResponse)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public LocalDateTime findNextAvailableSlot(UUID technicianId, LocalDateTime after, int durationMinutes) {
+        log.info(ShiftConstants.LOG_INFO_FINDING_NEXT_AVAILABLE_SLOT, technicianId, after, durationMinutes);
         
-        for (UserEntity technician : allTechnicians) {
-            List<ShiftEntity> conflictingShifts = shiftRepository.findConflictingShiftsByTechnician(
-                    technician.getUserId(),
-                    startTime,
-                    endTime,
-                    excludeShiftId
-            );
-            
-            if (conflictingShifts.isEmpty()) {
-                availableTechnicians.add(technician);
+        if (durationMinutes <= 0) {
+            log.warn(ShiftConstants.LOG_WARN_INVALID_SLOT_DURATION, durationMinutes);
+            throw new EntityValidationException(ShiftConstants.MESSAGE_ERR_INVALID_SLOT_DURATION);
+        }
+        if (userRepository.findByUserIdAndIsDeletedFalse(technicianId) == null) {
+            log.warn(ShiftConstants.LOG_ERR_TECHNICIAN_NOT_FOUND, technicianId);
+            throw new ResourceNotFoundException(ShiftConstants.MESSAGE_TECHNICIAN_NOT_FOUND);
+        }
+        
+        LocalDateTime candidate = after != null ? after : LocalDateTime.now();
+        Duration duration = Duration.ofMinutes(durationMinutes);
+        if (shiftIntervalIndexService.covers(candidate)) {
+            return shiftIntervalIndexService.findFirstFreeSlot(technicianId, candidate, duration);
+        }
+        
+        // Fallback khi index chưa sẵn sàng: nhảy qua từng ca trùng bằng query DB
+        List<ShiftEntity> conflictingShifts;
+        while (!(conflictingShifts = shiftRepository.findConflictingShiftsByTechnician(
+                technicianId, candidate, candidate.plus(duration), null)).isEmpty()) {
+            LocalDateTime busyUntil = candidate;
+            for (ShiftEntity shift : conflictingShifts) {
+                LocalDateTime shiftBusyUntil = shift.getEndTime() != null ? shift.getEndTime() : shift.getStartTime();
+                if (shiftBusyUntil.isAfter(busyUntil)) {
+                    busyUntil = shiftBusyUntil;
+                }
+            }
+            candidate = busyUntil.plusMinutes(1);
+        }
+        return candidate;
+    }
+
+    private List<TechnicianAvailabilityResponse> checkTechnicianAvailabilityWithIndex(
+            CheckTechnicianAvailabilityRequest request) {
+        // Chỉ cần 1 query lấy tên technician, kiểm tra trùng lịch bằng index trong bộ nhớ
+        Map<UUID, UserEntity> technicians = new HashMap<>();
+        for (UserEntity technician : userRepository.findAllById(request.getTechnicianIds())) {
+            if (!Boolean.TRUE.equals(technician.getIsDeleted())) {
+                technicians.put(technician.getUserId(), technician);
             }
         }
         
-        // 3. Convert to UserResponse
-        return availableTechnicians.stream()
-                .map(userMapper::toResponse)
-                .collect(Collectors.toList());
+        List<TechnicianAvailabilityResponse> results = new ArrayList<>();
+        for (UUID technicianId : request.getTechnicianIds()) {
+            UserEntity technician = technicians.get(technicianId);
+            if (technician == null) {
+                results.add(TechnicianAvailabilityResponse.builder()
+                        .technicianId(technicianId)
+                        .technicianName("Unknown")
+                        .isAvailable(false)
+                        .reason(ShiftConstants.MESSAGE_TECHNICIAN_NOT_FOUND)
+                        .build());
+                continue;
+            }
+            
+            String technicianName = technician.getFullName() != null ? technician.getFullName() : technician.getUsername();
+            Optional<ShiftIntervalIndexService.ShiftInterval> conflict = shiftIntervalIndexService.findFirstConflict(
+                    technicianId, request.getStartTime(), request.getEndTime(), request.getExcludeShiftId());
+            
+            if (conflict.isEmpty()) {
+                results.add(TechnicianAvailabilityResponse.builder()
+                        .technicianId(technicianId)
+                        .technicianName(technicianName)
+                        .isAvailable(true)
+                        .build());
+            } else {
+                results.add(TechnicianAvailabilityResponse.builder()
+                        .technicianId(technicianId)
+                        .technicianName(technicianName)
+                        .isAvailable(false)
+                        .reason(ShiftConstants.MESSAGE_TECHNICIAN_NOT_AVAILABLE)
+                        .conflictShiftId(conflict.get().shiftId())
+                        .conflictStartTime(conflict.get().startTime())
+                        .conflictEndTime(conflict.get().endTime())
+                        .build());
+            }
+        }
+        return results;
     }
 
     @Override
@@ -554,6 +706,7 @@ public class ShiftServiceImpl implements ShiftService {
         shift.setTotalHours(calculateTotalHours(shift.getStartTime(), shift.getEndTime()));
         shift.setSearch(buildSearchString(shift));
         shiftRepository.save(shift);
+        eventPublisher.publishEvent(new ShiftScheduleChangedEvent(this, shift.getShiftId(), shift.getStartTime(), shift.getEndTime()));
         
         log.info(ShiftConstants.LOG_INFO_CALCULATED_TOTAL_HOURS, shift.getTotalHours());
     }
@@ -594,35 +747,24 @@ public class ShiftServiceImpl implements ShiftService {
         LocalDateTime now = LocalDateTime.now();
         
         try {
+            // Mỗi bước là 1 câu UPDATE ... RETURNING trong database, không load entity vào bộ nhớ
             // 1. Update PENDING_ASSIGNMENT → LATE_ASSIGNMENT (quá giờ chưa phân công)
-            List<ShiftEntity> shiftsWithLateAssignment = shiftRepository.findShiftsWithLateAssignment(now);
-            log.info(ShiftConstants.LOG_INFO_FOUND_SHIFTS_LATE_ASSIGNMENT, shiftsWithLateAssignment.size());
-            
-            for (ShiftEntity shift : shiftsWithLateAssignment) {
-                shift.setStatus(ShiftStatusEnum.LATE_ASSIGNMENT);
-                shiftRepository.save(shift);
-                log.info(ShiftConstants.LOG_INFO_UPDATED_SHIFT_TO_LATE_ASSIGNMENT, shift.getShiftId());
-            }
+            List<UUID> lateAssignmentShiftIds = shiftRepository.markShiftsWithLateAssignment(now);
+            log.info(ShiftConstants.LOG_INFO_FOUND_SHIFTS_LATE_ASSIGNMENT, lateAssignmentShiftIds.size());
+            lateAssignmentShiftIds.forEach(shiftId ->
+                    log.info(ShiftConstants.LOG_INFO_UPDATED_SHIFT_TO_LATE_ASSIGNMENT, shiftId));
             
             // 2. Update SCHEDULED → IN_PROGRESS
-            List<ShiftEntity> shiftsToStart = shiftRepository.findShiftsToStartNow(now);
-            log.info(ShiftConstants.LOG_INFO_FOUND_SHIFTS_TO_START, shiftsToStart.size());
-            
-            for (ShiftEntity shift : shiftsToStart) {
-                shift.setStatus(ShiftStatusEnum.IN_PROGRESS);
-                shiftRepository.save(shift);
-                log.info(ShiftConstants.LOG_INFO_UPDATED_SHIFT_TO_IN_PROGRESS, shift.getShiftId());
-            }
+            List<UUID> startedShiftIds = shiftRepository.startShiftsDueBy(now);
+            log.info(ShiftConstants.LOG_INFO_FOUND_SHIFTS_TO_START, startedShiftIds.size());
+            startedShiftIds.forEach(shiftId ->
+                    log.info(ShiftConstants.LOG_INFO_UPDATED_SHIFT_TO_IN_PROGRESS, shiftId));
             
             // 3. Update IN_PROGRESS → COMPLETED
-            List<ShiftEntity> shiftsToComplete = shiftRepository.findShiftsToCompleteNow(now);
-            log.info(ShiftConstants.LOG_INFO_FOUND_SHIFTS_TO_COMPLETE, shiftsToComplete.size());
-            
-            for (ShiftEntity shift : shiftsToComplete) {
-                shift.setStatus(ShiftStatusEnum.COMPLETED);
-                shiftRepository.save(shift);
-                log.info(ShiftConstants.LOG_INFO_UPDATED_SHIFT_TO_COMPLETED, shift.getShiftId());
-            }
+            List<UUID> completedShiftIds = shiftRepository.completeShiftsDueBy(now);
+            log.info(ShiftConstants.LOG_INFO_FOUND_SHIFTS_TO_COMPLETE, completedShiftIds.size());
+            completedShiftIds.forEach(shiftId ->
+                    log.info(ShiftConstants.LOG_INFO_UPDATED_SHIFT_TO_COMPLETED, shiftId));
             
             log.info(ShiftConstants.LOG_INFO_SCHEDULER_COMPLETED);
         } catch (Exception e) {
@@ -11,6 +11,7 @@ import com.fpt.evcare.exception.InvalidCredentialsException;
 import com.fpt.evcare.exception.ResourceNotFoundException;
 import com.fpt.evcare.mapper.UserMapper;
 import com.fpt.evcare.repository.UserRepository;
+import com.fpt.evcare.service.AccessTokenRegistryService;
 import com.fpt.evcare.service.RedisService;
 import com.fpt.evcare.service.TokenService;
 import com.nimbusds.jose.*;
@@ -42,11 +43,13 @@ public class TokenServiceImpl implements TokenService {
     CustomJWTDecode customJWTDecode;
     UserRepository userRepository;
     UserMapper userMapper;
+    AccessTokenRegistryService accessTokenRegistryService;
 
 
     @Override
     public void saveAccessToken(UUID userId, String token, long durationSeconds) {
         redisService.save(TokenConstants.ACCESS_PREFIX + userId, token, durationSeconds, TimeUnit.SECONDS);
+        accessTokenRegistryService.accessTokenIssued(userId, token);
     }
 
     @Override
@@ -67,8 +70,8 @@ public class TokenServiceImpl implements TokenService {
 
     @Override
     public boolean validateAccessTokenInRedis(UUID userId, String token) {
-        String stored = getAccessToken(userId);
-        return stored != null && stored.equals(token);
+        // Đọc từ bộ nhớ, chỉ gọi Redis khi instance này chưa biết token hiện tại của user
+        return accessTokenRegistryService.isCurrentAccessToken(userId, token);
     }
 
     @Override
@@ -81,6 +84,7 @@ public class TokenServiceImpl implements TokenService {
     public void removeTokens(UUID userId) {
         redisService.delete(TokenConstants.ACCESS_PREFIX + userId);
         redisService.delete(TokenConstants.REFRESH_PREFIX + userId);
+        accessTokenRegistryService.tokensRemoved(userId);
     }
 
     @Override
@@ -159,9 +163,8 @@ public class TokenServiceImpl implements TokenService {
             // Lấy userId từ token
             UUID userId = UUID.fromString(signedJWT.getJWTClaimsSet().getSubject());
 
-            // Kiểm tra trong Redis
-            String redisToken = redisService.getValue(TokenConstants.ACCESS_PREFIX + userId);
-            boolean inRedis = redisToken != null && redisToken.equals(tokenRequest.getToken());
+            // Kiểm tra token còn là access token hiện tại của user (bộ nhớ, fallback Redis)
+            boolean inRedis = accessTokenRegistryService.isCurrentAccessToken(userId, tokenRequest.getToken());
 
             boolean isValid = signatureValid && notExpired && inRedis;
 
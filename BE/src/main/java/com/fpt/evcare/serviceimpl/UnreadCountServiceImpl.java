@@ -0,0 +1,245 @@
+package com.fpt.evcare.serviceimpl;
+
+import com.fpt.evcare.constants.MessageConstants;
+import com.fpt.evcare.dto.response.UnreadCountResponse;
+import com.fpt.evcare.repository.MessageRepository;
+import com.fpt.evcare.service.UnreadCountService;
+import com.fpt.evcare.service.WebSocketDeliveryService;
+import com.fpt.evcare.service.WebSocketPresenceService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Bộ đếm tin nhắn chưa đọc trong Redis thay cho COUNT trên bảng messages mỗi lần client hỏi badge
+ * - Hash chat:unread:{userId}: field = otherUserId, value = số tin chưa đọc từ người đó; tổng = cộng các field
+ * - Gửi: +1, đọc/xóa: trừ (không xuống dưới 0) bằng Lua script nên mỗi lần cập nhật là nguyên tử
+ * - Hash chưa có (chưa ai hỏi hoặc đã hết hạn) thì không cộng/trừ mò: lần đọc kế tiếp nạp lại từ Postgres,
+ *   chỉ ghi khi hash vẫn chưa có để không đè lên số đã được cộng/trừ trong lúc đang đọc Postgres
+ * - Mỗi thay đổi được đẩy qua /user/queue/unread-count, job định kỳ đối chiếu lại với Postgres
+ */
+@Slf4j
+@Service
+@SuppressWarnings("rawtypes")
+public class UnreadCountServiceImpl implements UnreadCountService {
+
+    private static final String KEY_PREFIX = "chat:unread:";
+    // Luôn có trong hash (hash không bao giờ rỗng = đã nạp), tăng sau mỗi lần thay đổi
+    private static final String VERSION_FIELD = "version";
+    // Chỉ giữ bản mới nhất trong hàng đợi WebSocket của user: payload luôn là toàn bộ số đếm
+    private static final String COALESCE_KEY = "unread";
+
+    // KEYS[1] = hash, ARGV = otherUserId, delta, ttl (ms); trả về nil nếu hash chưa được nạp
+    private static final RedisScript<List> ADJUST_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 0 then return nil end
+            local count = tonumber(redis.call('HGET', KEYS[1], ARGV[1]) or '0') + tonumber(ARGV[2])
+            if count > 0 then
+                redis.call('HSET', KEYS[1], ARGV[1], count)
+            else
+                redis.call('HDEL', KEYS[1], ARGV[1])
+            end
+            redis.call('HINCRBY', KEYS[1], 'version', 1)
+            redis.call('PEXPIRE', KEYS[1], ARGV[3])
+            return redis.call('HGETALL', KEYS[1])
+            """, List.class);
+
+    // KEYS[1] = hash, ARGV = ttl (ms), rồi từng cặp otherUserId, count; thay toàn bộ số đếm, version vẫn tăng tiếp
+    private static final RedisScript<List> REPLACE_SCRIPT = new DefaultRedisScript<>("""
+            local version = tonumber(redis.call('HGET', KEYS[1], 'version') or '0') + 1
+            redis.call('DEL', KEYS[1])
+            redis.call('HSET', KEYS[1], 'version', version)
+            for i = 2, #ARGV, 2 do
+                redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1])
+            end
+            redis.call('PEXPIRE', KEYS[1], ARGV[1])
+            return redis.call('HGETALL', KEYS[1])
+            """, List.class);
+
+    // Như REPLACE_SCRIPT nhưng chỉ ghi khi hash chưa có; đã có (người khác nạp trước, ADJUST đã chạy) thì trả về hash hiện tại
+    private static final RedisScript<List> LOAD_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 1 then return redis.call('HGETALL', KEYS[1]) end
+            redis.call('HSET', KEYS[1], 'version', 1)
+            for i = 2, #ARGV, 2 do
+                redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1])
+            end
+            redis.call('PEXPIRE', KEYS[1], ARGV[1])
+            return redis.call('HGETALL', KEYS[1])
+            """, List.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final MessageRepository messageRepository;
+    private final WebSocketDeliveryService webSocketDeliveryService;
+    private final WebSocketPresenceService webSocketPresenceService;
+    private final Duration ttl;
+    private final int reconcileBatchSize;
+
+    public UnreadCountServiceImpl(StringRedisTemplate stringRedisTemplate,
+                                  MessageRepository messageRepository,
+                                  WebSocketDeliveryService webSocketDeliveryService,
+                                  WebSocketPresenceService webSocketPresenceService,
+                                  @Value("${websocket.unread.ttl:24h}") Duration ttl,
+                                  @Value("${websocket.unread.reconcile-batch-size:500}") int reconcileBatchSize) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.messageRepository = messageRepository;
+        this.webSocketDeliveryService = webSocketDeliveryService;
+        this.webSocketPresenceService = webSocketPresenceService;
+        this.ttl = ttl;
+        this.reconcileBatchSize = Math.max(reconcileBatchSize, 1);
+    }
+
+    @Override
+    public long countUnread(UUID userId) {
+        return getUnreadCounts(userId).getTotalUnread();
+    }
+
+    @Override
+    public UnreadCountResponse getUnreadCounts(UUID userId) {
+        try {
+            Map<Object, Object> entries = stringRedisTemplate.opsForHash().entries(KEY_PREFIX + userId);
+            if (!entries.isEmpty()) {
+                return toResponse(userId, entries);
+            }
+            return write(LOAD_SCRIPT, userId, loadFromDatabase(List.of(userId)).getOrDefault(userId, Map.of()));
+        } catch (Exception e) {
+            // Redis lỗi: vẫn trả số đúng từ Postgres
+            log.warn(MessageConstants.LOG_WARN_CANNOT_READ_UNREAD_COUNT, userId, e.getMessage());
+            Map<UUID, Long> conversations = loadFromDatabase(List.of(userId)).getOrDefault(userId, Map.of());
+            return UnreadCountResponse.builder()
+                    .userId(userId)
+                    .totalUnread(conversations.values().stream().mapToLong(Long::longValue).sum())
+                    .conversations(conversations)
+                    .build();
+        }
+    }
+
+    @Override
+    public void messagesReceived(UUID receiverId, UUID senderId, int count) {
+        adjust(receiverId, senderId, count);
+    }
+
+    @Override
+    public void messagesRead(UUID readerId, UUID senderId, int count) {
+        adjust(readerId, senderId, -count);
+    }
+
+    @Override
+    public void pushUnreadCounts(UUID userId) {
+        push(getUnreadCounts(userId));
+    }
+
+    @Override
+    public int reconcileConnectedUsers() {
+        List<UUID> userIds = new ArrayList<>(webSocketPresenceService.findLocallyConnected());
+        int corrected = 0;
+        for (int from = 0; from < userIds.size(); from += reconcileBatchSize) {
+            corrected += reconcile(userIds.subList(from, Math.min(from + reconcileBatchSize, userIds.size())));
+        }
+        if (corrected > 0) {
+            log.info(MessageConstants.LOG_INFO_RECONCILED_UNREAD_COUNTS, corrected, userIds.size());
+        }
+        return corrected;
+    }
+
+    private int reconcile(List<UUID> userIds) {
+        // Đọc Redis trước Postgres: tin gửi xen giữa 2 lần đọc làm lệch theo hướng Postgres nhiều hơn, ghi đè vẫn đúng
+        List<Object> current = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            userIds.forEach(userId -> stringConnection.hGetAll(KEY_PREFIX + userId));
+            return null;
+        });
+        Map<UUID, Map<UUID, Long>> expected = loadFromDatabase(userIds);
+
+        int corrected = 0;
+        for (int i = 0; i < userIds.size(); i++) {
+            UUID userId = userIds.get(i);
+            Map<UUID, Long> conversations = expected.getOrDefault(userId, Map.of());
+            Object entries = current.get(i);
+            if (entries instanceof Map<?, ?> map && !map.isEmpty()
+                    && toResponse(userId, map).getConversations().equals(conversations)) {
+                continue;
+            }
+            push(write(REPLACE_SCRIPT, userId, conversations));
+            corrected++;
+        }
+        return corrected;
+    }
+
+    private void adjust(UUID userId, UUID otherUserId, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        try {
+            List<?> entries = stringRedisTemplate.execute(ADJUST_SCRIPT, List.of(KEY_PREFIX + userId),
+                    otherUserId.toString(), String.valueOf(delta), String.valueOf(ttl.toMillis()));
+            if (entries != null && !entries.isEmpty()) {
+                push(toResponse(userId, entries));
+            }
+        } catch (Exception e) {
+            // Job đối chiếu sẽ sửa lại số đếm
+            log.warn(MessageConstants.LOG_WARN_CANNOT_UPDATE_UNREAD_COUNT, userId, e.getMessage());
+        }
+    }
+
+    private UnreadCountResponse write(RedisScript<List> script, UUID userId, Map<UUID, Long> conversations) {
+        List<String> args = new ArrayList<>();
+        args.add(String.valueOf(ttl.toMillis()));
+        conversations.forEach((otherUserId, count) -> {
+            args.add(otherUserId.toString());
+            args.add(String.valueOf(count));
+        });
+        List<?> entries = stringRedisTemplate.execute(script, List.of(KEY_PREFIX + userId), args.toArray());
+        return toResponse(userId, entries);
+    }
+
+    private void push(UnreadCountResponse counts) {
+        webSocketDeliveryService.sendCoalesced(counts.getUserId(), MessageConstants.WS_TOPIC_USER_UNREAD_COUNT,
+                COALESCE_KEY, counts);
+    }
+
+    private Map<UUID, Map<UUID, Long>> loadFromDatabase(Collection<UUID> receiverIds) {
+        Map<UUID, Map<UUID, Long>> counts = new HashMap<>();
+        for (Object[] row : messageRepository.countUnreadBySender(receiverIds)) {
+            counts.computeIfAbsent((UUID) row[0], id -> new HashMap<>()).put((UUID) row[1], ((Number) row[2]).longValue());
+        }
+        return counts;
+    }
+
+    // HGETALL qua Lua trả về danh sách phẳng [field, value, ...]
+    private UnreadCountResponse toResponse(UUID userId, List<?> flatEntries) {
+        Map<Object, Object> entries = new HashMap<>();
+        for (int i = 0; i + 1 < flatEntries.size(); i += 2) {
+            entries.put(flatEntries.get(i), flatEntries.get(i + 1));
+        }
+        return toResponse(userId, entries);
+    }
+
+    private UnreadCountResponse toResponse(UUID userId, Map<?, ?> entries) {
+        Map<UUID, Long> conversations = new HashMap<>();
+        long version = 0;
+        long total = 0;
+        for (Map.Entry<?, ?> entry : entries.entrySet()) {
+            String field = String.valueOf(entry.getKey());
+            long value = Long.parseLong(String.valueOf(entry.getValue()));
+            if (VERSION_FIELD.equals(field)) {
+                version = value;
+            } else {
+                conversations.put(UUID.fromString(field), value);
+                total += value;
+            }
+        }
+        return UnreadCountResponse.builder()
+                .userId(userId)
+                .totalUnread(total)
+                .conversations(conversations)
+                .version(version)
+                .build();
+    }
+}
@@ -75,7 +75,7 @@ public class UserServiceImpl implements UserService {
         if (keyword == null || keyword.trim().isEmpty()) {
             usersPage = userRepository.findByIsDeletedFalse(pageable);
         } else {
-            usersPage = userRepository.findBySearchContainingIgnoreCaseAndIsDeletedFalse(keyword.trim(), pageable);
+            usersPage = userRepository.searchByKeywordAndIsDeletedFalse(keyword.trim(), pageable);
         }
 
         if (usersPage.isEmpty()) {
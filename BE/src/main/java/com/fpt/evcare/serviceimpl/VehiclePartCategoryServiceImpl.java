@@ -1,5 +1,6 @@
 package com.fpt.evcare.serviceimpl;
 
+import com.fpt.evcare.constants.CacheConstants;
 import com.fpt.evcare.constants.VehiclePartCategoryConstants;
 import com.fpt.evcare.dto.request.vehicle_part_category.CreationVehiclePartCategoryRequest;
 import com.fpt.evcare.dto.request.vehicle_part_category.UpdationVehiclePartCategoryRequest;
@@ -17,6 +18,9 @@ import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -37,6 +41,7 @@ public class VehiclePartCategoryServiceImpl implements VehiclePartCategoryServic
     VehiclePartCategoryMapper vehiclePartCategoryMapper;
 
     @Override
+    @Cacheable(cacheNames = CacheConstants.VEHICLE_PART_CATEGORIES)
     public VehiclePartCategoryResponse getVehiclePartCategoryById(UUID id) {
         VehiclePartCategoryEntity vehiclePartCategoryEntity = vehiclePartCategoryRepository.findByVehiclePartCategoryIdAndIsDeletedFalse(id);
 
@@ -62,6 +67,7 @@ public class VehiclePartCategoryServiceImpl implements VehiclePartCategoryServic
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConstants.VEHICLE_PART_CATEGORY_LISTS, key = CacheConstants.KEY_ALL)
     public List<VehiclePartCategoryResponse> getvehiclePartCategoryResponseList(){
         List<VehiclePartCategoryEntity> vehiclePartCategoryEntities = vehiclePartCategoryRepository.findAllByIsDeletedFalse();
         if(vehiclePartCategoryEntities == null) {
@@ -93,7 +99,7 @@ public class VehiclePartCategoryServiceImpl implements VehiclePartCategoryServic
         if(keyword == null) {
             vehiclePartCategoryEntityPage = vehiclePartCategoryRepository.findAllByIsDeletedFalse(pageable);
         } else {
-            vehiclePartCategoryEntityPage = vehiclePartCategoryRepository.findBySearchContainingIgnoreCaseAndIsDeletedFalse(keyword, pageable);
+            vehiclePartCategoryEntityPage = vehiclePartCategoryRepository.searchByKeywordAndIsDeletedFalse(keyword, pageable);
         }
 
         if (vehiclePartCategoryEntityPage.isEmpty()) {
@@ -128,6 +134,7 @@ public class VehiclePartCategoryServiceImpl implements VehiclePartCategoryServic
 
     @Override
     @Transactional
+    @CacheEvict(cacheNames = CacheConstants.VEHICLE_PART_CATEGORY_LISTS, allEntries = true)
     public boolean createVehiclePartCategory(CreationVehiclePartCategoryRequest creationVehiclePartCategoryRequest) {
         checkDuplicatePartCategoryName(creationVehiclePartCategoryRequest.getPartCategoryName());
         VehiclePartCategoryEntity vehiclePartCategoryEntity = vehiclePartCategoryMapper.toEntity(creationVehiclePartCategoryRequest);
@@ -141,6 +148,10 @@ public class VehiclePartCategoryServiceImpl implements VehiclePartCategoryServic
 
     @Override
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConstants.VEHICLE_PART_CATEGORIES, key = "#id"),
+            @CacheEvict(cacheNames = CacheConstants.VEHICLE_PART_CATEGORY_LISTS, allEntries = true)
+    })
     public boolean updateVehiclePartCategory(UUID id, UpdationVehiclePartCategoryRequest updationVehiclePartCategoryRequest) {
         VehiclePartCategoryEntity vehiclePartCategoryEntity = vehiclePartCategoryRepository.findByVehiclePartCategoryIdAndIsDeletedFalse(id);
 
@@ -166,6 +177,10 @@ public class VehiclePartCategoryServiceImpl implements VehiclePartCategoryServic
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConstants.VEHICLE_PART_CATEGORIES, key = "#id"),
+            @CacheEvict(cacheNames = CacheConstants.VEHICLE_PART_CATEGORY_LISTS, allEntries = true)
+    })
     public boolean deleteVehiclePartCategory(UUID id) {
         VehiclePartCategoryEntity vehiclePartCategoryEntity = vehiclePartCategoryRepository.findByVehiclePartCategoryIdAndIsDeletedFalse(id);
 
@@ -184,6 +199,10 @@ public class VehiclePartCategoryServiceImpl implements VehiclePartCategoryServic
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConstants.VEHICLE_PART_CATEGORIES, key = "#id"),
+            @CacheEvict(cacheNames = CacheConstants.VEHICLE_PART_CATEGORY_LISTS, allEntries = true)
+    })
     public boolean restoreVehiclePartCategory(UUID id) {
         VehiclePartCategoryEntity vehiclePartCategoryEntity = vehiclePartCategoryRepository.findById(id).orElseThrow(() -> {
             log.warn(VehiclePartCategoryConstants.LOG_ERR_VEHICLE_PART_CATEGORY_NOT_FOUND);
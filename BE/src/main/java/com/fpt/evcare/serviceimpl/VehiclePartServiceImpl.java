@@ -1,5 +1,6 @@
 package com.fpt.evcare.serviceimpl;
 
+import com.fpt.evcare.constants.CacheConstants;
 import com.fpt.evcare.constants.*;
 import com.fpt.evcare.dto.request.vehicle_part.CreationVehiclePartRequest;
 import com.fpt.evcare.dto.request.vehicle_part.UpdationVehiclePartRequest;
@@ -9,6 +10,7 @@ import com.fpt.evcare.dto.response.VehiclePartResponse;
 import com.fpt.evcare.dto.response.VehicleTypeResponse;
 import com.fpt.evcare.entity.*;
 import com.fpt.evcare.enums.VehiclePartStatusEnum;
+import com.fpt.evcare.event.ServiceTypeTreeChangedEvent;
 import com.fpt.evcare.exception.EntityValidationException;
 import com.fpt.evcare.exception.ResourceNotFoundException;
 import com.fpt.evcare.exception.VehiclePartValidationException;
@@ -25,6 +27,8 @@ import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -52,6 +56,7 @@ public class VehiclePartServiceImpl implements VehiclePartService {
     VehiclePartCategoryMapper vehiclePartCategoryMapper;
     ServiceTypeVehiclePartRepository serviceTypeVehiclePartRepository;
     WarrantyPartRepository warrantyPartRepository;
+    ApplicationEventPublisher eventPublisher;
 
     @Override
     public VehiclePartResponse getVehiclePart(UUID vehiclePartId) {
@@ -247,6 +252,7 @@ public class VehiclePartServiceImpl implements VehiclePartService {
 
     @Override
     @Transactional
+    @CacheEvict(cacheNames = {CacheConstants.VEHICLE_PART_CATEGORIES, CacheConstants.VEHICLE_PART_CATEGORY_LISTS}, allEntries = true)
     public boolean addVehiclePart(CreationVehiclePartRequest creationVehiclePartRequest) {
         checkDuplicatedPartName(creationVehiclePartRequest.getVehiclePartName());
         VehiclePartEntity vehiclePart = vehiclePartMapper.toEntity(creationVehiclePartRequest);
@@ -283,6 +289,7 @@ public class VehiclePartServiceImpl implements VehiclePartService {
     @Override
     @Transactional
 
+    @CacheEvict(cacheNames = {CacheConstants.VEHICLE_PART_CATEGORIES, CacheConstants.VEHICLE_PART_CATEGORY_LISTS}, allEntries = true)
     public boolean updateVehiclePart(UUID id, UpdationVehiclePartRequest updationVehiclePartRequest) {
         checkDependOnAppointmentByVehiclePartId(id);
 
@@ -323,11 +330,14 @@ public class VehiclePartServiceImpl implements VehiclePartService {
         log.info(VehiclePartConstants.LOG_INFO_UPDATING_VEHICLE_PART + updationVehiclePartRequest.getVehiclePartName());
         vehiclePartMapper.toUpdate(vehiclePart, updationVehiclePartRequest);
         vehiclePartRepository.save(vehiclePart);
+        // Đơn giá thay đổi -> giá ước tính trong cây dịch vụ của loại xe thay đổi
+        eventPublisher.publishEvent(new ServiceTypeTreeChangedEvent(this, vehicleTypeEntity.getVehicleTypeId()));
         return true;
     }
 
     @Override
     @Transactional
+    @CacheEvict(cacheNames = {CacheConstants.VEHICLE_PART_CATEGORIES, CacheConstants.VEHICLE_PART_CATEGORY_LISTS}, allEntries = true)
     public boolean deleteVehiclePart(UUID id) {
         VehiclePartEntity vehiclePartEntity = vehiclePartRepository.findVehiclePartEntityByVehiclePartIdAndIsDeletedFalse(id);
         if(vehiclePartEntity == null) {
@@ -350,12 +360,14 @@ public class VehiclePartServiceImpl implements VehiclePartService {
                     warrantyPartRepository.save(warrantyPart);
                     log.info("✅ Đã xóa mềm warranty part {} cho vehicle part {}", warrantyPart.getWarrantyPartId(), id);
                 });
+        eventPublisher.publishEvent(new ServiceTypeTreeChangedEvent(this, vehiclePartEntity.getVehicleType().getVehicleTypeId()));
 
         return true;
     }
 
     @Override
     @Transactional
+    @CacheEvict(cacheNames = {CacheConstants.VEHICLE_PART_CATEGORIES, CacheConstants.VEHICLE_PART_CATEGORY_LISTS}, allEntries = true)
     public boolean restoreVehiclePart(UUID uuid) {
         VehiclePartEntity vehiclePartEntity = vehiclePartRepository.findVehiclePartEntityByVehiclePartIdAndIsDeletedTrue(uuid);
         if(vehiclePartEntity == null) {
@@ -375,12 +387,14 @@ public class VehiclePartServiceImpl implements VehiclePartService {
                     warrantyPartRepository.save(warrantyPart);
                     log.info("✅ Đã khôi phục warranty part {} cho vehicle part {}", warrantyPart.getWarrantyPartId(), uuid);
                 });
+        eventPublisher.publishEvent(new ServiceTypeTreeChangedEvent(this, vehiclePartEntity.getVehicleType().getVehicleTypeId()));
 
         return true;
     }
 
     @Override
     @Transactional
+    @CacheEvict(cacheNames = {CacheConstants.VEHICLE_PART_CATEGORIES, CacheConstants.VEHICLE_PART_CATEGORY_LISTS}, allEntries = true)
     public void subtractQuantity(UUID vehiclePartId, Integer quantityUsed){
         if(quantityUsed <= 0) {
             log.warn(VehiclePartConstants.LOG_ERR_NEGATIVE_QUANTITY + quantityUsed);
@@ -408,6 +422,7 @@ public class VehiclePartServiceImpl implements VehiclePartService {
 
     @Override
     @Transactional
+    @CacheEvict(cacheNames = {CacheConstants.VEHICLE_PART_CATEGORIES, CacheConstants.VEHICLE_PART_CATEGORY_LISTS}, allEntries = true)
     public void restoreQuantity(UUID vehiclePartId, Integer quantityToRestore) {
         if(quantityToRestore <= 0) {
             log.warn(VehiclePartConstants.LOG_ERR_NEGATIVE_QUANTITY + quantityToRestore);
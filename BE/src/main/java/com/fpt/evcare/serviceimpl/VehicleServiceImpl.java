@@ -64,11 +64,11 @@ public class VehicleServiceImpl implements VehicleService {
         }
         // Case 3: Chỉ có keyword, không có vehicleTypeId
         else if (keyword != null && vehicleTypeId == null) {
-            vehicleEntityPage = vehicleRepository.findBySearchContainingIgnoreCaseAndIsDeletedFalse(keyword, pageable);
+            vehicleEntityPage = vehicleRepository.searchByKeywordAndIsDeletedFalse(keyword, pageable);
         }
         // Case 4: Có cả keyword và vehicleTypeId
         else {
-            vehicleEntityPage = vehicleRepository.findBySearchContainingIgnoreCaseAndVehicleType_VehicleTypeIdAndIsDeletedFalse(keyword, vehicleTypeId, pageable);
+            vehicleEntityPage = vehicleRepository.searchByKeywordAndVehicleTypeIdAndIsDeletedFalse(keyword, vehicleTypeId, pageable);
         }
         
         if (vehicleEntityPage.isEmpty()) {
@@ -1,5 +1,6 @@
 package com.fpt.evcare.serviceimpl;
 
+import com.fpt.evcare.constants.CacheConstants;
 import com.fpt.evcare.constants.VehicleTypeConstants;
 import com.fpt.evcare.dto.request.vehicle_type.CreationVehicleTypeRequest;
 import com.fpt.evcare.dto.request.vehicle_type.UpdationVehicleTypeRequest;
@@ -17,6 +18,9 @@ import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -39,6 +43,7 @@ public class VehicleTypeServiceImpl implements VehicleTypeService {
 
     // Hàm lấy tên và id của loại xe
     @Override
+    @Cacheable(cacheNames = CacheConstants.VEHICLE_TYPE_LISTS, key = CacheConstants.KEY_ALL)
     public List<VehicleTypeResponse> getVehicleTypeNameList(){
         List<VehicleTypeEntity> vehicleTypeEntities = vehicleTypeRepository.findByIsDeletedFalse();
 
@@ -53,6 +58,7 @@ public class VehicleTypeServiceImpl implements VehicleTypeService {
 
     // Hàm show menu cho loại dịch vụ
     @Override
+    @Cacheable(cacheNames = CacheConstants.VEHICLE_TYPE_LISTS, key = CacheConstants.KEY_FOR_SERVICE_TYPE)
     public List<VehicleTypeResponse> getVehicleTypeNameListForServiceType(){
         List<VehicleTypeEntity> vehicleTypeEntities = vehicleTypeRepository.findByIsDeletedFalse();
         if(vehicleTypeEntities == null){
@@ -71,6 +77,7 @@ public class VehicleTypeServiceImpl implements VehicleTypeService {
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConstants.VEHICLE_TYPES)
     public VehicleTypeResponse getVehicleTypeById(UUID uuid) {
         VehicleTypeEntity vehicleTypeEntity = vehicleTypeRepository.findByVehicleTypeIdAndIsDeletedFalse(uuid);
         if(vehicleTypeEntity == null){
@@ -89,7 +96,7 @@ public class VehicleTypeServiceImpl implements VehicleTypeService {
         if(keyword == null){
             vehicleTypeEntityPage = vehicleTypeRepository.findAllByIsDeletedFalse(pageable);
         } else {
-            vehicleTypeEntityPage = vehicleTypeRepository.findBySearchContainingIgnoreCaseAndIsDeletedFalse(pageable, keyword);
+            vehicleTypeEntityPage = vehicleTypeRepository.searchByKeywordAndIsDeletedFalse(pageable, keyword);
         }
 
         if(vehicleTypeEntityPage.isEmpty()){
@@ -112,6 +119,7 @@ public class VehicleTypeServiceImpl implements VehicleTypeService {
 
     @Override
     @Transactional
+    @CacheEvict(cacheNames = CacheConstants.VEHICLE_TYPE_LISTS, allEntries = true)
     public boolean addVehicleType(CreationVehicleTypeRequest creationVehicleTypeRequest) {
         checkVehicleTypeExist(creationVehicleTypeRequest.getVehicleTypeName());
         VehicleTypeEntity vehicleType = vehicleTypeMapper.toEntity(creationVehicleTypeRequest);
@@ -125,6 +133,10 @@ public class VehicleTypeServiceImpl implements VehicleTypeService {
 
     @Override
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConstants.VEHICLE_TYPES, key = "#id"),
+            @CacheEvict(cacheNames = CacheConstants.VEHICLE_TYPE_LISTS, allEntries = true)
+    })
     public boolean updateVehicleType(UUID id, UpdationVehicleTypeRequest updationVehicleTypeRequest) {
         VehicleTypeEntity vehicleType = vehicleTypeRepository.findByVehicleTypeIdAndIsDeletedFalse(id);
 
@@ -160,6 +172,10 @@ public class VehicleTypeServiceImpl implements VehicleTypeService {
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConstants.VEHICLE_TYPES, key = "#id"),
+            @CacheEvict(cacheNames = CacheConstants.VEHICLE_TYPE_LISTS, allEntries = true)
+    })
     public boolean deleteVehicleType(UUID id) {
         VehicleTypeEntity existedVehicleType = vehicleTypeRepository.findByVehicleTypeIdAndIsDeletedFalse(id);
         if(existedVehicleType == null){
@@ -189,6 +205,10 @@ public class VehicleTypeServiceImpl implements VehicleTypeService {
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConstants.VEHICLE_TYPES, key = "#id"),
+            @CacheEvict(cacheNames = CacheConstants.VEHICLE_TYPE_LISTS, allEntries = true)
+    })
     public boolean restoreVehicleType(UUID id) {
         VehicleTypeEntity existedVehicleType = vehicleTypeRepository.findByVehicleTypeIdAndIsDeletedTrue(id);
         if(existedVehicleType == null){
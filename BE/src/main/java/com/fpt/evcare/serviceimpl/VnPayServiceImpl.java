@@ -10,16 +10,21 @@ import com.fpt.evcare.enums.InvoiceStatusEnum;
 import com.fpt.evcare.enums.MethodTypeEnum;
 import com.fpt.evcare.enums.PaymentGatewayEnum;
 import com.fpt.evcare.enums.PaymentTransactionStatusEnum;
+import com.fpt.evcare.event.AppointmentChangedEvent;
+import com.fpt.evcare.event.AppointmentStatusChangedEvent;
+import com.fpt.evcare.event.PaymentCompletedEvent;
 import com.fpt.evcare.repository.AppointmentRepository;
 import com.fpt.evcare.repository.InvoiceRepository;
 import com.fpt.evcare.repository.PaymentMethodRepository;
 import com.fpt.evcare.repository.PaymentTransactionRepository;
 import com.fpt.evcare.service.AppointmentService;
 import com.fpt.evcare.service.InvoiceService;
+import com.fpt.evcare.service.PricingService;
 import com.fpt.evcare.service.VnPayService;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -46,9 +51,10 @@ public class VnPayServiceImpl implements VnPayService {
     private final VnPayConfig vnPayConfig;
     private final com.fpt.evcare.repository.ShiftRepository shiftRepository;
     private final com.fpt.evcare.repository.MaintenanceManagementRepository maintenanceManagementRepository;
-    private final com.fpt.evcare.repository.WarrantyPartRepository warrantyPartRepository;
     private final com.fpt.evcare.repository.CustomerWarrantyPartRepository customerWarrantyPartRepository;
     private final com.fpt.evcare.repository.MaintenanceRecordRepository maintenanceRecordRepository;
+    private final PricingService pricingService;
+    private final ApplicationEventPublisher eventPublisher;
 
 
     @Override
@@ -242,9 +248,16 @@ public class VnPayServiceImpl implements VnPayService {
         
         // Tìm PaymentTransaction theo transactionReference
         PaymentTransactionEntity paymentTransaction = paymentTransactionRepository
-                .findByTransactionReference(transactionReference)
+                .findByTransactionReferenceForUpdate(transactionReference)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy payment transaction với transactionReference: " + transactionReference));
         
+        // VNPay gửi lại IPN và return URL cũng đi vào đây: giao dịch đã SUCCESS thì không xử lý (và không cộng doanh thu) lần nữa
+        PaymentTransactionStatusEnum previousTransactionStatus = paymentTransaction.getStatus();
+        if (previousTransactionStatus == PaymentTransactionStatusEnum.SUCCESS) {
+            log.info("Payment {} already processed as SUCCESS, ignoring repeated VNPay callback", transactionReference);
+            return transactionReference;
+        }
+        
         AppointmentEntity appointment = paymentTransaction.getAppointment();
         InvoiceEntity invoice = paymentTransaction.getInvoice();
         
@@ -268,6 +281,8 @@ public class VnPayServiceImpl implements VnPayService {
             // Payment successful
             paymentTransaction.setStatus(PaymentTransactionStatusEnum.SUCCESS);
             paymentTransactionRepository.save(paymentTransaction);
+            eventPublisher.publishEvent(new PaymentCompletedEvent(this, appointment.getAppointmentId(),
+                    paymentTransaction.getAmount(), appointment.getScheduledAt()));
             
             // ✅ Nếu totalAmount = 0, tự động thanh toán và completed appointment (không cần VNPay callback)
             if (invoice.getTotalAmount().compareTo(BigDecimal.ZERO) == 0) {
@@ -293,8 +308,12 @@ public class VnPayServiceImpl implements VnPayService {
                 log.info("✅ Invoice {} auto-marked as PAID via VNPay (totalAmount = 0)", invoice.getInvoiceId());
                 
                 // Cập nhật appointment sang COMPLETED
+                AppointmentStatusEnum previousStatus = appointment.getStatus();
                 appointment.setStatus(AppointmentStatusEnum.COMPLETED);
                 appointmentRepository.save(appointment);
+                eventPublisher.publishEvent(new AppointmentChangedEvent(this, appointment.getAppointmentId()));
+                eventPublisher.publishEvent(new AppointmentStatusChangedEvent(this, appointment.getAppointmentId(),
+                        previousStatus, AppointmentStatusEnum.COMPLETED, appointment.getScheduledAt()));
                 appointmentRepository.flush();
                 
                 // Refresh appointment từ database
@@ -353,8 +372,12 @@ public class VnPayServiceImpl implements VnPayService {
             log.info("Invoice {} marked as PAID via VNPay", invoice.getInvoiceId());
             
             // Cập nhật appointment sang COMPLETED
+            AppointmentStatusEnum previousStatus = appointment.getStatus();
             appointment.setStatus(AppointmentStatusEnum.COMPLETED);
             appointmentRepository.save(appointment);
+            eventPublisher.publishEvent(new AppointmentChangedEvent(this, appointment.getAppointmentId()));
+            eventPublisher.publishEvent(new AppointmentStatusChangedEvent(this, appointment.getAppointmentId(),
+                    previousStatus, AppointmentStatusEnum.COMPLETED, appointment.getScheduledAt()));
             appointmentRepository.flush(); // Flush để đảm bảo dữ liệu được ghi vào database ngay lập tức
             
             // Refresh appointment từ database để đảm bảo có dữ liệu mới nhất
@@ -535,7 +558,7 @@ public class VnPayServiceImpl implements VnPayService {
             
             // Lấy tất cả maintenance managements của appointment
             java.util.List<com.fpt.evcare.entity.MaintenanceManagementEntity> maintenanceManagements = 
-                    maintenanceManagementRepository.findByAppointmentIdAndIsDeletedFalse(appointment.getAppointmentId());
+                    maintenanceManagementRepository.findWithRecordsByAppointmentIdAndIsDeletedFalse(appointment.getAppointmentId());
             
             if (maintenanceManagements == null || maintenanceManagements.isEmpty()) {
                 log.debug("No maintenance managements found for appointment: {}", appointment.getAppointmentId());
@@ -549,6 +572,10 @@ public class VnPayServiceImpl implements VnPayService {
             String customerFullName = appointment.getCustomerFullName();
             
             int resetCount = 0;
+
+            // Nạp warranty part + warranty hiện có của customer cho tất cả phụ tùng trong 1 lần
+            PricingService.WarrantyLookup warrantyLookup = pricingService.loadWarrantyLookup(
+                    appointment, pricingService.collectApprovedVehiclePartIds(maintenanceManagements));
             
             // Duyệt qua tất cả maintenance managements
             for (com.fpt.evcare.entity.MaintenanceManagementEntity mm : maintenanceManagements) {
@@ -565,9 +592,7 @@ public class VnPayServiceImpl implements VnPayService {
                         UUID vehiclePartId = record.getVehiclePart().getVehiclePartId();
                         
                         // Kiểm tra phụ tùng này có warranty không
-                        com.fpt.evcare.entity.WarrantyPartEntity warrantyPart = warrantyPartRepository
-                                .findByVehiclePartVehiclePartIdAndIsDeletedFalseAndIsActiveTrue(vehiclePartId)
-                                .orElse(null);
+                        com.fpt.evcare.entity.WarrantyPartEntity warrantyPart = warrantyLookup.warrantyParts().get(vehiclePartId);
                         
                         if (warrantyPart != null) {
                             // Tính warranty_end_date
@@ -577,15 +602,7 @@ public class VnPayServiceImpl implements VnPayService {
                                     warrantyPart.getValidityPeriodUnit());
                             
                             // Tìm hoặc tạo CustomerWarrantyPart
-                            com.fpt.evcare.entity.CustomerWarrantyPartEntity existingWarranty = customerWarrantyPartRepository
-                                    .findActiveWarrantyByCustomerAndVehiclePart(
-                                            customerId,
-                                            customerEmail,
-                                            customerPhoneNumber,
-                                            vehiclePartId,
-                                            LocalDateTime.now()
-                                    )
-                                    .orElse(null);
+                            com.fpt.evcare.entity.CustomerWarrantyPartEntity existingWarranty = warrantyLookup.customerWarranties().get(vehiclePartId);
                             
                             if (existingWarranty != null) {
                                 // Update warranty date
@@ -617,6 +634,7 @@ public class VnPayServiceImpl implements VnPayService {
                                 newWarranty.setIsDeleted(false);
                                 
                                 customerWarrantyPartRepository.save(newWarranty);
+                                warrantyLookup.customerWarranties().put(vehiclePartId, newWarranty);
                                 log.info("✅ Created warranty for part {} via VNPay - Customer: {}, Start: {}, End: {}", 
                                         record.getVehiclePart().getVehiclePartName(),
                                         customerId != null ? customerId : customerEmail,
@@ -77,7 +77,7 @@ public class WarrantyPartServiceImpl implements WarrantyPartService {
         if (keyword == null || keyword.isEmpty()) {
             entityPage = warrantyPartRepository.findAllByIsDeletedFalse(pageable);
         } else {
-            entityPage = warrantyPartRepository.findBySearchContainingIgnoreCaseAndIsDeletedFalse(keyword, pageable);
+            entityPage = warrantyPartRepository.searchByKeywordAndIsDeletedFalse(keyword, pageable);
         }
 
         if (entityPage == null || entityPage.getTotalElements() == 0) {
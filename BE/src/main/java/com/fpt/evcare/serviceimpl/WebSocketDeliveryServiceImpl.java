@@ -0,0 +1,173 @@
+package com.fpt.evcare.serviceimpl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fpt.evcare.constants.MessageConstants;
+import com.fpt.evcare.service.WebSocketDeliveryService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gửi WebSocket ngoài thread của request
+ * - Mỗi user nhận có một hàng đợi riêng (giới hạn max-pending-per-user), gửi theo đúng thứ tự vào hàng đợi
+ * - Mỗi lượt worker gửi hết các tin đang chờ của một user
+ * - Payload chỉ serialize JSON một lần dù gửi cho nhiều user (VD: receiver và sender echo)
+ * - Tin cùng coalesceKey đang chờ thì bị thay bằng tin mới nhất (VD: DELIVERED rồi READ của cùng tin nhắn)
+ */
+@Slf4j
+@Service
+public class WebSocketDeliveryServiceImpl implements WebSocketDeliveryService {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+    private final int maxPendingPerUser;
+    private final ThreadPoolTaskExecutor deliveryExecutor;
+
+    private final Map<UUID, UserQueue> queues = new ConcurrentHashMap<>();
+    // Key cho tin không gộp, không bao giờ trùng
+    private final AtomicLong sequence = new AtomicLong();
+
+    public WebSocketDeliveryServiceImpl(SimpMessagingTemplate messagingTemplate,
+                                        ObjectMapper objectMapper,
+                                        @Value("${websocket.delivery.workers:4}") int workers,
+                                        @Value("${websocket.delivery.max-pending-per-user:1000}") int maxPendingPerUser) {
+        this.messagingTemplate = messagingTemplate;
+        this.objectMapper = objectMapper;
+        this.maxPendingPerUser = maxPendingPerUser;
+        this.deliveryExecutor = new ThreadPoolTaskExecutor();
+        this.deliveryExecutor.setCorePoolSize(workers);
+        this.deliveryExecutor.setMaxPoolSize(workers);
+        this.deliveryExecutor.setThreadNamePrefix("ws-delivery-");
+        this.deliveryExecutor.setWaitForTasksToCompleteOnShutdown(true);
+        this.deliveryExecutor.setAwaitTerminationSeconds(10);
+        this.deliveryExecutor.initialize();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        deliveryExecutor.shutdown();
+    }
+
+    @Override
+    public void sendToUsers(Collection<UUID> userIds, String destination, Object payload) {
+        SerializedPayload serialized = new SerializedPayload(payload);
+        for (UUID userId : new LinkedHashSet<>(userIds)) {
+            enqueue(userId, destination + "#" + sequence.incrementAndGet(), new PendingDelivery(destination, serialized));
+        }
+    }
+
+    @Override
+    public void sendCoalesced(UUID userId, String destination, String coalesceKey, Object payload) {
+        enqueue(userId, destination + "|" + coalesceKey, new PendingDelivery(destination, new SerializedPayload(payload)));
+    }
+
+    private void enqueue(UUID userId, String key, PendingDelivery delivery) {
+        while (true) {
+            UserQueue queue = queues.computeIfAbsent(userId, id -> new UserQueue());
+            synchronized (queue) {
+                // Worker vừa đóng hàng đợi rỗng này: lấy hàng đợi mới
+                if (queue.closed) {
+                    continue;
+                }
+                // put lên key đã có giữ nguyên vị trí cũ, chỉ thay nội dung
+                if (!queue.pending.containsKey(key) && queue.pending.size() >= maxPendingPerUser) {
+                    Iterator<PendingDelivery> oldest = queue.pending.values().iterator();
+                    oldest.next();
+                    oldest.remove();
+                    log.warn(MessageConstants.LOG_WARN_WS_DELIVERY_QUEUE_FULL, userId, maxPendingPerUser);
+                }
+                queue.pending.put(key, delivery);
+                if (!queue.scheduled) {
+                    queue.scheduled = true;
+                    schedule(userId, queue);
+                }
+                return;
+            }
+        }
+    }
+
+    private void schedule(UUID userId, UserQueue queue) {
+        try {
+            deliveryExecutor.execute(() -> drain(userId, queue));
+        } catch (TaskRejectedException e) {
+            // Đang shutdown: bỏ các tin đang chờ, client sẽ tải lại hội thoại khi kết nối lại
+            queue.pending.clear();
+            queue.scheduled = false;
+            log.warn(MessageConstants.LOG_WARN_WS_DELIVERY_REJECTED, userId, e.getMessage());
+        }
+    }
+
+    private void drain(UUID userId, UserQueue queue) {
+        String userDestinationPrefix = messagingTemplate.getUserDestinationPrefix() + userId;
+        while (true) {
+            List<PendingDelivery> batch;
+            synchronized (queue) {
+                if (queue.pending.isEmpty()) {
+                    queue.scheduled = false;
+                    queue.closed = true;
+                    queues.remove(userId, queue);
+                    return;
+                }
+                batch = new ArrayList<>(queue.pending.values());
+                queue.pending.clear();
+            }
+            for (PendingDelivery delivery : batch) {
+                send(userDestinationPrefix, delivery);
+            }
+        }
+    }
+
+    private void send(String userDestinationPrefix, PendingDelivery delivery) {
+        try {
+            SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+            accessor.setLeaveMutable(true);
+            messagingTemplate.send(userDestinationPrefix + delivery.destination(),
+                    MessageBuilder.createMessage(delivery.payload().bytes(), accessor.getMessageHeaders()));
+        } catch (Exception e) {
+            log.error(MessageConstants.LOG_ERR_WS_DELIVERY_FAILED, userDestinationPrefix + delivery.destination(), e.getMessage());
+        }
+    }
+
+    private static final class UserQueue {
+        private final LinkedHashMap<String, PendingDelivery> pending = new LinkedHashMap<>();
+        private boolean scheduled;
+        private boolean closed;
+    }
+
+    private record PendingDelivery(String destination, SerializedPayload payload) {
+    }
+
+    /**
+     * Serialize lần đầu cần gửi (trên thread worker), các user sau dùng lại cùng byte[]
+     * Payload bị gộp mất trước khi gửi thì không tốn công serialize
+     */
+    private final class SerializedPayload {
+        private final Object payload;
+        private byte[] bytes;
+
+        private SerializedPayload(Object payload) {
+            this.payload = payload;
+        }
+
+        private synchronized byte[] bytes() throws JsonProcessingException {
+            if (bytes == null) {
+                bytes = objectMapper.writeValueAsBytes(payload);
+            }
+            return bytes;
+        }
+    }
+}
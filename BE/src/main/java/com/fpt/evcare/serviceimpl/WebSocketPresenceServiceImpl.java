@@ -0,0 +1,155 @@
+package com.fpt.evcare.serviceimpl;
+
+import com.fpt.evcare.constants.MessageConstants;
+import com.fpt.evcare.service.WebSocketPresenceService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Trạng thái online theo WebSocket session trên toàn cụm
+ * - Session ở instance này giữ trong bộ nhớ (chính xác ngay khi connect/disconnect)
+ * - Mỗi instance ghi vào hash ws:presence:{userId} field = instanceId, value = thời điểm heartbeat gần nhất
+ * - Instance chết không kịp xóa field: field quá presence-stale-after bị coi là offline, key tự hết hạn
+ */
+@Slf4j
+@Service
+public class WebSocketPresenceServiceImpl implements WebSocketPresenceService {
+
+    private static final String KEY_PREFIX = "ws:presence:";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final boolean clusterEnabled;
+    private final Duration staleAfter;
+    private final Map<UUID, Set<String>> localSessions = new ConcurrentHashMap<>();
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    public WebSocketPresenceServiceImpl(StringRedisTemplate stringRedisTemplate,
+                                        @Value("${websocket.cluster.enabled:true}") boolean clusterEnabled,
+                                        @Value("${websocket.cluster.presence-stale-after:45s}") Duration staleAfter) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.clusterEnabled = clusterEnabled;
+        this.staleAfter = staleAfter;
+    }
+
+    @Override
+    public void sessionConnected(UUID userId, String sessionId) {
+        localSessions.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(sessionId);
+        if (clusterEnabled) {
+            writePresence(List.of(userId));
+        }
+    }
+
+    @Override
+    public void sessionDisconnected(UUID userId, String sessionId) {
+        // Xóa trong compute để connect/disconnect đồng thời của cùng user không làm mất session
+        boolean lastLocalSession = localSessions.computeIfPresent(userId, (id, sessions) -> {
+            sessions.remove(sessionId);
+            return sessions.isEmpty() ? null : sessions;
+        }) == null;
+        if (!clusterEnabled || !lastLocalSession) {
+            return;
+        }
+        try {
+            stringRedisTemplate.opsForHash().delete(KEY_PREFIX + userId, instanceId);
+        } catch (Exception e) {
+            log.warn(MessageConstants.LOG_WARN_CANNOT_UPDATE_PRESENCE, userId, e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isOnline(UUID userId) {
+        return !findOnline(List.of(userId)).isEmpty();
+    }
+
+    @Override
+    public Set<UUID> findOnline(Collection<UUID> userIds) {
+        Set<UUID> online = new HashSet<>();
+        List<UUID> remoteCandidates = new ArrayList<>();
+        for (UUID userId : userIds) {
+            if (localSessions.containsKey(userId)) {
+                online.add(userId);
+            } else {
+                remoteCandidates.add(userId);
+            }
+        }
+        if (!clusterEnabled || remoteCandidates.isEmpty()) {
+            return online;
+        }
+
+        try {
+            // Một lần gọi Redis (pipeline) cho cả danh sách
+            // StringRedisTemplate truyền vào StringRedisConnection nên kết quả đã là Map<String, String>
+            List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                remoteCandidates.forEach(userId -> stringConnection.hGetAll(KEY_PREFIX + userId));
+                return null;
+            });
+            long freshSince = System.currentTimeMillis() - staleAfter.toMillis();
+            for (int i = 0; i < remoteCandidates.size(); i++) {
+                if (hasFreshRemoteSession(results.get(i), freshSince)) {
+                    online.add(remoteCandidates.get(i));
+                }
+            }
+        } catch (Exception e) {
+            log.warn(MessageConstants.LOG_WARN_CANNOT_READ_PRESENCE, e.getMessage());
+        }
+        return online;
+    }
+
+    @Override
+    public Set<UUID> findLocallyConnected() {
+        return new HashSet<>(localSessions.keySet());
+    }
+
+    private boolean hasFreshRemoteSession(Object entries, long freshSince) {
+        if (!(entries instanceof Map<?, ?> heartbeats)) {
+            return false;
+        }
+        for (Map.Entry<?, ?> heartbeat : heartbeats.entrySet()) {
+            if (instanceId.equals(heartbeat.getKey())) {
+                continue;
+            }
+            try {
+                if (Long.parseLong(String.valueOf(heartbeat.getValue())) >= freshSince) {
+                    return true;
+                }
+            } catch (NumberFormatException ignored) {
+                // Giá trị hỏng coi như instance đó không còn session
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void refreshPresence() {
+        if (clusterEnabled && !localSessions.isEmpty()) {
+            writePresence(new ArrayList<>(localSessions.keySet()));
+        }
+    }
+
+    private void writePresence(List<UUID> userIds) {
+        String now = String.valueOf(System.currentTimeMillis());
+        try {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                userIds.forEach(userId -> writePresence((StringRedisConnection) connection, KEY_PREFIX + userId, now));
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn(MessageConstants.LOG_WARN_CANNOT_UPDATE_PRESENCE, userIds.size() == 1 ? userIds.get(0) : userIds.size() + " users", e.getMessage());
+        }
+    }
+
+    private void writePresence(StringRedisConnection connection, String key, String now) {
+        connection.hSet(key, instanceId, now);
+        connection.pExpire(key, staleAfter.toMillis());
+    }
+}
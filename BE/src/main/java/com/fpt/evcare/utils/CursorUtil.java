@@ -0,0 +1,62 @@
+package com.fpt.evcare.utils;
+
+import com.fpt.evcare.constants.PaginationConstants;
+import com.fpt.evcare.exception.IllegalArgumentException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public class CursorUtil {
+
+    private static final String SEPARATOR = "|";
+
+    //Mã hóa giá trị các cột sort của dòng cuối trang thành cursor (base64 url-safe), NULL thành chuỗi rỗng
+    public static String encode(Object... values) {
+        String raw = Arrays.stream(values)
+                .map(value -> value == null ? "" : value.toString())
+                .collect(Collectors.joining(SEPARATOR));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    //Giải mã cursor, trả về null nếu là trang đầu
+    public static String[] decode(String cursor, int expectedParts) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, -1);
+            if (parts.length != expectedParts) {
+                throw new IllegalArgumentException(PaginationConstants.MESSAGE_ERR_INVALID_CURSOR);
+            }
+            return parts;
+        } catch (java.lang.IllegalArgumentException e) {
+            throw new IllegalArgumentException(PaginationConstants.MESSAGE_ERR_INVALID_CURSOR);
+        }
+    }
+
+    //Parse 1 phần của cursor (UUID, LocalDateTime...), sai định dạng coi như cursor không hợp lệ
+    public static <T> T parse(String value, Function<String, T> parser) {
+        try {
+            return parser.apply(value);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException(PaginationConstants.MESSAGE_ERR_INVALID_CURSOR);
+        }
+    }
+
+    //Parse cột sort kiểu boolean, chỉ nhận đúng "true"/"false" (Boolean.parseBoolean coi mọi chuỗi khác là false)
+    public static boolean parseBoolean(String value) {
+        if (!"true".equals(value) && !"false".equals(value)) {
+            throw new IllegalArgumentException(PaginationConstants.MESSAGE_ERR_INVALID_CURSOR);
+        }
+        return Boolean.parseBoolean(value);
+    }
+
+    //Parse phần tương ứng cột sort có thể NULL (encode thành chuỗi rỗng)
+    public static <T> T parseNullable(String value, Function<String, T> parser) {
+        return value.isEmpty() ? null : parse(value, parser);
+    }
+}
@@ -1,7 +1,11 @@
 package com.fpt.evcare.utils;
 
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
@@ -23,4 +27,14 @@ public class UtilFunction {
                 .map(Enum::name)
                 .collect(Collectors.toList());
     }
+
+    //SHA-256 dạng hex (64 ký tự), dùng làm key thay cho chuỗi gốc (idempotency key của email outbox, access token)
+    public static String sha256Hex(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
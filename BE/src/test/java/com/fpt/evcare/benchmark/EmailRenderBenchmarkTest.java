@@ -0,0 +1,156 @@
+package com.fpt.evcare.benchmark;
+
+import com.fpt.evcare.constants.AppointmentConstants;
+import com.fpt.evcare.constants.InvoiceConstants;
+import com.fpt.evcare.dto.request.EmailRequestDTO;
+import com.fpt.evcare.serviceimpl.EmailServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thông lượng dựng HTML email theo từng loại email (JMH):
+ * - renderCached: template đã parse nằm trong cache (cấu hình chạy thật)
+ * - renderUncached: parse lại file template mỗi lần (spring.thymeleaf.cache=false)
+ * - renderBatchParallel: dựng 1 lô email song song trên pool bằng số CPU như EmailOutboxServiceImpl
+ * Chỉ chạy khi bật, ví dụ: mvn test -Dtest=EmailRenderBenchmarkTest -Dbenchmark.jmh=true
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class EmailRenderBenchmarkTest {
+
+    private static final int BATCH_SIZE = 20;
+
+    @Param({"otp", "appointment-confirmed", "payment-confirmation"})
+    public String emailType;
+
+    private EmailServiceImpl cachedRenderer;
+    private EmailServiceImpl uncachedRenderer;
+    private EmailRequestDTO email;
+    private List<EmailRequestDTO> batch;
+    private ExecutorService renderPool;
+
+    @Setup
+    public void setUp() {
+        cachedRenderer = new EmailServiceImpl(new JavaMailSenderImpl(), templateEngine(true));
+        uncachedRenderer = new EmailServiceImpl(new JavaMailSenderImpl(), templateEngine(false));
+        email = buildEmail(emailType);
+        batch = new ArrayList<>();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(buildEmail(emailType));
+        }
+        renderPool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown
+    public void tearDown() {
+        renderPool.shutdown();
+    }
+
+    @Benchmark
+    public String renderCached() {
+        return cachedRenderer.renderEmailTemplate(email);
+    }
+
+    @Benchmark
+    public String renderUncached() {
+        return uncachedRenderer.renderEmailTemplate(email);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void renderBatchParallel(Blackhole blackhole) {
+        CompletableFuture<?>[] renders = batch.stream()
+                .map(request -> CompletableFuture.supplyAsync(() -> cachedRenderer.renderEmailTemplate(request), renderPool)
+                        .thenAccept(blackhole::consume))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(renders).join();
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark.jmh", matches = "true")
+    void runBenchmarks() throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(EmailRenderBenchmarkTest.class.getSimpleName())
+                .forks(1)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(2))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(2))
+                .build()).run();
+    }
+
+    private static SpringTemplateEngine templateEngine(boolean cacheable) {
+        // Cùng cấu hình với template resolver mặc định của Spring Boot (classpath:/templates/*.html)
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setCharacterEncoding("UTF-8");
+        resolver.setCacheable(cacheable);
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+        return templateEngine;
+    }
+
+    // Nội dung giống các email thật trong ForgotPasswordServiceImpl, AppointmentServiceImpl, InvoiceServiceImpl
+    private static EmailRequestDTO buildEmail(String emailType) {
+        return switch (emailType) {
+            case "otp" -> EmailRequestDTO.builder()
+                    .to("customer@evcare.vn")
+                    .subject("Xác thực thay đổi email")
+                    .text("Chúng tôi đã nhận được yêu cầu thay đổi địa chỉ email cho tài khoản của bạn. Vui lòng sử dụng mã xác nhận bên dưới để xác nhận thay đổi.")
+                    .fullName("Nguyễn Văn A")
+                    .code("482913")
+                    .build();
+            case "appointment-confirmed" -> EmailRequestDTO.builder()
+                    .to("customer@evcare.vn")
+                    .subject(AppointmentConstants.EMAIL_SUBJECT_CONFIRMED)
+                    .text(String.format(
+                            AppointmentConstants.EMAIL_BODY_CONFIRMED_GREETING +
+                            AppointmentConstants.EMAIL_BODY_CONFIRMED_CONTENT +
+                            AppointmentConstants.EMAIL_BODY_CONFIRMED_APPOINTMENT_INFO +
+                            AppointmentConstants.EMAIL_BODY_CONFIRMED_APPOINTMENT_ID +
+                            AppointmentConstants.EMAIL_BODY_CONFIRMED_VEHICLE +
+                            AppointmentConstants.EMAIL_BODY_CONFIRMED_TIME +
+                            AppointmentConstants.EMAIL_BODY_CONFIRMED_ASSIGNEE +
+                            AppointmentConstants.EMAIL_BODY_CONFIRMED_FOOTER,
+                            "Nguyễn Văn A", UUID.randomUUID(), "51A-12345",
+                            LocalDateTime.now().plusDays(1), "Trần Văn B"))
+                    .fullName("Nguyễn Văn A")
+                    .build();
+            case "payment-confirmation" -> EmailRequestDTO.builder()
+                    .to("customer@evcare.vn")
+                    .subject(InvoiceConstants.EMAIL_SUBJECT_PAYMENT_CONFIRMATION)
+                    .text(String.format(
+                            InvoiceConstants.EMAIL_BODY_PAYMENT_CONFIRMATION_GREETING +
+                            InvoiceConstants.EMAIL_BODY_PAYMENT_CONFIRMATION_CONTENT +
+                            InvoiceConstants.EMAIL_BODY_PAYMENT_CONFIRMATION_INVOICE_INFO +
+                            InvoiceConstants.EMAIL_BODY_PAYMENT_CONFIRMATION_INVOICE_ID +
+                            InvoiceConstants.EMAIL_BODY_PAYMENT_CONFIRMATION_AMOUNT +
+                            InvoiceConstants.EMAIL_BODY_PAYMENT_CONFIRMATION_DATE +
+                            InvoiceConstants.EMAIL_BODY_PAYMENT_CONFIRMATION_FOOTER,
+                            "Nguyễn Văn A", UUID.randomUUID(), "1250000", LocalDateTime.now()))
+                    .fullName("Nguyễn Văn A")
+                    .build();
+            default -> throw new IllegalArgumentException("Unknown email type: " + emailType);
+        };
+    }
+}
@@ -0,0 +1,98 @@
+package com.fpt.evcare.benchmark;
+
+import com.fpt.evcare.security.NimbusJwtAuthenticationFilter;
+import com.fpt.evcare.serviceimpl.CustomJWTDecode;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSObject;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thông lượng của NimbusJwtAuthenticationFilter cho 1 request có Bearer token (JMH):
+ * - hotToken: token đã xác thực nằm trong cache (không parse, không HMAC)
+ * - coldToken: cache tắt (maximum-size = 0), mỗi request parse + verify HMAC như trước đây
+ * Chỉ chạy khi bật, ví dụ: mvn test -Dtest=JwtFilterBenchmarkTest -Dbenchmark.jmh=true
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JwtFilterBenchmarkTest {
+
+    private NimbusJwtAuthenticationFilter cachedFilter;
+    private NimbusJwtAuthenticationFilter uncachedFilter;
+    private String token;
+
+    @Setup
+    public void setUp() throws JOSEException {
+        CustomJWTDecode customJWTDecode = new CustomJWTDecode("evcare-benchmark-signer-key-0123456789-abcdefghijklmnop");
+        cachedFilter = new NimbusJwtAuthenticationFilter(customJWTDecode, 10_000);
+        uncachedFilter = new NimbusJwtAuthenticationFilter(customJWTDecode, 0);
+
+        // Cùng dạng access token của TokenServiceImpl.generateAccessToken
+        JWTClaimsSet claimsSet = new JWTClaimsSet.Builder()
+                .subject(UUID.randomUUID().toString())
+                .claim("username", "customer01")
+                .claim("role", "CUSTOMER")
+                .issuer("EVCare")
+                .issueTime(new Date())
+                .expirationTime(Date.from(Instant.now().plus(1, ChronoUnit.HOURS)))
+                .build();
+        JWSObject jwsObject = new JWSObject(new JWSHeader(JWSAlgorithm.HS256), claimsSet.toPayload());
+        jwsObject.sign(new MACSigner(String.valueOf(customJWTDecode.getMacSigner())));
+        token = jwsObject.serialize();
+    }
+
+    @Benchmark
+    public Object hotToken() throws ServletException, IOException {
+        return filter(cachedFilter);
+    }
+
+    @Benchmark
+    public Object coldToken() throws ServletException, IOException {
+        return filter(uncachedFilter);
+    }
+
+    private Object filter(NimbusJwtAuthenticationFilter filter) throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/appointment/");
+        request.setServletPath("/api/v1/appointment/");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        SecurityContextHolder.clearContext();
+        return principal;
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark.jmh", matches = "true")
+    void runBenchmarks() throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtFilterBenchmarkTest.class.getSimpleName())
+                .forks(1)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(2))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(2))
+                .build()).run();
+    }
+}
@@ -0,0 +1,152 @@
+package com.fpt.evcare.benchmark;
+
+import com.fpt.evcare.initializer.SearchIndexInitializer.SearchIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * So sánh độ trễ tìm kiếm LIKE '%keyword%' trên cột search trước và sau khi có index trigram.
+ * Chỉ chạy khi truyền PostgreSQL thật, ví dụ:
+ * mvn test -Dtest=SearchIndexBenchmarkTest -Dbenchmark.datasource.url=jdbc:postgresql://localhost:5432/evcare
+ *   -Dbenchmark.datasource.username=postgres -Dbenchmark.datasource.password=password [-Dbenchmark.rows=1000000]
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark.datasource.url", matches = ".+")
+class SearchIndexBenchmarkTest {
+
+    private static final String TABLE = "bench_appointments";
+    private static final int WARMUP_RUNS = 3;
+    private static final int MEASURED_RUNS = 15;
+
+    // Cùng dạng với AppointmentRepository.findBySearchContainingIgnoreCaseAndIsDeletedFalse (trang đầu + count)
+    private static final String PAGE_SQL = """
+        SELECT a.id FROM bench_appointments a
+        WHERE a.is_deleted = FALSE
+          AND LOWER(a.search) LIKE LOWER(CONCAT('%', ?, '%'))
+        ORDER BY a.is_warranty_appointment DESC, a.scheduled_at DESC
+        LIMIT 10
+        """;
+    private static final String COUNT_SQL = """
+        SELECT COUNT(*) FROM bench_appointments a
+        WHERE a.is_deleted = FALSE
+          AND LOWER(a.search) LIKE LOWER(CONCAT('%', ?, '%'))
+        """;
+
+    @Test
+    void benchmarkSearchBeforeAndAfterTrigramIndex() throws SQLException {
+        int rows = Integer.getInteger("benchmark.rows", 1_000_000);
+        String[] keywords = {"0912345", "nguyenvan12345", "51a-9876"};
+
+        try (Connection connection = DriverManager.getConnection(
+                System.getProperty("benchmark.datasource.url"),
+                System.getProperty("benchmark.datasource.username", "postgres"),
+                System.getProperty("benchmark.datasource.password", "password"))) {
+
+            seed(connection, rows);
+
+            double before = measure(connection, keywords);
+
+            SearchIndex index = new SearchIndex(TABLE, "search");
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+                statement.execute(index.createSql());
+                statement.execute("ANALYZE " + TABLE);
+            }
+
+            assertTrue(explain(connection, keywords[0]).contains(index.name()),
+                    "Query plan should use " + index.name());
+
+            double after = measure(connection, keywords);
+
+            String result = String.format("Search benchmark on %,d rows: seq scan %.2f ms, trigram index %.2f ms (x%.1f)",
+                    rows, before, after, before / after);
+            log.info(result);
+            assertTrue(after < before, result);
+        }
+    }
+
+    private void seed(Connection connection, int rows) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + TABLE);
+            statement.execute("""
+                CREATE TEMP TABLE bench_appointments (
+                    id BIGINT PRIMARY KEY,
+                    search VARCHAR(255),
+                    is_deleted BOOLEAN NOT NULL,
+                    is_warranty_appointment BOOLEAN NOT NULL,
+                    scheduled_at TIMESTAMP NOT NULL
+                )
+                """);
+            // Giá trị search giống UtilFunction.concatenateSearchField: tên-email-sđt-biển số
+            statement.execute("""
+                INSERT INTO bench_appointments
+                SELECT i,
+                       'NguyenVan' || i || '-user' || i || '@gmail.com-09' || lpad((i * 7919 % 100000000)::text, 8, '0')
+                           || '-51a-' || lpad((i % 100000)::text, 5, '0'),
+                       i % 50 = 0,
+                       i % 10 = 0,
+                       TIMESTAMP '2024-01-01' + (i % 525600) * INTERVAL '1 minute'
+                FROM generate_series(1, %d) AS i
+                """.formatted(rows));
+            statement.execute("ANALYZE " + TABLE);
+        }
+    }
+
+    // Trung vị thời gian (ms) của 1 lần tìm kiếm = query trang + query count, qua tất cả keyword
+    private double measure(Connection connection, String[] keywords) throws SQLException {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            for (String keyword : keywords) {
+                search(connection, keyword);
+            }
+        }
+
+        double[] samples = new double[MEASURED_RUNS * keywords.length];
+        int n = 0;
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            for (String keyword : keywords) {
+                long start = System.nanoTime();
+                search(connection, keyword);
+                samples[n++] = (System.nanoTime() - start) / 1_000_000.0;
+            }
+        }
+        Arrays.sort(samples);
+        return samples[samples.length / 2];
+    }
+
+    private void search(Connection connection, String keyword) throws SQLException {
+        for (String sql : new String[]{PAGE_SQL, COUNT_SQL}) {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setString(1, keyword);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        resultSet.getObject(1);
+                    }
+                }
+            }
+        }
+    }
+
+    private String explain(Connection connection, String keyword) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + COUNT_SQL)) {
+            statement.setString(1, keyword);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    plan.append(resultSet.getString(1)).append('\n');
+                }
+            }
+        }
+        return plan.toString();
+    }
+}
@@ -0,0 +1,88 @@
+package com.fpt.evcare.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RedisStompBrokerBridgeTest {
+
+    // Redis pub/sub giả lập trong bộ nhớ: mọi instance đăng ký đều nhận được tin nhắn
+    private final List<MessageListener> subscribers = new CopyOnWriteArrayList<>();
+
+    private final List<Message<?>> deliveredOnA = new CopyOnWriteArrayList<>();
+    private final List<Message<?>> deliveredOnB = new CopyOnWriteArrayList<>();
+    private SimpMessagingTemplate templateOnA;
+    private StringRedisTemplate redisOnA;
+    private StringRedisTemplate lastRedisTemplate;
+
+    @BeforeEach
+    void setUp() {
+        templateOnA = new SimpMessagingTemplate(startNode(deliveredOnA));
+        // Giống brokerMessageConverter của Spring: payload được chuyển thành JSON byte[]
+        templateOnA.setMessageConverter(new MappingJackson2MessageConverter());
+        redisOnA = lastRedisTemplate;
+        startNode(deliveredOnB);
+    }
+
+    private ExecutorSubscribableChannel startNode(List<Message<?>> delivered) {
+        ExecutorSubscribableChannel brokerChannel = new ExecutorSubscribableChannel();
+        brokerChannel.subscribe(delivered::add);
+
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        doAnswer(invocation -> {
+            byte[] channel = invocation.getArgument(0, String.class).getBytes(StandardCharsets.UTF_8);
+            byte[] body = invocation.getArgument(1, String.class).getBytes(StandardCharsets.UTF_8);
+            subscribers.forEach(listener -> listener.onMessage(new DefaultMessage(channel, body), null));
+            return 1L;
+        }).when(redisTemplate).convertAndSend(anyString(), any());
+        RedisMessageListenerContainer container = mock(RedisMessageListenerContainer.class);
+        doAnswer(invocation -> subscribers.add(invocation.getArgument(0)))
+                .when(container).addMessageListener(any(MessageListener.class), any(org.springframework.data.redis.listener.Topic.class));
+
+        new RedisStompBrokerBridge(brokerChannel, redisTemplate, container, new ObjectMapper(), true).subscribe();
+        lastRedisTemplate = redisTemplate;
+        return brokerChannel;
+    }
+
+    @Test
+    void testUserDestination_ShouldReachBrokerChannelOfOtherInstance() {
+        templateOnA.convertAndSendToUser("staff-1", "/queue/messages", Map.of("content", "Xin chào"));
+
+        assertEquals(1, deliveredOnA.size());
+        assertEquals(1, deliveredOnB.size());
+        Message<?> relayed = deliveredOnB.get(0);
+        assertEquals("/user/staff-1/queue/messages", SimpMessageHeaderAccessor.getDestination(relayed.getHeaders()));
+        assertEquals("application/json", String.valueOf(SimpMessageHeaderAccessor.wrap(relayed).getContentType()));
+        assertEquals("{\"content\":\"Xin chào\"}", new String((byte[]) relayed.getPayload(), StandardCharsets.UTF_8));
+        // Instance nhận không publish lại lên Redis
+        verify(redisOnA, times(1)).convertAndSend(anyString(), any());
+    }
+
+    @Test
+    void testSessionResolvedDestination_ShouldStayLocal() {
+        templateOnA.convertAndSend("/queue/messages-usersession1", "ping");
+        templateOnA.convertAndSend("/topic/dashboard", "refresh");
+
+        assertEquals(2, deliveredOnA.size());
+        assertEquals(1, deliveredOnB.size());
+        assertEquals("/topic/dashboard", SimpMessageHeaderAccessor.getDestination(deliveredOnB.get(0).getHeaders()));
+    }
+}
@@ -0,0 +1,85 @@
+package com.fpt.evcare.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TieredCacheTest {
+
+    private ConcurrentMapCache remoteCache;
+    private final List<String> invalidations = new ArrayList<>();
+    private TieredCache tieredCache;
+
+    @BeforeEach
+    void setUp() {
+        remoteCache = new ConcurrentMapCache("vehicleTypes", false);
+        tieredCache = new TieredCache("vehicleTypes", Caffeine.newBuilder().build(), remoteCache,
+                (name, key) -> invalidations.add(name + ":" + key));
+    }
+
+    @Test
+    void testGet_ShouldReadThroughLocalThenRedis() {
+        UUID id = UUID.randomUUID();
+
+        assertNull(tieredCache.get(id));
+        assertEquals(1, tieredCache.getMissCount());
+
+        // Instance khác đã nạp Redis: lần đầu lấy từ Redis, lần sau lấy từ near-cache
+        remoteCache.put(id, "VF8");
+        assertEquals("VF8", tieredCache.get(id).get());
+        assertEquals("VF8", tieredCache.get(id).get());
+        assertEquals(1, tieredCache.getRemoteHitCount());
+        assertEquals(1, tieredCache.getLocalHitCount());
+    }
+
+    @Test
+    void testEvict_ShouldClearBothTiersAndNotifyOtherInstances() {
+        UUID id = UUID.randomUUID();
+        tieredCache.put(id, "VF8");
+        assertNotNull(remoteCache.get(id));
+
+        tieredCache.evict(id);
+
+        assertNull(remoteCache.get(id));
+        assertNull(tieredCache.get(id));
+        assertEquals(List.of("vehicleTypes:" + id), invalidations);
+
+        tieredCache.clear();
+        assertEquals("vehicleTypes:null", invalidations.get(1));
+    }
+
+    @Test
+    void testEvictLocal_ShouldOnlyDropNearCacheEntry() {
+        UUID id = UUID.randomUUID();
+        tieredCache.put(id, "VF8");
+
+        tieredCache.evictLocal(id.toString());
+
+        assertEquals(0, tieredCache.getLocalSize());
+        assertEquals("VF8", tieredCache.get(id).get());
+        assertEquals(1, tieredCache.getRemoteHitCount());
+        assertTrue(invalidations.isEmpty());
+    }
+
+    @Test
+    void testRedisFailure_ShouldFallBackToLoader() {
+        Cache brokenRemote = mock(Cache.class);
+        when(brokenRemote.get(any())).thenThrow(new IllegalStateException("Redis down"));
+        doThrow(new IllegalStateException("Redis down")).when(brokenRemote).put(any(), any());
+        TieredCache cache = new TieredCache("roles", Caffeine.newBuilder().build(), brokenRemote, (name, key) -> { });
+
+        assertEquals("ADMIN", cache.get("all", () -> "ADMIN"));
+        assertEquals("ADMIN", cache.get("all").get());
+        assertEquals(1, cache.getLocalHitCount());
+    }
+}
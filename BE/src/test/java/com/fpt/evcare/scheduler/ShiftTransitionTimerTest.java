@@ -0,0 +1,84 @@
+package com.fpt.evcare.scheduler;
+
+import com.fpt.evcare.event.ShiftScheduleChangedEvent;
+import com.fpt.evcare.repository.ShiftRepository;
+import com.fpt.evcare.service.ShiftService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ShiftTransitionTimerTest {
+
+    @Mock
+    private ShiftRepository shiftRepository;
+
+    @Mock
+    private ShiftService shiftService;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private ShiftTransitionTimer shiftTransitionTimer;
+
+    @BeforeEach
+    void setUp() {
+        shiftTransitionTimer = new ShiftTransitionTimer(shiftRepository, shiftService, stringRedisTemplate);
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @AfterEach
+    void tearDown() {
+        shiftTransitionTimer.shutdown();
+    }
+
+    @Test
+    void testReconcile_WithLease_ShouldRunTransitionsAndLoadDueTimes() {
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+
+        shiftTransitionTimer.reconcile();
+
+        verify(shiftService, times(1)).updateShiftStatuses();
+        verify(shiftRepository).findUpcomingStartTimes(any(), any());
+        verify(shiftRepository).findUpcomingEndTimes(any(), any());
+    }
+
+    @Test
+    void testReconcile_LeaseHeldByAnotherInstance_ShouldSkipTransitions() {
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+
+        shiftTransitionTimer.reconcile();
+
+        verify(shiftService, never()).updateShiftStatuses();
+    }
+
+    // Ca bắt đầu sau 300ms -> chuyển trạng thái đúng lúc đó, không chờ lần quét tiếp theo
+    @Test
+    void testShiftScheduleChanged_ShouldFireTransitionAtStartTime() {
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+        LocalDateTime startTime = LocalDateTime.now().plusNanos(300_000_000);
+
+        shiftTransitionTimer.handleShiftScheduleChangedEvent(
+                new ShiftScheduleChangedEvent(this, UUID.randomUUID(), startTime, startTime.plusHours(2)));
+
+        verify(shiftService, never()).updateShiftStatuses();
+        verify(shiftService, timeout(2000).times(1)).updateShiftStatuses();
+        verify(stringRedisTemplate, timeout(2000)).execute(any(), eq(List.of("shift:transition:lock")), anyString());
+    }
+}
@@ -0,0 +1,151 @@
+package com.fpt.evcare.security;
+
+import com.fpt.evcare.serviceimpl.CustomJWTDecode;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSObject;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NimbusJwtAuthenticationFilterTest {
+
+    private static final String SIGNER_KEY = "evcare-test-signer-key-0123456789-abcdefghijklmnopqrstuvwxyz";
+
+    private CustomJWTDecode customJWTDecode;
+    private MutableClock clock;
+    private NimbusJwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        customJWTDecode = new CustomJWTDecode(SIGNER_KEY);
+        clock = new MutableClock(Instant.now());
+        filter = new NimbusJwtAuthenticationFilter(customJWTDecode, 100, clock,
+                () -> TimeUnit.MILLISECONDS.toNanos(clock.millis()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testDoFilter_ValidToken_ShouldAuthenticateAndCacheVerification() throws Exception {
+        String userId = UUID.randomUUID().toString();
+        String token = sign(userId, "TECHNICIAN", Instant.now().plus(1, ChronoUnit.HOURS));
+
+        doFilter(token);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertEquals(userId, authentication.getPrincipal());
+        assertEquals("ROLE_TECHNICIAN", authentication.getAuthorities().iterator().next().getAuthority());
+        assertEquals(1, filter.verifiedTokenCount());
+
+        // Request sau với cùng token lấy từ cache
+        SecurityContextHolder.clearContext();
+        doFilter(token);
+        assertEquals(userId, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+        assertEquals(1, filter.verifiedTokenCount());
+    }
+
+    @Test
+    void testDoFilter_TamperedToken_ShouldNotAuthenticate() throws Exception {
+        String token = sign(UUID.randomUUID().toString(), "CUSTOMER", Instant.now().plus(1, ChronoUnit.HOURS));
+        String[] parts = token.split("\\.");
+        String forged = sign(UUID.randomUUID().toString(), "ADMIN", Instant.now().plus(1, ChronoUnit.HOURS)).split("\\.")[1];
+
+        doFilter(parts[0] + "." + forged + "." + parts[2]);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertEquals(0, filter.verifiedTokenCount());
+    }
+
+    @Test
+    void testDoFilter_ExpiredToken_ShouldNotAuthenticate() throws Exception {
+        doFilter(sign(UUID.randomUUID().toString(), "CUSTOMER", Instant.now().minus(1, ChronoUnit.MINUTES)));
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertEquals(0, filter.verifiedTokenCount());
+    }
+
+    @Test
+    void testVerify_CachedTokenPastExp_ShouldBeRejected() throws Exception {
+        String token = sign(UUID.randomUUID().toString(), "CUSTOMER", clock.instant().plus(1, ChronoUnit.MINUTES));
+        assertNotNull(filter.verify(token));
+
+        clock.advance(Duration.ofSeconds(59));
+        assertNotNull(filter.verify(token));
+        assertEquals(1, filter.verifiedTokenCount());
+
+        clock.advance(Duration.ofSeconds(2));
+        assertNull(filter.verify(token));
+        assertEquals(0, filter.verifiedTokenCount());
+    }
+
+    private void doFilter(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/appointment/");
+        request.setServletPath("/api/v1/appointment/");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+    }
+
+    // Ký giống TokenServiceImpl.generateAccessToken
+    private String sign(String userId, String role, Instant expiresAt) throws Exception {
+        JWTClaimsSet claimsSet = new JWTClaimsSet.Builder()
+                .subject(userId)
+                .claim("username", "user")
+                .claim("role", role)
+                .issueTime(new Date())
+                .expirationTime(Date.from(expiresAt))
+                .build();
+        JWSObject jwsObject = new JWSObject(new JWSHeader(JWSAlgorithm.HS256), claimsSet.toPayload());
+        jwsObject.sign(new MACSigner(String.valueOf(customJWTDecode.getMacSigner())));
+        return jwsObject.serialize();
+    }
+
+    // Đồng hồ giả dùng chung cho kiểm tra exp và ticker của cache
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
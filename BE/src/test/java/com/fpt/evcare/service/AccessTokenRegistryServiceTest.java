@@ -0,0 +1,91 @@
+package com.fpt.evcare.service;
+
+import com.fpt.evcare.constants.TokenConstants;
+import com.fpt.evcare.serviceimpl.AccessTokenRegistryServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AccessTokenRegistryServiceTest {
+
+    @Mock
+    private RedisService<String> redisService;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    private AccessTokenRegistryServiceImpl registry;
+
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        registry = new AccessTokenRegistryServiceImpl(redisService, stringRedisTemplate, redisMessageListenerContainer,
+                Duration.ofMinutes(1), 1_000);
+    }
+
+    @Test
+    void testIsCurrentAccessToken_ShouldReadRedisOnceThenServeFromMemory() {
+        when(redisService.getValue(TokenConstants.ACCESS_PREFIX + userId)).thenReturn("token-a");
+
+        assertTrue(registry.isCurrentAccessToken(userId, "token-a"));
+        assertTrue(registry.isCurrentAccessToken(userId, "token-a"));
+        assertFalse(registry.isCurrentAccessToken(userId, "token-b"));
+
+        verify(redisService, times(1)).getValue(anyString());
+    }
+
+    @Test
+    void testTokensRemoved_ShouldRevokeLocallyAndNotifyOtherInstances() {
+        registry.accessTokenIssued(userId, "token-a");
+        assertTrue(registry.isCurrentAccessToken(userId, "token-a"));
+
+        registry.tokensRemoved(userId);
+
+        assertFalse(registry.isCurrentAccessToken(userId, "token-a"));
+        verify(redisService, never()).getValue(anyString());
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(stringRedisTemplate, times(2)).convertAndSend(eq(TokenConstants.ACCESS_TOKEN_CHANGED_CHANNEL), payload.capture());
+        assertTrue(payload.getValue().endsWith("|" + userId));
+    }
+
+    @Test
+    void testOnMessage_ShouldReloadFromRedisAfterChangeOnOtherInstance() {
+        registry.accessTokenIssued(userId, "token-a");
+        when(redisService.getValue(TokenConstants.ACCESS_PREFIX + userId)).thenReturn(null);
+
+        // Thông báo của chính instance này thì bỏ qua
+        ArgumentCaptor<String> ownPayload = ArgumentCaptor.forClass(String.class);
+        verify(stringRedisTemplate).convertAndSend(eq(TokenConstants.ACCESS_TOKEN_CHANGED_CHANNEL), ownPayload.capture());
+        registry.onMessage(message(ownPayload.getValue()), null);
+        assertTrue(registry.isCurrentAccessToken(userId, "token-a"));
+
+        // Instance khác đã logout user
+        registry.onMessage(message("other-instance|" + userId), null);
+        assertFalse(registry.isCurrentAccessToken(userId, "token-a"));
+        verify(redisService, times(1)).getValue(TokenConstants.ACCESS_PREFIX + userId);
+    }
+
+    private static DefaultMessage message(String payload) {
+        return new DefaultMessage(TokenConstants.ACCESS_TOKEN_CHANGED_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                payload.getBytes(StandardCharsets.UTF_8));
+    }
+}
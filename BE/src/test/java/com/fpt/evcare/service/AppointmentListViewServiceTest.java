@@ -0,0 +1,240 @@
+package com.fpt.evcare.service;
+
+import com.fpt.evcare.dto.response.AppointmentListItemResponse;
+import com.fpt.evcare.dto.response.PageResponse;
+import com.fpt.evcare.entity.AppointmentEntity;
+import com.fpt.evcare.entity.AppointmentListViewEntity;
+import com.fpt.evcare.entity.ServiceTypeEntity;
+import com.fpt.evcare.entity.UserEntity;
+import com.fpt.evcare.enums.AppointmentStatusEnum;
+import com.fpt.evcare.enums.ServiceModeEnum;
+import com.fpt.evcare.event.AppointmentChangedEvent;
+import com.fpt.evcare.event.AppointmentListViewEventListener;
+import com.fpt.evcare.exception.EntityValidationException;
+import com.fpt.evcare.repository.AppointmentListViewRepository;
+import com.fpt.evcare.repository.AppointmentRepository;
+import com.fpt.evcare.serviceimpl.AppointmentListViewServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AppointmentListViewServiceTest {
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private AppointmentListViewRepository appointmentListViewRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private AppointmentListViewServiceImpl appointmentListViewService;
+
+    private AppointmentListViewEventListener eventListener;
+    private UserEntity customer;
+
+    @BeforeEach
+    void setUp() {
+        eventListener = new AppointmentListViewEventListener(appointmentListViewService);
+        customer = new UserEntity();
+        customer.setUserId(UUID.randomUUID());
+        customer.setFullName("Nguyễn Văn A");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testAppointmentChangedEvent_ShouldInsertUpdateAndRemoveRows() {
+        AppointmentEntity created = appointment(AppointmentStatusEnum.PENDING);
+        AppointmentEntity updated = appointment(AppointmentStatusEnum.CONFIRMED);
+        UUID removedId = UUID.randomUUID();
+        List<UUID> ids = List.of(created.getAppointmentId(), updated.getAppointmentId(), removedId);
+
+        AppointmentListViewEntity existingRow = new AppointmentListViewEntity();
+        existingRow.setAppointmentId(updated.getAppointmentId());
+        existingRow.setStatus(AppointmentStatusEnum.PENDING);
+        when(appointmentRepository.fetchUsersAndVehicleTypeByAppointmentIdIn(ids)).thenReturn(List.of(created, updated));
+        when(appointmentListViewRepository.findAllById(ids)).thenReturn(List.of(existingRow));
+
+        eventListener.handleAppointmentChangedEvent(new AppointmentChangedEvent(this, ids));
+
+        ArgumentCaptor<List<AppointmentListViewEntity>> rowsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(appointmentListViewRepository).saveAll(rowsCaptor.capture());
+        Map<UUID, AppointmentListViewEntity> rows = rowsCaptor.getValue().stream()
+                .collect(Collectors.toMap(AppointmentListViewEntity::getAppointmentId, Function.identity()));
+        assertEquals(2, rows.size());
+
+        // Cuộc hẹn mới -> dòng mới, điền đủ dữ liệu denormalize
+        AppointmentListViewEntity insertedRow = rows.get(created.getAppointmentId());
+        assertNotSame(existingRow, insertedRow);
+        assertEquals(customer.getUserId(), insertedRow.getCustomerId());
+        assertEquals("Bảo dưỡng định kỳ", insertedRow.getServiceTypeNames());
+        assertEquals(0, new BigDecimal("500000").compareTo(insertedRow.getQuotePrice()));
+
+        // Cuộc hẹn đã có dòng -> cập nhật tại chỗ
+        assertSame(existingRow, rows.get(updated.getAppointmentId()));
+        assertEquals(AppointmentStatusEnum.CONFIRMED, existingRow.getStatus());
+
+        // Cuộc hẹn không còn trong database -> xóa dòng
+        verify(appointmentListViewRepository).deleteByAppointmentIdIn(List.of(removedId));
+    }
+
+    @Test
+    void testAppointmentChangedEvent_WithNoIds_ShouldSkip() {
+        eventListener.handleAppointmentChangedEvent(new AppointmentChangedEvent(this, List.of()));
+
+        verifyNoInteractions(appointmentRepository, appointmentListViewRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRebuildAll_ShouldWalkIdsByKeysetInSeparateTransactions() {
+        List<AppointmentEntity> firstBatch = IntStream.range(0, 200)
+                .mapToObj(i -> appointment(AppointmentStatusEnum.PENDING))
+                .sorted(Comparator.comparing(AppointmentEntity::getAppointmentId))
+                .toList();
+        List<UUID> firstIds = firstBatch.stream().map(AppointmentEntity::getAppointmentId).toList();
+        AppointmentEntity last = appointment(AppointmentStatusEnum.COMPLETED);
+        UUID lastOfFirstBatch = firstIds.get(firstIds.size() - 1);
+        when(appointmentRepository.findAppointmentIdsAfter(eq(new UUID(0L, 0L)), any(Pageable.class))).thenReturn(firstIds);
+        when(appointmentRepository.findAppointmentIdsAfter(eq(lastOfFirstBatch), any(Pageable.class)))
+                .thenReturn(List.of(last.getAppointmentId()));
+        when(appointmentRepository.fetchUsersAndVehicleTypeByAppointmentIdIn(anyList()))
+                .thenReturn(firstBatch, List.of(last));
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<Integer>>getArgument(0).doInTransaction(null));
+        when(appointmentListViewRepository.deleteOrphanRows()).thenReturn(3);
+
+        assertEquals(201, appointmentListViewService.rebuildAll());
+
+        // Batch cuối thiếu phần tử -> dừng, không quét thêm; mỗi batch 1 transaction
+        verify(appointmentRepository, times(2)).findAppointmentIdsAfter(any(), any(Pageable.class));
+        verify(transactionTemplate, times(2)).executeWithoutResult(any());
+        verify(appointmentListViewRepository, times(2)).saveAll(anyList());
+        verify(appointmentListViewRepository).deleteOrphanRows();
+    }
+
+    @Test
+    void testSearchAppointments_ShouldNormalizeFiltersAndMapPage() {
+        Pageable pageable = PageRequest.of(1, 5);
+        AppointmentListItemResponse item = listItem();
+        when(appointmentListViewRepository.findListItems(any(), any(), any(), any(), any(), any()))
+                .thenReturn(new PageImpl<>(List.of(item), pageable, 6));
+
+        PageResponse<AppointmentListItemResponse> response = appointmentListViewService.searchAppointments(
+                " Nguyen Van ", "confirmed", "stationary", "2026-10-01", "2026-10-31", pageable);
+
+        verify(appointmentListViewRepository).findListItems(
+                "nguyenvan",
+                AppointmentStatusEnum.CONFIRMED,
+                ServiceModeEnum.STATIONARY,
+                LocalDate.of(2026, 10, 1).atTime(LocalTime.MIN),
+                LocalDate.of(2026, 10, 31).atTime(LocalTime.MAX),
+                pageable);
+        assertEquals(List.of(item), response.getData());
+        assertEquals(1, response.getPage());
+        assertEquals(5, response.getSize());
+        assertEquals(6, response.getTotalElements());
+        assertEquals(2, response.getTotalPages());
+        assertTrue(response.isLast());
+    }
+
+    @Test
+    void testSearchAppointments_WithBlankFilters_ShouldPassNulls() {
+        Pageable pageable = PageRequest.of(0, 10);
+        when(appointmentListViewRepository.findListItems(null, null, null, null, null, pageable))
+                .thenReturn(Page.empty(pageable));
+
+        PageResponse<AppointmentListItemResponse> response = appointmentListViewService.searchAppointments(
+                "  ", null, "", null, " ", pageable);
+
+        assertTrue(response.getData().isEmpty());
+        assertEquals(0, response.getTotalElements());
+    }
+
+    @Test
+    void testSearchAppointments_WithInvalidFilter_ShouldThrow() {
+        Pageable pageable = PageRequest.of(0, 10);
+
+        assertThrows(EntityValidationException.class, () -> appointmentListViewService.searchAppointments(
+                null, "UNKNOWN", null, null, null, pageable));
+        assertThrows(EntityValidationException.class, () -> appointmentListViewService.searchAppointments(
+                null, null, "UNKNOWN", null, null, pageable));
+        assertThrows(EntityValidationException.class, () -> appointmentListViewService.searchAppointments(
+                null, null, null, "01/10/2026", null, pageable));
+        verifyNoInteractions(appointmentListViewRepository);
+    }
+
+    @Test
+    void testGetAppointmentsByCustomerId_ShouldFilterByCustomerAndPage() {
+        Pageable pageable = PageRequest.of(0, 1);
+        AppointmentListItemResponse item = listItem();
+        when(appointmentListViewRepository.findListItemsByCustomerId(customer.getUserId(), "xe", pageable))
+                .thenReturn(new PageImpl<>(List.of(item), pageable, 3));
+
+        PageResponse<AppointmentListItemResponse> response = appointmentListViewService.getAppointmentsByCustomerId(
+                customer.getUserId(), "XE", pageable);
+
+        assertEquals(1, response.getData().size());
+        assertEquals(3, response.getTotalPages());
+        assertFalse(response.isLast());
+    }
+
+    private AppointmentEntity appointment(AppointmentStatusEnum status) {
+        ServiceTypeEntity serviceType = new ServiceTypeEntity();
+        serviceType.setServiceTypeId(UUID.randomUUID());
+        serviceType.setServiceName("Bảo dưỡng định kỳ");
+
+        AppointmentEntity appointment = new AppointmentEntity();
+        appointment.setAppointmentId(UUID.randomUUID());
+        appointment.setCustomer(customer);
+        appointment.setCustomerFullName(customer.getFullName());
+        appointment.setStatus(status);
+        appointment.setServiceMode(ServiceModeEnum.STATIONARY);
+        appointment.setScheduledAt(LocalDateTime.now().plusDays(1));
+        appointment.setQuotePrice(new BigDecimal("500000"));
+        appointment.setServiceTypeEntities(new ArrayList<>(List.of(serviceType)));
+        return appointment;
+    }
+
+    private AppointmentListItemResponse listItem() {
+        return new AppointmentListItemResponse(UUID.randomUUID(), customer.getUserId(), customer.getFullName(), null, null,
+                null, null, "", "Bảo dưỡng định kỳ", ServiceModeEnum.STATIONARY, AppointmentStatusEnum.CONFIRMED,
+                null, null, null, LocalDateTime.now(), BigDecimal.ZERO, false);
+    }
+}
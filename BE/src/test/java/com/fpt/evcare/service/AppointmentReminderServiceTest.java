@@ -0,0 +1,97 @@
+package com.fpt.evcare.service;
+
+import com.fpt.evcare.constants.AppointmentConstants;
+import com.fpt.evcare.dto.request.EmailRequestDTO;
+import com.fpt.evcare.entity.AppointmentEntity;
+import com.fpt.evcare.entity.UserEntity;
+import com.fpt.evcare.repository.AppointmentRepository;
+import com.fpt.evcare.serviceimpl.AppointmentReminderServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AppointmentReminderServiceTest {
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private EmailOutboxService emailOutboxService;
+
+    @Mock
+    private NotificationHelperService notificationHelperService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AppointmentReminderServiceImpl appointmentReminderService;
+
+    @BeforeEach
+    void setUp() {
+        appointmentReminderService = new AppointmentReminderServiceImpl(appointmentRepository, emailOutboxService,
+                notificationHelperService, new TransactionTemplate(transactionManager), Duration.ofHours(24), 2);
+    }
+
+    @Test
+    void testSendDueReminders_ShouldEmailAndNotifyClaimedAppointments() {
+        UserEntity customer = new UserEntity();
+        customer.setUserId(UUID.randomUUID());
+        AppointmentEntity member = appointment(customer, "member@evcare.vn");
+        AppointmentEntity walkIn = appointment(null, null);
+        when(appointmentRepository.claimDueReminders(any(), any(), eq(86400L), eq(2)))
+                .thenReturn(List.of(member, walkIn))
+                .thenReturn(List.of());
+
+        assertEquals(2, appointmentReminderService.sendDueReminders());
+
+        // Lô đầy (2 = batchSize) nên lấy thêm 1 lô, lô sau rỗng thì dừng
+        verify(appointmentRepository, times(2)).claimDueReminders(any(), any(), anyLong(), anyInt());
+        verify(emailOutboxService).enqueue(argThat((EmailRequestDTO email) ->
+                email.getTo().equals("member@evcare.vn")
+                        && email.getSubject().equals(AppointmentConstants.EMAIL_SUBJECT_REMINDER)
+                        && email.getText().contains(member.getVehicleNumberPlate())));
+        verify(notificationHelperService).sendNotification(eq(customer.getUserId()),
+                argThat(notif -> notif.getAppointmentId().equals(member.getAppointmentId().toString())));
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void testSendDueReminders_OutboxFailure_ShouldRollBackWithoutNotifying() {
+        UserEntity customer = new UserEntity();
+        customer.setUserId(UUID.randomUUID());
+        when(appointmentRepository.claimDueReminders(any(), any(), anyLong(), anyInt()))
+                .thenReturn(List.of(appointment(customer, "member@evcare.vn")));
+        doThrow(new IllegalStateException("Outbox down")).when(emailOutboxService).enqueue(any());
+
+        assertThrows(IllegalStateException.class, () -> appointmentReminderService.sendDueReminders());
+
+        // Rollback bỏ đánh dấu reminded_for, lượt quét sau nhắc lại
+        verify(transactionManager).rollback(any());
+        verify(notificationHelperService, never()).sendNotification(any(), any());
+    }
+
+    private AppointmentEntity appointment(UserEntity customer, String email) {
+        AppointmentEntity appointment = new AppointmentEntity();
+        appointment.setAppointmentId(UUID.randomUUID());
+        appointment.setCustomer(customer);
+        appointment.setCustomerEmail(email);
+        appointment.setCustomerFullName("Nguyễn Văn A");
+        appointment.setVehicleNumberPlate("51A-12345");
+        appointment.setScheduledAt(LocalDateTime.now().plusHours(20));
+        return appointment;
+    }
+}
@@ -0,0 +1,169 @@
+package com.fpt.evcare.service;
+
+import com.fpt.evcare.dto.response.AppointmentResponse;
+import com.fpt.evcare.dto.response.PageResponse;
+import com.fpt.evcare.entity.AppointmentEntity;
+import com.fpt.evcare.entity.RoleEntity;
+import com.fpt.evcare.entity.ServiceTypeEntity;
+import com.fpt.evcare.entity.UserEntity;
+import com.fpt.evcare.entity.VehicleTypeEntity;
+import com.fpt.evcare.enums.RoleEnum;
+import com.fpt.evcare.enums.ServiceModeEnum;
+import com.fpt.evcare.mapper.AppointmentMapperImpl;
+import com.fpt.evcare.mapper.InvoiceMapper;
+import com.fpt.evcare.serviceimpl.AppointmentServiceImpl;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Đếm số câu SQL thật (Hibernate Statistics) khi lấy 1 trang danh sách cuộc hẹn, gồm cả lazy load
+ * trong initializeAppointmentRelations và mapper: số câu không được tăng theo số dòng của trang
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@Import({AppointmentServiceImpl.class, AppointmentMapperImpl.class})
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:appointment-query-count;MODE=PostgreSQL",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.sql.init.mode=never"
+})
+class AppointmentServiceQueryCountTest {
+
+    // 1 query phân trang + 1 COUNT + 2 query batch-load quan hệ (user/kỹ thuật viên, dịch vụ)
+    // + EAGER theo số bản ghi khác nhau, không theo số dòng: 1 loại xe + 3 role (role_permissions)
+    private static final long EXPECTED_STATEMENTS_PER_PAGE = 8;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private VehiclePartService vehiclePartService;
+    @MockitoBean
+    private MaintenanceManagementService maintenanceManagementService;
+    @MockitoBean
+    private PricingService pricingService;
+    @MockitoBean
+    private QuoteService quoteService;
+    @MockitoBean
+    private EmailOutboxService emailOutboxService;
+    @MockitoBean
+    private InvoiceMapper invoiceMapper;
+    @MockitoBean
+    private NotificationHelperService notificationHelperService;
+    @MockitoBean
+    private RedisService<String> redisService;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        RoleEntity customerRole = persistRole(RoleEnum.CUSTOMER);
+        RoleEntity technicianRole = persistRole(RoleEnum.TECHNICIAN);
+        RoleEntity staffRole = persistRole(RoleEnum.STAFF);
+
+        VehicleTypeEntity vehicleType = new VehicleTypeEntity();
+        vehicleType.setVehicleTypeName("VF 8");
+        entityManager.persist(vehicleType);
+
+        ServiceTypeEntity maintenance = persistServiceType("Bảo dưỡng", null, vehicleType);
+        ServiceTypeEntity brakeCheck = persistServiceType("Kiểm tra phanh", maintenance, vehicleType);
+        ServiceTypeEntity batteryCheck = persistServiceType("Kiểm tra pin", maintenance, vehicleType);
+
+        UserEntity staff = persistUser("staff", staffRole);
+        List<UserEntity> technicians = List.of(persistUser("tech-1", technicianRole), persistUser("tech-2", technicianRole));
+
+        // Mỗi cuộc hẹn có khách, người phụ trách, 2 kỹ thuật viên và 2 dịch vụ riêng -> lazy load từng dòng sẽ lộ ra
+        for (int i = 0; i < 20; i++) {
+            UserEntity customer = persistUser("customer-" + i, customerRole);
+            AppointmentEntity appointment = new AppointmentEntity();
+            appointment.setCustomer(customer);
+            appointment.setCustomerFullName(customer.getFullName());
+            appointment.setCustomerEmail(customer.getEmail());
+            appointment.setAssignee(staff);
+            appointment.setTechnicianEntities(new ArrayList<>(technicians));
+            appointment.setServiceTypeEntities(new ArrayList<>(List.of(brakeCheck, batteryCheck)));
+            appointment.setVehicleTypeEntity(vehicleType);
+            appointment.setServiceMode(ServiceModeEnum.STATIONARY);
+            appointment.setScheduledAt(LocalDateTime.now().plusDays(i));
+            appointment.setQuotePrice(new BigDecimal("500000"));
+            entityManager.persist(appointment);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void testSearchAppointment_ShouldUseFixedNumberOfStatementsPerPage() {
+        assertEquals(EXPECTED_STATEMENTS_PER_PAGE, countStatements(5));
+        assertEquals(EXPECTED_STATEMENTS_PER_PAGE, countStatements(15));
+    }
+
+    private long countStatements(int pageSize) {
+        entityManager.clear();
+        statistics.clear();
+
+        PageResponse<AppointmentResponse> result = appointmentService.searchAppointment(null, PageRequest.of(0, pageSize));
+
+        assertEquals(pageSize, result.getData().size());
+        result.getData().forEach(appointment -> {
+            assertEquals(2, appointment.getTechnicianResponses().size());
+            assertEquals(1, appointment.getServiceTypeResponses().size());
+        });
+        return statistics.getPrepareStatementCount();
+    }
+
+    private RoleEntity persistRole(RoleEnum roleName) {
+        RoleEntity role = new RoleEntity();
+        role.setRoleName(roleName);
+        entityManager.persist(role);
+        return role;
+    }
+
+    private UserEntity persistUser(String username, RoleEntity role) {
+        UserEntity user = new UserEntity();
+        user.setUsername(username);
+        user.setEmail(username + "@evcare.vn");
+        user.setFullName(username);
+        user.setRole(role);
+        entityManager.persist(user);
+        return user;
+    }
+
+    private ServiceTypeEntity persistServiceType(String name, ServiceTypeEntity parent, VehicleTypeEntity vehicleType) {
+        ServiceTypeEntity serviceType = new ServiceTypeEntity();
+        serviceType.setServiceName(name);
+        serviceType.setParent(parent);
+        serviceType.setParentId(parent != null ? parent.getServiceTypeId() : null);
+        serviceType.setVehicleTypeEntity(vehicleType);
+        entityManager.persist(serviceType);
+        return serviceType;
+    }
+}
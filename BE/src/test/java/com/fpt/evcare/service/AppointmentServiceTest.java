@@ -0,0 +1,205 @@
+package com.fpt.evcare.service;
+
+import com.fpt.evcare.dto.response.AppointmentResponse;
+import com.fpt.evcare.dto.response.CursorPageResponse;
+import com.fpt.evcare.dto.response.PageResponse;
+import com.fpt.evcare.entity.AppointmentEntity;
+import com.fpt.evcare.exception.IllegalArgumentException;
+import com.fpt.evcare.mapper.AppointmentMapper;
+import com.fpt.evcare.repository.AppointmentRepository;
+import com.fpt.evcare.repository.ServiceTypeRepository;
+import com.fpt.evcare.repository.UserRepository;
+import com.fpt.evcare.serviceimpl.AppointmentServiceImpl;
+import com.fpt.evcare.utils.CursorUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AppointmentServiceTest {
+
+    private static final int PAGE_SIZE = 50;
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private AppointmentMapper appointmentMapper;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ServiceTypeRepository serviceTypeRepository;
+
+    @InjectMocks
+    private AppointmentServiceImpl appointmentService;
+
+    private List<AppointmentEntity> buildPage() {
+        return IntStream.range(0, PAGE_SIZE)
+                .mapToObj(i -> {
+                    AppointmentEntity entity = new AppointmentEntity();
+                    entity.setAppointmentId(UUID.randomUUID());
+                    entity.setTechnicianEntities(new ArrayList<>());
+                    entity.setServiceTypeEntities(new ArrayList<>());
+                    return entity;
+                })
+                .toList();
+    }
+
+    // Service chỉ gọi repository batch-load 1 lần cho cả trang; số câu SQL thật được kiểm ở AppointmentServiceQueryCountTest
+    @Test
+    void testSearchAppointment_ShouldBatchLoadRelationsOncePerPage() {
+        Pageable pageable = PageRequest.of(0, PAGE_SIZE);
+        List<AppointmentEntity> content = buildPage();
+
+        when(appointmentRepository.findByIsDeletedFalse(pageable))
+                .thenReturn(new PageImpl<>(content, pageable, 500));
+        when(appointmentMapper.toResponse(any(AppointmentEntity.class)))
+                .thenAnswer(invocation -> new AppointmentResponse());
+
+        PageResponse<AppointmentResponse> result = appointmentService.searchAppointment(null, pageable);
+
+        assertEquals(PAGE_SIZE, result.getData().size());
+        verify(appointmentRepository, times(1)).findByIsDeletedFalse(pageable);
+        verify(appointmentRepository, times(1)).fetchUsersAndVehicleTypeByAppointmentIdIn(argThat(ids -> ids.size() == PAGE_SIZE));
+        verify(appointmentRepository, times(1)).fetchServiceTypesByAppointmentIdIn(argThat(ids -> ids.size() == PAGE_SIZE));
+        verifyNoMoreInteractions(appointmentRepository);
+        verifyNoInteractions(userRepository, serviceTypeRepository);
+    }
+
+    @Test
+    void testSearchAppointmentWithFilters_ShouldBatchLoadRelationsOncePerPage() {
+        Pageable pageable = PageRequest.of(3, PAGE_SIZE);
+        List<AppointmentEntity> content = buildPage();
+
+        when(appointmentRepository.findAppointmentsWithFilters(any(), any(), any(), any(), any(), eq(pageable)))
+                .thenReturn(new PageImpl<>(content, pageable, 500));
+        when(appointmentMapper.toResponse(any(AppointmentEntity.class)))
+                .thenAnswer(invocation -> new AppointmentResponse());
+
+        PageResponse<AppointmentResponse> result = appointmentService.searchAppointmentWithFilters(
+                "abc", "PENDING", null, null, null, pageable);
+
+        assertEquals(PAGE_SIZE, result.getData().size());
+        verify(appointmentRepository, times(1)).fetchUsersAndVehicleTypeByAppointmentIdIn(anyCollection());
+        verify(appointmentRepository, times(1)).fetchServiceTypesByAppointmentIdIn(anyCollection());
+        verify(appointmentRepository, times(1)).findAppointmentsWithFilters(any(), any(), any(), any(), any(), eq(pageable));
+        verifyNoMoreInteractions(appointmentRepository);
+    }
+
+    @Test
+    void testSearchAppointment_EmptyPage_ShouldNotRunBatchQueries() {
+        Pageable pageable = PageRequest.of(0, PAGE_SIZE);
+        when(appointmentRepository.findByIsDeletedFalse(pageable))
+                .thenReturn(new PageImpl<>(List.of(), pageable, 0));
+
+        PageResponse<AppointmentResponse> result = appointmentService.searchAppointment("", pageable);
+
+        assertTrue(result.getData().isEmpty());
+        verify(appointmentRepository, never()).fetchUsersAndVehicleTypeByAppointmentIdIn(anyCollection());
+        verify(appointmentRepository, never()).fetchServiceTypesByAppointmentIdIn(anyCollection());
+    }
+
+    @Test
+    void testSearchAppointmentWithCursor_ShouldFetchOneExtraRowAndSkipCountByDefault() {
+        List<AppointmentEntity> content = new ArrayList<>(buildPage());
+        LocalDateTime scheduledAt = LocalDateTime.of(2025, 1, 1, 9, 0);
+        content.forEach(entity -> {
+            entity.setIsWarrantyAppointment(false);
+            entity.setScheduledAt(scheduledAt);
+        });
+        when(appointmentRepository.findAppointmentsWithFiltersAfter(any(), any(), any(), any(), any(), any(), any(), any(), eq(11)))
+                .thenReturn(content.subList(0, 11));
+        when(appointmentMapper.toResponse(any(AppointmentEntity.class)))
+                .thenAnswer(invocation -> new AppointmentResponse());
+
+        CursorPageResponse<AppointmentResponse> result = appointmentService.searchAppointmentWithCursor(
+                null, null, null, null, null, null, 10, false);
+
+        assertEquals(10, result.getData().size());
+        assertTrue(result.isHasNext());
+        assertNull(result.getTotalElements());
+        String[] cursor = CursorUtil.decode(result.getNextCursor(), 3);
+        assertEquals("false", cursor[0]);
+        assertEquals(scheduledAt.toString(), cursor[1]);
+        assertEquals(content.get(9).getAppointmentId().toString(), cursor[2]);
+        verify(appointmentRepository, never()).countAppointmentsWithFilters(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void testSearchAppointmentWithCursor_ShouldPassDecodedCursorToKeysetQuery() {
+        UUID lastId = UUID.randomUUID();
+        LocalDateTime scheduledAt = LocalDateTime.of(2025, 3, 15, 14, 30);
+        String cursor = CursorUtil.encode(true, scheduledAt, lastId);
+        when(appointmentRepository.findAppointmentsWithFiltersAfter(any(), any(), any(), any(), any(), any(), any(), any(), anyInt()))
+                .thenReturn(List.of());
+        when(appointmentRepository.countAppointmentsWithFilters(any(), any(), any(), any(), any())).thenReturn(42L);
+
+        CursorPageResponse<AppointmentResponse> result = appointmentService.searchAppointmentWithCursor(
+                "abc", null, null, null, null, cursor, 10, true);
+
+        assertFalse(result.isHasNext());
+        assertNull(result.getNextCursor());
+        assertEquals(42L, result.getTotalElements());
+        verify(appointmentRepository).findAppointmentsWithFiltersAfter(
+                "abc", null, null, null, null, "true", scheduledAt.toString(), lastId.toString(), 11);
+    }
+
+    @Test
+    void testSearchAppointmentWithCursor_LastRowWithoutScheduledAt_ShouldRoundTripNullCursor() {
+        List<AppointmentEntity> content = new ArrayList<>(buildPage()).subList(0, 3);
+        content.forEach(entity -> {
+            entity.setIsWarrantyAppointment(true);
+            entity.setScheduledAt(null);
+        });
+        when(appointmentRepository.findAppointmentsWithFiltersAfter(any(), any(), any(), any(), any(), any(), any(), any(), eq(3)))
+                .thenReturn(content);
+        when(appointmentMapper.toResponse(any(AppointmentEntity.class)))
+                .thenAnswer(invocation -> new AppointmentResponse());
+
+        CursorPageResponse<AppointmentResponse> firstPage = appointmentService.searchAppointmentWithCursor(
+                null, null, null, null, null, null, 2, false);
+
+        // scheduled_at NULL được mã hóa thành phần rỗng, không phải chuỗi "null"
+        String[] cursor = CursorUtil.decode(firstPage.getNextCursor(), 3);
+        assertEquals("", cursor[1]);
+
+        appointmentService.searchAppointmentWithCursor(null, null, null, null, null, firstPage.getNextCursor(), 2, false);
+
+        verify(appointmentRepository).findAppointmentsWithFiltersAfter(
+                null, null, null, null, null, "true", null, content.get(1).getAppointmentId().toString(), 3);
+    }
+
+    @Test
+    void testSearchAppointmentWithCursor_InvalidCursor_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> appointmentService.searchAppointmentWithCursor(
+                null, null, null, null, null, "not-a-cursor", 10, false));
+        verifyNoInteractions(appointmentRepository);
+    }
+
+    @Test
+    void testSearchAppointmentWithCursor_NonBooleanWarrantyPart_ShouldThrow() {
+        // "yes" không được âm thầm coi là false
+        String cursor = CursorUtil.encode("yes", LocalDateTime.now(), UUID.randomUUID());
+
+        assertThrows(IllegalArgumentException.class, () -> appointmentService.searchAppointmentWithCursor(
+                null, null, null, null, null, cursor, 10, false));
+        verifyNoInteractions(appointmentRepository);
+    }
+}
@@ -0,0 +1,118 @@
+package com.fpt.evcare.service;
+
+import com.fpt.evcare.dto.response.ConversationResponse;
+import com.fpt.evcare.dto.response.MessageResponse;
+import com.fpt.evcare.dto.response.PageResponse;
+import com.fpt.evcare.entity.ConversationEntity;
+import com.fpt.evcare.entity.MessageEntity;
+import com.fpt.evcare.entity.UserEntity;
+import com.fpt.evcare.mapper.MessageMapper;
+import com.fpt.evcare.repository.ConversationRepository;
+import com.fpt.evcare.repository.MessageRepository;
+import com.fpt.evcare.serviceimpl.ConversationServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConversationServiceTest {
+
+    @Mock
+    private ConversationRepository conversationRepository;
+
+    @Mock
+    private MessageRepository messageRepository;
+
+    @Mock
+    private MessageMapper messageMapper;
+
+    @InjectMocks
+    private ConversationServiceImpl conversationService;
+
+    // Thứ tự uuid cố định: lowUser < highUser
+    private final UserEntity lowUser = UserEntity.builder()
+            .userId(UUID.fromString("00000000-0000-0000-0000-000000000001")).fullName("Khách hàng").build();
+    private final UserEntity highUser = UserEntity.builder()
+            .userId(UUID.fromString("f0000000-0000-0000-0000-000000000001")).fullName("Nhân viên").build();
+
+    @Test
+    void testRecordMessageSent_ShouldUpsertCanonicalPairAndCountUnreadForReceiver() {
+        LocalDateTime sentAt = LocalDateTime.now();
+        MessageEntity message = MessageEntity.builder()
+                .messageId(UUID.randomUUID()).sender(highUser).receiver(lowUser).sentAt(sentAt).build();
+
+        conversationService.recordMessageSent(message);
+
+        verify(conversationRepository).upsertOnMessage(any(), eq(lowUser.getUserId()), eq(highUser.getUserId()),
+                eq(message.getMessageId()), eq(sentAt), eq(1), eq(0), any());
+    }
+
+    @Test
+    void testRecordMessagesRead_ShouldDecrementReaderSide() {
+        conversationService.recordMessagesRead(highUser.getUserId(), lowUser.getUserId(), 5);
+        conversationService.recordMessagesRead(highUser.getUserId(), lowUser.getUserId(), 0);
+
+        verify(conversationRepository, times(1))
+                .decrementUnreadHigh(eq(lowUser.getUserId()), eq(highUser.getUserId()), eq(5), any());
+        verify(conversationRepository, never()).decrementUnreadLow(any(), any(), anyInt(), any());
+    }
+
+    @Test
+    void testRecordMessageDeleted_ShouldPointToPreviousMessage() {
+        MessageEntity deleted = MessageEntity.builder()
+                .messageId(UUID.randomUUID()).sender(lowUser).receiver(highUser).build();
+        MessageEntity previous = MessageEntity.builder()
+                .messageId(UUID.randomUUID()).sender(highUser).receiver(lowUser)
+                .sentAt(LocalDateTime.now().minusMinutes(1)).build();
+        when(messageRepository.findLastMessage(lowUser.getUserId(), highUser.getUserId())).thenReturn(previous);
+
+        conversationService.recordMessageDeleted(deleted, true);
+
+        verify(conversationRepository).decrementUnreadHigh(eq(lowUser.getUserId()), eq(highUser.getUserId()), eq(1), any());
+        verify(conversationRepository).replaceLastMessage(eq(lowUser.getUserId()), eq(highUser.getUserId()),
+                eq(deleted.getMessageId()), eq(previous), eq(previous.getSentAt()), any());
+        verify(conversationRepository, never()).deleteByLastMessage(any(), any(), any());
+    }
+
+    @Test
+    void testGetConversations_ShouldReturnOtherUserAndOwnUnreadCount() {
+        MessageEntity lastMessage = MessageEntity.builder()
+                .messageId(UUID.randomUUID()).sender(highUser).receiver(lowUser).build();
+        ConversationEntity conversation = ConversationEntity.builder()
+                .conversationId(UUID.randomUUID())
+                .userLow(lowUser)
+                .userHigh(highUser)
+                .lastMessage(lastMessage)
+                .lastSentAt(LocalDateTime.now())
+                .unreadLowCount(3)
+                .unreadHighCount(0)
+                .build();
+        Pageable pageable = PageRequest.of(0, 20);
+        when(conversationRepository.findInbox(lowUser.getUserId(), pageable))
+                .thenReturn(new PageImpl<>(List.of(conversation), pageable, 1));
+        when(messageMapper.toResponse(lastMessage))
+                .thenReturn(MessageResponse.builder().messageId(lastMessage.getMessageId()).build());
+
+        PageResponse<ConversationResponse> response = conversationService.getConversations(lowUser.getUserId(), pageable);
+
+        assertEquals(1, response.getTotalElements());
+        ConversationResponse item = response.getData().get(0);
+        assertEquals(highUser.getUserId(), item.getOtherUserId());
+        assertEquals("Nhân viên", item.getOtherUserName());
+        assertEquals(3, item.getUnreadCount());
+        assertEquals(lastMessage.getMessageId(), item.getLastMessage().getMessageId());
+    }
+}
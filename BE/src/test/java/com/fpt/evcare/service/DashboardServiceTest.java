@@ -0,0 +1,186 @@
+package com.fpt.evcare.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fpt.evcare.dto.response.AppointmentStatsResponse;
+import com.fpt.evcare.dto.response.DashboardStatsResponse;
+import com.fpt.evcare.dto.response.UserRoleStatsResponse;
+import com.fpt.evcare.enums.AppointmentStatusEnum;
+import com.fpt.evcare.repository.AppointmentRepository;
+import com.fpt.evcare.repository.PaymentTransactionRepository;
+import com.fpt.evcare.repository.UserRepository;
+import com.fpt.evcare.serviceimpl.DashboardServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardServiceTest {
+
+    private static final String STATS_KEY = "dashboard:stats";
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private PaymentTransactionRepository paymentTransactionRepository;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private DashboardServiceImpl dashboardService;
+
+    private Map<Object, Object> buildCachedStats(YearMonth month) {
+        Map<Object, Object> cached = new HashMap<>();
+        cached.put("month", month.toString());
+        for (String field : new String[]{"totalCustomers", "totalStaff", "totalTechnicians", "activeCustomers",
+                "totalVehicles", "totalAppointments", "pendingAppointments", "confirmedAppointments",
+                "completedAppointments", "cancelledAppointments", "appointmentsLastMonth"}) {
+            cached.put(field, "10");
+        }
+        cached.put("appointmentsThisMonth", "15");
+        cached.put("monthlyRevenue", "2500000.0");
+        return cached;
+    }
+
+    // Cache hợp lệ -> trả về ngay, không chạy query COUNT nào
+    @Test
+    void testGetDashboardStats_CacheHit_ShouldNotQueryDatabase() {
+        when(stringRedisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries(STATS_KEY)).thenReturn(buildCachedStats(YearMonth.now()));
+
+        DashboardStatsResponse result = dashboardService.getDashboardStats();
+
+        assertEquals(10L, result.getTotalCustomers());
+        assertEquals(15L, result.getAppointmentsThisMonth());
+        assertEquals(2500000.0, result.getMonthlyRevenue());
+        assertEquals(50.0, result.getAppointmentGrowthRate());
+        verifyNoInteractions(userRepository, appointmentRepository, paymentTransactionRepository);
+    }
+
+    // Cache của tháng trước -> tính lại từ database và ghi đè cache
+    @Test
+    void testGetDashboardStats_StaleMonth_ShouldRecomputeAndSaveCache() {
+        when(stringRedisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries(STATS_KEY)).thenReturn(buildCachedStats(YearMonth.now().minusMonths(1)));
+        stubAggregateQueries(3L, 40L);
+
+        DashboardStatsResponse result = dashboardService.getDashboardStats();
+
+        assertEquals(3L, result.getTotalCustomers());
+        assertEquals(40L, result.getTotalAppointments());
+        verify(hashOperations).putAll(eq(STATS_KEY), argThat(values -> YearMonth.now().toString().equals(values.get("month"))));
+    }
+
+    @Test
+    void testGetDashboardStats_RedisUnavailable_ShouldFallBackToDatabase() {
+        when(stringRedisTemplate.<Object, Object>opsForHash()).thenThrow(new RedisConnectionFailureException("down"));
+        stubAggregateQueries(7L, 12L);
+
+        DashboardStatsResponse result = dashboardService.getDashboardStats();
+
+        assertEquals(7L, result.getTotalCustomers());
+    }
+
+    // Cache miss chỉ tốn 3 round trip: aggregate users, aggregate appointments, doanh thu
+    @Test
+    void testGetDashboardStats_CacheMiss_ShouldUseSinglePassAggregates() {
+        when(stringRedisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries(STATS_KEY)).thenReturn(Map.of());
+        stubAggregateQueries(20L, 100L);
+        when(paymentTransactionRepository.sumRevenueByDateRange(any(), any())).thenReturn(1500000.0);
+
+        DashboardStatsResponse result = dashboardService.getDashboardStats();
+
+        assertEquals(20L, result.getTotalCustomers());
+        assertEquals(5L, result.getTotalStaff());
+        assertEquals(18L, result.getActiveCustomers());
+        assertEquals(100L, result.getTotalAppointments());
+        assertEquals(30L, result.getPendingAppointments());
+        assertEquals(25L, result.getTotalVehicles());
+        assertEquals(1500000.0, result.getMonthlyRevenue());
+        assertEquals(100.0, result.getAppointmentGrowthRate());
+        verify(userRepository, times(1)).getUserRoleStats();
+        verify(appointmentRepository, times(1)).getAppointmentStats(any(), any(), any(), any());
+        verify(paymentTransactionRepository, times(1)).sumRevenueByDateRange(any(), any());
+        verifyNoMoreInteractions(userRepository, appointmentRepository, paymentTransactionRepository);
+    }
+
+    private void stubAggregateQueries(Long totalCustomers, Long totalAppointments) {
+        when(userRepository.getUserRoleStats())
+                .thenReturn(new UserRoleStatsResponse(totalCustomers, 5L, 8L, totalCustomers - 2));
+        when(appointmentRepository.getAppointmentStats(any(), any(), any(), any()))
+                .thenReturn(new AppointmentStatsResponse(totalAppointments, 30L, 20L, 40L, 10L, 16L, 8L, 25L));
+    }
+
+    @Test
+    void testApplyAppointmentStatusChange_ShouldMoveCounterBetweenStatuses() {
+        when(stringRedisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.get(STATS_KEY, "month")).thenReturn(YearMonth.now().toString());
+
+        dashboardService.applyAppointmentStatusChange(AppointmentStatusEnum.PENDING, AppointmentStatusEnum.CONFIRMED,
+                LocalDateTime.now());
+
+        verify(hashOperations).increment(STATS_KEY, "pendingAppointments", -1L);
+        verify(hashOperations).increment(STATS_KEY, "confirmedAppointments", 1L);
+        verify(hashOperations, never()).increment(eq(STATS_KEY), eq("totalAppointments"), anyLong());
+    }
+
+    @Test
+    void testApplyAppointmentStatusChange_NewAppointment_ShouldIncrementTotalsAndMonth() {
+        when(stringRedisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.get(STATS_KEY, "month")).thenReturn(YearMonth.now().toString());
+
+        dashboardService.applyAppointmentStatusChange(null, AppointmentStatusEnum.PENDING, LocalDateTime.now());
+
+        verify(hashOperations).increment(STATS_KEY, "totalAppointments", 1L);
+        verify(hashOperations).increment(STATS_KEY, "appointmentsThisMonth", 1L);
+        verify(hashOperations).increment(STATS_KEY, "pendingAppointments", 1L);
+    }
+
+    @Test
+    void testApplyAppointmentStatusChange_NoCache_ShouldDoNothing() {
+        when(stringRedisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+
+        dashboardService.applyAppointmentStatusChange(null, AppointmentStatusEnum.PENDING, LocalDateTime.now());
+
+        verify(hashOperations, never()).increment(anyString(), any(), anyLong());
+    }
+
+    @Test
+    void testApplyPaymentCompleted_ShouldAddRevenueOfCurrentMonthOnly() {
+        when(stringRedisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.get(STATS_KEY, "month")).thenReturn(YearMonth.now().toString());
+
+        dashboardService.applyPaymentCompleted(new BigDecimal("350000"), LocalDateTime.now());
+        dashboardService.applyPaymentCompleted(new BigDecimal("100000"), LocalDateTime.now().minusMonths(2));
+
+        verify(hashOperations, times(1)).increment(STATS_KEY, "monthlyRevenue", 350000.0);
+        verify(hashOperations, times(1)).increment(anyString(), any(), anyDouble());
+    }
+}
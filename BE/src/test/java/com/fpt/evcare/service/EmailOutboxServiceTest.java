@@ -0,0 +1,186 @@
+package com.fpt.evcare.service;
+
+import com.fpt.evcare.dto.request.EmailRequestDTO;
+import com.fpt.evcare.entity.EmailOutboxEntity;
+import com.fpt.evcare.enums.EmailOutboxStatusEnum;
+import com.fpt.evcare.repository.EmailOutboxRepository;
+import com.fpt.evcare.serviceimpl.EmailOutboxServiceImpl;
+import com.fpt.evcare.serviceimpl.EmailServiceImpl;
+import com.fpt.evcare.utils.UtilFunction;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class EmailOutboxServiceTest {
+
+    // SMTP thật chạy trong bộ nhớ thay cho Gmail
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private EmailOutboxRepository emailOutboxRepository;
+    // Số lần mở kết nối SMTP
+    private final AtomicInteger smtpConnections = new AtomicInteger();
+    private EmailOutboxServiceImpl emailOutboxService;
+
+    @BeforeEach
+    void setUp() {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl() {
+            @Override
+            protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) {
+                smtpConnections.incrementAndGet();
+                super.doSend(mimeMessages, originalMessages);
+            }
+        };
+        mailSender.setHost("localhost");
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setCharacterEncoding("UTF-8");
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+
+        EmailServiceImpl emailService = new EmailServiceImpl(mailSender, templateEngine);
+        ReflectionTestUtils.setField(emailService, "fromEmail", "noreply@evcare.vn");
+        ReflectionTestUtils.setField(emailService, "fromName", "EVcare Support");
+
+        emailOutboxRepository = mock(EmailOutboxRepository.class);
+        emailOutboxService = new EmailOutboxServiceImpl(emailOutboxRepository, emailService,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                2, 2, 10, 2, 3, Duration.ofSeconds(30), Duration.ofMinutes(30), Duration.ofMinutes(5), Duration.ofDays(7));
+    }
+
+    @AfterEach
+    void tearDown() {
+        emailOutboxService.shutdown();
+    }
+
+    @Test
+    void testDispatchDueEmails_ShouldSendBatchAndMarkSent() throws Exception {
+        EmailOutboxEntity first = pendingEmail("a@evcare.vn", 1);
+        EmailOutboxEntity second = pendingEmail("b@evcare.vn", 1);
+        when(emailOutboxRepository.claimDueBatch(any(), any(), eq(10))).thenReturn(List.of(first, second));
+
+        assertEquals(2, emailOutboxService.dispatchDueEmails());
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(2, received.length);
+        assertEquals("Xác nhận lịch hẹn", received[0].getSubject());
+        verify(emailOutboxRepository).markSent(argThat((Collection<UUID> ids) ->
+                ids.containsAll(List.of(first.getEmailOutboxId(), second.getEmailOutboxId()))), any());
+        verify(emailOutboxRepository, never()).scheduleRetry(any(), any(), any());
+    }
+
+    @Test
+    void testDispatchDueEmails_ShouldReuseSmtpConnectionPerChunk() {
+        List<EmailOutboxEntity> batch = List.of(pendingEmail("a@evcare.vn", 1), pendingEmail("b@evcare.vn", 1),
+                pendingEmail("c@evcare.vn", 1), pendingEmail("d@evcare.vn", 1));
+        when(emailOutboxRepository.claimDueBatch(any(), any(), anyInt())).thenReturn(batch);
+
+        emailOutboxService.dispatchDueEmails();
+
+        // 4 email, 2 worker, tối đa 2 email mỗi kết nối: 2 kết nối thay vì 4
+        assertEquals(4, greenMail.getReceivedMessages().length);
+        assertEquals(2, smtpConnections.get());
+        verify(emailOutboxRepository).markSent(argThat((Collection<UUID> ids) -> ids.size() == 4), any());
+    }
+
+    @Test
+    void testDispatchDueEmails_SmtpFailure_ShouldScheduleRetryWithBackoff() {
+        greenMail.stop();
+        EmailOutboxEntity email = pendingEmail("a@evcare.vn", 2);
+        when(emailOutboxRepository.claimDueBatch(any(), any(), anyInt())).thenReturn(List.of(email));
+
+        LocalDateTime before = LocalDateTime.now();
+        emailOutboxService.dispatchDueEmails();
+
+        // Lần thử thứ 2 lỗi: chờ 30s * 2
+        verify(emailOutboxRepository).scheduleRetry(eq(email.getEmailOutboxId()),
+                argThat(next -> !next.isBefore(before.plusSeconds(60))), anyString());
+        verify(emailOutboxRepository, never()).markSent(any(), any());
+        verify(emailOutboxRepository, never()).markFailed(any(), any());
+    }
+
+    @Test
+    void testDispatchDueEmails_LastAttemptFails_ShouldMarkFailed() {
+        greenMail.stop();
+        EmailOutboxEntity email = pendingEmail("a@evcare.vn", 3);
+        when(emailOutboxRepository.claimDueBatch(any(), any(), anyInt())).thenReturn(List.of(email));
+
+        emailOutboxService.dispatchDueEmails();
+
+        verify(emailOutboxRepository).markFailed(eq(email.getEmailOutboxId()), anyString());
+        verify(emailOutboxRepository, never()).scheduleRetry(any(), any(), any());
+    }
+
+    @Test
+    void testEnqueue_SameIdempotencyKey_ShouldUseSameDedupKey() {
+        emailOutboxService.enqueue(otpEmail("123456"), "invoice-paid:1");
+        emailOutboxService.enqueue(otpEmail("123456"), "invoice-paid:1");
+        emailOutboxService.enqueue(otpEmail("123456"), "invoice-paid:2");
+
+        ArgumentCaptor<String> dedupKeys = ArgumentCaptor.forClass(String.class);
+        verify(emailOutboxRepository, times(3)).insertIfAbsent(any(), dedupKeys.capture(),
+                eq("a@evcare.vn"), any(), any(), any(), any(), any());
+        List<String> keys = dedupKeys.getAllValues();
+        assertEquals(UtilFunction.sha256Hex("invoice-paid:1"), keys.get(0));
+        assertEquals(keys.get(0), keys.get(1));
+        assertNotEquals(keys.get(0), keys.get(2));
+    }
+
+    @Test
+    void testEnqueue_WithoutIdempotencyKey_ShouldNotDedupSameContent() {
+        // Gửi lại cùng nội dung có chủ đích (VD: cùng thông báo 2 lần) không được bị nuốt
+        emailOutboxService.enqueue(otpEmail("123456"));
+        emailOutboxService.enqueue(otpEmail("123456"));
+
+        ArgumentCaptor<String> dedupKeys = ArgumentCaptor.forClass(String.class);
+        verify(emailOutboxRepository, times(2)).insertIfAbsent(any(), dedupKeys.capture(),
+                eq("a@evcare.vn"), any(), any(), any(), any(), any());
+        assertNotEquals(dedupKeys.getAllValues().get(0), dedupKeys.getAllValues().get(1));
+    }
+
+    private EmailRequestDTO otpEmail(String code) {
+        return EmailRequestDTO.builder()
+                .to("a@evcare.vn")
+                .subject("Mã OTP")
+                .text("Vui lòng sử dụng mã xác nhận bên dưới")
+                .code(code)
+                .build();
+    }
+
+    private EmailOutboxEntity pendingEmail(String recipient, int attempts) {
+        EmailOutboxEntity email = new EmailOutboxEntity();
+        email.setEmailOutboxId(UUID.randomUUID());
+        email.setRecipient(recipient);
+        email.setSubject("Xác nhận lịch hẹn");
+        email.setBody("Lịch hẹn của bạn đã được xác nhận");
+        email.setFullName("Nguyễn Văn A");
+        email.setStatus(EmailOutboxStatusEnum.PENDING);
+        email.setAttempts(attempts);
+        return email;
+    }
+}
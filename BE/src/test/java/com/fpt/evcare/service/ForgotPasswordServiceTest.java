@@ -6,16 +6,15 @@ import com.fpt.evcare.dto.request.ResetPasswordRequest;
 import com.fpt.evcare.dto.response.VerifyOtpResponse;
 import com.fpt.evcare.entity.UserEntity;
 import com.fpt.evcare.exception.OtpExpiredException;
-import com.fpt.evcare.exception.ResourceNotFoundException;
 import com.fpt.evcare.repository.UserRepository;
 import com.fpt.evcare.serviceimpl.ForgotPasswordServiceImpl;
-import jakarta.mail.MessagingException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.concurrent.TimeUnit;
@@ -40,7 +39,7 @@ class ForgotPasswordServiceTest {
     private PasswordEncoder passwordEncoder;
 
     @Mock
-    private EmailService emailService; // Chỉ sử dụng interface EmailService
+    private EmailOutboxService emailOutboxService;
 
     @InjectMocks
     private ForgotPasswordServiceImpl forgotPasswordService;
@@ -51,7 +50,7 @@ class ForgotPasswordServiceTest {
 
     @BeforeEach
     void setUp() {
-        reset(userService, userRepository, redisService, passwordEncoder, emailService);
+        reset(userService, userRepository, redisService, passwordEncoder, emailOutboxService);
     }
 
     @Test
@@ -153,12 +152,11 @@ class ForgotPasswordServiceTest {
     }
 
     @Test
-    void testRequestOtp_Success() throws MessagingException {
+    void testRequestOtp_Success() {
         UserEntity user = new UserEntity();
         user.setEmail(email);
         when(userService.getUserByEmail(email)).thenReturn(user);
         when(redisService.getValue(ForgotPasswordConstants.OTP_REDIS_KEY_PREFIX + email)).thenReturn(null);
-        doNothing().when(emailService).sendEmailTemplate(any(EmailRequestDTO.class));
 
         forgotPasswordService.requestOtp(email);
 
@@ -174,7 +172,7 @@ class ForgotPasswordServiceTest {
                 eq(ForgotPasswordConstants.OTP_TTL_MINUTES),
                 eq(TimeUnit.MINUTES)
         );
-        verify(emailService).sendEmailTemplate(argThat(dto ->
+        verify(emailOutboxService).enqueue(argThat(dto ->
                 email.equals(dto.getTo()) &&
                         dto.getCode() != null &&
                         dto.getCode().length() == ForgotPasswordConstants.DEFAULT_OTP_LENGTH
@@ -182,23 +180,23 @@ class ForgotPasswordServiceTest {
     }
 
     @Test
-    void testRequestOtp_ActiveOtpExists() throws MessagingException {
+    void testRequestOtp_ActiveOtpExists() {
         when(redisService.getValue(ForgotPasswordConstants.OTP_REDIS_KEY_PREFIX + email)).thenReturn(otp);
 
         assertThrows(IllegalStateException.class, () -> forgotPasswordService.requestOtp(email));
-        verify(emailService, never()).sendEmailTemplate(any(EmailRequestDTO.class));
+        verify(emailOutboxService, never()).enqueue(any(EmailRequestDTO.class));
         verify(userService, never()).getUserByEmail(anyString());
     }
 
     @Test
-    void testRequestOtp_EmailServiceThrowsMessagingException() throws MessagingException {
+    void testRequestOtp_EmailOutboxUnavailable() {
         UserEntity user = new UserEntity();
         user.setEmail(email);
         when(userService.getUserByEmail(email)).thenReturn(user);
         when(redisService.getValue(ForgotPasswordConstants.OTP_REDIS_KEY_PREFIX + email)).thenReturn(null);
-        doThrow(new MessagingException("Email error")).when(emailService).sendEmailTemplate(any(EmailRequestDTO.class));
+        doThrow(new DataAccessResourceFailureException("Outbox error")).when(emailOutboxService).enqueue(any(EmailRequestDTO.class));
 
-        assertThrows(ResourceNotFoundException.class, () -> forgotPasswordService.requestOtp(email));
+        assertThrows(DataAccessResourceFailureException.class, () -> forgotPasswordService.requestOtp(email));
 
         verify(redisService).save(
                 eq(ForgotPasswordConstants.OTP_REDIS_KEY_PREFIX + email),
@@ -212,7 +210,7 @@ class ForgotPasswordServiceTest {
                 eq(ForgotPasswordConstants.OTP_TTL_MINUTES),
                 eq(TimeUnit.MINUTES)
         );
-        verify(emailService).sendEmailTemplate(any(EmailRequestDTO.class));
+        verify(emailOutboxService).enqueue(any(EmailRequestDTO.class));
     }
 
     @Test
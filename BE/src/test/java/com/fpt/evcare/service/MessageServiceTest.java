@@ -0,0 +1,108 @@
+package com.fpt.evcare.service;
+
+import com.fpt.evcare.dto.request.message.MessageAckRequest;
+import com.fpt.evcare.dto.response.MessageAckResponse;
+import com.fpt.evcare.enums.MessageStatusEnum;
+import com.fpt.evcare.event.MessagesAcknowledgedEvent;
+import com.fpt.evcare.mapper.MessageMapper;
+import com.fpt.evcare.repository.MessageAssignmentRepository;
+import com.fpt.evcare.repository.MessageRepository;
+import com.fpt.evcare.repository.UserRepository;
+import com.fpt.evcare.serviceimpl.MessageServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MessageServiceTest {
+
+    @Mock
+    private MessageRepository messageRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private MessageAssignmentRepository assignmentRepository;
+
+    @Mock
+    private MessageMapper messageMapper;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ConversationService conversationService;
+
+    @InjectMocks
+    private MessageServiceImpl messageService;
+
+    private final UUID readerId = UUID.randomUUID();
+    private final UUID senderId = UUID.randomUUID();
+
+    @Test
+    void testAcknowledgeMessages_ShouldUpdateUpToWatermarkAndPublishOneEvent() {
+        LocalDateTime upTo = LocalDateTime.now().minusMinutes(5);
+        when(messageRepository.markReadUpTo(eq(senderId), eq(readerId), eq(upTo), any())).thenReturn(200);
+
+        MessageAckResponse response = messageService.acknowledgeMessages(readerId, MessageAckRequest.builder()
+                .otherUserId(senderId)
+                .status(MessageStatusEnum.READ)
+                .upTo(upTo)
+                .build());
+
+        assertEquals(200, response.getUpdatedCount());
+        assertEquals(upTo, response.getUpTo());
+        ArgumentCaptor<MessagesAcknowledgedEvent> event = ArgumentCaptor.forClass(MessagesAcknowledgedEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(event.capture());
+        assertEquals(readerId, event.getValue().getAcknowledgement().getReaderId());
+        assertEquals(senderId, event.getValue().getAcknowledgement().getSenderId());
+        verify(messageRepository, never()).findByMessageIdAndIsDeletedFalse(any());
+        verify(conversationService).recordMessagesRead(readerId, senderId, 200);
+    }
+
+    @Test
+    void testAcknowledgeMessages_ShouldClampFutureWatermarkAndSkipEventWhenNothingChanged() {
+        when(messageRepository.markDeliveredUpTo(eq(senderId), eq(readerId), any(), any())).thenReturn(0);
+
+        MessageAckResponse response = messageService.acknowledgeMessages(readerId, MessageAckRequest.builder()
+                .otherUserId(senderId)
+                .status(MessageStatusEnum.DELIVERED)
+                .upTo(LocalDateTime.now().plusDays(1))
+                .build());
+
+        assertFalse(response.getUpTo().isAfter(LocalDateTime.now()));
+        verify(eventPublisher, never()).publishEvent(any());
+        verifyNoInteractions(conversationService);
+    }
+
+    @Test
+    void testAcknowledgeMessages_InvalidStatus() {
+        MessageAckRequest request = MessageAckRequest.builder()
+                .otherUserId(senderId)
+                .status(MessageStatusEnum.SENT)
+                .build();
+
+        assertThrows(IllegalArgumentException.class, () -> messageService.acknowledgeMessages(readerId, request));
+        verifyNoInteractions(messageRepository);
+    }
+
+    @Test
+    void testMarkConversationAsRead_ShouldUseReadWatermark() {
+        when(messageRepository.markReadUpTo(eq(senderId), eq(readerId), any(), any())).thenReturn(3);
+
+        assertEquals(3, messageService.markConversationAsRead(readerId, senderId));
+        verify(eventPublisher).publishEvent(any(MessagesAcknowledgedEvent.class));
+    }
+}
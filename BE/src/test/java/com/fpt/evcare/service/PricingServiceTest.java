@@ -0,0 +1,173 @@
+package com.fpt.evcare.service;
+
+import com.fpt.evcare.dto.response.InvoiceResponse;
+import com.fpt.evcare.entity.AppointmentEntity;
+import com.fpt.evcare.entity.CustomerWarrantyPartEntity;
+import com.fpt.evcare.entity.MaintenanceManagementEntity;
+import com.fpt.evcare.entity.MaintenanceRecordEntity;
+import com.fpt.evcare.entity.VehiclePartEntity;
+import com.fpt.evcare.entity.WarrantyPartEntity;
+import com.fpt.evcare.enums.WarrantyDiscountTypeEnum;
+import com.fpt.evcare.repository.CustomerWarrantyPartRepository;
+import com.fpt.evcare.repository.WarrantyPartRepository;
+import com.fpt.evcare.serviceimpl.PricingServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PricingServiceTest {
+
+    @Mock
+    private WarrantyPartRepository warrantyPartRepository;
+
+    @Mock
+    private CustomerWarrantyPartRepository customerWarrantyPartRepository;
+
+    @InjectMocks
+    private PricingServiceImpl pricingService;
+
+    private AppointmentEntity appointment;
+    private AppointmentEntity previousAppointment;
+    private VehiclePartEntity battery;
+    private VehiclePartEntity brake;
+    private VehiclePartEntity tire;
+
+    @BeforeEach
+    void setUp() {
+        appointment = new AppointmentEntity();
+        appointment.setAppointmentId(UUID.randomUUID());
+        appointment.setCustomerEmail("customer@test.com");
+        appointment.setCustomerPhoneNumber("0900000000");
+        appointment.setIsWarrantyAppointment(true);
+
+        previousAppointment = new AppointmentEntity();
+        previousAppointment.setAppointmentId(UUID.randomUUID());
+
+        battery = part("Battery", "1000000");
+        brake = part("Brake", "200000");
+        tire = part("Tire", "500000");
+    }
+
+    @Test
+    void testPriceAppointment_ShouldBatchWarrantyLookupsAcrossAllRecords() {
+        MaintenanceManagementEntity first = maintenance(record(battery, 1), record(brake, 2));
+        MaintenanceManagementEntity second = maintenance(record(brake, 1), record(tire, 4));
+
+        when(warrantyPartRepository.findByVehiclePartVehiclePartIdInAndIsDeletedFalseAndIsActiveTrue(anyCollection()))
+                .thenReturn(List.of(
+                        warranty(battery, WarrantyDiscountTypeEnum.FREE, null),
+                        warranty(brake, WarrantyDiscountTypeEnum.PERCENTAGE, new BigDecimal("50"))));
+        when(customerWarrantyPartRepository.findActiveWarrantiesByCustomerAndVehicleParts(
+                isNull(), eq("customer@test.com"), eq("0900000000"), anyCollection(), any()))
+                .thenReturn(List.of(
+                        customerWarranty(battery, previousAppointment),
+                        customerWarranty(brake, previousAppointment),
+                        // Bản cũ hơn của cùng phụ tùng phải bị bỏ qua
+                        customerWarranty(brake, appointment)));
+
+        PricingService.AppointmentPricing pricing = pricingService.priceAppointment(appointment, List.of(first, second), true);
+
+        verify(warrantyPartRepository, times(1)).findByVehiclePartVehiclePartIdInAndIsDeletedFalseAndIsActiveTrue(anyCollection());
+        verify(customerWarrantyPartRepository, times(1))
+                .findActiveWarrantiesByCustomerAndVehicleParts(any(), any(), any(), anyCollection(), any());
+        verifyNoMoreInteractions(warrantyPartRepository, customerWarrantyPartRepository);
+
+        List<InvoiceResponse.PartUsed> firstParts = pricing.maintenanceDetails().get(0).getPartsUsed();
+        assertEquals(0, firstParts.get(0).getTotalPrice().compareTo(BigDecimal.ZERO));
+        assertEquals("FREE", firstParts.get(0).getWarrantyDiscountType());
+        assertEquals(0, firstParts.get(1).getTotalPrice().compareTo(new BigDecimal("200000")));
+        assertTrue(firstParts.get(1).getIsUnderWarranty());
+
+        InvoiceResponse.PartUsed tireLine = pricing.maintenanceDetails().get(1).getPartsUsed().get(1);
+        assertFalse(tireLine.getIsUnderWarranty());
+        assertEquals(0, tireLine.getTotalPrice().compareTo(new BigDecimal("2000000")));
+
+        // 0 + 200000 + 100000 + 2000000
+        assertEquals(0, pricing.partsTotal().compareTo(new BigDecimal("2300000")));
+        // 1000000 + 200000 + 100000
+        assertEquals(0, pricing.warrantyDiscountTotal().compareTo(new BigDecimal("1300000")));
+    }
+
+    @Test
+    void testPriceAppointment_WarrantyFromCurrentAppointment_ShouldNotDiscount() {
+        MaintenanceManagementEntity mm = maintenance(record(battery, 1));
+
+        when(warrantyPartRepository.findByVehiclePartVehiclePartIdInAndIsDeletedFalseAndIsActiveTrue(anyCollection()))
+                .thenReturn(List.of(warranty(battery, WarrantyDiscountTypeEnum.FREE, null)));
+        when(customerWarrantyPartRepository.findActiveWarrantiesByCustomerAndVehicleParts(any(), any(), any(), anyCollection(), any()))
+                .thenReturn(List.of(customerWarranty(battery, appointment)));
+
+        PricingService.AppointmentPricing pricing = pricingService.priceAppointment(appointment, List.of(mm), true);
+
+        assertEquals(0, pricing.partsTotal().compareTo(new BigDecimal("1000000")));
+        assertEquals(0, pricing.warrantyDiscountTotal().compareTo(BigDecimal.ZERO));
+    }
+
+    @Test
+    void testPriceAppointment_NotWarrantyAppointment_ShouldSkipLookups() {
+        appointment.setIsWarrantyAppointment(false);
+        MaintenanceRecordEntity unapproved = record(tire, 1);
+        unapproved.setApprovedByUser(false);
+        MaintenanceManagementEntity mm = maintenance(record(battery, 2), unapproved);
+
+        PricingService.AppointmentPricing pricing = pricingService.priceAppointment(appointment, List.of(mm), true);
+
+        verifyNoInteractions(warrantyPartRepository, customerWarrantyPartRepository);
+        assertEquals(1, pricing.maintenanceDetails().get(0).getPartsUsed().size());
+        assertEquals(0, pricing.partsTotal().compareTo(new BigDecimal("2000000")));
+    }
+
+    private VehiclePartEntity part(String name, String unitPrice) {
+        VehiclePartEntity part = new VehiclePartEntity();
+        part.setVehiclePartId(UUID.randomUUID());
+        part.setVehiclePartName(name);
+        part.setUnitPrice(new BigDecimal(unitPrice));
+        return part;
+    }
+
+    private MaintenanceRecordEntity record(VehiclePartEntity part, int quantity) {
+        MaintenanceRecordEntity record = new MaintenanceRecordEntity();
+        record.setMaintenanceRecordId(UUID.randomUUID());
+        record.setVehiclePart(part);
+        record.setQuantityUsed(quantity);
+        record.setApprovedByUser(true);
+        record.setIsDeleted(false);
+        return record;
+    }
+
+    private MaintenanceManagementEntity maintenance(MaintenanceRecordEntity... records) {
+        MaintenanceManagementEntity mm = new MaintenanceManagementEntity();
+        mm.setMaintenanceManagementId(UUID.randomUUID());
+        mm.setMaintenanceRecords(new ArrayList<>(List.of(records)));
+        return mm;
+    }
+
+    private WarrantyPartEntity warranty(VehiclePartEntity part, WarrantyDiscountTypeEnum type, BigDecimal value) {
+        WarrantyPartEntity warrantyPart = new WarrantyPartEntity();
+        warrantyPart.setWarrantyPartId(UUID.randomUUID());
+        warrantyPart.setVehiclePart(part);
+        warrantyPart.setDiscountType(type);
+        warrantyPart.setDiscountValue(value);
+        return warrantyPart;
+    }
+
+    private CustomerWarrantyPartEntity customerWarranty(VehiclePartEntity part, AppointmentEntity source) {
+        CustomerWarrantyPartEntity customerWarranty = new CustomerWarrantyPartEntity();
+        customerWarranty.setVehiclePart(part);
+        customerWarranty.setAppointment(source);
+        return customerWarranty;
+    }
+}
@@ -0,0 +1,109 @@
+package com.fpt.evcare.service;
+
+import com.fpt.evcare.dto.response.QuoteResponse;
+import com.fpt.evcare.dto.response.ServiceTypeResponse;
+import com.fpt.evcare.exception.ResourceNotFoundException;
+import com.fpt.evcare.serviceimpl.QuoteServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class QuoteServiceTest {
+
+    @Mock
+    private ServiceTypeTreeService serviceTypeTreeService;
+
+    @InjectMocks
+    private QuoteServiceImpl quoteService;
+
+    private UUID vehicleTypeId;
+    private UUID parentId;
+    private UUID brakeCheckId;
+    private UUID batteryCheckId;
+
+    @BeforeEach
+    void setUp() {
+        vehicleTypeId = UUID.randomUUID();
+        parentId = UUID.randomUUID();
+        brakeCheckId = UUID.randomUUID();
+        batteryCheckId = UUID.randomUUID();
+
+        QuoteResponse.ServiceQuote brakeQuote = serviceQuote(brakeCheckId, 30, "300000");
+        QuoteResponse.ServiceQuote batteryQuote = serviceQuote(batteryCheckId, null, "1000000");
+        ServiceTypeTreeService.ServiceTypeTree tree = new ServiceTypeTreeService.ServiceTypeTree(vehicleTypeId, 7L,
+                LocalDateTime.now(), List.of(),
+                Map.of(parentId, node(parentId, null), brakeCheckId, node(brakeCheckId, parentId),
+                        batteryCheckId, node(batteryCheckId, parentId)),
+                Map.of(parentId, serviceQuote(parentId, null, "0"), brakeCheckId, brakeQuote, batteryCheckId, batteryQuote));
+        when(serviceTypeTreeService.getTree(vehicleTypeId)).thenReturn(tree);
+    }
+
+    @Test
+    void testGetQuote_ShouldSumSelectedServicesOnce() {
+        QuoteResponse quote = quoteService.getQuote(vehicleTypeId, List.of(brakeCheckId, batteryCheckId, brakeCheckId));
+
+        assertEquals(0, new BigDecimal("1300000").compareTo(quote.getTotalPrice()));
+        assertEquals(30, quote.getEstimatedDurationMinutes());
+        assertEquals(2, quote.getServices().size());
+        assertEquals(7L, quote.getVersion());
+    }
+
+    @Test
+    void testGetQuote_WithNoSelection_ShouldReturnZero() {
+        QuoteResponse quote = quoteService.getQuote(vehicleTypeId, null);
+
+        assertEquals(0, BigDecimal.ZERO.compareTo(quote.getTotalPrice()));
+        assertTrue(quote.getServices().isEmpty());
+    }
+
+    @Test
+    void testGetQuote_WithParentOrUnknownService_ShouldThrow() {
+        assertThrows(ResourceNotFoundException.class, () -> quoteService.getQuote(vehicleTypeId, List.of(parentId)));
+        assertThrows(ResourceNotFoundException.class, () -> quoteService.getQuote(vehicleTypeId, List.of(UUID.randomUUID())));
+        // Xem trước giá không dựng lại snapshot
+        verify(serviceTypeTreeService, never()).refresh(any());
+    }
+
+    @Test
+    void testGetQuoteForBooking_WhenSnapshotIsStale_ShouldRebuildOnceAndQuote() {
+        UUID newServiceId = UUID.randomUUID();
+        ServiceTypeTreeService.ServiceTypeTree staleTree = serviceTypeTreeService.getTree(vehicleTypeId);
+        ServiceTypeTreeService.ServiceTypeTree rebuiltTree = new ServiceTypeTreeService.ServiceTypeTree(vehicleTypeId, 8L,
+                LocalDateTime.now(), List.of(),
+                Map.of(parentId, node(parentId, null), newServiceId, node(newServiceId, parentId)),
+                Map.of(newServiceId, serviceQuote(newServiceId, 20, "500000")));
+        when(serviceTypeTreeService.getTree(vehicleTypeId)).thenReturn(staleTree, rebuiltTree);
+
+        QuoteResponse quote = quoteService.getQuoteForBooking(vehicleTypeId, List.of(newServiceId));
+
+        assertEquals(0, new BigDecimal("500000").compareTo(quote.getTotalPrice()));
+        assertEquals(8L, quote.getVersion());
+        verify(serviceTypeTreeService, times(1)).refresh(vehicleTypeId);
+    }
+
+    private ServiceTypeResponse node(UUID serviceTypeId, UUID parentServiceTypeId) {
+        return ServiceTypeResponse.builder().serviceTypeId(serviceTypeId).parentId(parentServiceTypeId).build();
+    }
+
+    private QuoteResponse.ServiceQuote serviceQuote(UUID serviceTypeId, Integer duration, String subtotal) {
+        return QuoteResponse.ServiceQuote.builder()
+                .serviceTypeId(serviceTypeId)
+                .estimatedDurationMinutes(duration)
+                .subtotal(new BigDecimal(subtotal))
+                .parts(List.of())
+                .build();
+    }
+}
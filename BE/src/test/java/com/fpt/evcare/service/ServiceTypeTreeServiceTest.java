@@ -0,0 +1,156 @@
+package com.fpt.evcare.service;
+
+import com.fpt.evcare.dto.response.ServiceTypeResponse;
+import com.fpt.evcare.entity.ServiceTypeEntity;
+import com.fpt.evcare.repository.ServiceTypeRepository;
+import com.fpt.evcare.repository.ServiceTypeVehiclePartRepository;
+import com.fpt.evcare.serviceimpl.ServiceTypeTreeServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ServiceTypeTreeServiceTest {
+
+    @Mock
+    private ServiceTypeRepository serviceTypeRepository;
+
+    @Mock
+    private ServiceTypeVehiclePartRepository serviceTypeVehiclePartRepository;
+
+    @InjectMocks
+    private ServiceTypeTreeServiceImpl serviceTypeTreeService;
+
+    private UUID vehicleTypeId;
+    private ServiceTypeEntity maintenance;
+    private ServiceTypeEntity brakeCheck;
+    private ServiceTypeEntity batteryCheck;
+
+    @BeforeEach
+    void setUp() {
+        vehicleTypeId = UUID.randomUUID();
+        maintenance = serviceType("Bảo dưỡng", null, null);
+        brakeCheck = serviceType("Kiểm tra phanh", maintenance.getServiceTypeId(), 30);
+        batteryCheck = serviceType("Kiểm tra pin", maintenance.getServiceTypeId(), 45);
+    }
+
+    @Test
+    void testGetTree_ShouldNestChildrenAndAggregatePartCost() {
+        when(serviceTypeRepository.findByVehicleTypeEntityVehicleTypeIdAndIsDeletedFalse(vehicleTypeId))
+                .thenReturn(List.of(maintenance, brakeCheck, batteryCheck));
+        when(serviceTypeVehiclePartRepository.findPartLinesByVehicleTypeId(vehicleTypeId)).thenReturn(List.of(
+                new Object[]{brakeCheck.getServiceTypeId(), UUID.randomUUID(), "Má phanh", 2, new BigDecimal("150000")},
+                new Object[]{batteryCheck.getServiceTypeId(), UUID.randomUUID(), "Pin", null, new BigDecimal("1000000")},
+                new Object[]{batteryCheck.getServiceTypeId(), UUID.randomUUID(), "Dây cáp", 1, null}));
+
+        ServiceTypeTreeService.ServiceTypeTree tree = serviceTypeTreeService.getTree(vehicleTypeId);
+
+        assertEquals(1, tree.roots().size());
+        ServiceTypeResponse root = tree.roots().get(0);
+        assertEquals(0, new BigDecimal("1300000").compareTo(root.getEstimatedPartCost()));
+        assertEquals(2, root.getChildren().size());
+        assertEquals(30, root.getChildren().get(0).getEstimatedDurationMinutes());
+        assertEquals(0, new BigDecimal("300000").compareTo(root.getChildren().get(0).getEstimatedPartCost()));
+        assertNull(root.getChildren().get(0).getChildren());
+        assertSame(root.getChildren().get(1), tree.nodes().get(batteryCheck.getServiceTypeId()));
+        assertEquals(1, tree.serviceQuotes().get(batteryCheck.getServiceTypeId()).getParts().size());
+        assertThrows(UnsupportedOperationException.class, () -> root.getChildren().add(new ServiceTypeResponse()));
+
+        // Lần đọc sau lấy từ bộ nhớ
+        assertSame(tree, serviceTypeTreeService.getTree(vehicleTypeId));
+        verify(serviceTypeRepository, times(1)).findByVehicleTypeEntityVehicleTypeIdAndIsDeletedFalse(vehicleTypeId);
+    }
+
+    @Test
+    void testRefresh_ShouldSwapInNewVersion() {
+        when(serviceTypeRepository.findByVehicleTypeEntityVehicleTypeIdAndIsDeletedFalse(vehicleTypeId))
+                .thenReturn(List.of(maintenance, brakeCheck))
+                .thenReturn(List.of(maintenance, brakeCheck, batteryCheck));
+        when(serviceTypeVehiclePartRepository.findPartLinesByVehicleTypeId(vehicleTypeId)).thenReturn(new ArrayList<>());
+
+        ServiceTypeTreeService.ServiceTypeTree oldTree = serviceTypeTreeService.getTree(vehicleTypeId);
+        serviceTypeTreeService.refresh(vehicleTypeId);
+        ServiceTypeTreeService.ServiceTypeTree newTree = serviceTypeTreeService.getTree(vehicleTypeId);
+
+        assertTrue(newTree.version() > oldTree.version());
+        assertEquals(1, oldTree.roots().get(0).getChildren().size());
+        assertEquals(2, newTree.roots().get(0).getChildren().size());
+        assertEquals(0, BigDecimal.ZERO.compareTo(newTree.roots().get(0).getEstimatedPartCost()));
+    }
+
+    @Test
+    void testRefresh_ShouldSkipVehicleTypesNotLoaded() {
+        serviceTypeTreeService.refresh(vehicleTypeId);
+        serviceTypeTreeService.refresh(null);
+
+        verifyNoInteractions(serviceTypeRepository, serviceTypeVehiclePartRepository);
+    }
+
+    @Test
+    void testGetTree_UnknownVehicleType_ShouldNotCacheEmptyTree() {
+        when(serviceTypeRepository.findByVehicleTypeEntityVehicleTypeIdAndIsDeletedFalse(vehicleTypeId))
+                .thenReturn(new ArrayList<>());
+
+        assertTrue(serviceTypeTreeService.getTree(vehicleTypeId).roots().isEmpty());
+        assertTrue(serviceTypeTreeService.getTree(vehicleTypeId).nodes().isEmpty());
+
+        // Không lưu snapshot rỗng: mỗi lần đọc đều hỏi lại database, không truy vấn phụ tùng
+        verify(serviceTypeRepository, times(2)).findByVehicleTypeEntityVehicleTypeIdAndIsDeletedFalse(vehicleTypeId);
+        verifyNoInteractions(serviceTypeVehiclePartRepository);
+        serviceTypeTreeService.refresh(null);
+        verify(serviceTypeRepository, times(2)).findByVehicleTypeEntityVehicleTypeIdAndIsDeletedFalse(vehicleTypeId);
+    }
+
+    @Test
+    void testGetTree_WhenRefreshedDuringBuild_ShouldNotCacheOutdatedTree() {
+        // Commit + refresh xảy ra trong lúc request đang đọc dữ liệu cũ, khi chưa có snapshot nào
+        when(serviceTypeRepository.findByVehicleTypeEntityVehicleTypeIdAndIsDeletedFalse(vehicleTypeId))
+                .thenAnswer(invocation -> {
+                    serviceTypeTreeService.refresh(vehicleTypeId);
+                    return List.of(maintenance);
+                })
+                .thenReturn(List.of(maintenance, brakeCheck));
+        when(serviceTypeVehiclePartRepository.findPartLinesByVehicleTypeId(vehicleTypeId)).thenReturn(new ArrayList<>());
+
+        assertNull(serviceTypeTreeService.getTree(vehicleTypeId).roots().get(0).getChildren());
+
+        // Bản dựng dở không được lưu -> lần đọc sau dựng lại từ dữ liệu đã commit
+        assertEquals(1, serviceTypeTreeService.getTree(vehicleTypeId).roots().get(0).getChildren().size());
+        verify(serviceTypeRepository, times(2)).findByVehicleTypeEntityVehicleTypeIdAndIsDeletedFalse(vehicleTypeId);
+    }
+
+    @Test
+    void testRefresh_WhenDatabaseFails_ShouldDropSnapshot() {
+        when(serviceTypeRepository.findByVehicleTypeEntityVehicleTypeIdAndIsDeletedFalse(vehicleTypeId))
+                .thenReturn(List.of(maintenance))
+                .thenThrow(new IllegalStateException("DB down"))
+                .thenReturn(List.of(maintenance, brakeCheck));
+        when(serviceTypeVehiclePartRepository.findPartLinesByVehicleTypeId(vehicleTypeId)).thenReturn(new ArrayList<>());
+
+        serviceTypeTreeService.getTree(vehicleTypeId);
+        serviceTypeTreeService.refresh(vehicleTypeId);
+
+        assertEquals(1, serviceTypeTreeService.getTree(vehicleTypeId).roots().get(0).getChildren().size());
+    }
+
+    private ServiceTypeEntity serviceType(String name, UUID parentId, Integer duration) {
+        ServiceTypeEntity entity = new ServiceTypeEntity();
+        entity.setServiceTypeId(UUID.randomUUID());
+        entity.setServiceName(name);
+        entity.setParentId(parentId);
+        entity.setEstimatedDurationMinutes(duration);
+        entity.setIsActive(true);
+        return entity;
+    }
+}
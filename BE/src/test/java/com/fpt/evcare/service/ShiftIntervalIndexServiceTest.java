@@ -0,0 +1,102 @@
+package com.fpt.evcare.service;
+
+import com.fpt.evcare.repository.ShiftRepository;
+import com.fpt.evcare.service.ShiftIntervalIndexService.ShiftInterval;
+import com.fpt.evcare.serviceimpl.ShiftIntervalIndexServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ShiftIntervalIndexServiceTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.now().plusDays(2).withHour(0).withMinute(0).withSecond(0).withNano(0);
+
+    @Mock
+    private ShiftRepository shiftRepository;
+
+    @InjectMocks
+    private ShiftIntervalIndexServiceImpl shiftIntervalIndexService;
+
+    private final UUID technicianId = UUID.randomUUID();
+    private final UUID morningShiftId = UUID.randomUUID();
+    private final UUID afternoonShiftId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{afternoonShiftId, DAY.withHour(13), DAY.withHour(17), technicianId});
+        rows.add(new Object[]{morningShiftId, DAY.withHour(8), DAY.withHour(12), technicianId});
+        when(shiftRepository.findTechnicianShiftIntervals(any())).thenReturn(rows);
+        shiftIntervalIndexService.rebuild();
+    }
+
+    @Test
+    void testFindFirstConflict_ShouldFollowRepositoryOverlapRule() {
+        assertTrue(shiftIntervalIndexService.covers(DAY));
+        assertEquals(morningShiftId, shiftIntervalIndexService
+                .findFirstConflict(technicianId, DAY.withHour(11), DAY.withHour(14), null)
+                .map(ShiftInterval::shiftId).orElseThrow());
+        // Chạm biên cũng tính là trùng (s.endTime >= :startTime)
+        assertTrue(shiftIntervalIndexService
+                .findFirstConflict(technicianId, DAY.withHour(12), DAY.withHour(12).withMinute(30), null).isPresent());
+        assertTrue(shiftIntervalIndexService
+                .findFirstConflict(technicianId, DAY.withHour(12).withMinute(1), DAY.withHour(12).withMinute(59), null).isEmpty());
+        assertTrue(shiftIntervalIndexService
+                .findFirstConflict(technicianId, DAY.withHour(9), DAY.withHour(10), morningShiftId).isEmpty());
+        assertTrue(shiftIntervalIndexService
+                .findFirstConflict(UUID.randomUUID(), DAY.withHour(9), DAY.withHour(10), null).isEmpty());
+    }
+
+    @Test
+    void testFindFirstFreeSlot_ShouldSkipPastConsecutiveShifts() {
+        assertEquals(DAY.withHour(12).withMinute(1),
+                shiftIntervalIndexService.findFirstFreeSlot(technicianId, DAY.withHour(9), Duration.ofMinutes(30)));
+        assertEquals(DAY.withHour(17).withMinute(1),
+                shiftIntervalIndexService.findFirstFreeSlot(technicianId, DAY.withHour(9), Duration.ofHours(2)));
+        assertEquals(DAY.withHour(6),
+                shiftIntervalIndexService.findFirstFreeSlot(technicianId, DAY.withHour(6), Duration.ofHours(1)));
+    }
+
+    @Test
+    void testRefreshShift_ShouldReplaceOrRemoveShiftIntervals() {
+        when(shiftRepository.findTechnicianShiftIntervalsByShiftId(morningShiftId))
+                .thenReturn(List.<Object[]>of(new Object[]{morningShiftId, DAY.withHour(6), DAY.withHour(7), technicianId}));
+        shiftIntervalIndexService.refreshShift(morningShiftId);
+
+        assertTrue(shiftIntervalIndexService
+                .findFirstConflict(technicianId, DAY.withHour(9), DAY.withHour(10), null).isEmpty());
+        Optional<ShiftInterval> moved = shiftIntervalIndexService
+                .findFirstConflict(technicianId, DAY.withHour(6).withMinute(30), DAY.withHour(8), null);
+        assertEquals(morningShiftId, moved.map(ShiftInterval::shiftId).orElseThrow());
+
+        // Ca bị xóa -> query không trả về dòng nào -> gỡ khỏi index
+        when(shiftRepository.findTechnicianShiftIntervalsByShiftId(afternoonShiftId)).thenReturn(List.of());
+        shiftIntervalIndexService.refreshShift(afternoonShiftId);
+        assertTrue(shiftIntervalIndexService
+                .findFirstConflict(technicianId, DAY.withHour(13), DAY.withHour(14), null).isEmpty());
+    }
+
+    @Test
+    void testCovers_ShouldBeFalseWhenRefreshFails() {
+        when(shiftRepository.findTechnicianShiftIntervalsByShiftId(any())).thenThrow(new RuntimeException("db down"));
+
+        shiftIntervalIndexService.refreshShift(UUID.randomUUID());
+
+        assertFalse(shiftIntervalIndexService.covers(DAY));
+    }
+}
@@ -0,0 +1,86 @@
+package com.fpt.evcare.service;
+
+import com.fpt.evcare.dto.request.shift.CheckTechnicianAvailabilityRequest;
+import com.fpt.evcare.dto.response.TechnicianAvailabilityResponse;
+import com.fpt.evcare.repository.ShiftRepository;
+import com.fpt.evcare.repository.UserRepository;
+import com.fpt.evcare.serviceimpl.ShiftServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ShiftServiceTest {
+
+    @Mock
+    private ShiftRepository shiftRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ShiftIntervalIndexService shiftIntervalIndexService;
+
+    @InjectMocks
+    private ShiftServiceImpl shiftService;
+
+    // 1 query cho cả danh sách technician: rảnh / trùng ca (lấy ca sớm nhất) / không tồn tại
+    @Test
+    void testCheckTechnicianAvailability_ShouldResolveAllTechniciansWithOneQuery() {
+        UUID availableId = UUID.randomUUID();
+        UUID busyId = UUID.randomUUID();
+        UUID unknownId = UUID.randomUUID();
+        UUID firstConflictId = UUID.randomUUID();
+        LocalDateTime startTime = LocalDateTime.of(2025, 6, 1, 9, 0);
+        CheckTechnicianAvailabilityRequest request = new CheckTechnicianAvailabilityRequest(
+                List.of(availableId, busyId, unknownId), startTime, startTime.plusHours(2), null);
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{busyId, null, "busy.tech", firstConflictId, startTime, startTime.plusHours(1)});
+        rows.add(new Object[]{busyId, null, "busy.tech", UUID.randomUUID(), startTime.plusHours(1), startTime.plusHours(3)});
+        rows.add(new Object[]{availableId, "Nguyen Van A", "tech.a", null, null, null});
+        when(shiftRepository.findTechnicianConflicts(request.getTechnicianIds(), request.getStartTime(),
+                request.getEndTime(), null)).thenReturn(rows);
+
+        List<TechnicianAvailabilityResponse> result = shiftService.checkTechnicianAvailability(request);
+
+        assertEquals(3, result.size());
+        assertTrue(result.get(0).isAvailable());
+        assertEquals("Nguyen Van A", result.get(0).getTechnicianName());
+        assertFalse(result.get(1).isAvailable());
+        assertEquals("busy.tech", result.get(1).getTechnicianName());
+        assertEquals(firstConflictId, result.get(1).getConflictShiftId());
+        assertFalse(result.get(2).isAvailable());
+        assertEquals("Unknown", result.get(2).getTechnicianName());
+        verify(shiftRepository, times(1)).findTechnicianConflicts(any(), any(), any(), any());
+        verifyNoMoreInteractions(shiftRepository);
+        verifyNoInteractions(userRepository);
+    }
+
+    // Scheduler chỉ chạy 3 câu UPDATE hàng loạt theo đúng thứ tự, không load/save từng entity
+    @Test
+    void testUpdateShiftStatuses_ShouldTransitionShiftsWithBulkUpdates() {
+        when(shiftRepository.markShiftsWithLateAssignment(any(LocalDateTime.class))).thenReturn(List.of(UUID.randomUUID()));
+        when(shiftRepository.startShiftsDueBy(any(LocalDateTime.class))).thenReturn(List.of(UUID.randomUUID(), UUID.randomUUID()));
+        when(shiftRepository.completeShiftsDueBy(any(LocalDateTime.class))).thenReturn(List.of());
+
+        shiftService.updateShiftStatuses();
+
+        InOrder inOrder = inOrder(shiftRepository);
+        inOrder.verify(shiftRepository).markShiftsWithLateAssignment(any(LocalDateTime.class));
+        inOrder.verify(shiftRepository).startShiftsDueBy(any(LocalDateTime.class));
+        inOrder.verify(shiftRepository).completeShiftsDueBy(any(LocalDateTime.class));
+        verifyNoMoreInteractions(shiftRepository);
+    }
+}
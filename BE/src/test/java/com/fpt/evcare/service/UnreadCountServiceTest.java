@@ -0,0 +1,143 @@
+package com.fpt.evcare.service;
+
+import com.fpt.evcare.constants.MessageConstants;
+import com.fpt.evcare.dto.response.UnreadCountResponse;
+import com.fpt.evcare.repository.MessageRepository;
+import com.fpt.evcare.serviceimpl.UnreadCountServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+import java.time.Duration;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UnreadCountServiceTest {
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    @Mock
+    private MessageRepository messageRepository;
+
+    @Mock
+    private WebSocketDeliveryService webSocketDeliveryService;
+
+    @Mock
+    private WebSocketPresenceService webSocketPresenceService;
+
+    private UnreadCountServiceImpl unreadCountService;
+
+    private final UUID userId = UUID.randomUUID();
+    private final UUID senderId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        unreadCountService = new UnreadCountServiceImpl(stringRedisTemplate, messageRepository,
+                webSocketDeliveryService, webSocketPresenceService, Duration.ofHours(24), 500);
+    }
+
+    @Test
+    void testMessagesReceived_ShouldPushUpdatedCounters() {
+        when(stringRedisTemplate.execute(any(RedisScript.class), eq(List.of("chat:unread:" + userId)), any(), any(), any()))
+                .thenReturn(List.of("version", "7", senderId.toString(), "3"));
+
+        unreadCountService.messagesReceived(userId, senderId, 1);
+
+        verify(webSocketDeliveryService).sendCoalesced(eq(userId), eq(MessageConstants.WS_TOPIC_USER_UNREAD_COUNT),
+                eq("unread"), argThat(counts -> counts instanceof UnreadCountResponse response
+                        && response.getTotalUnread() == 3
+                        && response.getVersion() == 7
+                        && response.getConversations().equals(Map.of(senderId, 3L))));
+    }
+
+    @Test
+    void testMessagesRead_CounterNotLoaded_ShouldNotPush() {
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), any(), any(), any())).thenReturn(null);
+
+        unreadCountService.messagesRead(userId, senderId, 5);
+
+        verifyNoInteractions(webSocketDeliveryService);
+        verifyNoInteractions(messageRepository);
+    }
+
+    @Test
+    void testCountUnread_RedisDown_ShouldCountInDatabase() {
+        when(stringRedisTemplate.opsForHash()).thenThrow(new RedisConnectionFailureException("Redis down"));
+        when(messageRepository.countUnreadBySender(List.of(userId)))
+                .thenReturn(List.<Object[]>of(new Object[]{userId, senderId, 4L}));
+
+        assertEquals(4, unreadCountService.countUnread(userId));
+    }
+
+    @Test
+    void testCountUnread_NotLoaded_ShouldLoadFromDatabaseOnce() {
+        when(stringRedisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries("chat:unread:" + userId)).thenReturn(Map.of());
+        when(messageRepository.countUnreadBySender(List.of(userId)))
+                .thenReturn(List.<Object[]>of(new Object[]{userId, senderId, 2L}));
+        when(stringRedisTemplate.execute(any(RedisScript.class), eq(List.of("chat:unread:" + userId)), any(Object[].class)))
+                .thenReturn(List.of("version", "1", senderId.toString(), "2"));
+
+        assertEquals(2, unreadCountService.countUnread(userId));
+        verify(stringRedisTemplate).execute(any(RedisScript.class), anyList(),
+                eq(String.valueOf(Duration.ofHours(24).toMillis())), eq(senderId.toString()), eq("2"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testCountUnread_AdjustedWhileLoading_ShouldKeepRedisCounters() {
+        // Postgres đọc được 2, trong lúc đó hash đã được nạp và +1 -> giữ 3, không ghi đè bằng số cũ
+        when(stringRedisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries("chat:unread:" + userId)).thenReturn(Map.of());
+        when(messageRepository.countUnreadBySender(List.of(userId)))
+                .thenReturn(List.<Object[]>of(new Object[]{userId, senderId, 2L}));
+        when(stringRedisTemplate.execute(any(RedisScript.class), eq(List.of("chat:unread:" + userId)), any(Object[].class)))
+                .thenReturn(List.of("version", "2", senderId.toString(), "3"));
+
+        assertEquals(3, unreadCountService.countUnread(userId));
+
+        ArgumentCaptor<RedisScript<List>> script = ArgumentCaptor.forClass(RedisScript.class);
+        verify(stringRedisTemplate).execute(script.capture(), anyList(), any(Object[].class));
+        assertTrue(script.getValue().getScriptAsString().strip()
+                .startsWith("if redis.call('EXISTS', KEYS[1]) == 1 then return redis.call('HGETALL', KEYS[1]) end"));
+    }
+
+    @Test
+    void testReconcile_ShouldOnlyRewriteDriftedCounters() {
+        UUID driftedUserId = UUID.randomUUID();
+        when(webSocketPresenceService.findLocallyConnected()).thenReturn(new LinkedHashSet<>(List.of(userId, driftedUserId)));
+        when(stringRedisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            // Thứ tự kết quả pipeline theo thứ tự user trong batch
+            List<UUID> order = new ArrayList<>(webSocketPresenceService.findLocallyConnected());
+            Map<UUID, Object> byUser = Map.of(
+                    userId, Map.of("version", "4", senderId.toString(), "1"),
+                    driftedUserId, Map.of("version", "9", senderId.toString(), "5"));
+            return order.stream().map(byUser::get).toList();
+        });
+        when(messageRepository.countUnreadBySender(anyCollection())).thenReturn(List.of(
+                new Object[]{userId, senderId, 1L},
+                new Object[]{driftedUserId, senderId, 2L}));
+        when(stringRedisTemplate.execute(any(RedisScript.class), eq(List.of("chat:unread:" + driftedUserId)), any(Object[].class)))
+                .thenReturn(List.of("version", "10", senderId.toString(), "2"));
+
+        assertEquals(1, unreadCountService.reconcileConnectedUsers());
+        verify(webSocketDeliveryService, times(1)).sendCoalesced(eq(driftedUserId), any(), any(), any());
+        verify(webSocketDeliveryService, never()).sendCoalesced(eq(userId), any(), any(), any());
+    }
+}
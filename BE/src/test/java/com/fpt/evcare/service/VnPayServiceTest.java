@@ -0,0 +1,118 @@
+package com.fpt.evcare.service;
+
+import com.fpt.evcare.config.VnPayConfig;
+import com.fpt.evcare.entity.AppointmentEntity;
+import com.fpt.evcare.entity.InvoiceEntity;
+import com.fpt.evcare.entity.PaymentTransactionEntity;
+import com.fpt.evcare.enums.AppointmentStatusEnum;
+import com.fpt.evcare.enums.InvoiceStatusEnum;
+import com.fpt.evcare.enums.PaymentTransactionStatusEnum;
+import com.fpt.evcare.event.PaymentCompletedEvent;
+import com.fpt.evcare.repository.*;
+import com.fpt.evcare.serviceimpl.VnPayServiceImpl;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VnPayServiceTest {
+
+    @Mock
+    private AppointmentService appointmentService;
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private InvoiceRepository invoiceRepository;
+
+    @Mock
+    private InvoiceService invoiceService;
+
+    @Mock
+    private PaymentTransactionRepository paymentTransactionRepository;
+
+    @Mock
+    private PaymentMethodRepository paymentMethodRepository;
+
+    @Mock
+    private VnPayConfig vnPayConfig;
+
+    @Mock
+    private ShiftRepository shiftRepository;
+
+    @Mock
+    private MaintenanceManagementRepository maintenanceManagementRepository;
+
+    @Mock
+    private CustomerWarrantyPartRepository customerWarrantyPartRepository;
+
+    @Mock
+    private MaintenanceRecordRepository maintenanceRecordRepository;
+
+    @Mock
+    private PricingService pricingService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private HttpServletRequest request;
+
+    @InjectMocks
+    private VnPayServiceImpl vnPayService;
+
+    @Test
+    void testHandleIPN_RepeatedSuccessCallback_ShouldPublishPaymentCompletedOnce() {
+        String reference = "EVC123456";
+        AppointmentEntity appointment = new AppointmentEntity();
+        appointment.setAppointmentId(UUID.randomUUID());
+        appointment.setStatus(AppointmentStatusEnum.PENDING_PAYMENT);
+        InvoiceEntity invoice = new InvoiceEntity();
+        invoice.setTotalAmount(new BigDecimal("100000"));
+        invoice.setStatus(InvoiceStatusEnum.PENDING);
+        PaymentTransactionEntity transaction = new PaymentTransactionEntity();
+        transaction.setTransactionReference(reference);
+        transaction.setAmount(new BigDecimal("100000"));
+        transaction.setStatus(PaymentTransactionStatusEnum.PENDING);
+        transaction.setAppointment(appointment);
+        transaction.setInvoice(invoice);
+
+        when(vnPayConfig.getHashSecret()).thenReturn("secret");
+        when(paymentTransactionRepository.findByTransactionReferenceForUpdate(reference))
+                .thenReturn(Optional.of(transaction));
+        when(shiftRepository.findByAppointmentId(eq(appointment.getAppointmentId()), any())).thenReturn(Page.empty());
+
+        String hashData = "vnp_Amount=10000000&vnp_TransactionStatus=00&vnp_TxnRef=" + reference;
+        String secureHash = vnPayService.hmacSHA512("secret", hashData);
+        when(request.getQueryString()).thenReturn(hashData + "&vnp_SecureHash=" + secureHash);
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("vnp_Amount", "10000000");
+        params.put("vnp_TransactionStatus", "00");
+        params.put("vnp_TxnRef", reference);
+        params.put("vnp_SecureHash", secureHash);
+
+        // IPN rồi VNPay gửi lại (hoặc người dùng quay về return URL) với cùng tham số
+        assertEquals(reference, vnPayService.handleIPN(params, request));
+        assertEquals(reference, vnPayService.handleIPN(params, request));
+
+        assertEquals(PaymentTransactionStatusEnum.SUCCESS, transaction.getStatus());
+        verify(eventPublisher, times(1)).publishEvent(any(PaymentCompletedEvent.class));
+        verify(invoiceRepository, times(1)).save(invoice);
+    }
+}
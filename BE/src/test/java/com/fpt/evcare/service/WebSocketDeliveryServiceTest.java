@@ -0,0 +1,116 @@
+package com.fpt.evcare.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fpt.evcare.constants.MessageConstants;
+import com.fpt.evcare.dto.response.MessageResponse;
+import com.fpt.evcare.enums.MessageStatusEnum;
+import com.fpt.evcare.serviceimpl.WebSocketDeliveryServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebSocketDeliveryServiceTest {
+
+    private final List<Message<?>> sent = new CopyOnWriteArrayList<>();
+    private final CountDownLatch firstSendStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseFirstSend = new CountDownLatch(1);
+    private volatile boolean blockFirstSend;
+
+    private WebSocketDeliveryServiceImpl deliveryService;
+
+    @BeforeEach
+    void setUp() {
+        ExecutorSubscribableChannel brokerChannel = new ExecutorSubscribableChannel();
+        brokerChannel.subscribe(message -> {
+            if (blockFirstSend && sent.isEmpty()) {
+                firstSendStarted.countDown();
+                try {
+                    releaseFirstSend.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            sent.add(message);
+        });
+        deliveryService = new WebSocketDeliveryServiceImpl(new SimpMessagingTemplate(brokerChannel), new ObjectMapper(), 1, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        deliveryService.shutdown();
+    }
+
+    @Test
+    void testSendToUsers_ShouldSerializePayloadOnceForAllRecipients() throws InterruptedException {
+        UUID receiverId = UUID.randomUUID();
+        UUID senderId = UUID.randomUUID();
+        MessageResponse message = message(UUID.randomUUID(), receiverId, senderId, MessageStatusEnum.SENT);
+
+        deliveryService.sendToUsers(List.of(receiverId, senderId), MessageConstants.WS_TOPIC_USER_MESSAGES, message);
+
+        awaitSent(2);
+        assertEquals("/user/" + receiverId + "/queue/messages", destination(sent.get(0)));
+        assertEquals("/user/" + senderId + "/queue/messages", destination(sent.get(1)));
+        assertSame(sent.get(0).getPayload(), sent.get(1).getPayload());
+        assertTrue(new String((byte[]) sent.get(0).getPayload(), StandardCharsets.UTF_8).contains(message.getMessageId().toString()));
+    }
+
+    @Test
+    void testSendCoalesced_ShouldOnlyDeliverLatestPendingStatus() throws InterruptedException {
+        UUID senderId = UUID.randomUUID();
+        UUID receiverId = UUID.randomUUID();
+        UUID secondMessageId = UUID.randomUUID();
+        blockFirstSend = true;
+
+        // Worker đang bận gửi tin đầu tiên, 2 update của tin thứ hai dồn lại trong hàng đợi
+        deliveryService.sendToUsers(List.of(senderId), MessageConstants.WS_TOPIC_USER_MESSAGES,
+                message(UUID.randomUUID(), receiverId, senderId, MessageStatusEnum.SENT));
+        assertTrue(firstSendStarted.await(5, TimeUnit.SECONDS));
+        deliveryService.sendCoalesced(senderId, MessageConstants.WS_TOPIC_USER_MESSAGES, secondMessageId.toString(),
+                message(secondMessageId, receiverId, senderId, MessageStatusEnum.DELIVERED));
+        deliveryService.sendCoalesced(senderId, MessageConstants.WS_TOPIC_USER_MESSAGES, secondMessageId.toString(),
+                message(secondMessageId, receiverId, senderId, MessageStatusEnum.READ));
+        releaseFirstSend.countDown();
+
+        awaitSent(2);
+        Thread.sleep(100);
+        assertEquals(2, sent.size());
+        String statusUpdate = new String((byte[]) sent.get(1).getPayload(), StandardCharsets.UTF_8);
+        assertTrue(statusUpdate.contains("\"status\":\"READ\""));
+    }
+
+    private void awaitSent(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (sent.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, sent.size());
+    }
+
+    private static String destination(Message<?> message) {
+        return SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+    }
+
+    private static MessageResponse message(UUID messageId, UUID receiverId, UUID senderId, MessageStatusEnum status) {
+        return MessageResponse.builder()
+                .messageId(messageId)
+                .receiverId(receiverId)
+                .senderId(senderId)
+                .content("Xin chào")
+                .status(status)
+                .build();
+    }
+}
@@ -0,0 +1,80 @@
+package com.fpt.evcare.service;
+
+import com.fpt.evcare.serviceimpl.WebSocketPresenceServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WebSocketPresenceServiceTest {
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    private WebSocketPresenceServiceImpl presenceService;
+
+    private final UUID staffId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        presenceService = new WebSocketPresenceServiceImpl(stringRedisTemplate, true, Duration.ofSeconds(45));
+    }
+
+    @Test
+    void testLocalSessions_ShouldStayOnlineUntilLastSessionDisconnects() {
+        when(stringRedisTemplate.opsForHash()).thenReturn(hashOperations);
+        presenceService.sessionConnected(staffId, "s1");
+        presenceService.sessionConnected(staffId, "s2");
+
+        presenceService.sessionDisconnected(staffId, "s1");
+        assertTrue(presenceService.isOnline(staffId));
+        verify(hashOperations, never()).delete(anyString(), any());
+
+        presenceService.sessionDisconnected(staffId, "s2");
+        verify(hashOperations).delete(eq("ws:presence:" + staffId), anyString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFindOnline_ShouldCountOnlyFreshHeartbeatsOfOtherInstances() {
+        UUID remoteStaff = UUID.randomUUID();
+        UUID crashedNodeStaff = UUID.randomUUID();
+        long now = System.currentTimeMillis();
+        when(stringRedisTemplate.executePipelined(any(RedisCallback.class))).thenReturn(List.of(
+                Map.of("node-b", String.valueOf(now)),
+                Map.of("node-c", String.valueOf(now - Duration.ofMinutes(5).toMillis()))));
+
+        Set<UUID> online = presenceService.findOnline(List.of(remoteStaff, crashedNodeStaff));
+
+        assertEquals(Set.of(remoteStaff), online);
+    }
+
+    @Test
+    void testClusterDisabled_ShouldNotTouchRedis() {
+        WebSocketPresenceServiceImpl local = new WebSocketPresenceServiceImpl(stringRedisTemplate, false, Duration.ofSeconds(45));
+        local.sessionConnected(staffId, "s1");
+
+        assertEquals(Set.of(staffId), local.findOnline(List.of(staffId, UUID.randomUUID())));
+        local.sessionDisconnected(staffId, "s1");
+        assertFalse(local.isOnline(staffId));
+        verifyNoInteractions(stringRedisTemplate);
+    }
+}